@@ -8,13 +8,17 @@ import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.ProxyServer;
 import net.rafalohaki.veloauth.cache.AuthCache;
+import net.rafalohaki.veloauth.cache.CacheSnapshot;
 import net.rafalohaki.veloauth.command.CommandHandler;
+import net.rafalohaki.veloauth.command.InFlightCommandGuard;
+import net.rafalohaki.veloauth.command.PasswordHasher;
 import net.rafalohaki.veloauth.config.Settings;
 import net.rafalohaki.veloauth.connection.ConnectionManager;
 import net.rafalohaki.veloauth.database.DatabaseConfig;
 import net.rafalohaki.veloauth.database.DatabaseManager;
 import net.rafalohaki.veloauth.database.DatabaseType;
 import net.rafalohaki.veloauth.database.HikariConfigParams;
+import net.rafalohaki.veloauth.database.QueryLane;
 import net.rafalohaki.veloauth.exception.VeloAuthException;
 import net.rafalohaki.veloauth.i18n.Messages;
 import net.rafalohaki.veloauth.listener.AuthListener;
@@ -26,6 +30,8 @@ import net.rafalohaki.veloauth.util.VirtualThreadExecutorProvider;
 import org.bstats.velocity.Metrics;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 
@@ -72,6 +78,9 @@ public class VeloAuth {
     private AuthListener authListener;
     private PremiumResolverService premiumResolverService;
 
+    // Snapshot cache wczytany przy starcie - sekcja resolvera odtwarzana po jego inicjalizacji
+    private CacheSnapshot startupSnapshot;
+
     // Status pluginu
     // CRITICAL: This flag protects against early connections during initialization
     // - Starts as FALSE to block connections
@@ -193,9 +202,10 @@ public class VeloAuth {
         if (databaseManager != null) {
             databaseManager.clearCache();
         }
-        if (authCache != null) {
+        if (authCache != null && startupSnapshot == null) {
             authCache.clearAll();
         }
+        startupSnapshot = null;
 
         // Initialize bStats metrics
         metricsFactory.make(this, BSTATS_PLUGIN_ID);
@@ -315,7 +325,17 @@ public class VeloAuth {
         long startTime = System.currentTimeMillis();
         
         DatabaseConfig dbConfig = createDatabaseConfig();
-        databaseManager = new DatabaseManager(dbConfig, messages);
+        databaseManager = new DatabaseManager(dbConfig, messages,
+                settings.getCacheTtlMinutes(), settings.getCacheMaxSize());
+        databaseManager.enableLookupBatching(settings.getDatabaseLookupBatchWindowMicros(),
+                settings.getDatabaseLookupBatchMaxSize());
+        databaseManager.enableLoginWriteBehind(settings.getDatabaseLoginWriteBehindMillis(),
+                settings.getDatabaseLoginWriteBehindBatchSize());
+        databaseManager.setStreamFetchSize(settings.getDatabaseStreamFetchSize());
+        databaseManager.setReplicaMaxLagMillis(settings.getDatabaseReplicaMaxLagMillis());
+        databaseManager.setSlowQueryThresholdMillis(settings.getDatabaseSlowQueryThresholdMillis());
+        databaseManager.configureQueryLanes(toQueryLaneLimits(settings.getHotQueryLane()),
+                toQueryLaneLimits(settings.getWriteQueryLane()), toQueryLaneLimits(settings.getAdminQueryLane()));
 
         boolean dbInitialized = databaseManager.initialize().join();
         if (!dbInitialized) {
@@ -349,6 +369,8 @@ public class VeloAuth {
                 messages
         );
         
+        restoreCacheSnapshot();
+
         // Set AuthCache reference in DatabaseManager for cache invalidation coordination
         if (databaseManager != null) {
             databaseManager.setAuthCacheReference(authCache);
@@ -368,6 +390,9 @@ public class VeloAuth {
         long startTime = System.currentTimeMillis();
         
         commandHandler = new CommandHandler(this, databaseManager, authCache, settings, messages);
+        if (settings.isBcryptAutoCalibrate()) {
+            commandHandler.calibrateBcryptCost();
+        }
         commandHandler.registerCommands();
         
         logger.debug("✅ Commands registered in {} ms", System.currentTimeMillis() - startTime);
@@ -391,6 +416,10 @@ public class VeloAuth {
         long startTime = System.currentTimeMillis();
         
         premiumResolverService = new PremiumResolverService(logger, settings, databaseManager.getPremiumUuidDao());
+        if (startupSnapshot != null) {
+            int restored = premiumResolverService.restoreSnapshot(startupSnapshot);
+            logger.debug("Premium resolver cache restored from snapshot: {} entries", restored);
+        }
         
         logger.debug("✅ Premium resolver initialized in {} ms (Enabled: {})", 
                 System.currentTimeMillis() - startTime, 
@@ -450,6 +479,10 @@ public class VeloAuth {
         }
     }
 
+    private static QueryLane.Limits toQueryLaneLimits(Settings.QueryLaneSettings lane) {
+        return new QueryLane.Limits(lane.getMaxConcurrent(), lane.getMaxQueued(), lane.getTimeoutMillis());
+    }
+
     /**
      * Creates database configuration from settings.
      * Uses HikariCP for remote databases (MySQL, PostgreSQL).
@@ -476,6 +509,9 @@ public class VeloAuth {
                             .connectionParameters(settings.getDatabaseConnectionParameters())
                             .postgreSQLSettings(settings.getPostgreSQLSettings())
                             .debugEnabled(settings.isDebugEnabled())
+                            .replicaHostname(settings.getDatabaseReplicaHostname())
+                            .replicaPort(settings.getDatabaseReplicaPort())
+                            .replicaConnectionPoolSize(settings.getDatabaseReplicaConnectionPoolSize())
                             .build()
             );
         }
@@ -507,6 +543,11 @@ public class VeloAuth {
             // 3. Czekaj na pending operacje (timeout 2 sekundy)
             waitForPendingOperations();
 
+            if (commandHandler != null) {
+                commandHandler.shutdown();
+                logger.debug("Pula BCrypt zamknięta");
+            }
+
             // 4. Zamknij komponenty w odwrotnej kolejności
             if (connectionManager != null) {
                 connectionManager.shutdown();
@@ -514,6 +555,7 @@ public class VeloAuth {
             }
 
             if (authCache != null) {
+                saveCacheSnapshot();
                 authCache.shutdown();
                 logger.debug("AuthCache zamknięty");
             }
@@ -535,6 +577,56 @@ public class VeloAuth {
         }
     }
 
+    /**
+     * Wczytuje snapshot cache z poprzedniego zamknięcia (memory-mapped) i odtwarza AuthCache.
+     * Plik jest usuwany po odczycie, żeby po awarii nie wczytać nieaktualnego stanu ponownie.
+     */
+    private void restoreCacheSnapshot() {
+        Path file = dataDirectory.resolve(CacheSnapshot.FILE_NAME);
+        if (!settings.isCacheSnapshotEnabled() || !Files.exists(file)) {
+            return;
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            startupSnapshot = CacheSnapshot.read(file);
+            int restored = authCache.restoreSnapshot(startupSnapshot);
+            if (logger.isInfoEnabled()) {
+                logger.info("Warm restart: restored {} cache entries from snapshot ({} s old) in {} ms",
+                        restored, (startTime - startupSnapshot.getCreatedAt()) / 1000,
+                        System.currentTimeMillis() - startTime);
+            }
+        } catch (IOException e) {
+            startupSnapshot = null;
+            logger.warn("Ignoring cache snapshot {}: {}", file, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.debug("Could not delete cache snapshot {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Zapisuje AuthCache i cache premium resolvera do snapshotu przed zamknięciem.
+     */
+    private void saveCacheSnapshot() {
+        if (settings == null || !settings.isCacheSnapshotEnabled()) {
+            return;
+        }
+        try {
+            CacheSnapshot snapshot = new CacheSnapshot();
+            authCache.exportSnapshot(snapshot);
+            if (premiumResolverService != null) {
+                premiumResolverService.exportSnapshot(snapshot);
+            }
+            snapshot.write(dataDirectory.resolve(CacheSnapshot.FILE_NAME));
+            logger.debug("Cache snapshot saved: {} entries", snapshot.size());
+        } catch (IOException e) {
+            logger.warn("Failed to save cache snapshot", e);
+        }
+    }
+
     private void logStartupInfo(long initializationDuration) {
         if (logger.isInfoEnabled()) {
             logger.info("PicoLimbo server '{}' found at default configuration", settings.getPicoLimboServerName());
@@ -661,6 +753,24 @@ public class VeloAuth {
         return connectionManager;
     }
 
+    /**
+     * Zwraca pulę BCrypt komend.
+     *
+     * @return PasswordHasher lub null przed rejestracją komend
+     */
+    public PasswordHasher getPasswordHasher() {
+        return commandHandler != null ? commandHandler.getPasswordHasher() : null;
+    }
+
+    /**
+     * Zwraca strażnika trwających komend autoryzacji.
+     *
+     * @return InFlightCommandGuard lub null przed rejestracją komend
+     */
+    public InFlightCommandGuard getInFlightCommandGuard() {
+        return commandHandler != null ? commandHandler.getInFlightCommandGuard() : null;
+    }
+
     /**
      * Sprawdza czy plugin jest zainicjalizowany.
      *
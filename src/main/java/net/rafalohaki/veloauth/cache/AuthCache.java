@@ -15,6 +15,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -26,6 +27,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * - Próby brute force (IP -> liczba prób)
  * - Premium graczy (nickname -> premium status)
  * - Aktywne sesje (UUID -> ActiveSession)
+ * - Konteksty autoryzacji połączeń (nickname -> ConnectionAuthContext)
  * 
  * <h2>Cache Invalidation Strategy</h2>
  * <p>
@@ -34,7 +36,7 @@ import java.util.concurrent.locks.ReentrantLock;
  *   <li><b>Automatic Invalidation</b> - {@link #invalidatePlayerData(UUID)} is called by
  *       DatabaseManager after successful player data updates (password change, premium status change)</li>
  *   <li><b>TTL-based Expiration</b> - Entries expire based on configured TTL and are removed
- *       during periodic cleanup or on access</li>
+ *       by the expiry timing wheel (1 s tick) or on access</li>
  *   <li><b>Manual Invalidation</b> - {@link #removeAuthorizedPlayer(UUID)} for explicit removal</li>
  *   <li><b>Session Preservation</b> - Invalidation removes cached data but preserves active sessions
  *       to avoid disconnecting players during data updates</li>
@@ -46,10 +48,13 @@ import java.util.concurrent.locks.ReentrantLock;
  *   <li><b>premiumCache</b> - On TTL expiration (24h), manual removal, or LRU eviction</li>
  *   <li><b>bruteForceAttempts</b> - On timeout expiration, successful login, or manual reset</li>
  *   <li><b>activeSessions</b> - On player disconnect, session hijacking detection, or inactivity</li>
+ *   <li><b>connectionContexts</b> - Refreshed on player data update; removed on account deletion,
+ *       password change (all sessions ended), disconnect, or when never bound by PostLogin</li>
  * </ul>
  * <p>
- * UWAGA: 757 linii jest uzasadnione - zarządzanie 4 różnymi typami cache
- * z odrębnymi wymaganiami (różne TTL, harmonogramy czyszczenia, metryki)
+ * UWAGA: rozmiar klasy jest uzasadniony - zarządzanie 5 różnymi typami cache
+ * (autoryzacje, brute force z limitem podsieci, premium, sesje, konteksty połączeń)
+ * z odrębnymi wymaganiami (różne TTL, limity LRU, wspólne koło wygasania, metryki)
  * wymaga znaczącej ilości kodu. Nie jest to overengineering.
  */
 public class AuthCache {
@@ -57,6 +62,37 @@ public class AuthCache {
     private static final Logger logger = LoggerFactory.getLogger(AuthCache.class);
     private static final Marker SECURITY_MARKER = MarkerFactory.getMarker("SECURITY");
 
+    /**
+     * Długość ticku i rozmiar koła wygasania - 1s * 512 kubełków.
+     */
+    private static final long EXPIRY_TICK_MILLIS = 1000L;
+    private static final int EXPIRY_WHEEL_SIZE = 512;
+
+    /**
+     * Timeout bezczynności sesji używany przy automatycznym wygasaniu.
+     */
+    private static final int SESSION_IDLE_TIMEOUT_MINUTES = 60;
+
+    /**
+     * Maksymalna liczba śledzonych podsieci dla brute force (twardy limit pamięci).
+     */
+    private static final int MAX_TRACKED_SUBNETS = 65536;
+
+    /**
+     * Górna granica wstępnej alokacji packed session store - dalej tabela rośnie sama.
+     */
+    private static final int MAX_PREALLOCATED_SESSIONS = 65536;
+
+    /**
+     * Czas życia kontekstu połączenia, który nie został przypisany w PostLogin (odrzucony lub przerwany login).
+     */
+    private static final long PENDING_CONTEXT_TTL_MILLIS = 60_000L;
+
+    /**
+     * Liczba pasków generacji kontekstów połączeń.
+     */
+    private static final int CONTEXT_GENERATION_STRIPES = 64;
+
     /**
      * Cache autoryzowanych graczy - ZAWSZE ConcurrentHashMap dla thread-safety.
      */
@@ -74,8 +110,9 @@ public class AuthCache {
 
     /**
      * Aktywne sesje graczy - zapobiega session hijacking.
+     * Implementacja z cache.session-store: map (ConcurrentHashMap) lub packed (prymitywne tablice).
      */
-    private final ConcurrentHashMap<UUID, ActiveSession> activeSessions;
+    private final SessionStore activeSessions;
 
     /**
      * Concurrent sessions tracking by username (lowercase) - prevents account sharing.
@@ -83,6 +120,45 @@ public class AuthCache {
      */
     private final ConcurrentHashMap<String, java.util.Set<UUID>> activeSessionsByUsername;
 
+    /**
+     * Konteksty autoryzacji połączeń (lowercase nickname -> kontekst) - od PreLogin do disconnect.
+     * Klucz po nicku, bo UUID gracza offline nie jest znany w PreLogin, a Velocity dopuszcza
+     * jedno połączenie na nick; przypisanie do UUID następuje w PostLogin.
+     */
+    private final ConcurrentHashMap<String, ConnectionAuthContext> connectionContexts;
+
+    /**
+     * Generacje kontekstów paskowane po nicku - zmiana konta podbija generację, więc lookup
+     * rozpoczęty przed zapisem/usunięciem nie nadpisze kontekstu nieaktualnymi danymi.
+     */
+    private final AtomicLongArray contextGenerations;
+
+    /**
+     * Indeksy LRU (access-order) - O(1) wybór ofiary przy przepełnieniu zamiast skanowania mapy.
+     */
+    private final BoundedLruIndex<UUID> authorizedOrder;
+    private final BoundedLruIndex<UUID> sessionOrder;
+    private final BoundedLruIndex<String> premiumOrder;
+
+    /**
+     * Timing wheel - każdy wpis planuje swoje wygaśnięcie przy wstawieniu,
+     * czyszczenie nie wymaga globalnego locka ani skanowania map.
+     */
+    private final ExpiryTimingWheel expiryWheel;
+
+    /**
+     * Uchwyty zadań wygaśnięcia per klucz - zastąpienie lub usunięcie wpisu anuluje jego zadanie,
+     * więc koło trzyma najwyżej jedno zadanie na żywy wpis.
+     */
+    private final ConcurrentHashMap<UUID, ExpiryTimingWheel.Timeout> authorizedExpiries;
+    private final ConcurrentHashMap<String, ExpiryTimingWheel.Timeout> premiumExpiries;
+    private final ConcurrentHashMap<UUID, ExpiryTimingWheel.Timeout> sessionExpiries;
+
+    /**
+     * Licznik nieudanych logowań per podsieć (/24, /64) - null gdy wyłączony w konfiguracji.
+     */
+    private final net.rafalohaki.veloauth.command.SubnetRateLimiter subnetFailures;
+
     /**
      * Maximum concurrent sessions per player.
      */
@@ -160,6 +236,9 @@ public class AuthCache {
 
     /**
      * Configuration parameters for AuthCache.
+     * <p>
+     * {@code cleanupIntervalMinutes} is deprecated: expiry runs on a fixed 1 s timing wheel tick,
+     * the value only enables ({@code > 0}) or disables ({@code <= 0}) automatic expiry.
      */
     public record AuthCacheConfig(
         int ttlMinutes,
@@ -205,8 +284,25 @@ public class AuthCache {
         this.authorizedPlayers = new ConcurrentHashMap<>();
         this.bruteForceAttempts = new ConcurrentHashMap<>();
         this.premiumCache = new ConcurrentHashMap<>();
-        this.activeSessions = new ConcurrentHashMap<>();
+        this.activeSessions = settings.isPackedSessionStore()
+                ? new PackedSessionStore(Math.min(maxSessions, MAX_PREALLOCATED_SESSIONS))
+                : new MapSessionStore();
         this.activeSessionsByUsername = new ConcurrentHashMap<>();
+        this.connectionContexts = new ConcurrentHashMap<>();
+        this.contextGenerations = new AtomicLongArray(CONTEXT_GENERATION_STRIPES);
+        this.authorizedOrder = new BoundedLruIndex<>(maxSize);
+        this.sessionOrder = new BoundedLruIndex<>(maxSessions);
+        this.premiumOrder = new BoundedLruIndex<>(maxPremiumCache);
+        this.expiryWheel = new ExpiryTimingWheel(EXPIRY_TICK_MILLIS, EXPIRY_WHEEL_SIZE, System.currentTimeMillis());
+        this.authorizedExpiries = new ConcurrentHashMap<>();
+        this.premiumExpiries = new ConcurrentHashMap<>();
+        this.sessionExpiries = new ConcurrentHashMap<>();
+        this.subnetFailures = settings.isSubnetLimitEnabled()
+                ? new net.rafalohaki.veloauth.command.SubnetRateLimiter(null,
+                        settings.getSubnetIpv4Prefix(), settings.getSubnetIpv6Prefix(),
+                        maxLoginAttempts * settings.getSubnetLimitMultiplier(),
+                        bruteForceTimeoutMinutes, MAX_TRACKED_SUBNETS)
+                : null;
 
         // ReentrantLock zamiast synchronized (nie pina virtual threads)
         this.cacheLock = new ReentrantLock();
@@ -225,14 +321,15 @@ public class AuthCache {
             return t;
         });
 
-        // Uruchom czyszczenie co określony interwał
+        // Uruchom przesuwanie timing wheel co tick (1s). cleanupIntervalMinutes jest już tylko przełącznikiem:
+        // <= 0 wyłącza automatyczne wygasanie (testy), wartość dodatnia nie zmienia częstotliwości
         if (config.cleanupIntervalMinutes() > 0) {
             // skipcq: JAVA-W1087 - Periodic scheduled task, fire-and-forget
             cleanupScheduler.scheduleAtFixedRate(
-                    this::cleanupExpiredEntries,
-                    config.cleanupIntervalMinutes(),
-                    config.cleanupIntervalMinutes(),
-                    TimeUnit.MINUTES
+                    this::advanceExpiryWheel,
+                    EXPIRY_TICK_MILLIS,
+                    EXPIRY_TICK_MILLIS,
+                    TimeUnit.MILLISECONDS
             );
         }
 
@@ -287,11 +384,9 @@ public class AuthCache {
             throw new IllegalArgumentException("UUID i user nie mogą być null");
         }
 
-        if (authorizedPlayers.size() >= maxSize && !authorizedPlayers.containsKey(uuid)) {
-            evictOldestAuthorizedEntryAtomic();
-        }
-
         authorizedPlayers.put(uuid, user);
+        evictAuthorizedEntry(authorizedOrder.admit(uuid));
+        scheduleAuthorizedExpiry(uuid, user);
         if (logger.isDebugEnabled()) {
             logger.debug(messages.get("cache.debug.auth.added"), user.getNickname(), uuid);
         }
@@ -342,6 +437,7 @@ public class AuthCache {
             return null;
         }
 
+        authorizedOrder.touch(uuid);
         cacheHits.incrementAndGet();
         logCacheMetrics("cache.debug.hit.rate");
         return user;
@@ -367,6 +463,7 @@ public class AuthCache {
     public void removeAuthorizedPlayer(UUID uuid) {
         if (uuid != null) {
             CachedAuthUser removed = authorizedPlayers.remove(uuid);
+            forgetAuthorized(uuid);
             if (removed != null && logger.isDebugEnabled()) {
                 logger.debug(messages.get("cache.debug.player.removed"),
                         removed.getNickname(), uuid);
@@ -408,6 +505,7 @@ public class AuthCache {
         CachedAuthUser user = authorizedPlayers.get(playerUuid);
         if (user != null) {
             authorizedPlayers.remove(playerUuid);
+            forgetAuthorized(playerUuid);
             if (logger.isDebugEnabled()) {
                 logger.debug("Invalidated cached data for player UUID: {} (nickname: {})", 
                         playerUuid, user.getNickname());
@@ -427,7 +525,9 @@ public class AuthCache {
             return;
         }
 
-        PremiumCacheEntry removed = premiumCache.remove(nickname.toLowerCase());
+        String key = nickname.toLowerCase();
+        PremiumCacheEntry removed = premiumCache.remove(key);
+        forgetPremium(key);
         if (removed != null && logger.isDebugEnabled()) {
             logger.debug(messages.get("cache.debug.premium.removed"),
                     nickname, removed.isPremium());
@@ -447,14 +547,13 @@ public class AuthCache {
         }
 
         String key = nickname.toLowerCase();
-        if (premiumCache.size() >= maxPremiumCache && !premiumCache.containsKey(key)) {
-            evictOldestPremiumEntryAtomic();
-        }
 
         // Calculate TTL from config (in hours)
         long ttl = TimeUnit.HOURS.toMillis(premiumTtlHours);
         PremiumCacheEntry entry = new PremiumCacheEntry(premiumUuid != null, premiumUuid, ttl, premiumRefreshThreshold);
         premiumCache.put(key, entry);
+        evictPremiumEntry(premiumOrder.admit(key));
+        schedulePremiumExpiry(key, entry);
 
         if (logger.isDebugEnabled()) {
             logger.debug("{} | nickname: {}, premium entry: {}, TTL: {}h, threshold: {}",
@@ -468,6 +567,8 @@ public class AuthCache {
 
     /**
      * Rejestruje nieudaną próbę logowania.
+     * Lock-free: licznik prób i początek okna są spakowane w jednym long per IP (CAS),
+     * więc nieudane logowania z różnych IP nie konkurują o wspólny lock.
      *
      * @param address IP adres
      * @return true jeśli przekroczono limit prób
@@ -478,38 +579,42 @@ public class AuthCache {
         }
 
         try {
-            cacheLock.lock();
-            try {
-                BruteForceEntry entry = bruteForceAttempts.computeIfAbsent(
-                        address,
-                        k -> new BruteForceEntry()
-                );
-
-                // Sprawdź czy timeout już minął
-                if (entry.isExpired(bruteForceTimeoutMinutes)) {
-                    entry.reset();
-                }
-
-                entry.incrementAttempts();
-
-                boolean blocked = entry.getAttempts() >= maxLoginAttempts;
-                if (blocked) {
-                    if (logger.isWarnEnabled()) {
-                        logger.warn(messages.get("cache.warn.ip.blocked"),
-                                address.getHostAddress(), entry.getAttempts());
-                    }
-                } else {
-                    if (logger.isDebugEnabled()) {
-                        logger.debug(messages.get("cache.debug.failed.login"),
-                                address.getHostAddress(), entry.getAttempts(), maxLoginAttempts);
+            long now = System.currentTimeMillis();
+            long timeoutMillis = TimeUnit.MINUTES.toMillis(bruteForceTimeoutMinutes);
+            int attempts;
+            BruteForceEntry entry;
+            do {
+                entry = bruteForceAttempts.get(address);
+                if (entry == null) {
+                    BruteForceEntry created = new BruteForceEntry(now);
+                    entry = bruteForceAttempts.putIfAbsent(address, created);
+                    if (entry == null) {
+                        entry = created;
+                        scheduleBruteForceExpiry(address, created);
                     }
                 }
-
-                return blocked;
-
-            } finally {
-                cacheLock.unlock();
+                attempts = entry.recordFailure(now, timeoutMillis);
+                // Wpis usunięty równolegle (reset/wygaśnięcie) - zapisz próbę w nowym wpisie
+            } while (bruteForceAttempts.get(address) != entry);
+
+            boolean blocked = attempts >= maxLoginAttempts;
+            if (subnetFailures != null) {
+                subnetFailures.incrementAttempts(address);
+                blocked |= subnetFailures.isSubnetLimited(address);
             }
+            if (blocked) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn(messages.get("cache.warn.ip.blocked"),
+                            address.getHostAddress(), attempts);
+                }
+            } else {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(messages.get("cache.debug.failed.login"),
+                            address.getHostAddress(), attempts, maxLoginAttempts);
+                }
+            }
+
+            return blocked;
 
         } catch (IllegalStateException e) {
             logger.error(messages.get("cache.error.state.register_failed") + address, e);
@@ -531,6 +636,10 @@ public class AuthCache {
             return false;
         }
 
+        if (subnetFailures != null && subnetFailures.isSubnetLimited(address)) {
+            return true;
+        }
+
         BruteForceEntry entry = bruteForceAttempts.get(address);
         if (entry == null) {
             return false;
@@ -538,7 +647,7 @@ public class AuthCache {
 
         // Sprawdź czy timeout już minął
         if (entry.isExpired(bruteForceTimeoutMinutes)) {
-            bruteForceAttempts.remove(address);
+            bruteForceAttempts.remove(address, entry);
             return false;
         }
 
@@ -581,6 +690,7 @@ public class AuthCache {
         // Check if entry is expired using new TTL-based method
         if (entry.isExpired()) {
             premiumCache.remove(key);
+            forgetPremium(key);
             if (logger.isDebugEnabled()) {
                 logger.debug("Premium cache entry expired for {} (age: {}ms, TTL: {}ms)", 
                         nickname, entry.getAgeMillis(), entry.getTtlMillis());
@@ -588,6 +698,7 @@ public class AuthCache {
             return null;
         }
 
+        premiumOrder.touch(key);
         return entry;
     }
 
@@ -615,6 +726,17 @@ public class AuthCache {
                 bruteForceAttempts.clear();
                 premiumCache.clear();
                 activeSessions.clear();
+                authorizedOrder.clear();
+                premiumOrder.clear();
+                sessionOrder.clear();
+                expiryWheel.clear();
+                authorizedExpiries.clear();
+                premiumExpiries.clear();
+                sessionExpiries.clear();
+                clearConnectionContexts();
+                if (subnetFailures != null) {
+                    subnetFailures.clearAll();
+                }
                 if (logger.isDebugEnabled()) {
                     logger.debug(messages.get("cache.all_cleared"));
                 }
@@ -628,6 +750,86 @@ public class AuthCache {
         }
     }
 
+    /**
+     * Eksportuje autoryzacje, premium cache i aktywne sesje do snapshotu (warm restart).
+     *
+     * @param snapshot docelowy snapshot
+     */
+    public void exportSnapshot(CacheSnapshot snapshot) {
+        authorizedPlayers.forEach((uuid, user) -> snapshot.addAuthorized(new CacheSnapshot.AuthorizedEntry(
+                uuid, user.getNickname(), user.getLoginIp(), user.getCacheTime(), user.getLoginTime(),
+                user.isPremium(), user.getPremiumUuid())));
+        premiumCache.forEach((key, entry) -> snapshot.addPremium(new CacheSnapshot.PremiumEntry(
+                key, entry.isPremium(), entry.getPremiumUuid(), entry.getTimestamp(), entry.getTtlMillis())));
+        activeSessions.forEach((uuid, nickname, ip, startTime, lastActivityTime) -> snapshot.addSession(
+                new CacheSnapshot.SessionEntry(uuid, nickname, ip, startTime, lastActivityTime)));
+    }
+
+    /**
+     * Odtwarza cache ze snapshotu. Wpisy, których TTL minął od zapisu, są pomijane,
+     * a pozostałe wygasają według pierwotnych znaczników czasu.
+     *
+     * @param snapshot wczytany snapshot
+     * @return liczba odtworzonych wpisów
+     */
+    public int restoreSnapshot(CacheSnapshot snapshot) {
+        long now = System.currentTimeMillis();
+        int restored = 0;
+
+        long ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        for (CacheSnapshot.AuthorizedEntry e : snapshot.getAuthorized()) {
+            if (e.cacheTime() <= now && (ttlMinutes <= 0 || now - e.cacheTime() < ttlMillis)) {
+                addAuthorizedPlayer(e.uuid(), new CachedAuthUser(e.uuid(), e.nickname(), e.loginIp(),
+                        e.loginTime(), e.premium(), e.premiumUuid(), e.cacheTime()));
+                restored++;
+            }
+        }
+
+        for (CacheSnapshot.PremiumEntry e : snapshot.getPremium()) {
+            if (e.timestamp() <= now && now - e.timestamp() <= e.ttlMillis()) {
+                PremiumCacheEntry entry = new PremiumCacheEntry(e.premium(), e.premiumUuid(),
+                        e.timestamp(), e.ttlMillis(), premiumRefreshThreshold);
+                premiumCache.put(e.key(), entry);
+                evictPremiumEntry(premiumOrder.admit(e.key()));
+                schedulePremiumExpiry(e.key(), entry);
+                restored++;
+            }
+        }
+
+        long idleMillis = TimeUnit.MINUTES.toMillis(SESSION_IDLE_TIMEOUT_MINUTES);
+        for (CacheSnapshot.SessionEntry e : snapshot.getSessions()) {
+            if (e.lastActivityTime() <= now && now - e.lastActivityTime() < idleMillis
+                    && restoreSession(e.uuid(), e.nickname(), e.ip(), e.lastActivityTime())) {
+                restored++;
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Snapshot: odtworzono {} z {} wpisów cache", restored,
+                    snapshot.getAuthorized().size() + snapshot.getPremium().size() + snapshot.getSessions().size());
+        }
+        return restored;
+    }
+
+    /**
+     * Odtwarza sesję z zachowaniem czasu ostatniej aktywności, bez logów audytu startu sesji.
+     */
+    private boolean restoreSession(UUID uuid, String nickname, String ip, long lastActivity) {
+        if (uuid == null || nickname == null || ip == null) {
+            return false;
+        }
+        java.util.Set<UUID> sessions = activeSessionsByUsername.computeIfAbsent(
+            nickname.toLowerCase(java.util.Locale.ROOT), k -> ConcurrentHashMap.newKeySet());
+        if (sessions.size() >= maxConcurrentSessions && !sessions.contains(uuid)) {
+            return false;
+        }
+        long stamp = activeSessions.start(uuid, nickname, ip, lastActivity);
+        sessions.add(uuid);
+        evictSession(sessionOrder.admit(uuid), uuid);
+        scheduleSessionExpiry(uuid, stamp, lastActivity);
+        return true;
+    }
+
     /**
      * Rozpoczyna aktywną sesję gracza - zapobiega session hijacking.
      * 
@@ -659,13 +861,10 @@ public class AuthCache {
             return false;
         }
 
-        if (activeSessions.size() >= maxSessions && !activeSessions.containsKey(uuid)) {
-            evictOldestSessionAtomic();
-        }
-
-        ActiveSession session = new ActiveSession(uuid, nickname, ip);
-        activeSessions.put(uuid, session);
+        long stamp = activeSessions.start(uuid, nickname, ip, System.currentTimeMillis());
         sessions.add(uuid);
+        evictSession(sessionOrder.admit(uuid), uuid);
+        scheduleSessionExpiry(uuid, stamp, System.currentTimeMillis());
         
         // Log audit event
         net.rafalohaki.veloauth.audit.AuditLogger.logSessionStart(nickname, uuid, ip);
@@ -684,25 +883,14 @@ public class AuthCache {
             return;
         }
 
-        ActiveSession removed = activeSessions.remove(uuid);
+        String removed = removeSessionEntry(uuid);
         if (removed != null) {
-            // Remove from username tracking
-            String lowercaseNickname = removed.getNickname().toLowerCase(java.util.Locale.ROOT);
-            java.util.Set<UUID> sessions = activeSessionsByUsername.get(lowercaseNickname);
-            if (sessions != null) {
-                sessions.remove(uuid);
-                // Clean up empty sets
-                if (sessions.isEmpty()) {
-                    activeSessionsByUsername.remove(lowercaseNickname);
-                }
-            }
-            
             // Log audit event
             net.rafalohaki.veloauth.audit.AuditLogger.logSessionEnd(
-                removed.getNickname(), uuid, "normal_disconnect");
+                removed, uuid, "normal_disconnect");
             
             if (logger.isDebugEnabled()) {
-                logger.debug(messages.get("cache.debug.session.ended"), removed.getNickname(), uuid);
+                logger.debug(messages.get("cache.debug.session.ended"), removed, uuid);
             }
         }
     }
@@ -719,6 +907,7 @@ public class AuthCache {
             return java.util.Collections.emptyList();
         }
 
+        invalidateConnectionContext(username);
         String lowercaseNickname = username.toLowerCase(java.util.Locale.ROOT);
         java.util.Set<UUID> sessions = activeSessionsByUsername.remove(lowercaseNickname);
         
@@ -728,12 +917,13 @@ public class AuthCache {
 
         java.util.List<UUID> endedSessions = new java.util.ArrayList<>();
         for (UUID uuid : sessions) {
-            ActiveSession removed = activeSessions.remove(uuid);
+            String removed = activeSessions.end(uuid);
+            forgetSession(uuid);
             if (removed != null) {
                 endedSessions.add(uuid);
                 // Log audit event
                 net.rafalohaki.veloauth.audit.AuditLogger.logSessionEnd(
-                    removed.getNickname(), uuid, "all_sessions_invalidated");
+                    removed, uuid, "all_sessions_invalidated");
             }
         }
 
@@ -767,27 +957,26 @@ public class AuthCache {
         if (invalidSessionParams(uuid, nickname, currentIp)) {
             return false;
         }
-        ActiveSession session = activeSessions.get(uuid);
-        if (session == null) {
-            return false;
-        }
-        if (isNicknameMismatch(session, nickname, uuid)) {
-            return false;
-        }
-        if (isIpMismatch(session, currentIp, uuid)) {
-            return false;
-        }
-        // Check session timeout
-        if (!session.isActive(sessionTimeoutMinutes)) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Session timeout for player {} (UUID: {}) - last activity: {} minutes ago",
-                        nickname, uuid, (System.currentTimeMillis() - session.getLastActivityTime()) / 60000);
+        long timeoutMillis = sessionTimeoutMinutes * 60L * 1000L;
+        SessionStore.Check result = activeSessions.check(uuid, nickname, currentIp,
+                System.currentTimeMillis(), timeoutMillis);
+        switch (result) {
+            case ACTIVE -> sessionOrder.touch(uuid);
+            case NICKNAME_MISMATCH -> handleNicknameMismatch(nickname, uuid);
+            case IP_MISMATCH -> handleIpMismatch(currentIp, uuid);
+            case EXPIRED -> {
+                // Check session timeout
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Session timeout for player {} (UUID: {}) - inactive for over {} minutes",
+                            nickname, uuid, sessionTimeoutMinutes);
+                }
+                endSession(uuid);
+            }
+            default -> {
+                // MISSING - brak sesji
             }
-            endSession(uuid);
-            return false;
         }
-        session.updateActivity();
-        return true;
+        return result == SessionStore.Check.ACTIVE;
     }
 
     /**
@@ -805,28 +994,191 @@ public class AuthCache {
         return uuid == null || nickname == null || currentIp == null;
     }
 
-    private boolean isNicknameMismatch(ActiveSession session, String nickname, UUID uuid) {
-        if (session.getNickname().equalsIgnoreCase(nickname)) {
-            return false;
+    private void handleNicknameMismatch(String nickname, UUID uuid) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(SECURITY_MARKER, messages.get("security.session.hijack"), uuid, activeSessions.getNickname(uuid), nickname);
         }
+        activeSessions.end(uuid);
+        forgetSession(uuid);
+    }
+
+    private void handleIpMismatch(String currentIp, UUID uuid) {
         if (logger.isWarnEnabled()) {
-            logger.warn(SECURITY_MARKER, messages.get("security.session.hijack"), uuid, session.getNickname(), nickname);
+            logger.warn(SECURITY_MARKER, messages.get("security.session.ip.mismatch"), uuid, activeSessions.getIp(uuid), currentIp);
         }
-        activeSessions.remove(uuid);
-        return true;
+        activeSessions.end(uuid);
+        forgetSession(uuid);
+    }
+
+    /**
+     * Zwraca generację kontekstu dla nicku - odczytaj przed lookupem i przekaż do
+     * {@link #putConnectionContext(ConnectionAuthContext, long)}.
+     *
+     * @param username nickname gracza
+     * @return bieżąca generacja
+     */
+    public long connectionContextGeneration(String username) {
+        return contextGenerations.get(contextStripe(contextKey(username)));
     }
 
-    private boolean isIpMismatch(ActiveSession session, String currentIp, UUID uuid) {
-        if (session.getIp().equals(currentIp)) {
+    /**
+     * Zapisuje kontekst połączenia, o ile od odczytu generacji konto nie zostało zmienione ani usunięte.
+     * Nowe połączenie z tym samym nickiem zastępuje tylko kontekst nieprzypisany do gracza - kontekst
+     * zalogowanego gracza zostaje, a nowe połączenie korzysta z bazy, dopóki nie dostanie własnego.
+     *
+     * @param context    kontekst po zakończonym lookupie
+     * @param generation generacja odczytana przed lookupem
+     * @return true jeśli kontekst został zapisany
+     */
+    public boolean putConnectionContext(ConnectionAuthContext context, long generation) {
+        if (context == null || context.username() == null) {
             return false;
         }
-        if (logger.isWarnEnabled()) {
-            logger.warn(SECURITY_MARKER, messages.get("security.session.ip.mismatch"), uuid, session.getIp(), currentIp);
+        String key = contextKey(context.username());
+        if (connectionContexts.size() >= maxSessions && !connectionContexts.containsKey(key)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Connection context limit reached ({}) - {} will use database lookups",
+                        maxSessions, context.username());
+            }
+            return false;
+        }
+        int stripe = contextStripe(key);
+        ConnectionAuthContext stored = connectionContexts.compute(key,
+                (k, current) -> contextGenerations.get(stripe) == generation
+                        && !isBoundToOtherConnection(current, context) ? context : current);
+        if (stored != context) {
+            return false;
+        }
+        if (context.connectionUuid() == null) {
+            schedulePendingContextExpiry(key, context);
         }
-        activeSessions.remove(uuid);
         return true;
     }
 
+    private static boolean isBoundToOtherConnection(ConnectionAuthContext current, ConnectionAuthContext incoming) {
+        return current != null && current.connectionUuid() != null && !current.isBoundTo(incoming.connectionUuid());
+    }
+
+    /**
+     * Przypisuje kontekst z PreLogin do zalogowanego gracza.
+     *
+     * @param username nickname gracza
+     * @param uuid     UUID gracza
+     * @return kontekst przypisany do gracza lub null gdy brak kontekstu (albo należy do innego połączenia)
+     */
+    public ConnectionAuthContext bindConnectionContext(String username, UUID uuid) {
+        if (username == null || uuid == null) {
+            return null;
+        }
+        ConnectionAuthContext bound = connectionContexts.computeIfPresent(contextKey(username),
+                (k, current) -> current.connectionUuid() == null ? current.boundTo(uuid) : current);
+        return bound != null && bound.isBoundTo(uuid) ? bound : null;
+    }
+
+    /**
+     * @param username nickname gracza
+     * @param uuid     UUID gracza
+     * @return kontekst przypisany do tego gracza lub null
+     */
+    public ConnectionAuthContext getConnectionContext(String username, UUID uuid) {
+        if (username == null || uuid == null) {
+            return null;
+        }
+        ConnectionAuthContext context = connectionContexts.get(contextKey(username));
+        return context != null && context.isBoundTo(uuid) ? context : null;
+    }
+
+    /**
+     * Zapamiętuje udaną weryfikację UUID - kolejne zmiany serwera nie sprawdzają konta ponownie.
+     * Pomijane, jeśli konto w kontekście zostało w międzyczasie odświeżone.
+     *
+     * @param context kontekst, względem którego przeprowadzono weryfikację
+     * @param uuid    zweryfikowany UUID
+     */
+    public void markConnectionVerified(ConnectionAuthContext context, UUID uuid) {
+        if (context == null || uuid == null) {
+            return;
+        }
+        connectionContexts.computeIfPresent(contextKey(context.username()),
+                (k, current) -> current == context ? current.withVerifiedUuid(uuid) : current);
+    }
+
+    /**
+     * Podmienia konto w kontekście po zapisie w bazie (rejestracja, zmiana hasła, konflikt nicku).
+     * Wywoływane przez DatabaseManager - kontekst nie wymaga ponownego lookupu.
+     *
+     * @param account zapisane konto
+     */
+    public void refreshConnectionContext(net.rafalohaki.veloauth.model.RegisteredPlayer account) {
+        if (account == null || account.getNickname() == null) {
+            return;
+        }
+        String key = contextKey(account.getNickname());
+        int stripe = contextStripe(key);
+        connectionContexts.compute(key, (k, current) -> {
+            contextGenerations.incrementAndGet(stripe);
+            return current != null ? current.withAccount(account) : null;
+        });
+    }
+
+    /**
+     * Usuwa kontekst połączenia (usunięcie konta, zmiana hasła).
+     *
+     * @param username nickname gracza
+     */
+    public void invalidateConnectionContext(String username) {
+        if (username == null) {
+            return;
+        }
+        String key = contextKey(username);
+        int stripe = contextStripe(key);
+        connectionContexts.compute(key, (k, current) -> {
+            contextGenerations.incrementAndGet(stripe);
+            return null;
+        });
+    }
+
+    /**
+     * Usuwa kontekst przy disconnect - tylko jeśli należy do rozłączanego gracza,
+     * żeby nie usunąć kontekstu nowego połączenia z tym samym nickiem.
+     *
+     * @param username nickname gracza
+     * @param uuid     UUID rozłączanego gracza
+     */
+    public void removeConnectionContext(String username, UUID uuid) {
+        if (username == null || uuid == null) {
+            return;
+        }
+        connectionContexts.computeIfPresent(contextKey(username),
+                (k, current) -> current.isBoundTo(uuid) ? null : current);
+    }
+
+    private void clearConnectionContexts() {
+        connectionContexts.clear();
+        for (int i = 0; i < CONTEXT_GENERATION_STRIPES; i++) {
+            contextGenerations.incrementAndGet(i);
+        }
+    }
+
+    private static String contextKey(String username) {
+        return username.toLowerCase(java.util.Locale.ROOT);
+    }
+
+    private static int contextStripe(String key) {
+        return Math.floorMod(key.hashCode(), CONTEXT_GENERATION_STRIPES);
+    }
+
+    /**
+     * Planuje usunięcie kontekstu, który nie zostanie przypisany w PostLogin (odrzucony login).
+     * Przypisanie tworzy nową instancję, więc zadanie staje się no-op.
+     */
+    private void schedulePendingContextExpiry(String key, ConnectionAuthContext context) {
+        expiryWheel.schedule(context.createdAt() + PENDING_CONTEXT_TTL_MILLIS, now -> {
+            connectionContexts.remove(key, context);
+            return -1;
+        });
+    }
+
     /**
      * Logs cache metrics for monitoring.
      * Uses debug level for detailed diagnostics in development mode.
@@ -853,6 +1205,10 @@ public class AuthCache {
             logger.debug("Cache Performance: {} hits, {} misses, {}% hit rate",
                     stats.cacheHits(), stats.cacheMisses(), hitRateStr);
             logger.debug("Total Requests: {}", totalRequests);
+            ExpiryStats expiry = getExpiryStats();
+            logger.debug("Expiry Wheel: {} ticks, {} pending timeouts, {} ticks backlog, {} fired, last tick {}µs",
+                    expiry.ticks(), expiry.pendingTimeouts(), expiry.backlogTicks(),
+                    expiry.firedTimeouts(), expiry.lastTickNanos() / 1000);
 
             // Performance warnings still use info level as they're important
             if (hitRate < 80.0 && totalRequests > 100) {
@@ -872,44 +1228,182 @@ public class AuthCache {
     }
 
     /**
-     * Czyści wygasłe wpisy z cache.
+     * Przesuwa timing wheel - usuwa wpisy których termin minął w O(wygasłe).
+     * Wywoływane przez cleanupScheduler co tick.
      */
-    public void cleanupExpiredEntries() {
+    private void advanceExpiryWheel() {
         try {
-            cacheLock.lock();
-            try {
-                int removedAuth = cleanupCache(authorizedPlayers,
-                        entry -> !entry.getValue().isValid(ttlMinutes));
-                int removedBrute = cleanupCache(bruteForceAttempts,
-                        entry -> entry.getValue().isExpired(bruteForceTimeoutMinutes));
-                int removedPremium = cleanupCache(premiumCache,
-                        entry -> entry.getValue().isExpired());
-                int removedSessions = cleanupCache(activeSessions,
-                        entry -> !entry.getValue().isActive(60));
-
-                if (removedAuth > 0 || removedBrute > 0 || removedPremium > 0 || removedSessions > 0) {
-                    logger.debug("Cleanup: usunięto {} auth, {} brute force, {} premium, {} sessions",
-                            removedAuth, removedBrute, removedPremium, removedSessions);
-                }
+            int fired = expiryWheel.advance(System.currentTimeMillis());
+            if (fired > 0 && logger.isDebugEnabled()) {
+                logger.debug("Expiry wheel: przetworzono {} terminów wygaśnięcia", fired);
+            }
+        } catch (Exception e) {
+            logger.error("Błąd podczas przesuwania expiry wheel", e);
+        }
+    }
 
-            } finally {
-                cacheLock.unlock();
+    /**
+     * Pełne czyszczenie wygasłych wpisów (skan wszystkich map).
+     * Automatyczne wygasanie odbywa się przez timing wheel - ta metoda służy
+     * do ręcznego wymuszenia i nie blokuje globalnego locka (mapy są współbieżne).
+     */
+    public void cleanupExpiredEntries() {
+        try {
+            int removedAuth = cleanupCache(authorizedPlayers, this::forgetAuthorized,
+                    entry -> !entry.getValue().isValid(ttlMinutes));
+            int removedBrute = cleanupCache(bruteForceAttempts, null,
+                    entry -> entry.getValue().isExpired(bruteForceTimeoutMinutes));
+            int removedPremium = cleanupCache(premiumCache, this::forgetPremium,
+                    entry -> entry.getValue().isExpired());
+            int removedSessions = activeSessions.removeIdle(System.currentTimeMillis(),
+                    TimeUnit.MINUTES.toMillis(SESSION_IDLE_TIMEOUT_MINUTES), (uuid, nickname) -> {
+                        forgetSession(uuid);
+                        detachSessionFromUsername(uuid, nickname);
+                    });
+
+            if (removedAuth > 0 || removedBrute > 0 || removedPremium > 0 || removedSessions > 0) {
+                logger.debug("Cleanup: usunięto {} auth, {} brute force, {} premium, {} sessions",
+                        removedAuth, removedBrute, removedPremium, removedSessions);
             }
         } catch (Exception e) {
             logger.error("Błąd podczas czyszczenia cache", e);
         }
     }
 
+    /**
+     * Planuje wygaśnięcie wpisu autoryzacji (cacheTime + TTL).
+     * Zadanie jest no-op jeśli wpis został w międzyczasie zastąpiony lub usunięty.
+     */
+    private void scheduleAuthorizedExpiry(UUID uuid, CachedAuthUser user) {
+        if (ttlMinutes <= 0) {
+            return; // Nieskończony TTL
+        }
+        long ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        scheduleExpiry(authorizedExpiries, uuid, user.getCacheTime() + ttlMillis, now -> {
+            if (authorizedPlayers.get(uuid) != user) {
+                return -1;
+            }
+            if (user.isValid(ttlMinutes)) {
+                return user.getCacheTime() + ttlMillis;
+            }
+            if (authorizedPlayers.remove(uuid, user)) {
+                forgetAuthorized(uuid);
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * Planuje wygaśnięcie wpisu brute force. Reset okna przesuwa termin - zadanie planuje się ponownie.
+     */
+    private void scheduleBruteForceExpiry(InetAddress address, BruteForceEntry entry) {
+        long timeoutMillis = TimeUnit.MINUTES.toMillis(bruteForceTimeoutMinutes);
+        expiryWheel.schedule(entry.getFirstAttemptTime() + timeoutMillis + 1, now -> {
+            if (bruteForceAttempts.get(address) != entry) {
+                return -1;
+            }
+            if (!entry.isExpired(bruteForceTimeoutMinutes)) {
+                return entry.getFirstAttemptTime() + timeoutMillis + 1;
+            }
+            bruteForceAttempts.remove(address, entry);
+            return -1;
+        });
+    }
+
+    /**
+     * Planuje wygaśnięcie wpisu premium cache (timestamp + TTL).
+     */
+    private void schedulePremiumExpiry(String key, PremiumCacheEntry entry) {
+        long deadline = entry.getTimestamp() + entry.getTtlMillis() + 1;
+        scheduleExpiry(premiumExpiries, key, deadline, now -> {
+            if (premiumCache.get(key) != entry) {
+                return -1;
+            }
+            if (!entry.isExpired()) {
+                return deadline;
+            }
+            if (premiumCache.remove(key, entry)) {
+                forgetPremium(key);
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * Planuje wygaśnięcie nieaktywnej sesji. Aktywność gracza przesuwa termin -
+     * zadanie sprawdza lastActivityTime i planuje się ponownie.
+     */
+    private void scheduleSessionExpiry(UUID uuid, long stamp, long lastActivity) {
+        long idleMillis = TimeUnit.MINUTES.toMillis(SESSION_IDLE_TIMEOUT_MINUTES);
+        scheduleExpiry(sessionExpiries, uuid, lastActivity + idleMillis, now -> {
+            long current = activeSessions.lastActivity(uuid, stamp);
+            if (current == SessionStore.NO_SESSION) {
+                return -1;
+            }
+            if (now - current < idleMillis) {
+                return current + idleMillis;
+            }
+            String nickname = activeSessions.endIfCurrent(uuid, stamp);
+            if (nickname != null) {
+                forgetSession(uuid);
+                detachSessionFromUsername(uuid, nickname);
+            }
+            return -1;
+        });
+    }
+
+    /**
+     * Planuje zadanie wygaśnięcia i anuluje poprzednie zadanie tego klucza (wpis zastąpiony).
+     */
+    private <K> void scheduleExpiry(ConcurrentHashMap<K, ExpiryTimingWheel.Timeout> handles, K key,
+                                    long deadline, ExpiryTimingWheel.ExpiryTask task) {
+        ExpiryTimingWheel.Timeout previous = handles.put(key, expiryWheel.schedule(deadline, task));
+        if (previous != null) {
+            expiryWheel.cancel(previous);
+        }
+    }
+
+    /**
+     * Anuluje zadanie wygaśnięcia usuniętego wpisu. Jeśli klucz został w międzyczasie wstawiony
+     * ponownie, uchwyt należy już do nowego wpisu i zostaje nietknięty.
+     */
+    private <K> void releaseExpiry(ConcurrentHashMap<K, ExpiryTimingWheel.Timeout> handles, K key,
+                                   java.util.function.Predicate<K> present) {
+        handles.computeIfPresent(key, (k, timeout) -> {
+            if (present.test(k)) {
+                return timeout;
+            }
+            expiryWheel.cancel(timeout);
+            return null;
+        });
+    }
+
+    private void forgetAuthorized(UUID uuid) {
+        authorizedOrder.remove(uuid);
+        releaseExpiry(authorizedExpiries, uuid, authorizedPlayers::containsKey);
+    }
+
+    private void forgetPremium(String key) {
+        premiumOrder.remove(key);
+        releaseExpiry(premiumExpiries, key, premiumCache::containsKey);
+    }
+
+    private void forgetSession(UUID uuid) {
+        sessionOrder.remove(uuid);
+        releaseExpiry(sessionExpiries, uuid, id -> activeSessions.getNickname(id) != null);
+    }
+
     /**
      * Generic method to clean up cache entries based on a predicate.
      *
      * @param cache        The cache map to clean
+     * @param onRemoved    Called with the key of every removed entry, or null if nothing else tracks the map
      * @param shouldRemove Predicate to determine if entry should be removed
      * @param <K>          Key type
      * @param <V>          Value type
      * @return Number of removed entries
      */
-    private <K, V> int cleanupCache(java.util.Map<K, V> cache,
+    private <K, V> int cleanupCache(java.util.Map<K, V> cache, java.util.function.Consumer<K> onRemoved,
                                     java.util.function.Predicate<java.util.Map.Entry<K, V>> shouldRemove) {
         int removed = 0;
         var iterator = cache.entrySet().iterator();
@@ -917,6 +1411,9 @@ public class AuthCache {
             var entry = iterator.next();
             if (shouldRemove.test(entry)) {
                 iterator.remove();
+                if (onRemoved != null) {
+                    onRemoved.accept(entry.getKey());
+                }
                 removed++;
             }
         }
@@ -924,50 +1421,77 @@ public class AuthCache {
     }
 
     /**
-     * Czyści wygasłe wpisy z cache.
-     * Usuwa najstarszy wpis autoryzacji.
+     * Usuwa wpis autoryzacji wskazany przez indeks LRU (najdawniej używany).
+     *
+     * @param evicted klucz zwrócony przez {@link BoundedLruIndex#admit(Object)} lub null
      */
-    private void evictOldestAuthorizedEntryAtomic() {
-        var oldest = authorizedPlayers.entrySet().stream()
-                .min(java.util.Comparator.comparingLong(e -> e.getValue().getCacheTime()))
-                .orElse(null);
-        if (oldest != null) {
-            authorizedPlayers.remove(oldest.getKey(), oldest.getValue());
+    private void evictAuthorizedEntry(UUID evicted) {
+        if (evicted != null) {
+            authorizedPlayers.remove(evicted);
+            releaseExpiry(authorizedExpiries, evicted, authorizedPlayers::containsKey);
         }
     }
 
     /**
-     * Usuwa najstarszą aktywną sesję przy przekroczeniu limitu.
+     * Usuwa najdawniej używaną aktywną sesję przy przekroczeniu limitu.
+     *
+     * @param evicted klucz zwrócony przez indeks LRU lub null
+     * @param current UUID właśnie rozpoczynanej sesji (nigdy nie jest usuwany)
      */
-    private void evictOldestSessionAtomic() {
-        var oldest = activeSessions.entrySet().stream()
-                .min(java.util.Comparator.comparingLong(e -> e.getValue().getSessionStartTime()))
-                .orElse(null);
-        if (oldest != null) {
-            activeSessions.remove(oldest.getKey(), oldest.getValue());
+    private void evictSession(UUID evicted, UUID current) {
+        if (evicted != null && !evicted.equals(current)) {
+            removeSessionEntry(evicted);
         }
     }
 
     /**
-     * Usuwa najstarszy wpis premium cache przy przekroczeniu limitu (LRU eviction).
-     * Loguje eviction dla monitorowania.
+     * Usuwa sesję z mapy, indeksu LRU i śledzenia po nicku.
+     *
+     * @param uuid UUID gracza
+     * @return nickname usuniętej sesji lub null
      */
-    private void evictOldestPremiumEntryAtomic() {
-        var oldest = premiumCache.entrySet().stream()
-                .min(java.util.Comparator.comparingLong(e -> e.getValue().getTimestamp()))
-                .orElse(null);
-        if (oldest != null) {
-            String evictedKey = oldest.getKey();
-            PremiumCacheEntry evictedEntry = oldest.getValue();
-            premiumCache.remove(evictedKey, evictedEntry);
-            
-            if (logger.isDebugEnabled()) {
-                logger.debug("Premium cache LRU eviction: {} (age: {}ms, was premium: {})", 
-                        evictedKey, evictedEntry.getAgeMillis(), evictedEntry.isPremium());
+    private String removeSessionEntry(UUID uuid) {
+        String removed = activeSessions.end(uuid);
+        forgetSession(uuid);
+        if (removed != null) {
+            detachSessionFromUsername(uuid, removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Usuwa UUID sesji ze śledzenia po nicku (limit równoczesnych sesji).
+     */
+    private void detachSessionFromUsername(UUID uuid, String nickname) {
+        String lowercaseNickname = nickname.toLowerCase(java.util.Locale.ROOT);
+        java.util.Set<UUID> sessions = activeSessionsByUsername.get(lowercaseNickname);
+        if (sessions != null) {
+            sessions.remove(uuid);
+            // Clean up empty sets
+            if (sessions.isEmpty()) {
+                activeSessionsByUsername.remove(lowercaseNickname, sessions);
             }
         }
     }
 
+    /**
+     * Usuwa najdawniej używany wpis premium cache przy przekroczeniu limitu (LRU eviction).
+     * Loguje eviction dla monitorowania.
+     *
+     * @param evictedKey klucz zwrócony przez indeks LRU lub null
+     */
+    private void evictPremiumEntry(String evictedKey) {
+        if (evictedKey == null) {
+            return;
+        }
+        PremiumCacheEntry evictedEntry = premiumCache.remove(evictedKey);
+        releaseExpiry(premiumExpiries, evictedKey, premiumCache::containsKey);
+        if (evictedEntry != null && logger.isDebugEnabled()) {
+            logger.debug("Premium cache LRU eviction: {} (age: {}ms, was premium: {})",
+                    evictedKey, evictedEntry.getAgeMillis(), evictedEntry.isPremium());
+        }
+    }
+
     /**
      * Zamyka AuthCache i schedulery.
      */
@@ -1027,6 +1551,39 @@ public class AuthCache {
         );
     }
 
+    /**
+     * Zwraca metryki timing wheel wygasania wpisów.
+     *
+     * @return ExpiryStats z licznikami ticków i zaległości
+     */
+    public ExpiryStats getExpiryStats() {
+        return expiryWheel.stats(System.currentTimeMillis());
+    }
+
+    /**
+     * Metryki timing wheel.
+     *
+     * @param tickMillis          długość ticku w ms
+     * @param wheelSize           liczba kubełków
+     * @param ticks               liczba przetworzonych ticków
+     * @param pendingTimeouts     zaplanowane terminy oczekujące w kole (backlog)
+     * @param backlogTicks        liczba ticków opóźnienia względem zegara
+     * @param firedTimeouts       terminy które minęły i zostały obsłużone
+     * @param rescheduledTimeouts terminy przeplanowane (wpis odświeżony przed wygaśnięciem)
+     * @param lastTickNanos       czas trwania ostatniego przesunięcia koła w ns
+     */
+    public record ExpiryStats(
+            long tickMillis,
+            int wheelSize,
+            long ticks,
+            long pendingTimeouts,
+            long backlogTicks,
+            long firedTimeouts,
+            long rescheduledTimeouts,
+            long lastTickNanos
+    ) {
+    }
+
     /**
      * Statystyki cache z metrykami wydajności.
      */
@@ -1060,28 +1617,63 @@ public class AuthCache {
     }
 
     /**
-     * Wpis brute force.
+     * Wpis brute force - lock-free.
+     * <p>
+     * Stan to jeden long: górne 21 bitów = liczba prób, dolne 42 bity = początek okna (ms od epoki,
+     * wystarcza do roku 2109). Aktualizacja przez CAS, bez locka i bez alokacji.
      */
-    private static class BruteForceEntry {
-        private int attempts = 0;
-        private long firstAttemptTime = System.currentTimeMillis();
+    static final class BruteForceEntry {
+        private static final int TIME_BITS = 42;
+        private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+        private static final int MAX_ATTEMPTS = (int) ((1L << (Long.SIZE - 1 - TIME_BITS)) - 1);
+        private static final java.util.concurrent.atomic.AtomicLongFieldUpdater<BruteForceEntry> STATE =
+                java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater(BruteForceEntry.class, "state");
+
+        @SuppressWarnings("unused") // Aktualizowane przez AtomicLongFieldUpdater
+        private volatile long state;
 
-        public void incrementAttempts() {
-            attempts++;
+        BruteForceEntry(long now) {
+            this.state = pack(0, now);
         }
 
-        public int getAttempts() {
-            return attempts;
+        private static long pack(int attempts, long windowStart) {
+            return ((long) attempts << TIME_BITS) | (windowStart & TIME_MASK);
+        }
+
+        /**
+         * Rejestruje nieudaną próbę. Jeśli okno wygasło, zaczyna nowe od {@code now}.
+         *
+         * @param now           aktualny czas w ms
+         * @param timeoutMillis długość okna w ms
+         * @return liczba prób w bieżącym oknie (po inkrementacji)
+         */
+        int recordFailure(long now, long timeoutMillis) {
+            while (true) {
+                long current = state;
+                long windowStart = current & TIME_MASK;
+                int attempts = (int) (current >>> TIME_BITS);
+                if (now - windowStart > timeoutMillis) {
+                    windowStart = now;
+                    attempts = 0;
+                }
+                attempts = Math.min(attempts + 1, MAX_ATTEMPTS);
+                if (STATE.compareAndSet(this, current, pack(attempts, windowStart))) {
+                    return attempts;
+                }
+            }
         }
 
-        public void reset() {
-            attempts = 0;
-            firstAttemptTime = System.currentTimeMillis();
+        int getAttempts() {
+            return (int) (state >>> TIME_BITS);
         }
 
-        public boolean isExpired(int timeoutMinutes) {
+        long getFirstAttemptTime() {
+            return state & TIME_MASK;
+        }
+
+        boolean isExpired(int timeoutMinutes) {
             long timeoutMillis = timeoutMinutes * 60L * 1000L;
-            return (System.currentTimeMillis() - firstAttemptTime) > timeoutMillis;
+            return (System.currentTimeMillis() - getFirstAttemptTime()) > timeoutMillis;
         }
     }
 
@@ -1096,9 +1688,13 @@ public class AuthCache {
         private final double refreshThreshold;
 
         public PremiumCacheEntry(boolean isPremium, UUID premiumUuid, long ttlMillis, double refreshThreshold) {
+            this(isPremium, premiumUuid, System.currentTimeMillis(), ttlMillis, refreshThreshold);
+        }
+
+        PremiumCacheEntry(boolean isPremium, UUID premiumUuid, long timestamp, long ttlMillis, double refreshThreshold) {
             this.isPremium = isPremium;
             this.premiumUuid = premiumUuid;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
             this.ttlMillis = ttlMillis;
             this.refreshThreshold = refreshThreshold;
         }
@@ -1156,14 +1752,20 @@ public class AuthCache {
         private final String nickname;
         private final String ip;
         private final long sessionStartTime;
+        private final long stamp;
         private volatile long lastActivityTime;
 
         public ActiveSession(UUID uuid, String nickname, String ip) {
+            this(uuid, nickname, ip, System.currentTimeMillis(), 0L);
+        }
+
+        ActiveSession(UUID uuid, String nickname, String ip, long now, long stamp) {
             this.uuid = uuid;
             this.nickname = nickname;
             this.ip = ip;
-            this.sessionStartTime = System.currentTimeMillis();
-            this.lastActivityTime = System.currentTimeMillis();
+            this.sessionStartTime = now;
+            this.lastActivityTime = now;
+            this.stamp = stamp;
         }
 
         /**
@@ -1197,5 +1799,9 @@ public class AuthCache {
         public long getLastActivityTime() {
             return lastActivityTime;
         }
+
+        long getStamp() {
+            return stamp;
+        }
     }
 }
@@ -0,0 +1,132 @@
+package net.rafalohaki.veloauth.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Indeks kolejności dostępu (LRU) dla ograniczonych map cache.
+ * <p>
+ * Wartości nadal żyją w {@link java.util.concurrent.ConcurrentHashMap} po stronie właściciela
+ * ({@link AuthCache}, cache graczy w DatabaseManager), indeks przechowuje wyłącznie kolejność kluczy. Dzięki temu wybór ofiary przy przepełnieniu
+ * jest O(1) zamiast skanowania całej mapy strumieniem.
+ * <p>
+ * Wszystkie operacje są O(1) i chronione ReentrantLock (nie pina virtual threads).
+ *
+ * @param <K> typ klucza
+ */
+public final class BoundedLruIndex<K> {
+
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * LinkedHashMap w trybie access-order - get() przesuwa klucz na koniec listy (MRU).
+     */
+    private final LinkedHashMap<K, Boolean> order;
+
+    /**
+     * Tworzy indeks o podanej pojemności.
+     *
+     * @param capacity maksymalna liczba kluczy (musi być > 0)
+     */
+    public BoundedLruIndex(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.order = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true);
+    }
+
+    /**
+     * Rejestruje wstawienie klucza. Jeśli indeks przekroczy pojemność,
+     * najdawniej używany klucz jest usuwany z indeksu i zwracany.
+     *
+     * @param key wstawiany klucz
+     * @return klucz do usunięcia z mapy wartości lub null
+     */
+    public K admit(K key) {
+        lock.lock();
+        try {
+            order.put(key, Boolean.TRUE);
+            if (order.size() <= capacity) {
+                return null;
+            }
+            Iterator<Map.Entry<K, Boolean>> it = order.entrySet().iterator();
+            K eldest = it.next().getKey();
+            it.remove();
+            return eldest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Oznacza klucz jako ostatnio użyty (no-op jeśli brak w indeksie).
+     *
+     * @param key klucz
+     */
+    public void touch(K key) {
+        lock.lock();
+        try {
+            order.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Usuwa klucz z indeksu.
+     *
+     * @param key klucz
+     */
+    public void remove(K key) {
+        lock.lock();
+        try {
+            order.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Zwraca najdawniej używany klucz bez usuwania.
+     *
+     * @return najstarszy klucz lub null gdy indeks jest pusty
+     */
+    public K peekEldest() {
+        lock.lock();
+        try {
+            Iterator<K> it = order.keySet().iterator();
+            return it.hasNext() ? it.next() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Czyści indeks.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            order.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return order.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
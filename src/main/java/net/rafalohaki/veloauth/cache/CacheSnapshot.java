@@ -0,0 +1,315 @@
+package net.rafalohaki.veloauth.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Binarny snapshot cache do szybkiego restartu (warm restart).
+ * <p>
+ * Zapisywany przy zamknięciu pluginu i wczytywany przy starcie przez memory-mapped read,
+ * dzięki czemu pierwsze reconnecty po restarcie nie trafiają jednocześnie do Mojang API i bazy.
+ * Format: nagłówek (magic, wersja, czas zapisu, długość, CRC32C) + sekcje z rekordami.
+ * Wpisy przechowują oryginalne znaczniki czasu - przy wczytywaniu wygasłe wpisy są pomijane.
+ * <p>
+ * Plik nie zawiera haseł ani hashy, ale zawiera nicki i adresy IP - zapisywany jest
+ * z uprawnieniami tylko dla właściciela (jeśli system plików wspiera POSIX).
+ */
+public final class CacheSnapshot {
+
+    public static final String FILE_NAME = "cache-snapshot.bin";
+
+    private static final int MAGIC = 0x5641_4353; // "VACS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+
+    private final long createdAt;
+    private final List<AuthorizedEntry> authorized = new ArrayList<>();
+    private final List<PremiumEntry> premium = new ArrayList<>();
+    private final List<SessionEntry> sessions = new ArrayList<>();
+    private final List<ResolverEntry> resolver = new ArrayList<>();
+
+    public CacheSnapshot() {
+        this(System.currentTimeMillis());
+    }
+
+    private CacheSnapshot(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Wpis autoryzacji (authorizedPlayers).
+     */
+    public record AuthorizedEntry(UUID uuid, String nickname, String loginIp, long cacheTime,
+                                  long loginTime, boolean premium, UUID premiumUuid) {}
+
+    /**
+     * Wpis premium cache (klucz to nickname lowercase).
+     */
+    public record PremiumEntry(String key, boolean premium, UUID premiumUuid, long timestamp, long ttlMillis) {}
+
+    /**
+     * Aktywna sesja.
+     */
+    public record SessionEntry(UUID uuid, String nickname, String ip, long startTime, long lastActivityTime) {}
+
+    /**
+     * Wpis cache PremiumResolverService (status jako nazwa enuma).
+     */
+    public record ResolverEntry(String key, String status, UUID uuid, String canonicalUsername,
+                                String source, String message, long timestamp) {}
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void addAuthorized(AuthorizedEntry entry) {
+        authorized.add(entry);
+    }
+
+    public void addPremium(PremiumEntry entry) {
+        premium.add(entry);
+    }
+
+    public void addSession(SessionEntry entry) {
+        sessions.add(entry);
+    }
+
+    public void addResolver(ResolverEntry entry) {
+        resolver.add(entry);
+    }
+
+    public List<AuthorizedEntry> getAuthorized() {
+        return Collections.unmodifiableList(authorized);
+    }
+
+    public List<PremiumEntry> getPremium() {
+        return Collections.unmodifiableList(premium);
+    }
+
+    public List<SessionEntry> getSessions() {
+        return Collections.unmodifiableList(sessions);
+    }
+
+    public List<ResolverEntry> getResolver() {
+        return Collections.unmodifiableList(resolver);
+    }
+
+    /**
+     * @return łączna liczba wpisów we wszystkich sekcjach
+     */
+    public int size() {
+        return authorized.size() + premium.size() + sessions.size() + resolver.size();
+    }
+
+    /**
+     * Zapisuje snapshot atomowo (plik tymczasowy + move).
+     *
+     * @param file docelowy plik
+     * @throws IOException przy błędzie zapisu
+     */
+    public void write(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + size() * 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[HEADER_BYTES]); // nagłówek uzupełniany po obliczeniu CRC
+        writePayload(out);
+        out.flush();
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        int payloadLength = buffer.capacity() - HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, payloadLength);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(createdAt).putInt(payloadLength).putInt((int) crc.getValue());
+        buffer.rewind();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        createOwnerOnly(temp);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Wczytuje snapshot przez memory-mapped read i weryfikuje wersję oraz sumę kontrolną.
+     *
+     * @param file plik snapshotu
+     * @return wczytany snapshot
+     * @throws IOException przy błędzie odczytu, nieznanej wersji lub uszkodzonych danych
+     */
+    public static CacheSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot size: " + fileSize);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a VeloAuth cache snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            long createdAt = buffer.getLong();
+            int payloadLength = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (payloadLength != fileSize - HEADER_BYTES) {
+                throw new IOException("Truncated snapshot: expected " + payloadLength + " payload bytes");
+            }
+
+            ByteBuffer payload = buffer.slice();
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            CacheSnapshot snapshot = new CacheSnapshot(createdAt);
+            try {
+                snapshot.readPayload(payload);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Corrupted snapshot payload", e);
+            }
+            return snapshot;
+        }
+    }
+
+    private void writePayload(DataOutputStream out) throws IOException {
+        out.writeInt(authorized.size());
+        for (AuthorizedEntry e : authorized) {
+            writeUuid(out, e.uuid());
+            writeString(out, e.nickname());
+            writeString(out, e.loginIp());
+            out.writeLong(e.cacheTime());
+            out.writeLong(e.loginTime());
+            out.writeBoolean(e.premium());
+            writeUuid(out, e.premiumUuid());
+        }
+        out.writeInt(premium.size());
+        for (PremiumEntry e : premium) {
+            writeString(out, e.key());
+            out.writeBoolean(e.premium());
+            writeUuid(out, e.premiumUuid());
+            out.writeLong(e.timestamp());
+            out.writeLong(e.ttlMillis());
+        }
+        out.writeInt(sessions.size());
+        for (SessionEntry e : sessions) {
+            writeUuid(out, e.uuid());
+            writeString(out, e.nickname());
+            writeString(out, e.ip());
+            out.writeLong(e.startTime());
+            out.writeLong(e.lastActivityTime());
+        }
+        out.writeInt(resolver.size());
+        for (ResolverEntry e : resolver) {
+            writeString(out, e.key());
+            writeString(out, e.status());
+            writeUuid(out, e.uuid());
+            writeString(out, e.canonicalUsername());
+            writeString(out, e.source());
+            writeString(out, e.message());
+            out.writeLong(e.timestamp());
+        }
+    }
+
+    private void readPayload(ByteBuffer in) {
+        int count = readCount(in);
+        for (int i = 0; i < count; i++) {
+            authorized.add(new AuthorizedEntry(readUuid(in), readString(in), readString(in),
+                    in.getLong(), in.getLong(), in.get() != 0, readUuid(in)));
+        }
+        count = readCount(in);
+        for (int i = 0; i < count; i++) {
+            premium.add(new PremiumEntry(readString(in), in.get() != 0, readUuid(in), in.getLong(), in.getLong()));
+        }
+        count = readCount(in);
+        for (int i = 0; i < count; i++) {
+            sessions.add(new SessionEntry(readUuid(in), readString(in), readString(in), in.getLong(), in.getLong()));
+        }
+        count = readCount(in);
+        for (int i = 0; i < count; i++) {
+            resolver.add(new ResolverEntry(readString(in), readString(in), readUuid(in), readString(in),
+                    readString(in), readString(in), in.getLong()));
+        }
+    }
+
+    private static int readCount(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Invalid record count: " + count);
+        }
+        return count;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        return in.get() != 0 ? new UUID(in.getLong(), in.getLong()) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, Short.MAX_VALUE);
+        out.writeShort(length);
+        out.write(bytes, 0, length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tworzy pusty plik od razu z uprawnieniami rw------- - dane sesji nigdy nie są czytelne dla innych
+     * użytkowników, nawet przez chwilę przed zapisem.
+     */
+    private static void createOwnerOnly(Path file) throws IOException {
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            // System plików bez POSIX (np. Windows) - domyślne uprawnienia katalogu
+            Files.createFile(file);
+        }
+    }
+}
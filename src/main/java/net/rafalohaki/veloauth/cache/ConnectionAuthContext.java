@@ -0,0 +1,88 @@
+package net.rafalohaki.veloauth.cache;
+
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+
+import java.util.UUID;
+
+/**
+ * Kontekst autoryzacji połączenia - wynik lookupu z PreLogin używany przez kolejne eventy
+ * (PostLogin, ServerPreConnect) zamiast ponownych zapytań do bazy.
+ * <p>
+ * Niemutowalny - zmiany tworzą nową instancję podmienianą atomowo w {@link AuthCache}.
+ * Konto jest zawsze wynikiem zakończonego lookupu: {@code account == null} oznacza brak konta w bazie.
+ *
+ * @param username       nickname z PreLogin
+ * @param account        konto z bazy lub null gdy gracz nie jest zarejestrowany
+ * @param premium        decyzja premium z PreLogin
+ * @param premiumUuid    premium UUID z resolvera (null dla offline)
+ * @param connectionUuid UUID gracza przypisany w PostLogin (null przed zalogowaniem)
+ * @param verifiedUuid   UUID, który przeszedł weryfikację względem konta (null przed weryfikacją)
+ * @param createdAt      czas utworzenia kontekstu (ms)
+ */
+public record ConnectionAuthContext(
+        String username,
+        RegisteredPlayer account,
+        boolean premium,
+        UUID premiumUuid,
+        UUID connectionUuid,
+        UUID verifiedUuid,
+        long createdAt
+) {
+
+    /**
+     * Tworzy kontekst po zakończonej detekcji premium i lookupie konta.
+     *
+     * @param username    nickname gracza
+     * @param account     konto z bazy lub null
+     * @param premium     decyzja premium
+     * @param premiumUuid premium UUID lub null
+     * @return kontekst jeszcze nieprzypisany do gracza
+     */
+    public static ConnectionAuthContext resolved(String username, RegisteredPlayer account,
+                                                 boolean premium, UUID premiumUuid) {
+        return new ConnectionAuthContext(username, account, premium, premiumUuid, null, null,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * @param uuid UUID gracza po zalogowaniu
+     * @return kontekst przypisany do gracza
+     */
+    public ConnectionAuthContext boundTo(UUID uuid) {
+        return new ConnectionAuthContext(username, account, premium, premiumUuid, uuid, null, createdAt);
+    }
+
+    /**
+     * @param uuid UUID, który przeszedł weryfikację
+     * @return kontekst z zapamiętaną weryfikacją
+     */
+    public ConnectionAuthContext withVerifiedUuid(UUID uuid) {
+        return new ConnectionAuthContext(username, account, premium, premiumUuid, connectionUuid, uuid, createdAt);
+    }
+
+    /**
+     * Podmienia konto po zapisie w bazie - wcześniejsza weryfikacja UUID przestaje obowiązywać.
+     *
+     * @param updated zapisane konto
+     * @return kontekst z aktualnym kontem
+     */
+    public ConnectionAuthContext withAccount(RegisteredPlayer updated) {
+        return new ConnectionAuthContext(username, updated, premium, premiumUuid, connectionUuid, null, createdAt);
+    }
+
+    /**
+     * @param uuid UUID gracza
+     * @return true jeśli kontekst został przypisany do tego gracza w PostLogin
+     */
+    public boolean isBoundTo(UUID uuid) {
+        return connectionUuid != null && connectionUuid.equals(uuid);
+    }
+
+    /**
+     * @param uuid UUID gracza
+     * @return true jeśli ten UUID został już zweryfikowany względem konta
+     */
+    public boolean isVerified(UUID uuid) {
+        return verifiedUuid != null && verifiedUuid.equals(uuid);
+    }
+}
@@ -0,0 +1,224 @@
+package net.rafalohaki.veloauth.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hashed timing wheel dla wygasania wpisów cache.
+ * <p>
+ * Każdy wpis planuje swój termin wygaśnięcia w momencie wstawienia. Tick przetwarza
+ * wyłącznie jeden kubełek koła, więc koszt czyszczenia jest proporcjonalny do liczby
+ * wpisów wygasających w danym ticku, a nie do rozmiaru całego cache. Terminy dalsze
+ * niż jeden obrót koła są odkładane z powrotem (rundy).
+ * <p>
+ * Planowanie jest lock-free (ConcurrentLinkedQueue). Tylko jeden wątek naraz
+ * przesuwa koło - chroni to osobny ReentrantLock, niezależny od locków cache.
+ * <p>
+ * {@link #schedule} zwraca uchwyt zadania. Właściciel wpisu anuluje go przy zastąpieniu lub usunięciu
+ * wpisu - anulowanie zwalnia zadanie (a z nim wartość trzymaną w lambdzie) od razu, zamiast
+ * czekać do pierwotnego terminu, więc liczba zaplanowanych zadań nie przekracza liczby żywych wpisów.
+ */
+final class ExpiryTimingWheel {
+
+    /**
+     * Zadanie wygaśnięcia wpisu.
+     */
+    @FunctionalInterface
+    interface ExpiryTask {
+        /**
+         * Sprawdza wpis i usuwa go jeśli faktycznie wygasł.
+         *
+         * @param now aktualny czas w milisekundach
+         * @return nowy termin wygaśnięcia (wpis odświeżony) lub wartość ujemna gdy nic nie trzeba planować
+         */
+        long expire(long now);
+    }
+
+    /**
+     * Uchwyt zaplanowanego zadania. Ponowne zaplanowanie (zadanie zwróciło nowy termin) używa
+     * tego samego uchwytu, więc pozostaje on ważny przez cały czas życia wpisu.
+     */
+    static final class Timeout {
+        private final AtomicReference<ExpiryTask> task;
+        private long deadline;
+        private volatile int bucket;
+
+        private Timeout(long deadline, ExpiryTask task) {
+            this.deadline = deadline;
+            this.task = new AtomicReference<>(task);
+        }
+
+        /**
+         * Zwalnia zadanie (anulowanie lub ostatnie wykonanie).
+         *
+         * @return true jeśli to wywołanie zwolniło zadanie
+         */
+        private boolean release(ExpiryTask expected) {
+            return expected != null && task.compareAndSet(expected, null);
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout>[] buckets;
+    private final long startMillis;
+    private final ReentrantLock tickLock = new ReentrantLock();
+
+    /**
+     * Numer następnego ticku do przetworzenia.
+     */
+    private volatile long nextTick;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong expiredTasks = new AtomicLong();
+    private final AtomicLong rescheduled = new AtomicLong();
+    private volatile long lastTickNanos;
+
+    /**
+     * Tworzy koło.
+     *
+     * @param tickMillis długość ticku w milisekundach (> 0)
+     * @param wheelSize  liczba kubełków, zaokrąglana w górę do potęgi 2
+     * @param nowMillis  czas startowy
+     */
+    @SuppressWarnings("unchecked")
+    ExpiryTimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be > 0");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.startMillis = nowMillis;
+        this.nextTick = 0;
+    }
+
+    /**
+     * Planuje zadanie wygaśnięcia na podany termin.
+     *
+     * @param deadlineMillis termin w milisekundach (czas ścienny)
+     * @param task           zadanie wygaśnięcia
+     * @return uchwyt do anulowania zadania
+     */
+    Timeout schedule(long deadlineMillis, ExpiryTask task) {
+        Timeout timeout = new Timeout(deadlineMillis, task);
+        pending.incrementAndGet();
+        enqueue(timeout);
+        return timeout;
+    }
+
+    /**
+     * Anuluje zadanie - nie zostanie wykonane, a koło przestaje trzymać jego referencje.
+     * Anulowanie zadania już wykonanego lub anulowanego jest no-op.
+     *
+     * @param timeout uchwyt z {@link #schedule(long, ExpiryTask)}
+     */
+    void cancel(Timeout timeout) {
+        if (timeout.release(timeout.task.get())) {
+            pending.decrementAndGet();
+            buckets[timeout.bucket].remove(timeout);
+        }
+    }
+
+    private void enqueue(Timeout timeout) {
+        long tick = Math.max((timeout.deadline - startMillis) / tickMillis, nextTick);
+        int index = (int) (tick & mask);
+        timeout.bucket = index;
+        buckets[index].add(timeout);
+    }
+
+    /**
+     * Przesuwa koło do podanego czasu, przetwarzając wszystkie zaległe ticki.
+     *
+     * @param nowMillis aktualny czas
+     * @return liczba zadań wykonanych (terminów które minęły)
+     */
+    int advance(long nowMillis) {
+        if (!tickLock.tryLock()) {
+            return 0; // inny wątek już przesuwa koło
+        }
+        try {
+            long started = System.nanoTime();
+            long targetTick = (nowMillis - startMillis) / tickMillis;
+            // Po długiej przerwie wystarczy jeden pełny obrót - każdy kubełek odwiedzony raz
+            long firstTick = Math.max(nextTick, targetTick - mask);
+            int fired = 0;
+            List<Timeout> drained = new ArrayList<>();
+            for (long tick = firstTick; tick <= targetTick; tick++) {
+                ConcurrentLinkedQueue<Timeout> bucket = buckets[(int) (tick & mask)];
+                Timeout t;
+                while ((t = bucket.poll()) != null) {
+                    drained.add(t);
+                }
+                nextTick = tick + 1;
+                fired += processDrained(drained, nowMillis);
+                drained.clear();
+                ticks.incrementAndGet();
+            }
+            lastTickNanos = System.nanoTime() - started;
+            return fired;
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    private int processDrained(List<Timeout> drained, long nowMillis) {
+        int fired = 0;
+        for (Timeout t : drained) {
+            ExpiryTask task = t.task.get();
+            if (task == null) {
+                continue; // Anulowane po pobraniu z kubełka
+            }
+            if (t.deadline > nowMillis) {
+                // Kolejna runda - wraca do swojego kubełka
+                enqueue(t);
+                continue;
+            }
+            fired++;
+            expiredTasks.incrementAndGet();
+            long next = task.expire(nowMillis);
+            if (next >= 0 && t.task.get() == task) {
+                rescheduled.incrementAndGet();
+                t.deadline = next;
+                enqueue(t);
+            } else if (t.release(task)) {
+                pending.decrementAndGet();
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Usuwa wszystkie zaplanowane zadania.
+     */
+    void clear() {
+        for (ConcurrentLinkedQueue<Timeout> bucket : buckets) {
+            Timeout t;
+            while ((t = bucket.poll()) != null) {
+                t.task.set(null); // późniejsze cancel() na tym uchwycie jest no-op
+            }
+        }
+        pending.set(0);
+    }
+
+    /**
+     * Zwraca metryki koła.
+     *
+     * @param nowMillis aktualny czas (do wyliczenia opóźnienia)
+     * @return migawka metryk
+     */
+    AuthCache.ExpiryStats stats(long nowMillis) {
+        long lag = Math.max(0, (nowMillis - startMillis) / tickMillis - nextTick + 1);
+        return new AuthCache.ExpiryStats(tickMillis, buckets.length, ticks.get(), pending.get(),
+                lag, expiredTasks.get(), rescheduled.get(), lastTickNanos);
+    }
+}
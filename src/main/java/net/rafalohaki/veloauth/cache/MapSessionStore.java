@@ -0,0 +1,107 @@
+package net.rafalohaki.veloauth.cache;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Domyślny magazyn sesji - ConcurrentHashMap UUID -> {@link AuthCache.ActiveSession}.
+ */
+final class MapSessionStore implements SessionStore {
+
+    private final ConcurrentHashMap<UUID, AuthCache.ActiveSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong stamps = new AtomicLong();
+
+    @Override
+    public long start(UUID uuid, String nickname, String ip, long now) {
+        long stamp = stamps.incrementAndGet();
+        sessions.put(uuid, new AuthCache.ActiveSession(uuid, nickname, ip, now, stamp));
+        return stamp;
+    }
+
+    @Override
+    public String end(UUID uuid) {
+        AuthCache.ActiveSession removed = sessions.remove(uuid);
+        return removed != null ? removed.getNickname() : null;
+    }
+
+    @Override
+    public String endIfCurrent(UUID uuid, long stamp) {
+        AuthCache.ActiveSession session = sessions.get(uuid);
+        if (session != null && session.getStamp() == stamp && sessions.remove(uuid, session)) {
+            return session.getNickname();
+        }
+        return null;
+    }
+
+    @Override
+    public Check check(UUID uuid, String nickname, String ip, long now, long timeoutMillis) {
+        AuthCache.ActiveSession session = sessions.get(uuid);
+        if (session == null) {
+            return Check.MISSING;
+        }
+        if (!session.getNickname().equalsIgnoreCase(nickname)) {
+            return Check.NICKNAME_MISMATCH;
+        }
+        if (!session.getIp().equals(ip)) {
+            return Check.IP_MISMATCH;
+        }
+        if (now - session.getLastActivityTime() >= timeoutMillis) {
+            return Check.EXPIRED;
+        }
+        session.updateActivity();
+        return Check.ACTIVE;
+    }
+
+    @Override
+    public long lastActivity(UUID uuid, long stamp) {
+        AuthCache.ActiveSession session = sessions.get(uuid);
+        return session != null && session.getStamp() == stamp ? session.getLastActivityTime() : NO_SESSION;
+    }
+
+    @Override
+    public String getNickname(UUID uuid) {
+        AuthCache.ActiveSession session = sessions.get(uuid);
+        return session != null ? session.getNickname() : null;
+    }
+
+    @Override
+    public String getIp(UUID uuid) {
+        AuthCache.ActiveSession session = sessions.get(uuid);
+        return session != null ? session.getIp() : null;
+    }
+
+    @Override
+    public int removeIdle(long now, long idleMillis, BiConsumer<UUID, String> onRemoved) {
+        int removed = 0;
+        var iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            AuthCache.ActiveSession session = iterator.next();
+            if (now - session.getLastActivityTime() >= idleMillis) {
+                iterator.remove();
+                onRemoved.accept(session.getUuid(), session.getNickname());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        for (AuthCache.ActiveSession session : sessions.values()) {
+            visitor.accept(session.getUuid(), session.getNickname(), session.getIp(),
+                    session.getSessionStartTime(), session.getLastActivityTime());
+        }
+    }
+
+    @Override
+    public int size() {
+        return sessions.size();
+    }
+
+    @Override
+    public void clear() {
+        sessions.clear();
+    }
+}
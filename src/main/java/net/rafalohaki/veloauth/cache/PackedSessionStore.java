@@ -0,0 +1,552 @@
+package net.rafalohaki.veloauth.cache;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Magazyn sesji w prymitywnych tablicach (open addressing, linear probing).
+ * <p>
+ * Klucz to dwa longi UUID, IP jest spakowane do dwóch longów (IPv4 jako IPv4-mapped IPv6),
+ * znaczniki czasu to longi. Na sesję nie powstaje żaden obiekt - jedyna referencja to nickname,
+ * który jest tą samą instancją String co w obiekcie gracza Velocity.
+ * Tabela jest podzielona na segmenty z własnym ReentrantLock; usuwanie używa
+ * backward-shift deletion, więc nie ma tombstone'ów.
+ */
+final class PackedSessionStore implements SessionStore {
+
+    private static final int SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final int SLOT_HASH_BITS = 28;
+    private static final long SLOT_HASH_MASK = (1L << SLOT_HASH_BITS) - 1;
+
+    /**
+     * Tablice long na slot (msb, lsb, ipHi, ipLo, started, lastActivity, stamps) i rozmiar
+     * referencji przy compressed oops - do wyliczenia {@link #footprintBytes()}.
+     */
+    static final int SLOT_LONGS = 7;
+    static final int REFERENCE_BYTES = 4;
+    private static final long IPV4_MAPPED = 0xFFFF_0000_0000L;
+
+    /**
+     * Marker dla IP, które nie są literałem adresu - porównywane jako String.
+     */
+    private static final long[] UNPARSED = new long[]{-1L, -1L};
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong stamps = new AtomicLong();
+
+    PackedSessionStore(int expectedSessions) {
+        int capacity = Math.max(MIN_SEGMENT_CAPACITY, expectedSessions / SEGMENTS * 4 / 3 + 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    @Override
+    public long start(UUID uuid, String nickname, String ip, long now) {
+        long[] packedIp = packIp(ip);
+        long stamp = stamps.incrementAndGet();
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(msb, lsb, hash);
+            if (slot < 0) {
+                slot = segment.insert(msb, lsb, hash);
+            }
+            segment.nicknames[slot] = nickname;
+            segment.ipHi[slot] = packedIp[0];
+            segment.ipLo[slot] = packedIp[1];
+            segment.setRawIp(slot, packedIp == UNPARSED ? ip : null);
+            segment.started[slot] = now;
+            segment.lastActivity[slot] = now;
+            segment.stamps[slot] = stamp;
+            return stamp;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public String end(UUID uuid) {
+        return remove(uuid, NO_SESSION);
+    }
+
+    @Override
+    public String endIfCurrent(UUID uuid, long stamp) {
+        return remove(uuid, stamp);
+    }
+
+    private String remove(UUID uuid, long expectedStamp) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(msb, lsb, hash);
+            if (slot < 0 || (expectedStamp != NO_SESSION && segment.stamps[slot] != expectedStamp)) {
+                return null;
+            }
+            String nickname = segment.nicknames[slot];
+            segment.removeAt(slot);
+            return nickname;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public Check check(UUID uuid, String nickname, String ip, long now, long timeoutMillis) {
+        long[] packedIp = packIp(ip);
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(msb, lsb, hash);
+            if (slot < 0) {
+                return Check.MISSING;
+            }
+            if (!segment.nicknames[slot].equalsIgnoreCase(nickname)) {
+                return Check.NICKNAME_MISMATCH;
+            }
+            if (!segment.ipMatches(slot, packedIp, ip)) {
+                return Check.IP_MISMATCH;
+            }
+            if (now - segment.lastActivity[slot] >= timeoutMillis) {
+                return Check.EXPIRED;
+            }
+            segment.lastActivity[slot] = now;
+            return Check.ACTIVE;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public long lastActivity(UUID uuid, long stamp) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(msb, lsb, hash);
+            return slot >= 0 && segment.stamps[slot] == stamp ? segment.lastActivity[slot] : NO_SESSION;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public String getNickname(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(msb, lsb, hash);
+            return slot >= 0 ? segment.nicknames[slot] : null;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public String getIp(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        long hi;
+        long lo;
+        segment.lock.lock();
+        try {
+            int slot = segment.find(msb, lsb, hash);
+            if (slot < 0) {
+                return null;
+            }
+            String raw = segment.rawIp(slot);
+            if (raw != null) {
+                return raw;
+            }
+            hi = segment.ipHi[slot];
+            lo = segment.ipLo[slot];
+        } finally {
+            segment.lock.unlock();
+        }
+        return formatIp(hi, lo);
+    }
+
+    @Override
+    public int removeIdle(long now, long idleMillis, BiConsumer<UUID, String> onRemoved) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                int i = 0;
+                while (i < segment.nicknames.length) {
+                    if (segment.nicknames[i] != null && now - segment.lastActivity[i] >= idleMillis) {
+                        onRemoved.accept(new UUID(segment.msb[i], segment.lsb[i]), segment.nicknames[i]);
+                        // Backward shift może przenieść nieodwiedzony wpis na pozycję i - sprawdź ją ponownie
+                        segment.removeAt(i);
+                        removed++;
+                    } else {
+                        i++;
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void forEach(Visitor visitor) {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                for (int i = 0; i < segment.nicknames.length; i++) {
+                    if (segment.nicknames[i] != null) {
+                        String ip = segment.rawIp(i) != null ? segment.rawIp(i)
+                                : formatIp(segment.ipHi[i], segment.ipLo[i]);
+                        visitor.accept(new UUID(segment.msb[i], segment.lsb[i]), segment.nicknames[i], ip,
+                                segment.started[i], segment.lastActivity[i]);
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Bajty zajmowane przez tablice slotów (długość × rozmiar elementu), bez nagłówków tablic.
+     * Segment rośnie o połowę przy 75% zajętości, więc bez usunięć powiększony segment jest
+     * zajęty co najmniej w 50% - na sesję przypada najwyżej {@code 2 × (SLOT_LONGS × 8 + REFERENCE_BYTES)} bajtów.
+     */
+    long footprintBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                bytes += segment.footprintBytes();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.allocate(MIN_SEGMENT_CAPACITY);
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 28) & (SEGMENTS - 1)];
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Pakuje literał IP do dwóch longów. IPv4 bez alokacji obiektów adresu,
+     * IPv6 przez {@link InetAddress#getByName(String)} (literał - bez zapytania DNS).
+     */
+    static long[] packIp(String ip) {
+        long v4 = parseIpv4(ip);
+        if (v4 >= 0) {
+            return new long[]{0L, IPV4_MAPPED | v4};
+        }
+        if (ip.indexOf(':') < 0) {
+            return UNPARSED;
+        }
+        try {
+            byte[] bytes = InetAddress.getByName(ip).getAddress();
+            if (bytes.length == 4) {
+                return new long[]{0L, IPV4_MAPPED | (((bytes[0] & 0xFFL) << 24) | ((bytes[1] & 0xFFL) << 16)
+                        | ((bytes[2] & 0xFFL) << 8) | (bytes[3] & 0xFFL))};
+            }
+            long hi = 0;
+            long lo = 0;
+            for (int i = 0; i < 8; i++) {
+                hi = (hi << 8) | (bytes[i] & 0xFF);
+                lo = (lo << 8) | (bytes[i + 8] & 0xFF);
+            }
+            return new long[]{hi, lo};
+        } catch (UnknownHostException | SecurityException e) {
+            return UNPARSED;
+        }
+    }
+
+    /**
+     * @return adres jako 32-bitowa wartość bez znaku lub -1 jeśli to nie jest literał IPv4
+     */
+    private static long parseIpv4(String ip) {
+        int length = ip.length();
+        if (length < 7 || length > 15) {
+            return -1;
+        }
+        long result = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = 0; i < length; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && digits > 0 && ++dots <= 3) {
+                result = (result << 8) | octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            return -1;
+        }
+        return (result << 8) | octet;
+    }
+
+    static String formatIp(long hi, long lo) {
+        if (hi == 0 && (lo >>> 32) == 0xFFFFL) {
+            return ((lo >>> 24) & 0xFF) + "." + ((lo >>> 16) & 0xFF) + "." + ((lo >>> 8) & 0xFF) + "." + (lo & 0xFF);
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (hi >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (lo >>> (56 - 8 * i));
+        }
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("16-byte address rejected", e);
+        }
+    }
+
+    /**
+     * Segment tabeli - równoległe tablice indeksowane numerem slotu.
+     * Pusty slot to {@code nicknames[i] == null}. Tablica {@code rawIps} powstaje dopiero
+     * przy pierwszym IP, które nie jest literałem adresu.
+     */
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        long[] msb;
+        long[] lsb;
+        long[] ipHi;
+        long[] ipLo;
+        long[] started;
+        long[] lastActivity;
+        long[] stamps;
+        String[] nicknames;
+        String[] rawIps;
+        int capacity;
+        int size;
+
+        Segment(int capacity) {
+            allocate(capacity);
+        }
+
+        void allocate(int capacity) {
+            msb = new long[capacity];
+            lsb = new long[capacity];
+            ipHi = new long[capacity];
+            ipLo = new long[capacity];
+            started = new long[capacity];
+            lastActivity = new long[capacity];
+            stamps = new long[capacity];
+            nicknames = new String[capacity];
+            rawIps = null;
+            this.capacity = capacity;
+            size = 0;
+        }
+
+        /**
+         * Pozycja bazowa klucza. Górne bity hasha wybierają segment, więc slot liczony jest
+         * z pozostałych 28 bitów (multiply-shift - pojemność nie musi być potęgą 2).
+         */
+        int home(int hash) {
+            return (int) (((hash & SLOT_HASH_MASK) * capacity) >>> SLOT_HASH_BITS);
+        }
+
+        int next(int i) {
+            return i + 1 < capacity ? i + 1 : 0;
+        }
+
+        int find(long m, long l, int hash) {
+            int i = home(hash);
+            while (nicknames[i] != null) {
+                if (msb[i] == m && lsb[i] == l) {
+                    return i;
+                }
+                i = next(i);
+            }
+            return -1;
+        }
+
+        /**
+         * Rezerwuje slot dla nowego klucza (klucz nie może być obecny).
+         * Rozmiar utrzymywany poniżej 75% pojemności.
+         */
+        int insert(long m, long l, int hash) {
+            if ((size + 1) * 4 > capacity * 3) {
+                resize();
+            }
+            int i = home(hash);
+            while (nicknames[i] != null) {
+                i = next(i);
+            }
+            msb[i] = m;
+            lsb[i] = l;
+            size++;
+            return i;
+        }
+
+        String rawIp(int slot) {
+            return rawIps != null ? rawIps[slot] : null;
+        }
+
+        void setRawIp(int slot, String ip) {
+            if (ip != null && rawIps == null) {
+                rawIps = new String[capacity];
+            }
+            if (rawIps != null) {
+                rawIps[slot] = ip;
+            }
+        }
+
+        boolean ipMatches(int slot, long[] packedIp, String ip) {
+            String raw = rawIp(slot);
+            if (raw != null || packedIp == UNPARSED) {
+                return ip.equals(raw);
+            }
+            return ipHi[slot] == packedIp[0] && ipLo[slot] == packedIp[1];
+        }
+
+        /**
+         * Backward-shift deletion: przesuwa kolejne wpisy łańcucha na zwolnione miejsce,
+         * o ile nie przeskoczyłyby swojej pozycji bazowej.
+         */
+        void removeAt(int slot) {
+            int hole = slot;
+            int j = slot;
+            while (true) {
+                j = next(j);
+                if (nicknames[j] == null) {
+                    break;
+                }
+                int home = home(hash(msb[j], lsb[j]));
+                if (distance(home, j) >= distance(hole, j)) {
+                    move(j, hole);
+                    hole = j;
+                }
+            }
+            nicknames[hole] = null;
+            setRawIp(hole, null);
+            size--;
+        }
+
+        /**
+         * @return liczba kroków sondowania od {@code from} do {@code to} (z zawinięciem)
+         */
+        private int distance(int from, int to) {
+            int d = to - from;
+            return d < 0 ? d + capacity : d;
+        }
+
+        private void move(int from, int to) {
+            msb[to] = msb[from];
+            lsb[to] = lsb[from];
+            ipHi[to] = ipHi[from];
+            ipLo[to] = ipLo[from];
+            started[to] = started[from];
+            lastActivity[to] = lastActivity[from];
+            stamps[to] = stamps[from];
+            nicknames[to] = nicknames[from];
+            setRawIp(to, rawIp(from));
+        }
+
+        /**
+         * Rośnie o połowę - po powiększeniu tabela jest zapełniona w 50%, więc zajętość
+         * nie spada poniżej połowy, a rozmiar na sesję pozostaje ograniczony.
+         */
+        private void resize() {
+            long[] oldMsb = msb;
+            long[] oldLsb = lsb;
+            long[] oldIpHi = ipHi;
+            long[] oldIpLo = ipLo;
+            long[] oldStarted = started;
+            long[] oldLastActivity = lastActivity;
+            long[] oldStamps = stamps;
+            String[] oldNicknames = nicknames;
+            String[] oldRawIps = rawIps;
+            int oldSize = size;
+
+            allocate(capacity + (capacity >> 1));
+            for (int from = 0; from < oldNicknames.length; from++) {
+                if (oldNicknames[from] == null) {
+                    continue;
+                }
+                int i = home(hash(oldMsb[from], oldLsb[from]));
+                while (nicknames[i] != null) {
+                    i = next(i);
+                }
+                msb[i] = oldMsb[from];
+                lsb[i] = oldLsb[from];
+                ipHi[i] = oldIpHi[from];
+                ipLo[i] = oldIpLo[from];
+                started[i] = oldStarted[from];
+                lastActivity[i] = oldLastActivity[from];
+                stamps[i] = oldStamps[from];
+                nicknames[i] = oldNicknames[from];
+                if (oldRawIps != null) {
+                    setRawIp(i, oldRawIps[from]);
+                }
+            }
+            size = oldSize;
+        }
+
+        long footprintBytes() {
+            long slots = (long) capacity * (SLOT_LONGS * Long.BYTES + REFERENCE_BYTES);
+            return rawIps != null ? slots + (long) capacity * REFERENCE_BYTES : slots;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.rafalohaki.veloauth.cache;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Magazyn aktywnych sesji używany przez {@link AuthCache}.
+ * <p>
+ * Każda sesja dostaje unikalny {@code stamp} przy starcie - zadania timing wheel
+ * używają go zamiast tożsamości obiektu, żeby nie usunąć sesji rozpoczętej ponownie
+ * pod tym samym UUID.
+ */
+interface SessionStore {
+
+    /**
+     * Brak sesji lub sesja zastąpiona nowszą.
+     */
+    long NO_SESSION = -1L;
+
+    /**
+     * Wynik weryfikacji sesji.
+     */
+    enum Check {
+        MISSING,
+        NICKNAME_MISMATCH,
+        IP_MISMATCH,
+        EXPIRED,
+        ACTIVE
+    }
+
+    /**
+     * Rozpoczyna (lub zastępuje) sesję.
+     *
+     * @return stamp nowej sesji
+     */
+    long start(UUID uuid, String nickname, String ip, long now);
+
+    /**
+     * Usuwa sesję.
+     *
+     * @return nickname usuniętej sesji lub null
+     */
+    String end(UUID uuid);
+
+    /**
+     * Usuwa sesję tylko jeśli nadal ma podany stamp.
+     *
+     * @return nickname usuniętej sesji lub null
+     */
+    String endIfCurrent(UUID uuid, long stamp);
+
+    /**
+     * Weryfikuje nickname, IP i bezczynność. Dla {@link Check#ACTIVE} odświeża aktywność.
+     */
+    Check check(UUID uuid, String nickname, String ip, long now, long timeoutMillis);
+
+    /**
+     * @return czas ostatniej aktywności sesji o podanym stampie lub {@link #NO_SESSION}
+     */
+    long lastActivity(UUID uuid, long stamp);
+
+    /**
+     * @return nickname sesji lub null
+     */
+    String getNickname(UUID uuid);
+
+    /**
+     * @return IP sesji lub null
+     */
+    String getIp(UUID uuid);
+
+    /**
+     * Usuwa sesje bezczynne dłużej niż idleMillis.
+     *
+     * @param onRemoved wywoływany z UUID i nickname każdej usuniętej sesji
+     * @return liczba usuniętych sesji
+     */
+    int removeIdle(long now, long idleMillis, BiConsumer<UUID, String> onRemoved);
+
+    /**
+     * Przechodzi po wszystkich sesjach (np. do zapisu snapshotu).
+     */
+    void forEach(Visitor visitor);
+
+    int size();
+
+    void clear();
+
+    /**
+     * Odbiorca danych sesji przy {@link #forEach(Visitor)}.
+     */
+    @FunctionalInterface
+    interface Visitor {
+        void accept(UUID uuid, String nickname, String ip, long startTime, long lastActivityTime);
+    }
+}
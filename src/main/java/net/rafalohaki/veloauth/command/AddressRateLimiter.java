@@ -0,0 +1,54 @@
+package net.rafalohaki.veloauth.command;
+
+import java.net.InetAddress;
+
+/**
+ * Common contract for per-address rate limiters.
+ * Implemented by the fixed-window {@link IPRateLimiter} and the GCRA-based {@link GcraRateLimiter},
+ * so callers such as the PreLogin listener can select the engine through configuration.
+ */
+public interface AddressRateLimiter {
+
+    /**
+     * Checks if IP address is rate limited.
+     *
+     * @param address IP address to check
+     * @return true if rate limited
+     */
+    boolean isRateLimited(InetAddress address);
+
+    /**
+     * Records an attempt for IP address.
+     *
+     * @param address IP address to increment for
+     * @return current attempt count after increment
+     */
+    int incrementAttempts(InetAddress address);
+
+    /**
+     * Resets rate limit for IP address.
+     *
+     * @param address IP address to reset
+     */
+    void reset(InetAddress address);
+
+    /**
+     * Gets current attempt count for IP address.
+     *
+     * @param address IP address to check
+     * @return current attempt count (0 if not tracked)
+     */
+    int getAttempts(InetAddress address);
+
+    /**
+     * Clears all rate limit entries.
+     */
+    void clearAll();
+
+    /**
+     * Gets the number of tracked IP addresses.
+     *
+     * @return number of tracked IPs
+     */
+    int size();
+}
@@ -0,0 +1,85 @@
+package net.rafalohaki.veloauth.command;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kalibracja kosztu BCrypt na danym hoście.
+ * <p>
+ * Każdy kolejny koszt podwaja czas hashowania, więc kalibracja mierzy koszt minimalny i przechodzi
+ * do wyższego tylko wtedy, gdy przewidywany (podwojony) czas mieści się w budżecie - pomiar powyżej
+ * budżetu zdarza się najwyżej raz. Wynikiem jest najwyższy koszt z zakresu, którego mediana pomiarów
+ * nie przekracza budżetu; gdy nawet koszt minimalny go przekracza, zostaje koszt minimalny
+ * (bezpieczeństwo ma pierwszeństwo przed budżetem).
+ */
+final class BcryptCalibrator {
+
+    private static final int WARMUP_COST = 4;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int SAMPLES = 3;
+
+    /**
+     * Pomiar jednego hashowania.
+     */
+    @FunctionalInterface
+    interface HashTimer {
+        /**
+         * @param cost koszt BCrypt
+         * @return czas hashowania w nanosekundach
+         */
+        long nanosFor(int cost);
+    }
+
+    /**
+     * Wynik kalibracji.
+     *
+     * @param cost              wybrany koszt
+     * @param millisPerHash     zmierzony czas hashowania wybranym kosztem (mediana, ms)
+     * @param targetMillis      budżet czasu na hash (ms)
+     * @param withinBudget      false gdy nawet koszt minimalny przekracza budżet
+     * @param calibrationMillis czas trwania kalibracji (ms)
+     */
+    record Result(int cost, long millisPerHash, long targetMillis, boolean withinBudget, long calibrationMillis) {}
+
+    private BcryptCalibrator() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * @param timer        pomiar hashowania
+     * @param targetMillis budżet czasu na hash (ms)
+     * @param minCost      najniższy dopuszczalny koszt
+     * @param maxCost      najwyższy rozważany koszt
+     * @return wybrany koszt i pomiary
+     */
+    static Result calibrate(HashTimer timer, long targetMillis, int minCost, int maxCost) {
+        long start = System.nanoTime();
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            timer.nanosFor(WARMUP_COST);
+        }
+
+        int cost = minCost;
+        long nanos = median(timer, cost);
+        boolean withinBudget = nanos <= budgetNanos;
+        while (withinBudget && cost < maxCost && nanos * 2 <= budgetNanos) {
+            long next = median(timer, cost + 1);
+            if (next > budgetNanos) {
+                break;
+            }
+            cost++;
+            nanos = next;
+        }
+        return new Result(cost, TimeUnit.NANOSECONDS.toMillis(nanos), targetMillis, withinBudget,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static long median(HashTimer timer, int cost) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = timer.nanosFor(cost);
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
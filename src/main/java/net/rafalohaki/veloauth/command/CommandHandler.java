@@ -1,6 +1,5 @@
 package net.rafalohaki.veloauth.command;
 
-import at.favre.lib.crypto.bcrypt.BCrypt;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
@@ -23,6 +22,9 @@ import org.slf4j.MarkerFactory;
 import java.net.InetAddress;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Handler komend autoryzacji VeloAuth.
@@ -63,6 +65,10 @@ public class CommandHandler {
      * IP-based rate limiting - uses dedicated IPRateLimiter class.
      */
     private final IPRateLimiter ipRateLimiter;
+    private final PasswordHasher passwordHasher;
+    private final InFlightCommandGuard inFlightCommands = new InFlightCommandGuard();
+    private final AtomicLong rehashedOnLogin = new AtomicLong();
+    private volatile BcryptCalibrator.Result bcryptCalibration;
 
     /**
      * Tworzy nowy CommandHandler.
@@ -82,6 +88,8 @@ public class CommandHandler {
         this.messages = messages;
         this.logger = plugin.getLogger();
         this.ipRateLimiter = new IPRateLimiter(10, 5); // 10 attempts per 5 minutes
+        this.passwordHasher = PasswordHasher.forCpuFraction(settings.getPasswordHashCpuFraction(),
+                settings.getPasswordHashQueueCapacity());
         this.sm = new net.rafalohaki.veloauth.i18n.SimpleMessages(messages);
     }
 
@@ -122,6 +130,81 @@ public class CommandHandler {
         }
     }
 
+    /**
+     * Zamyka pulę BCrypt - wywoływane po wyrejestrowaniu komend.
+     */
+    public void shutdown() {
+        passwordHasher.shutdown();
+    }
+
+    /**
+     * Kalibruje koszt BCrypt na tym hoście (security.bcrypt-auto-calibrate) i loguje wynik.
+     * Wywoływane raz przy starcie, przed przyjmowaniem komend.
+     */
+    public void calibrateBcryptCost() {
+        BcryptCalibrator.Result result = passwordHasher.calibrate(settings.getBcryptTargetMillis(),
+                settings.getBcryptMinCost(), settings.getBcryptMaxCost());
+        bcryptCalibration = result;
+        if (result.withinBudget()) {
+            if (logger.isInfoEnabled()) {
+                logger.info(SECURITY_MARKER, "Kalibracja BCrypt: koszt {} (~{} ms/hash, budżet {} ms, zakres {}-{}, {} wątków) w {} ms",
+                        result.cost(), result.millisPerHash(), result.targetMillis(), settings.getBcryptMinCost(),
+                        settings.getBcryptMaxCost(), passwordHasher.getThreads(), result.calibrationMillis());
+            }
+        } else if (logger.isWarnEnabled()) {
+            logger.warn(SECURITY_MARKER, "Kalibracja BCrypt: minimalny koszt {} trwa ~{} ms/hash - powyżej budżetu {} ms, "
+                            + "używam kosztu minimalnego",
+                    result.cost(), result.millisPerHash(), result.targetMillis());
+        }
+    }
+
+    /**
+     * @return koszt BCrypt dla nowych hashy - skalibrowany lub security.bcrypt-cost
+     */
+    private int currentBcryptCost() {
+        BcryptCalibrator.Result calibration = bcryptCalibration;
+        return calibration != null && settings.isBcryptAutoCalibrate() ? calibration.cost() : settings.getBcryptCost();
+    }
+
+    /**
+     * @return pula BCrypt (metryki kolejki i czasów hashowania)
+     */
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
+
+    /**
+     * @return strażnik trwających komend autoryzacji (licznik odrzuconych duplikatów)
+     */
+    public InFlightCommandGuard getInFlightCommandGuard() {
+        return inFlightCommands;
+    }
+
+    /**
+     * Uruchamia komendę autoryzacji, o ile gracz nie ma już trwającej. Duplikat dostaje komunikat
+     * i nie dociera do BCrypt ani bazy; slot jest zwalniany po zakończeniu zadania
+     * lub od razu, gdy zadanie nie zostało przyjęte.
+     *
+     * @param player  gracz
+     * @param command nazwa komendy (etykieta metryk)
+     * @param task    przetwarzanie komendy
+     * @param submit  uruchomienie zadania, zwraca false gdy zadanie nie zostało przyjęte
+     */
+    private void runGuardedCommand(Player player, String command, Runnable task, Predicate<Runnable> submit) {
+        UUID playerUuid = player.getUniqueId();
+        if (!inFlightCommands.tryAcquire(playerUuid, command)) {
+            player.sendMessage(sm.commandInProgress());
+            if (logger.isDebugEnabled()) {
+                logger.debug(SECURITY_MARKER, "Odrzucono duplikat /{} gracza {} - poprzednia komenda w toku",
+                        command, player.getUsername());
+            }
+            return;
+        }
+        if (!submit.test(inFlightCommands.releasingAfter(playerUuid, task))) {
+            inFlightCommands.release(playerUuid);
+        }
+    }
+
     /**
      * Template method for common authentication pre-checks:
      * 1. Validate player source
@@ -215,18 +298,21 @@ public class CommandHandler {
                 return;
             }
 
+            Player player = CommandHelper.validatePlayerSource(source, messages);
+            if (player == null) {
+                return;
+            }
+
             String password = args[0];
 
-            // Asynchroniczne logowanie z Virtual Threads
-            CommandHelper.runAsyncCommand(() -> processLogin(source, password),
-                    messages, source, ERROR_DATABASE_QUERY);
+            // Asynchroniczne logowanie z Virtual Threads (jedna komenda autoryzacji naraz)
+            runGuardedCommand(player, COMMAND_LOGIN, () -> processLogin(player, password),
+                    task -> CommandHelper.runAsyncCommand(task, messages, player, ERROR_DATABASE_QUERY));
         }
 
-        private void processLogin(CommandSource source, String password) {
-            Player player = (Player) source;
-
+        private void processLogin(Player player, String password) {
             // Use template method for common checks
-            AuthenticationContext authContext = validateAndAuthenticatePlayer(source, COMMAND_LOGIN);
+            AuthenticationContext authContext = validateAndAuthenticatePlayer(player, COMMAND_LOGIN);
             if (authContext == null) {
                 return;
             }
@@ -237,21 +323,29 @@ public class CommandHandler {
                 return;
             }
 
-            // Verify password
-            BCrypt.Result result = BCrypt.verifyer().verify(password.toCharArray(), authContext.registeredPlayer.getHash());
+            // Verify password (BCrypt worker pool)
+            boolean verified;
+            try {
+                verified = passwordHasher.verify(password, authContext.registeredPlayer.getHash());
+            } catch (RejectedExecutionException e) {
+                sendHashingOverloaded(authContext.player, authContext.username);
+                return;
+            }
 
-            if (result.verified) {
-                handleSuccessfulLogin(authContext);
+            if (verified) {
+                handleSuccessfulLogin(authContext, password);
             } else {
                 handleFailedLogin(authContext);
             }
         }
 
-        private void handleSuccessfulLogin(AuthenticationContext authContext) {
+        private void handleSuccessfulLogin(AuthenticationContext authContext, String password) {
             try {
-                // Update login data
+                // Update login data - with a rehashed password the full save path writes both
                 authContext.registeredPlayer.updateLoginData(PlayerAddressUtils.getPlayerIp(authContext.player));
-                var saveResult = databaseManager.savePlayer(authContext.registeredPlayer).join();
+                var saveResult = (rehashIfOutdated(authContext, password)
+                        ? databaseManager.savePlayer(authContext.registeredPlayer)
+                        : databaseManager.saveLoginData(authContext.registeredPlayer)).join();
 
                 if (handleDatabaseError(saveResult, authContext.player, "Failed to save login data for")) {
                     return;
@@ -303,6 +397,36 @@ public class CommandHandler {
             }
         }
 
+        /**
+         * Przelicza hash zapisany niższym kosztem lub inną wersją BCrypt (hasło jest znane tylko przy logowaniu).
+         * Nowy hash nigdy nie ma kosztu niższego niż zapisany.
+         * Przy przeciążonej puli BCrypt logowanie przechodzi bez przeliczenia - spróbuje następne.
+         *
+         * @return true jeśli hash gracza został podmieniony i wymaga pełnego zapisu
+         */
+        private boolean rehashIfOutdated(AuthenticationContext authContext, String password) {
+            int cost = currentBcryptCost();
+            String storedHash = authContext.registeredPlayer.getHash();
+            if (!settings.isBcryptRehashOnLogin() || !PasswordHasher.needsRehash(storedHash, cost)) {
+                return false;
+            }
+            int rehashCost = Math.max(cost, PasswordHasher.storedCost(storedHash));
+            try {
+                authContext.registeredPlayer.setHash(passwordHasher.hash(password, rehashCost));
+            } catch (RejectedExecutionException e) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(SECURITY_MARKER, "Pominięto rehash BCrypt dla {} - pula przeciążona", authContext.username);
+                }
+                return false;
+            }
+            rehashedOnLogin.incrementAndGet();
+            if (logger.isDebugEnabled()) {
+                logger.debug(SECURITY_MARKER, "Rehash BCrypt dla {}: {} -> $2y${}",
+                        authContext.username, storedHash.substring(0, 6), rehashCost);
+            }
+            return true;
+        }
+
         private void handleFailedLogin(AuthenticationContext authContext) {
             boolean blocked = SecurityUtils.registerFailedLogin(authContext.playerAddress, authCache);
 
@@ -372,9 +496,10 @@ public class CommandHandler {
                 return;
             }
 
-            // Asynchroniczna rejestracja z Virtual Threads
-            CommandHelper.runAsyncCommandWithTimeout(() -> processRegistration(player, password),
-                    messages, source, ERROR_DATABASE_QUERY, "auth.registration.timeout");
+            // Asynchroniczna rejestracja z Virtual Threads (jedna komenda autoryzacji naraz)
+            runGuardedCommand(player, COMMAND_REGISTER, () -> processRegistration(player, password),
+                    task -> CommandHelper.runAsyncCommandWithTimeout(task, messages, source, ERROR_DATABASE_QUERY,
+                            "auth.registration.timeout"));
         }
 
         private void processRegistration(Player player, String password) {
@@ -413,8 +538,13 @@ public class CommandHandler {
             }
 
             // Create new player
-            String hashedPassword = BCrypt.with(BCrypt.Version.VERSION_2Y)
-                    .hashToString(settings.getBcryptCost(), password.toCharArray());
+            String hashedPassword;
+            try {
+                hashedPassword = passwordHasher.hash(password, currentBcryptCost());
+            } catch (RejectedExecutionException e) {
+                sendHashingOverloaded(authContext.player, authContext.username);
+                return;
+            }
 
             RegisteredPlayer newPlayer = new RegisteredPlayer(
                     authContext.username, hashedPassword,
@@ -509,9 +639,10 @@ public class CommandHandler {
                 return;
             }
 
-            // Asynchroniczna zmiana hasła z Virtual Threads
-            CommandHelper.runAsyncCommand(() -> processPasswordChange(player, oldPassword, newPassword),
-                    messages, source, ERROR_DATABASE_QUERY);
+            // Asynchroniczna zmiana hasła z Virtual Threads (jedna komenda autoryzacji naraz)
+            runGuardedCommand(player, COMMAND_CHANGE_PASSWORD,
+                    () -> processPasswordChange(player, oldPassword, newPassword),
+                    task -> CommandHelper.runAsyncCommand(task, messages, source, ERROR_DATABASE_QUERY));
         }
 
         private void processPasswordChange(Player player, String oldPassword, String newPassword) {
@@ -544,8 +675,14 @@ public class CommandHandler {
         }
 
         private boolean checkOldPassword(AuthenticationContext ctx, String oldPassword) {
-            BCrypt.Result result = BCrypt.verifyer().verify(oldPassword.toCharArray(), ctx.registeredPlayer.getHash());
-            if (!result.verified) {
+            boolean verified;
+            try {
+                verified = passwordHasher.verify(oldPassword, ctx.registeredPlayer.getHash());
+            } catch (RejectedExecutionException e) {
+                sendHashingOverloaded(ctx.player, ctx.username);
+                return false;
+            }
+            if (!verified) {
                 ctx.player.sendMessage(sm.incorrectOldPassword());
                 return false;
             }
@@ -553,8 +690,13 @@ public class CommandHandler {
         }
 
         private boolean updatePassword(AuthenticationContext ctx, String newPassword) {
-            String newHashedPassword = BCrypt.with(BCrypt.Version.VERSION_2Y)
-                    .hashToString(settings.getBcryptCost(), newPassword.toCharArray());
+            String newHashedPassword;
+            try {
+                newHashedPassword = passwordHasher.hash(newPassword, currentBcryptCost());
+            } catch (RejectedExecutionException e) {
+                sendHashingOverloaded(ctx.player, ctx.username);
+                return false;
+            }
             ctx.registeredPlayer.setHash(newHashedPassword);
             var saveResult = databaseManager.savePlayer(ctx.registeredPlayer).join();
             if (handleDatabaseError(saveResult, ctx.player, "Password change save failed for")) {
@@ -808,15 +950,11 @@ public class CommandHandler {
         }
         
         private void handleStatsCommand(CommandSource source) {
-            var totalF = databaseManager.getTotalRegisteredAccounts();
-            var premiumF = databaseManager.getTotalPremiumAccounts();
-            var nonPremiumF = databaseManager.getTotalNonPremiumAccounts();
-
-            // Wait for all database operations to complete
-            java.util.concurrent.CompletableFuture.allOf(totalF, premiumF, nonPremiumF).join();
-            int total = totalF.join();
-            int premium = premiumF.join();
-            int nonPremium = nonPremiumF.join();
+            // Jedno zapytanie agregujące zamiast wczytywania wszystkich kont
+            var counts = databaseManager.getAccountCounts().join();
+            int total = counts.total();
+            int premium = counts.premium();
+            int nonPremium = counts.nonPremium();
             double pct = total > 0 ? (premium * 100.0 / total) : 0.0;
 
             // Get cache stats AFTER database operations complete
@@ -834,12 +972,25 @@ public class CommandHandler {
             statsMessage.append(messages.get("admin.stats.authorized_players", cacheStats.authorizedPlayersCount())).append("\n");
             statsMessage.append(messages.get("admin.stats.premium_cache", cacheStats.premiumCacheCount())).append("\n");
             statsMessage.append(messages.get("admin.stats.database_cache", dbCacheSize)).append("\n");
-            statsMessage.append(messages.get("admin.stats.database_status", (Object) dbStatus));
+            statsMessage.append(messages.get("admin.stats.database_cache_hit_rate", databaseManager.getCacheHitRate())).append("\n");
+            statsMessage.append(messages.get("admin.stats.database_status", (Object) dbStatus)).append("\n");
+            appendBcryptStats(statsMessage);
 
             // Send complete message as single component
             CommandHelper.sendWarning(source, statsMessage.toString());
         }
 
+        private void appendBcryptStats(StringBuilder statsMessage) {
+            BcryptCalibrator.Result calibration = bcryptCalibration;
+            if (calibration != null && settings.isBcryptAutoCalibrate()) {
+                statsMessage.append(messages.get("admin.stats.bcrypt_calibrated", calibration.cost(),
+                        calibration.millisPerHash(), calibration.targetMillis())).append("\n");
+            } else {
+                statsMessage.append(messages.get("admin.stats.bcrypt_cost", settings.getBcryptCost())).append("\n");
+            }
+            statsMessage.append(messages.get("admin.stats.bcrypt_rehashed", rehashedOnLogin.get()));
+        }
+
         private void sendAdminHelp(CommandSource source) {
             source.sendMessage(sm.adminHelpHeader());
             source.sendMessage(sm.adminHelpReload());
@@ -870,4 +1021,15 @@ public class CommandHandler {
         player.sendMessage(ValidationUtils.createErrorComponent(messages.get(ERROR_DATABASE_QUERY)));
     }
 
+    /**
+     * Kolejka puli BCrypt jest pełna - odpowiedź bez liczenia hasha (backpressure).
+     */
+    private void sendHashingOverloaded(Player player, String username) {
+        player.sendMessage(sm.systemOverloaded());
+        if (logger.isDebugEnabled()) {
+            logger.debug(SECURITY_MARKER, "Odrzucono BCrypt dla {} - kolejka puli pełna ({} oczekujących)",
+                    username, passwordHasher.getQueueDepth());
+        }
+    }
+
 }
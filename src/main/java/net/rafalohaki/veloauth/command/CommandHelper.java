@@ -112,7 +112,9 @@ public final class CommandHelper {
      */
     private static void handleAsyncCommandException(Throwable throwable, CommandSource source, 
                                                      Messages messages, String errorKey) {
-        if (throwable instanceof java.util.concurrent.RejectedExecutionException) {
+        Throwable cause = throwable instanceof java.util.concurrent.CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        if (cause instanceof java.util.concurrent.RejectedExecutionException) {
             source.sendMessage(ValidationUtils.createErrorComponent(messages.get(MSG_KEY_SERVER_OVERLOADED)));
         } else {
             source.sendMessage(ValidationUtils.createErrorComponent(messages.get(errorKey)));
@@ -126,13 +128,14 @@ public final class CommandHelper {
      * @param messages Messages for error reporting
      * @param source   Command source for error messages
      * @param errorKey Message key for database errors
+     * @return true if the task was submitted, false if it was refused (message already sent)
      */
-    public static void runAsyncCommand(Runnable task, Messages messages,
+    public static boolean runAsyncCommand(Runnable task, Messages messages,
                                        CommandSource source, String errorKey) {
         // Check if executor is shutting down
         if (VirtualThreadExecutorProvider.isShutdown()) {
             source.sendMessage(ValidationUtils.createErrorComponent(messages.get(MSG_KEY_SERVER_SHUTTING_DOWN)));
-            return;
+            return false;
         }
 
         try {
@@ -142,8 +145,10 @@ public final class CommandHelper {
                         handleAsyncCommandException(throwable, source, messages, errorKey);
                         return null;
                     });
+            return true;
         } catch (java.util.concurrent.RejectedExecutionException e) {
             source.sendMessage(ValidationUtils.createErrorComponent(messages.get(MSG_KEY_SERVER_SHUTTING_DOWN)));
+            return false;
         }
     }
 
@@ -155,13 +160,14 @@ public final class CommandHelper {
      * @param source     Command source for error messages
      * @param errorKey   Message key for database errors
      * @param timeoutKey Message key for timeout errors
+     * @return true if the task was submitted, false if it was refused (message already sent)
      */
-    public static void runAsyncCommandWithTimeout(Runnable task, Messages messages,
+    public static boolean runAsyncCommandWithTimeout(Runnable task, Messages messages,
                                                   CommandSource source, String errorKey, String timeoutKey) {
         // Check if executor is shutting down
         if (VirtualThreadExecutorProvider.isShutdown()) {
             source.sendMessage(ValidationUtils.createErrorComponent(messages.get(MSG_KEY_SERVER_SHUTTING_DOWN)));
-            return;
+            return false;
         }
 
         try {
@@ -176,8 +182,10 @@ public final class CommandHelper {
                         }
                         return null;
                     });
+            return true;
         } catch (java.util.concurrent.RejectedExecutionException e) {
             source.sendMessage(ValidationUtils.createErrorComponent(messages.get(MSG_KEY_SERVER_SHUTTING_DOWN)));
+            return false;
         }
     }
 }
@@ -0,0 +1,285 @@
+package net.rafalohaki.veloauth.command;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * GCRA (Generic Cell Rate Algorithm) rate limiter with a hard memory cap.
+ * <p>
+ * Each address is represented by one long: its theoretical arrival time (TAT).
+ * Attempts refill smoothly at {@code window / maxAttempts} instead of resetting at a window edge,
+ * and a burst of up to {@code maxAttempts} is allowed from an idle state.
+ * <p>
+ * State lives in fixed, preallocated primitive arrays (4-way set-associative table),
+ * so memory is bounded by {@code maxEntries} regardless of how many source IPs are seen.
+ * When a set is full, the slot with the oldest TAT (the most "refilled" one) is evicted.
+ * Thread-safe: striped ReentrantLocks, no allocation on the hot path for IPv4.
+ */
+public class GcraRateLimiter implements AddressRateLimiter {
+
+    private static final int WAYS = 4;
+    private static final int MAX_STRIPES = 256;
+    private static final long EMPTY = 0L;
+
+    private final long emissionIntervalNanos;
+    private final long windowNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+
+    private final long[] keys;
+    private final long[] tats;
+    private final int setMask;
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+
+    private final AtomicInteger occupied = new AtomicInteger();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a new GcraRateLimiter.
+     *
+     * @param maxAttempts    Maximum attempts per IP within the window (burst size)
+     * @param timeoutMinutes Window in minutes over which maxAttempts refill
+     * @param maxEntries     Hard cap on tracked addresses (rounded up to a power of two)
+     */
+    public GcraRateLimiter(int maxAttempts, int timeoutMinutes, int maxEntries) {
+        this(maxAttempts, TimeUnit.MINUTES.toNanos(timeoutMinutes), maxEntries, System::nanoTime);
+    }
+
+    GcraRateLimiter(int maxAttempts, long windowNanos, int maxEntries, LongSupplier clock) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be > 0");
+        }
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("Timeout minutes must be > 0");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be > 0");
+        }
+
+        this.windowNanos = windowNanos;
+        this.emissionIntervalNanos = Math.max(1, windowNanos / maxAttempts);
+        this.burstToleranceNanos = windowNanos - emissionIntervalNanos;
+        this.clock = clock;
+
+        int sets = Integer.highestOneBit(Math.max(1, (maxEntries + WAYS - 1) / WAYS - 1)) << 1;
+        this.setMask = sets - 1;
+        this.keys = new long[sets * WAYS];
+        this.tats = new long[sets * WAYS];
+
+        int stripeCount = Math.min(sets, MAX_STRIPES);
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public boolean isRateLimited(InetAddress address) {
+        return address != null && isRateLimited(keyOf(address));
+    }
+
+    /**
+     * Checks a pre-packed, non-zero key (e.g. a subnet prefix key).
+     *
+     * @param key packed key
+     * @return true if rate limited
+     */
+    boolean isRateLimited(long key) {
+        int set = setOf(key);
+        ReentrantLock lock = stripes[set & stripeMask];
+        lock.lock();
+        try {
+            int slot = find(set, key);
+            if (slot < 0) {
+                return false;
+            }
+            // Next attempt would conform only if TAT - now <= tau
+            return tats[slot] - clock.getAsLong() > burstToleranceNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int incrementAttempts(InetAddress address) {
+        return address == null ? 0 : incrementAttempts(keyOf(address));
+    }
+
+    /**
+     * Records an attempt for a pre-packed, non-zero key.
+     *
+     * @param key packed key
+     * @return current attempt count after increment
+     */
+    int incrementAttempts(long key) {
+        int set = setOf(key);
+        ReentrantLock lock = stripes[set & stripeMask];
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            int slot = find(set, key);
+            if (slot < 0) {
+                slot = claim(set, now);
+                keys[slot] = key;
+                tats[slot] = now;
+            }
+            // Cap at one full window ahead - attempts made while limited cannot push TAT further
+            long tat = Math.min(Math.max(tats[slot], now) + emissionIntervalNanos, now + windowNanos);
+            tats[slot] = tat;
+            return attemptsAt(tat, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void reset(InetAddress address) {
+        if (address != null) {
+            reset(keyOf(address));
+        }
+    }
+
+    void reset(long key) {
+        int set = setOf(key);
+        ReentrantLock lock = stripes[set & stripeMask];
+        lock.lock();
+        try {
+            int slot = find(set, key);
+            if (slot >= 0) {
+                keys[slot] = EMPTY;
+                tats[slot] = 0L;
+                occupied.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getAttempts(InetAddress address) {
+        return address == null ? 0 : getAttempts(keyOf(address));
+    }
+
+    int getAttempts(long key) {
+        int set = setOf(key);
+        ReentrantLock lock = stripes[set & stripeMask];
+        lock.lock();
+        try {
+            int slot = find(set, key);
+            return slot < 0 ? 0 : attemptsAt(tats[slot], clock.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+        try {
+            Arrays.fill(keys, EMPTY);
+            Arrays.fill(tats, 0L);
+            occupied.set(0);
+        } finally {
+            for (ReentrantLock lock : stripes) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return occupied.get();
+    }
+
+    /**
+     * Gets the hard cap of tracked addresses.
+     *
+     * @return table capacity
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the number of entries evicted because their set was full.
+     *
+     * @return eviction count
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private int attemptsAt(long tat, long now) {
+        long pending = tat - now;
+        if (pending <= 0) {
+            return 0;
+        }
+        return (int) ((pending + emissionIntervalNanos - 1) / emissionIntervalNanos);
+    }
+
+    private int find(int set, long key) {
+        int base = set * WAYS;
+        for (int i = base; i < base + WAYS; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Picks a slot for a new key: an empty one, otherwise the oldest TAT in the set.
+     * Entries whose TAT is in the past carry no state, so evicting them is lossless.
+     */
+    private int claim(int set, long now) {
+        int base = set * WAYS;
+        int victim = base;
+        for (int i = base; i < base + WAYS; i++) {
+            if (keys[i] == EMPTY) {
+                occupied.incrementAndGet();
+                return i;
+            }
+            if (tats[i] < tats[victim]) {
+                victim = i;
+            }
+        }
+        if (tats[victim] > now) {
+            evictions.incrementAndGet();
+        }
+        return victim;
+    }
+
+    private int setOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & setMask;
+    }
+
+    /**
+     * Packs an address into a non-zero 64-bit key.
+     * IPv4 uses the address itself (no allocation); IPv6 is folded to 64 bits.
+     */
+    static long keyOf(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            return 0x1_0000_0000L | (address.hashCode() & 0xFFFF_FFFFL);
+        }
+        byte[] bytes = address.getAddress();
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < 8; i++) {
+            hi = (hi << 8) | (bytes[i] & 0xFF);
+            lo = (lo << 8) | (bytes[i + 8] & 0xFF);
+        }
+        long key = hi * 0xC2B2AE3D27D4EB4FL ^ Long.rotateLeft(lo, 31) * 0x165667B19E3779F9L;
+        return key == EMPTY || (key >>> 32) == 1 ? key ^ 0x8000_0000_0000_0000L : key;
+    }
+}
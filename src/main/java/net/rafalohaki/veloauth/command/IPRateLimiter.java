@@ -9,7 +9,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Thread-safe: uses ConcurrentHashMap and atomic operations.
  * Simple implementation without over-engineering.
  */
-public class IPRateLimiter {
+public class IPRateLimiter implements AddressRateLimiter {
 
     /**
      * IP-based rate limiting entries - ALWAYS ConcurrentHashMap for thread-safety.
@@ -51,6 +51,7 @@ public class IPRateLimiter {
      * @param address IP address to check
      * @return true if rate limited
      */
+    @Override
     public boolean isRateLimited(InetAddress address) {
         if (address == null) {
             return false;
@@ -76,6 +77,7 @@ public class IPRateLimiter {
      * @param address IP address to increment for
      * @return current attempt count after increment
      */
+    @Override
     public int incrementAttempts(InetAddress address) {
         if (address == null) {
             return 0;
@@ -97,6 +99,7 @@ public class IPRateLimiter {
      *
      * @param address IP address to reset
      */
+    @Override
     public void reset(InetAddress address) {
         if (address != null) {
             rateLimits.remove(address);
@@ -109,6 +112,7 @@ public class IPRateLimiter {
      * @param address IP address to check
      * @return current attempt count (0 if not tracked)
      */
+    @Override
     public int getAttempts(InetAddress address) {
         if (address == null) {
             return 0;
@@ -131,6 +135,7 @@ public class IPRateLimiter {
     /**
      * Clears all rate limit entries.
      */
+    @Override
     public void clearAll() {
         rateLimits.clear();
     }
@@ -140,6 +145,7 @@ public class IPRateLimiter {
      *
      * @return number of tracked IPs
      */
+    @Override
     public int size() {
         return rateLimits.size();
     }
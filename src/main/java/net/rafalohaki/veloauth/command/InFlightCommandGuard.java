@@ -0,0 +1,89 @@
+package net.rafalohaki.veloauth.command;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pilnuje, żeby dla jednego gracza wykonywała się naraz najwyżej jedna komenda autoryzacji
+ * (/login, /register, /changepassword).
+ * <p>
+ * Kolejne wywołania w trakcie trwającej komendy są odrzucane przed kolejką wirtualnych wątków,
+ * więc spam {@code /login x} nie uruchamia kolejnych weryfikacji BCrypt ani zapytań do bazy.
+ * Slot jest zwalniany dopiero po faktycznym zakończeniu zadania (także po timeoucie odpowiedzi).
+ * <p>
+ * Thread-safe.
+ */
+public final class InFlightCommandGuard {
+
+    private final Map<UUID, String> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> dropped = new ConcurrentHashMap<>();
+
+    /**
+     * Zajmuje slot gracza.
+     *
+     * @param playerUuid UUID gracza
+     * @param command    nazwa komendy (etykieta licznika odrzuceń)
+     * @return true jeśli gracz nie miał trwającej komendy; false - duplikat odrzucony i policzony
+     */
+    public boolean tryAcquire(UUID playerUuid, String command) {
+        if (inFlight.putIfAbsent(playerUuid, command) == null) {
+            return true;
+        }
+        dropped.computeIfAbsent(command, key -> new LongAdder()).increment();
+        return false;
+    }
+
+    /**
+     * Zwalnia slot gracza po zakończeniu komendy.
+     *
+     * @param playerUuid UUID gracza
+     */
+    public void release(UUID playerUuid) {
+        inFlight.remove(playerUuid);
+    }
+
+    /**
+     * Opakowuje zadanie tak, żeby po zakończeniu zwolniło slot gracza.
+     *
+     * @param playerUuid UUID gracza
+     * @param task       zadanie komendy
+     * @return zadanie zwalniające slot w finally
+     */
+    public Runnable releasingAfter(UUID playerUuid, Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } finally {
+                release(playerUuid);
+            }
+        };
+    }
+
+    /**
+     * @return liczba graczy z trwającą komendą
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @param command nazwa komendy
+     * @return odrzucone duplikaty danej komendy
+     */
+    public long getDroppedCount(String command) {
+        LongAdder counter = dropped.get(command);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * @return odrzucone duplikaty według komendy (posortowane po nazwie)
+     */
+    public Map<String, Long> getDroppedCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        dropped.forEach((command, counter) -> counts.put(command, counter.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,281 @@
+package net.rafalohaki.veloauth.command;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import net.rafalohaki.veloauth.database.LatencyHistogram;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dedykowana pula wątków platformowych dla BCrypt (hashowanie i weryfikacja haseł).
+ * <p>
+ * BCrypt to czyste obliczenia CPU - na wirtualnych wątkach fala /login tworzy tysiące wątków
+ * gotowych do uruchomienia, które konkurują z Nettym o wątki nośne. Tutaj liczba równoległych
+ * obliczeń jest ograniczona do ułamka rdzeni, a nadmiar czeka w kolejce o stałej pojemności.
+ * Przy pełnej kolejce zadanie jest odrzucane od razu {@link RejectedExecutionException}
+ * (komenda odpowiada wtedy komunikatem o przeciążeniu), zamiast czekać w nieskończoność.
+ * <p>
+ * Wywołujący (wirtualny wątek komendy) czeka na wynik - blokowanie wirtualnego wątku nie zajmuje
+ * wątku nośnego. Thread-safe.
+ */
+public final class PasswordHasher {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final char BCRYPT_TARGET_VERSION = 'y';
+    private static final String CALIBRATION_PASSWORD = "veloauth-calibration";
+
+    /**
+     * Rodzaj operacji (etykieta metryk czasu).
+     */
+    public enum Operation {
+        HASH("hash"),
+        VERIFY("verify"),
+        CALIBRATE("calibrate");
+
+        private final String metricName;
+
+        Operation(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final int queueCapacity;
+
+    private final LatencyHistogram[] durations = new LatencyHistogram[Operation.values().length];
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param threads       liczba wątków liczących BCrypt (min. 1)
+     * @param queueCapacity maksymalna liczba zadań czekających na wątek (min. 1)
+     */
+    public PasswordHasher(int threads, int queueCapacity) {
+        this.threads = Math.max(1, threads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        for (Operation operation : Operation.values()) {
+            durations[operation.ordinal()] = new LatencyHistogram();
+        }
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), new HashThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Bez ruchu pula nie trzyma wątków
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Liczba wątków dla ułamka rdzeni.
+     *
+     * @param cpuFraction ułamek dostępnych rdzeni (0.0-1.0]
+     * @param cores       liczba rdzeni
+     * @return co najmniej 1 wątek
+     */
+    static int threadsFor(double cpuFraction, int cores) {
+        return Math.max(1, (int) Math.round(cores * cpuFraction));
+    }
+
+    /**
+     * Tworzy pulę o rozmiarze {@code cpuFraction} dostępnych rdzeni.
+     *
+     * @param cpuFraction   ułamek rdzeni przeznaczony na BCrypt
+     * @param queueCapacity pojemność kolejki
+     * @return nowa pula
+     */
+    public static PasswordHasher forCpuFraction(double cpuFraction, int queueCapacity) {
+        return new PasswordHasher(threadsFor(cpuFraction, Runtime.getRuntime().availableProcessors()), queueCapacity);
+    }
+
+    /**
+     * Sprawdza hasło z hashem BCrypt.
+     *
+     * @throws RejectedExecutionException gdy kolejka jest pełna lub pula została zamknięta
+     */
+    public boolean verify(String password, String hash) {
+        return call(Operation.VERIFY, () -> BCrypt.verifyer().verify(password.toCharArray(), hash).verified);
+    }
+
+    /**
+     * Hashuje hasło (BCrypt 2y).
+     *
+     * @param cost koszt BCrypt (4-31)
+     * @throws RejectedExecutionException gdy kolejka jest pełna lub pula została zamknięta
+     */
+    public String hash(String password, int cost) {
+        return call(Operation.HASH, () -> BCrypt.with(BCrypt.Version.VERSION_2Y)
+                .hashToString(cost, password.toCharArray()));
+    }
+
+    /**
+     * Kalibruje koszt BCrypt na wątkach tej puli (tych samych, które liczą hashe graczy).
+     *
+     * @param targetMillis budżet czasu na hash (ms)
+     * @param minCost      najniższy dopuszczalny koszt
+     * @param maxCost      najwyższy rozważany koszt
+     * @return wybrany koszt i pomiary
+     */
+    BcryptCalibrator.Result calibrate(long targetMillis, int minCost, int maxCost) {
+        return BcryptCalibrator.calibrate(cost -> call(Operation.CALIBRATE, () -> {
+            long start = System.nanoTime();
+            BCrypt.with(BCrypt.Version.VERSION_2Y).hashToString(cost, CALIBRATION_PASSWORD.toCharArray());
+            return System.nanoTime() - start;
+        }), targetMillis, minCost, maxCost);
+    }
+
+    /**
+     * Sprawdza, czy zapisany hash BCrypt jest słabszy od docelowego (niższy koszt) lub ma inną wersję niż $2y$.
+     * Hashe o wyższym koszcie zostają - obniżenie bcrypt-cost albo kalibracja na wolniejszym hoście
+     * (kilka proxy na jednej bazie) nie może osłabiać zapisanych haseł ani przepisywać ich w kółko.
+     * Hashe w nieznanym formacie nie są przeliczane.
+     *
+     * @param hash zapisany hash
+     * @param cost docelowy koszt
+     * @return true jeśli hash należy przeliczyć przy najbliższym logowaniu
+     */
+    public static boolean needsRehash(String hash, int cost) {
+        int storedCost = storedCost(hash);
+        if (storedCost < 0) {
+            return false;
+        }
+        return hash.charAt(2) != BCRYPT_TARGET_VERSION || storedCost < cost;
+    }
+
+    /**
+     * @param hash zapisany hash
+     * @return koszt zapisanego hasha BCrypt lub -1 dla nieznanego formatu
+     */
+    public static int storedCost(String hash) {
+        // Format: $2<wersja>$<koszt, 2 cyfry>$<sól + hash>
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(1) != '2'
+                || hash.charAt(3) != '$' || hash.charAt(6) != '$'
+                || !Character.isDigit(hash.charAt(4)) || !Character.isDigit(hash.charAt(5))) {
+            return -1;
+        }
+        return (hash.charAt(4) - '0') * 10 + (hash.charAt(5) - '0');
+    }
+
+    /**
+     * Wykonuje obliczenie w puli i czeka na wynik.
+     */
+    <T> T call(Operation operation, Callable<T> computation) {
+        long enqueuedAt = System.nanoTime();
+        FutureTask<T> task = new FutureTask<>(() -> {
+            long start = System.nanoTime();
+            queueWait.record(TimeUnit.NANOSECONDS.toMicros(start - enqueuedAt));
+            try {
+                return computation.call();
+            } finally {
+                durations[operation.ordinal()].record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+        return await(task);
+    }
+
+    private static <T> T await(FutureTask<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (CancellationException e) {
+            throw new RejectedExecutionException("Password hashing cancelled (shutdown)", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            if (cause instanceof InterruptedException) {
+                throw new RejectedExecutionException("Password hashing interrupted (shutdown)", cause);
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    /**
+     * Zamyka pulę - zadania z kolejki są anulowane, a czekający dostają {@link RejectedExecutionException}.
+     */
+    public void shutdown() {
+        for (Runnable pending : executor.shutdownNow()) {
+            if (pending instanceof FutureTask<?> task) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return obliczenia wykonywane w tej chwili
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return obliczenia czekające w kolejce
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return zadania odrzucone przy pełnej kolejce lub po zamknięciu puli
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return czas obliczeń BCrypt danej operacji
+     */
+    public LatencyHistogram.Snapshot durationSnapshot(Operation operation) {
+        return durations[operation.ordinal()].snapshot();
+    }
+
+    /**
+     * @return czas oczekiwania w kolejce na wolny wątek
+     */
+    public LatencyHistogram.Snapshot queueWaitSnapshot() {
+        return queueWait.snapshot();
+    }
+
+    private static final class HashThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "VeloAuth-PasswordHash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package net.rafalohaki.veloauth.command;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Subnet-aggregated rate limiter.
+ * <p>
+ * Counts attempts per network prefix (by default IPv4 /24 and IPv6 /64) in addition to an optional
+ * exact-address limiter, so rotating addresses inside one allocation no longer bypasses the limit.
+ * Prefixes are packed into a single long key and tracked in a bounded GCRA table
+ * ({@link GcraRateLimiter}), so no {@link InetAddress} objects are retained and lookups are O(1).
+ * IPv4 keys are derived without allocation; IPv6 needs the 16-byte {@code getAddress()} copy.
+ */
+public class SubnetRateLimiter implements AddressRateLimiter {
+
+    private static final long FAMILY_V4 = 0x4L << 56;
+
+    private final AddressRateLimiter exact;
+    private final GcraRateLimiter subnets;
+    private final int ipv4Prefix;
+    private final int ipv6Prefix;
+    private final long ipv4Mask;
+
+    /**
+     * Creates a new SubnetRateLimiter.
+     *
+     * @param exact              Exact-address limiter checked alongside the subnet limit, or null for subnet only
+     * @param ipv4Prefix         IPv4 prefix length (1-32)
+     * @param ipv6Prefix         IPv6 prefix length (1-128)
+     * @param maxSubnetAttempts  Maximum attempts per subnet within the window
+     * @param timeoutMinutes     Window in minutes
+     * @param maxEntries         Hard cap of tracked subnets
+     */
+    public SubnetRateLimiter(AddressRateLimiter exact, int ipv4Prefix, int ipv6Prefix,
+                             int maxSubnetAttempts, int timeoutMinutes, int maxEntries) {
+        this(exact, ipv4Prefix, ipv6Prefix,
+                new GcraRateLimiter(maxSubnetAttempts, TimeUnit.MINUTES.toNanos(timeoutMinutes), maxEntries, System::nanoTime));
+    }
+
+    SubnetRateLimiter(AddressRateLimiter exact, int ipv4Prefix, int ipv6Prefix,
+                      int maxSubnetAttempts, long windowNanos, int maxEntries, LongSupplier clock) {
+        this(exact, ipv4Prefix, ipv6Prefix, new GcraRateLimiter(maxSubnetAttempts, windowNanos, maxEntries, clock));
+    }
+
+    private SubnetRateLimiter(AddressRateLimiter exact, int ipv4Prefix, int ipv6Prefix, GcraRateLimiter subnets) {
+        if (ipv4Prefix < 1 || ipv4Prefix > 32) {
+            throw new IllegalArgumentException("IPv4 prefix must be in range 1-32");
+        }
+        if (ipv6Prefix < 1 || ipv6Prefix > 128) {
+            throw new IllegalArgumentException("IPv6 prefix must be in range 1-128");
+        }
+        this.exact = exact;
+        this.subnets = subnets;
+        this.ipv4Prefix = ipv4Prefix;
+        this.ipv6Prefix = ipv6Prefix;
+        this.ipv4Mask = (0xFFFF_FFFFL << (32 - ipv4Prefix)) & 0xFFFF_FFFFL;
+    }
+
+    @Override
+    public boolean isRateLimited(InetAddress address) {
+        if (address == null) {
+            return false;
+        }
+        return (exact != null && exact.isRateLimited(address)) || subnets.isRateLimited(prefixKey(address));
+    }
+
+    /**
+     * Checks only the subnet-level limit for the address.
+     *
+     * @param address IP address to check
+     * @return true if the address's subnet is rate limited
+     */
+    public boolean isSubnetLimited(InetAddress address) {
+        return address != null && subnets.isRateLimited(prefixKey(address));
+    }
+
+    @Override
+    public int incrementAttempts(InetAddress address) {
+        if (address == null) {
+            return 0;
+        }
+        int subnetAttempts = subnets.incrementAttempts(prefixKey(address));
+        return exact != null ? exact.incrementAttempts(address) : subnetAttempts;
+    }
+
+    @Override
+    public void reset(InetAddress address) {
+        // Subnet counters are shared by many addresses - only the exact entry is reset
+        if (exact != null) {
+            exact.reset(address);
+        }
+    }
+
+    @Override
+    public int getAttempts(InetAddress address) {
+        if (address == null) {
+            return 0;
+        }
+        return exact != null ? exact.getAttempts(address) : subnets.getAttempts(prefixKey(address));
+    }
+
+    /**
+     * Gets the aggregated attempt count of the address's subnet.
+     *
+     * @param address IP address
+     * @return subnet attempt count
+     */
+    public int getSubnetAttempts(InetAddress address) {
+        return address == null ? 0 : subnets.getAttempts(prefixKey(address));
+    }
+
+    @Override
+    public void clearAll() {
+        if (exact != null) {
+            exact.clearAll();
+        }
+        subnets.clearAll();
+    }
+
+    @Override
+    public int size() {
+        return subnets.size();
+    }
+
+    /**
+     * Packs the address's network prefix into a non-zero long key.
+     *
+     * @param address IP address
+     * @return prefix key
+     */
+    long prefixKey(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            return FAMILY_V4 | ((long) ipv4Prefix << 32) | (address.hashCode() & ipv4Mask);
+        }
+        byte[] bytes = address.getAddress();
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < 8; i++) {
+            hi = (hi << 8) | (bytes[i] & 0xFF);
+            lo = (lo << 8) | (bytes[i + 8] & 0xFF);
+        }
+        if (ipv6Prefix <= 64) {
+            hi &= ipv6Prefix == 64 ? -1L : ~(-1L >>> ipv6Prefix);
+            lo = 0;
+        } else {
+            lo &= ipv6Prefix == 128 ? -1L : ~(-1L >>> (ipv6Prefix - 64));
+        }
+        // Fold 128 bits + prefix length into 64 bits; keep clear of the IPv4 key space and of 0
+        long key = (hi * 0xC2B2AE3D27D4EB4FL) ^ Long.rotateLeft(lo * 0x165667B19E3779F9L, 29) ^ ipv6Prefix;
+        key &= ~(0xFFL << 56);
+        return key | (0x6L << 56);
+    }
+}
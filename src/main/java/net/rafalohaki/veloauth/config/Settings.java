@@ -43,12 +43,28 @@ public class Settings {
     private String databaseConnectionParameters = ""; // Additional connection params
     private int databaseConnectionPoolSize = 20;
     private long databaseMaxLifetimeMillis = 1800000; // 30 minutes default
+    private long databaseLookupBatchWindowMicros = 0; // 0 = disabled, e.g. 1500 = 1.5 ms
+    private int databaseLookupBatchMaxSize = 100; // Keys per IN query before flushing early
+    private long databaseLoginWriteBehindMillis = 1000; // 0 = save login data synchronously
+    private int databaseLoginWriteBehindBatchSize = 200; // Pending players before flushing early
+    private int databaseStreamFetchSize = 500; // Rows per round trip when iterating whole tables
+    private long databaseSlowQueryThresholdMillis = 250; // 0 = slow query log disabled
+    private String databaseReplicaHostname = ""; // Empty = no read replica
+    private int databaseReplicaPort = 0; // 0 = same port as the primary
+    private int databaseReplicaConnectionPoolSize = 0; // 0 = same size as the primary pool
+    private long databaseReplicaMaxLagMillis = 2000; // Lookups fall back to the primary above this lag
+    // Query lane (bulkhead) limits - maxConcurrent 0 = derived from connection-pool-size
+    private final QueryLaneSettings hotQueryLane = new QueryLaneSettings(0, 1000, 3000);
+    private final QueryLaneSettings writeQueryLane = new QueryLaneSettings(0, 1000, 5000);
+    private final QueryLaneSettings adminQueryLane = new QueryLaneSettings(0, 16, 30_000);
     // Cache settings
     private int cacheTtlMinutes = 60;
     private int cacheMaxSize = 10000;
     private int cacheCleanupIntervalMinutes = 5;
     private int premiumTtlHours = 24;
     private double premiumRefreshThreshold = 0.8;
+    private String sessionStore = "map"; // map | packed (primitive arrays, fewer objects per session)
+    private boolean cacheSnapshotEnabled = true; // Persist caches on shutdown, reload on startup (warm restart)
     // PicoLimbo settings
     private String picoLimboServerName = "limbo";
     private int picoLimboTimeoutSeconds = 300;
@@ -56,6 +72,13 @@ public class Settings {
     private int connectionTimeoutSeconds = 20;
     // Security settings
     private int bcryptCost = 10;
+    private boolean bcryptAutoCalibrate = false; // Measure BCrypt at startup and pick cost within bcryptTargetMillis
+    private long bcryptTargetMillis = 250;
+    private int bcryptMinCost = 10;
+    private int bcryptMaxCost = 16;
+    private boolean bcryptRehashOnLogin = true; // Upgrade hashes with a different cost/version on successful login
+    private double passwordHashCpuFraction = 0.5; // Share of cores for the BCrypt worker pool
+    private int passwordHashQueueCapacity = 256; // BCrypt jobs waiting for a worker before fast rejection
     private int bruteForceMaxAttempts = 5;
     private int bruteForceTimeoutMinutes = 5;
     private int ipLimitRegistrations = 3;
@@ -65,6 +88,12 @@ public class Settings {
     private int maxConcurrentSessions = 2; // Maximum concurrent sessions per player
     private int preLoginRateLimitAttempts = 10; // PreLogin attempts per time window
     private int preLoginRateLimitMinutes = 1; // PreLogin rate limit time window
+    private String preLoginRateLimitMode = "fixed-window"; // fixed-window | gcra
+    private int preLoginRateLimitMaxEntries = 65536; // Hard cap of tracked IPs (gcra mode)
+    private boolean subnetLimitEnabled = false; // Aggregate limits per subnet alongside exact IP
+    private int subnetIpv4Prefix = 24;
+    private int subnetIpv6Prefix = 64;
+    private int subnetLimitMultiplier = 4; // Subnet limit = per-IP limit * multiplier
     private int sessionTimeoutMinutes = 60; // Session timeout in minutes
     private boolean blockCommandsBeforeAuth = false; // Block commands before authentication
     // Debug settings
@@ -164,6 +193,33 @@ public class Settings {
                   password: "" # Strong password recommended
                   connection-pool-size: 20 # Maximum pooled connections
                   max-lifetime-millis: 1800000 # Connection max lifetime in milliseconds (30 minutes)
+                  lookup-batch-window-micros: 0 # Batch player lookups into one IN query per window (0 = disabled, 1500 = 1.5 ms)
+                  lookup-batch-max-size: 100 # Run the batch early once this many nicknames are queued
+                  login-write-behind-millis: 1000 # Queue last-login IP/date and write them in batches (0 = write on every login)
+                  login-write-behind-batch-size: 200 # Write the queue early once this many players are pending
+                  stream-fetch-size: 500 # Rows fetched per round trip when walking all accounts (admin/export)
+                  slow-query-threshold-millis: 250 # Log queries at least this slow with statement name and time (0 = disabled)
+                  # Optional read replica (MySQL/PostgreSQL) for nickname and premium lookups
+                  # Uses the same database, user, password and SSL settings as the primary
+                  replica-hostname: "" # Empty = disabled, all queries go to the primary
+                  replica-port: 0 # 0 = same port as the primary
+                  replica-connection-pool-size: 0 # 0 = same size as connection-pool-size
+                  replica-max-lag-millis: 2000 # Above this lag lookups use the primary; also the read-your-own-write window after a save
+                  # Bulkheads: separate concurrency limits, queues and timeouts per query class
+                  # so slow admin/maintenance queries cannot take the connections login lookups need
+                  query-lanes:
+                    hot: # Nickname and premium lookups during login
+                      max-concurrent: 0 # 0 = connection-pool-size
+                      max-queued: 1000 # Lookups waiting for a slot; more fail fast with a database error
+                      timeout-millis: 3000 # Maximum wait for a slot
+                    write: # Player saves, deletes and login metadata flushes
+                      max-concurrent: 0 # 0 = half of connection-pool-size
+                      max-queued: 1000
+                      timeout-millis: 5000
+                    admin: # /vauth stats, conflicts, exports and schema migration
+                      max-concurrent: 0 # 0 = a fifth of connection-pool-size (at least 1)
+                      max-queued: 16
+                      timeout-millis: 30000
                   # Optional: Full database connection URL
                   # If set, will be used instead of individual parameters
                   # Examples:
@@ -194,9 +250,11 @@ public class Settings {
                 cache:
                   ttl-minutes: 60 # Cache entry lifetime
                   max-size: 10000 # Maximum cached records
-                  cleanup-interval-minutes: 5 # Cleanup scheduler interval
+                  cleanup-interval-minutes: 5 # Deprecated, ignored - expired entries are removed every second by the expiry timing wheel
                   premium-ttl-hours: 24 # Premium status cache TTL in hours (default: 24)
                   premium-refresh-threshold: 0.8 # Background refresh threshold (0.0-1.0, default: 0.8)
+                  session-store: map # Active session storage: map or packed (primitive arrays, smaller heap footprint on large networks)
+                  snapshot-enabled: true # Save caches to cache-snapshot.bin on shutdown and reload unexpired entries on startup
                 
                 # PicoLimbo integration (fallback server for unauthenticated players)
                 picolimbo:
@@ -209,7 +267,14 @@ public class Settings {
                 
                 # Security settings for password hashing and brute-force protection
                 security:
-                  bcrypt-cost: 10 # BCrypt hashing rounds (4-31)
+                  bcrypt-cost: 10 # BCrypt hashing rounds (4-31), used when auto-calibration is disabled
+                  bcrypt-auto-calibrate: false # Measure BCrypt at startup and use the highest cost within bcrypt-target-millis
+                  bcrypt-target-millis: 250 # Per-hash latency budget for auto-calibration
+                  bcrypt-min-cost: 10 # Lowest cost auto-calibration may pick (kept even if it exceeds the budget)
+                  bcrypt-max-cost: 16 # Highest cost auto-calibration may pick
+                  bcrypt-rehash-on-login: true # Rehash stored passwords with a lower cost or older version on successful login (never lowers cost)
+                  hash-pool-cpu-fraction: 0.5 # Share of CPU cores for BCrypt workers (0.0-1.0, at least 1 thread)
+                  hash-queue-capacity: 256 # BCrypt jobs queued before /login and /register reply "server overloaded"
                   bruteforce-max-attempts: 5 # Attempts before temporary block
                   bruteforce-timeout-minutes: 5 # Block duration in minutes
                   ip-limit-registrations: 3 # Account registrations per IP
@@ -219,6 +284,12 @@ public class Settings {
                   max-concurrent-sessions: 2 # Maximum concurrent sessions per player (prevents account sharing)
                   prelogin-ratelimit-attempts: 10 # PreLogin connection attempts per time window
                   prelogin-ratelimit-minutes: 1 # PreLogin rate limit time window in minutes
+                  prelogin-ratelimit-mode: fixed-window # fixed-window or gcra (smooth refill, bounded memory)
+                  prelogin-ratelimit-max-entries: 65536 # Max tracked IPs in gcra mode (hard memory cap)
+                  subnet-limit-enabled: false # Also limit PreLogin and brute force per subnet (catches address rotation)
+                  subnet-ipv4-prefix: 24 # IPv4 subnet prefix length (1-32)
+                  subnet-ipv6-prefix: 64 # IPv6 subnet prefix length (1-128)
+                  subnet-limit-multiplier: 4 # Subnet limit = per-IP limit * multiplier
                   session-timeout-minutes: 60 # Session timeout in minutes (player must re-login after this time)
                   block-commands-before-auth: false # Block command execution before authentication (except /login, /register)
                 
@@ -271,9 +342,20 @@ public class Settings {
             databaseConnectionParameters = getString(database, "connection-parameters", databaseConnectionParameters);
             databaseConnectionPoolSize = getInt(database, "connection-pool-size", databaseConnectionPoolSize);
             databaseMaxLifetimeMillis = getLong(database, "max-lifetime-millis", databaseMaxLifetimeMillis);
+            databaseLookupBatchWindowMicros = getLong(database, "lookup-batch-window-micros", databaseLookupBatchWindowMicros);
+            databaseLookupBatchMaxSize = getInt(database, "lookup-batch-max-size", databaseLookupBatchMaxSize);
+            databaseLoginWriteBehindMillis = getLong(database, "login-write-behind-millis", databaseLoginWriteBehindMillis);
+            databaseLoginWriteBehindBatchSize = getInt(database, "login-write-behind-batch-size", databaseLoginWriteBehindBatchSize);
+            databaseStreamFetchSize = getInt(database, "stream-fetch-size", databaseStreamFetchSize);
+            databaseSlowQueryThresholdMillis = getLong(database, "slow-query-threshold-millis", databaseSlowQueryThresholdMillis);
+            databaseReplicaHostname = getString(database, "replica-hostname", databaseReplicaHostname);
+            databaseReplicaPort = getInt(database, "replica-port", databaseReplicaPort);
+            databaseReplicaConnectionPoolSize = getInt(database, "replica-connection-pool-size", databaseReplicaConnectionPoolSize);
+            databaseReplicaMaxLagMillis = getLong(database, "replica-max-lag-millis", databaseReplicaMaxLagMillis);
 
             // Load PostgreSQL-specific settings
             loadPostgreSQLSettings(database);
+            loadQueryLaneSettings(database);
         }
     }
 
@@ -294,6 +376,31 @@ public class Settings {
         }
     }
 
+    /**
+     * Loads query lane (bulkhead) limits from database configuration.
+     */
+    @SuppressWarnings("unchecked")
+    private void loadQueryLaneSettings(Map<String, Object> database) {
+        Object lanesSection = database.get("query-lanes");
+        if (lanesSection instanceof Map<?, ?>) {
+            Map<String, Object> lanes = (Map<String, Object>) lanesSection;
+            loadQueryLane(lanes, "hot", hotQueryLane);
+            loadQueryLane(lanes, "write", writeQueryLane);
+            loadQueryLane(lanes, "admin", adminQueryLane);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadQueryLane(Map<String, Object> lanes, String name, QueryLaneSettings lane) {
+        Object laneSection = lanes.get(name);
+        if (laneSection instanceof Map<?, ?>) {
+            Map<String, Object> values = (Map<String, Object>) laneSection;
+            lane.setMaxConcurrent(getInt(values, "max-concurrent", lane.getMaxConcurrent()));
+            lane.setMaxQueued(getInt(values, "max-queued", lane.getMaxQueued()));
+            lane.setTimeoutMillis(getLong(values, "timeout-millis", lane.getTimeoutMillis()));
+        }
+    }
+
     /**
      * Ładuje ustawienia debug.
      */
@@ -431,6 +538,8 @@ public class Settings {
             cacheCleanupIntervalMinutes = getInt(cache, "cleanup-interval-minutes", cacheCleanupIntervalMinutes);
             premiumTtlHours = getInt(cache, "premium-ttl-hours", premiumTtlHours);
             premiumRefreshThreshold = getDouble(cache, "premium-refresh-threshold", premiumRefreshThreshold);
+            sessionStore = getString(cache, "session-store", sessionStore);
+            cacheSnapshotEnabled = getBoolean(cache, "snapshot-enabled", cacheSnapshotEnabled);
         }
     }
 
@@ -465,6 +574,13 @@ public class Settings {
         Map<String, Object> security = (Map<String, Object>) config.get("security");
         if (security != null) {
             bcryptCost = getInt(security, "bcrypt-cost", bcryptCost);
+            bcryptAutoCalibrate = getBoolean(security, "bcrypt-auto-calibrate", bcryptAutoCalibrate);
+            bcryptTargetMillis = getLong(security, "bcrypt-target-millis", bcryptTargetMillis);
+            bcryptMinCost = getInt(security, "bcrypt-min-cost", bcryptMinCost);
+            bcryptMaxCost = getInt(security, "bcrypt-max-cost", bcryptMaxCost);
+            bcryptRehashOnLogin = getBoolean(security, "bcrypt-rehash-on-login", bcryptRehashOnLogin);
+            passwordHashCpuFraction = getDouble(security, "hash-pool-cpu-fraction", passwordHashCpuFraction);
+            passwordHashQueueCapacity = getInt(security, "hash-queue-capacity", passwordHashQueueCapacity);
             bruteForceMaxAttempts = getInt(security, "bruteforce-max-attempts", bruteForceMaxAttempts);
             bruteForceTimeoutMinutes = getInt(security, "bruteforce-timeout-minutes", bruteForceTimeoutMinutes);
             ipLimitRegistrations = getInt(security, "ip-limit-registrations", ipLimitRegistrations);
@@ -474,6 +590,12 @@ public class Settings {
             maxConcurrentSessions = getInt(security, "max-concurrent-sessions", maxConcurrentSessions);
             preLoginRateLimitAttempts = getInt(security, "prelogin-ratelimit-attempts", preLoginRateLimitAttempts);
             preLoginRateLimitMinutes = getInt(security, "prelogin-ratelimit-minutes", preLoginRateLimitMinutes);
+            preLoginRateLimitMode = getString(security, "prelogin-ratelimit-mode", preLoginRateLimitMode);
+            preLoginRateLimitMaxEntries = getInt(security, "prelogin-ratelimit-max-entries", preLoginRateLimitMaxEntries);
+            subnetLimitEnabled = getBoolean(security, "subnet-limit-enabled", subnetLimitEnabled);
+            subnetIpv4Prefix = getInt(security, "subnet-ipv4-prefix", subnetIpv4Prefix);
+            subnetIpv6Prefix = getInt(security, "subnet-ipv6-prefix", subnetIpv6Prefix);
+            subnetLimitMultiplier = getInt(security, "subnet-limit-multiplier", subnetLimitMultiplier);
             sessionTimeoutMinutes = getInt(security, "session-timeout-minutes", sessionTimeoutMinutes);
             blockCommandsBeforeAuth = getBoolean(security, "block-commands-before-auth", blockCommandsBeforeAuth);
         }
@@ -589,12 +711,27 @@ public class Settings {
         if (premiumRefreshThreshold < 0.0 || premiumRefreshThreshold > 1.0) {
             throw new IllegalArgumentException("Premium refresh threshold musi być w zakresie 0.0-1.0");
         }
+        if (!"map".equalsIgnoreCase(sessionStore) && !"packed".equalsIgnoreCase(sessionStore)) {
+            throw new IllegalArgumentException("Cache session store musi być 'map' lub 'packed'");
+        }
     }
 
     private void validateSecuritySettings() {
         if (bcryptCost < 4 || bcryptCost > 31) {
             throw new IllegalArgumentException("BCrypt cost musi być w zakresie 4-31");
         }
+        if (bcryptTargetMillis <= 0) {
+            throw new IllegalArgumentException("BCrypt target millis musi być > 0");
+        }
+        if (bcryptMinCost < 4 || bcryptMaxCost > 31 || bcryptMinCost > bcryptMaxCost) {
+            throw new IllegalArgumentException("BCrypt min/max cost musi spełniać 4 <= min <= max <= 31");
+        }
+        if (passwordHashCpuFraction <= 0.0 || passwordHashCpuFraction > 1.0) {
+            throw new IllegalArgumentException("Hash pool CPU fraction musi być w zakresie (0.0-1.0]");
+        }
+        if (passwordHashQueueCapacity <= 0) {
+            throw new IllegalArgumentException("Hash queue capacity musi być > 0");
+        }
 
         if (bruteForceMaxAttempts <= 0) {
             throw new IllegalArgumentException("Brute force max attempts musi być > 0");
@@ -609,6 +746,21 @@ public class Settings {
         if (maxPasswordLength <= minPasswordLength) {
             throw new IllegalArgumentException("Max password length musi być > min password length");
         }
+        if (!"fixed-window".equalsIgnoreCase(preLoginRateLimitMode) && !"gcra".equalsIgnoreCase(preLoginRateLimitMode)) {
+            throw new IllegalArgumentException("PreLogin rate limit mode musi być 'fixed-window' lub 'gcra'");
+        }
+        if (preLoginRateLimitMaxEntries <= 0) {
+            throw new IllegalArgumentException("PreLogin rate limit max entries musi być > 0");
+        }
+        if (subnetIpv4Prefix < 1 || subnetIpv4Prefix > 32) {
+            throw new IllegalArgumentException("Subnet IPv4 prefix musi być w zakresie 1-32");
+        }
+        if (subnetIpv6Prefix < 1 || subnetIpv6Prefix > 128) {
+            throw new IllegalArgumentException("Subnet IPv6 prefix musi być w zakresie 1-128");
+        }
+        if (subnetLimitMultiplier <= 0) {
+            throw new IllegalArgumentException("Subnet limit multiplier musi być > 0");
+        }
         if (maxPasswordLength > 72) {
             // BCrypt maksymalna długość to 72 znaki
             logger.warn("Max password length > 72 (BCrypt limit). Ustawianie na 72.");
@@ -630,6 +782,58 @@ public class Settings {
         if (databaseConnectionPoolSize <= 0) {
             throw new IllegalArgumentException("Connection pool size musi być > 0");
         }
+        if (databaseLookupBatchWindowMicros < 0 || databaseLookupBatchWindowMicros > 100_000) {
+            throw new IllegalArgumentException("Lookup batch window musi być w zakresie 0-100000 us");
+        }
+        if (databaseLookupBatchMaxSize < 2) {
+            throw new IllegalArgumentException("Lookup batch max size musi być >= 2");
+        }
+        if (databaseLoginWriteBehindMillis < 0) {
+            throw new IllegalArgumentException("Login write-behind interval nie może być ujemny");
+        }
+        if (databaseLoginWriteBehindBatchSize <= 0) {
+            throw new IllegalArgumentException("Login write-behind batch size musi być > 0");
+        }
+        if (databaseStreamFetchSize <= 0) {
+            throw new IllegalArgumentException("Stream fetch size musi być > 0");
+        }
+        if (databaseSlowQueryThresholdMillis < 0) {
+            throw new IllegalArgumentException("Slow query threshold nie może być ujemny");
+        }
+        validateReplicaSettings();
+        validateQueryLane("hot", hotQueryLane);
+        validateQueryLane("write", writeQueryLane);
+        validateQueryLane("admin", adminQueryLane);
+    }
+
+    private static void validateQueryLane(String name, QueryLaneSettings lane) {
+        if (lane.getMaxConcurrent() < 0) {
+            throw new IllegalArgumentException("Query lane " + name + ": max-concurrent nie może być ujemny");
+        }
+        if (lane.getMaxQueued() < 0) {
+            throw new IllegalArgumentException("Query lane " + name + ": max-queued nie może być ujemny");
+        }
+        if (lane.getTimeoutMillis() <= 0) {
+            throw new IllegalArgumentException("Query lane " + name + ": timeout-millis musi być > 0");
+        }
+    }
+
+    private void validateReplicaSettings() {
+        if (databaseReplicaPort < 0 || databaseReplicaPort > 65535) {
+            throw new IllegalArgumentException("Replica port musi być w zakresie 0-65535");
+        }
+        if (databaseReplicaConnectionPoolSize < 0) {
+            throw new IllegalArgumentException("Replica connection pool size nie może być ujemny");
+        }
+        if (databaseReplicaMaxLagMillis <= 0) {
+            throw new IllegalArgumentException("Replica max lag musi być > 0");
+        }
+        if (isDatabaseReplicaEnabled()) {
+            DatabaseType dbType = DatabaseType.fromName(databaseStorageType);
+            if (dbType == null || !dbType.isRemoteDatabase()) {
+                throw new IllegalArgumentException("Replika odczytu jest obsługiwana tylko dla MySQL i PostgreSQL");
+            }
+        }
     }
 
     private void validatePicoLimboSettings() {
@@ -844,6 +1048,62 @@ public class Settings {
         return databaseMaxLifetimeMillis;
     }
 
+    public long getDatabaseLookupBatchWindowMicros() {
+        return databaseLookupBatchWindowMicros;
+    }
+
+    public int getDatabaseLookupBatchMaxSize() {
+        return databaseLookupBatchMaxSize;
+    }
+
+    public long getDatabaseLoginWriteBehindMillis() {
+        return databaseLoginWriteBehindMillis;
+    }
+
+    public int getDatabaseLoginWriteBehindBatchSize() {
+        return databaseLoginWriteBehindBatchSize;
+    }
+
+    public int getDatabaseStreamFetchSize() {
+        return databaseStreamFetchSize;
+    }
+
+    public long getDatabaseSlowQueryThresholdMillis() {
+        return databaseSlowQueryThresholdMillis;
+    }
+
+    public boolean isDatabaseReplicaEnabled() {
+        return databaseReplicaHostname != null && !databaseReplicaHostname.isBlank();
+    }
+
+    public String getDatabaseReplicaHostname() {
+        return databaseReplicaHostname;
+    }
+
+    public int getDatabaseReplicaPort() {
+        return databaseReplicaPort;
+    }
+
+    public int getDatabaseReplicaConnectionPoolSize() {
+        return databaseReplicaConnectionPoolSize;
+    }
+
+    public long getDatabaseReplicaMaxLagMillis() {
+        return databaseReplicaMaxLagMillis;
+    }
+
+    public QueryLaneSettings getHotQueryLane() {
+        return hotQueryLane;
+    }
+
+    public QueryLaneSettings getWriteQueryLane() {
+        return writeQueryLane;
+    }
+
+    public QueryLaneSettings getAdminQueryLane() {
+        return adminQueryLane;
+    }
+
     public PostgreSQLSettings getPostgreSQLSettings() {
         return postgreSQLSettings;
     }
@@ -856,6 +1116,10 @@ public class Settings {
         return cacheMaxSize;
     }
 
+    /**
+     * Przestarzałe - wygasanie cache odbywa się przez timing wheel z tickiem 1s, niezależnie od tej wartości.
+     * Klucz jest nadal czytany, żeby istniejące pliki config.yml ładowały się bez błędów.
+     */
     public int getCacheCleanupIntervalMinutes() {
         return cacheCleanupIntervalMinutes;
     }
@@ -868,6 +1132,18 @@ public class Settings {
         return premiumRefreshThreshold;
     }
 
+    public String getSessionStore() {
+        return sessionStore;
+    }
+
+    public boolean isPackedSessionStore() {
+        return "packed".equalsIgnoreCase(sessionStore);
+    }
+
+    public boolean isCacheSnapshotEnabled() {
+        return cacheSnapshotEnabled;
+    }
+
     public String getPicoLimboServerName() {
         return picoLimboServerName != null ? picoLimboServerName : "limbo";
     }
@@ -880,6 +1156,34 @@ public class Settings {
         return bcryptCost;
     }
 
+    public boolean isBcryptAutoCalibrate() {
+        return bcryptAutoCalibrate;
+    }
+
+    public long getBcryptTargetMillis() {
+        return bcryptTargetMillis;
+    }
+
+    public int getBcryptMinCost() {
+        return bcryptMinCost;
+    }
+
+    public int getBcryptMaxCost() {
+        return bcryptMaxCost;
+    }
+
+    public boolean isBcryptRehashOnLogin() {
+        return bcryptRehashOnLogin;
+    }
+
+    public double getPasswordHashCpuFraction() {
+        return passwordHashCpuFraction;
+    }
+
+    public int getPasswordHashQueueCapacity() {
+        return passwordHashQueueCapacity;
+    }
+
     public int getBruteForceMaxAttempts() {
         return bruteForceMaxAttempts;
     }
@@ -912,6 +1216,34 @@ public class Settings {
         return preLoginRateLimitMinutes;
     }
 
+    public String getPreLoginRateLimitMode() {
+        return preLoginRateLimitMode;
+    }
+
+    public boolean isPreLoginRateLimitGcra() {
+        return "gcra".equalsIgnoreCase(preLoginRateLimitMode);
+    }
+
+    public int getPreLoginRateLimitMaxEntries() {
+        return preLoginRateLimitMaxEntries;
+    }
+
+    public boolean isSubnetLimitEnabled() {
+        return subnetLimitEnabled;
+    }
+
+    public int getSubnetIpv4Prefix() {
+        return subnetIpv4Prefix;
+    }
+
+    public int getSubnetIpv6Prefix() {
+        return subnetIpv6Prefix;
+    }
+
+    public int getSubnetLimitMultiplier() {
+        return subnetLimitMultiplier;
+    }
+
     public int getSessionTimeoutMinutes() {
         return sessionTimeoutMinutes;
     }
@@ -1082,6 +1414,45 @@ public class Settings {
         }
     }
 
+    /**
+     * Limits of one database query lane (bulkhead).
+     */
+    public static class QueryLaneSettings {
+        private int maxConcurrent;
+        private int maxQueued;
+        private long timeoutMillis;
+
+        QueryLaneSettings(int maxConcurrent, int maxQueued, long timeoutMillis) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        void setMaxConcurrent(int value) {
+            this.maxConcurrent = value;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        void setMaxQueued(int value) {
+            this.maxQueued = value;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        void setTimeoutMillis(long value) {
+            this.timeoutMillis = value;
+        }
+    }
+
     /**
      * Premium account detection configuration.
      */
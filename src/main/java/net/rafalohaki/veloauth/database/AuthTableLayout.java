@@ -0,0 +1,80 @@
+package net.rafalohaki.veloauth.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Niezmienny zestaw kolumn tabeli odczytany raz z {@link DatabaseMetaData}.
+ * <p>
+ * Zastępuje sprawdzanie kolumn pojedynczo (osobne zapytanie metadanych per kolumna) i łapanie
+ * {@link SQLException} przy każdym wierszu - zapytania i mapowanie wierszy są generowane z tego układu.
+ * Nazwy kolumn porównywane są bez rozróżniania wielkości liter (H2 z DATABASE_TO_LOWER=TRUE zwraca lowercase).
+ * <p>
+ * Thread-safe (immutable).
+ */
+final class AuthTableLayout {
+
+    private final Set<String> columns;
+
+    private AuthTableLayout(Set<String> columns) {
+        this.columns = Set.copyOf(columns);
+    }
+
+    /**
+     * Odczytuje kolumny tabeli jednym zapytaniem metadanych.
+     *
+     * @param connection połączenie z bazą
+     * @param tableName  nazwa tabeli (próbowana też w lowercase, jeśli baza zapisuje ją małymi literami)
+     * @return układ tabeli (pusty, jeśli tabela nie istnieje)
+     */
+    static AuthTableLayout read(Connection connection, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        Set<String> columns = readColumns(metaData, tableName);
+        if (columns.isEmpty()) {
+            columns = readColumns(metaData, tableName.toLowerCase(Locale.ROOT));
+        }
+        return new AuthTableLayout(columns);
+    }
+
+    /**
+     * Układ ze znanych kolumn (testy, bazy bez dostępu do metadanych).
+     */
+    static AuthTableLayout of(String... columns) {
+        Set<String> normalized = new HashSet<>();
+        for (String column : columns) {
+            normalized.add(column.toUpperCase(Locale.ROOT));
+        }
+        return new AuthTableLayout(normalized);
+    }
+
+    private static Set<String> readColumns(DatabaseMetaData metaData, String tableName) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (ResultSet resultSet = metaData.getColumns(null, null, tableName, null)) {
+            while (resultSet.next()) {
+                String column = resultSet.getString("COLUMN_NAME");
+                if (column != null) {
+                    columns.add(column.toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        return columns;
+    }
+
+    boolean has(String column) {
+        return columns.contains(column.toUpperCase(Locale.ROOT));
+    }
+
+    int size() {
+        return columns.size();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthTableLayout" + columns;
+    }
+}
@@ -0,0 +1,166 @@
+package net.rafalohaki.veloauth.database;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mikro-batching zapytań o różne klucze (DataLoader).
+ * <p>
+ * Pierwsze zapytanie otwiera okno (np. 1-2 ms), kolejne trafiają do tego samego batcha.
+ * Po upływie okna lub po zebraniu {@code maxBatchSize} kluczy batch jest wykonywany jednym
+ * zapytaniem (np. {@code WHERE ... IN (...)}), a wyniki rozdzielane do pojedynczych future.
+ * Podczas join storm zamiast setek równoległych SELECT-ów na osobnych połączeniach
+ * pula obsługuje kilka zapytań zbiorczych.
+ *
+ * @param <K> typ klucza
+ * @param <V> typ wyniku (brak klucza w mapie wyników = null)
+ */
+final class BatchLoader<K, V> {
+
+    /**
+     * Zapytanie zbiorcze - zwraca wyniki tylko dla znalezionych kluczy.
+     */
+    @FunctionalInterface
+    interface BatchQuery<K, V> {
+        Map<K, V> load(List<K> keys) throws SQLException;
+    }
+
+    private record Pending<K, V>(K key, CompletableFuture<V> future) {}
+
+    private final BatchQuery<K, V> query;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final long windowMicros;
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Pending<K, V>> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedKeys = new AtomicLong();
+
+    /**
+     * @param query        zapytanie zbiorcze
+     * @param executor     executor wykonujący zapytania (np. virtual threads)
+     * @param scheduler    scheduler zamykający okno batcha
+     * @param windowMicros długość okna zbierania kluczy w mikrosekundach
+     * @param maxBatchSize liczba kluczy, po której batch jest wykonywany natychmiast
+     */
+    BatchLoader(BatchQuery<K, V> query, Executor executor, ScheduledExecutorService scheduler,
+                long windowMicros, int maxBatchSize) {
+        if (windowMicros <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch window and size must be > 0");
+        }
+        this.query = query;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Dodaje klucz do bieżącego batcha.
+     *
+     * @param key klucz
+     * @return future z wynikiem (null jeśli zapytanie nie zwróciło klucza)
+     */
+    CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        List<Pending<K, V>> ready = null;
+        lock.lock();
+        try {
+            pending.add(new Pending<>(key, future));
+            if (pending.size() >= maxBatchSize) {
+                ready = drainLocked();
+            } else if (scheduledFlush == null) {
+                try {
+                    scheduledFlush = scheduler.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+                } catch (RejectedExecutionException e) {
+                    ready = drainLocked(); // scheduler zamknięty - wykonaj bez okna
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return future;
+    }
+
+    /**
+     * Wykonuje bieżący batch natychmiast (okno upłynęło lub zamknięcie).
+     */
+    void flush() {
+        List<Pending<K, V>> ready;
+        lock.lock();
+        try {
+            ready = drainLocked();
+        } finally {
+            lock.unlock();
+        }
+        if (!ready.isEmpty()) {
+            dispatch(ready);
+        }
+    }
+
+    /**
+     * @return liczba wykonanych zapytań zbiorczych
+     */
+    long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * @return łączna liczba kluczy obsłużonych przez zapytania zbiorcze
+     */
+    long getBatchedKeyCount() {
+        return batchedKeys.get();
+    }
+
+    private List<Pending<K, V>> drainLocked() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<Pending<K, V>> ready = pending;
+        pending = new ArrayList<>();
+        return ready;
+    }
+
+    private void dispatch(List<Pending<K, V>> batch) {
+        try {
+            executor.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+
+    private void execute(List<Pending<K, V>> batch) {
+        List<K> keys = new ArrayList<>(new LinkedHashSet<>(batch.stream().map(Pending::key).toList()));
+        batches.incrementAndGet();
+        batchedKeys.addAndGet(keys.size());
+        try {
+            Map<K, V> results = query.load(keys);
+            for (Pending<K, V> p : batch) {
+                p.future().complete(results.get(p.key()));
+            }
+        } catch (SQLException | RuntimeException e) {
+            for (Pending<K, V> p : batch) {
+                p.future().completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.util.Objects;
 
 /**
@@ -47,6 +48,7 @@ import java.util.Objects;
 public final class DatabaseConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
+    private static final String LOCAL_DATA_DIRECTORY = "./data";
 
     /**
      * Typ bazy danych (MYSQL, POSTGRESQL, H2, SQLITE).
@@ -93,6 +95,11 @@ public final class DatabaseConfig {
      */
     private final String jdbcUrl;
 
+    /**
+     * Pula HikariCP repliki odczytu - null, gdy replika nie jest skonfigurowana.
+     */
+    private final DataSource replicaDataSource;
+
     /**
      * Private constructor for use with Builder pattern.
      */
@@ -102,7 +109,8 @@ public final class DatabaseConfig {
      */
     private static final record InternalParams(String storageType, String hostname, int port,
                                                String database, String user, String password,
-                                               int connectionPoolSize, DataSource dataSource, String jdbcUrl) {
+                                               int connectionPoolSize, DataSource dataSource, String jdbcUrl,
+                                               DataSource replicaDataSource) {
     }
 
     private DatabaseConfig(InternalParams p) {
@@ -115,23 +123,79 @@ public final class DatabaseConfig {
         this.connectionPoolSize = p.connectionPoolSize();
         this.dataSource = p.dataSource();
         this.jdbcUrl = p.jdbcUrl();
+        this.replicaDataSource = p.replicaDataSource();
     }
 
 
     /**
      * Tworzy konfigurację dla lokalnych baz danych (H2, SQLite).
+     * Połączenia pochodzą z małej puli HikariCP o stałym rozmiarze, współdzielonej przez JdbcAuthDao i ORMLite -
+     * bez otwierania pliku bazy przy każdym zapytaniu.
      *
      * @param storageType Typ bazy danych (H2 lub SQLITE)
      * @param database    Nazwa bazy danych
      * @return DatabaseConfig
      */
     public static DatabaseConfig forLocalDatabase(String storageType, String database) {
+        return forLocalDatabase(storageType, database, LOCAL_DATA_DIRECTORY);
+    }
+
+    /**
+     * Jak {@link #forLocalDatabase(String, String)}, ale z plikiem bazy we wskazanym katalogu (testy).
+     *
+     * @param storageType   Typ bazy danych (H2 lub SQLITE)
+     * @param database      Nazwa bazy danych
+     * @param dataDirectory Katalog plików bazy
+     * @return DatabaseConfig
+     */
+    static DatabaseConfig forLocalDatabase(String storageType, String database, Path dataDirectory) {
+        return forLocalDatabase(storageType, database, dataDirectory.toAbsolutePath().toString());
+    }
+
+    private static DatabaseConfig forLocalDatabase(String storageType, String database, String dataDirectory) {
         DatabaseType dbType = DatabaseType.fromName(storageType);
         if (dbType == null || !dbType.isLocalDatabase()) {
             throw new IllegalArgumentException("Nieprawidłowy typ lokalnej bazy danych: " + storageType);
         }
-        String jdbcUrl = buildJdbcUrl(dbType, null, 0, database, null, null);
-        return new DatabaseConfig(new InternalParams(dbType.getName(), null, 0, database, null, null, 1, null, jdbcUrl));
+        String jdbcUrl = dbType == DatabaseType.H2
+                ? buildH2Url(dataDirectory, database)
+                : buildSqliteUrl(dataDirectory, database);
+        int poolSize = localPoolSize(dbType);
+        HikariDataSource dataSource = new HikariDataSource(createLocalPoolConfig(dbType, jdbcUrl, poolSize));
+        return new DatabaseConfig(new InternalParams(dbType.getName(), null, 0, database, null, null, poolSize, dataSource, jdbcUrl, null));
+    }
+
+    /**
+     * Rozmiar puli dla bazy wbudowanej: H2 obsługuje równoległe sesje, SQLite ma jednego pisarza naraz,
+     * więc więcej połączeń dawałoby tylko SQLITE_BUSY. Dwa połączenia pozwalają czytać podczas zapisu
+     * lub strumieniowania tabeli.
+     */
+    private static int localPoolSize(DatabaseType dbType) {
+        if (dbType == DatabaseType.SQLITE) {
+            return 2;
+        }
+        return Math.clamp(Runtime.getRuntime().availableProcessors(), 2, 4);
+    }
+
+    private static HikariConfig createLocalPoolConfig(DatabaseType dbType, String jdbcUrl, int poolSize) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(jdbcUrl);
+        hikariConfig.setDriverClassName(dbType.getDriverClass());
+        // Stały rozmiar i brak rotacji - fizyczne połączenia (i ich cache statementów) żyją do zamknięcia puli
+        hikariConfig.setMaximumPoolSize(poolSize);
+        hikariConfig.setMinimumIdle(poolSize);
+        hikariConfig.setMaxLifetime(0);
+        hikariConfig.setIdleTimeout(0);
+        hikariConfig.setConnectionTimeout(5000);
+        hikariConfig.setAutoCommit(true);
+        // Nie otwieraj pliku bazy w konstruktorze konfiguracji - pula wypełnia się w tle
+        hikariConfig.setInitializationFailTimeout(-1);
+        hikariConfig.setPoolName("VeloAuth-" + dbType.getName());
+        if (dbType == DatabaseType.SQLITE) {
+            // Drugi pisarz czeka na blokadę zamiast od razu dostać SQLITE_BUSY
+            hikariConfig.addDataSourceProperty("busy_timeout", "5000");
+        }
+        return hikariConfig;
     }
 
     /**
@@ -169,12 +233,26 @@ public final class DatabaseConfig {
             logger.debug("[VeloAuth DEBUG] SSL Settings: {}", (params.getPostgreSQLSettings() != null ? "enabled" : "using defaults"));
         }
 
-        HikariConfig hikariConfig = new HikariConfig();
-        configureBasicHikariSettings(hikariConfig, jdbcUrl, params.getUser(), params.getPassword(), 
-                                     params.getConnectionPoolSize(), params.getMaxLifetime());
-        configureDatabaseOptimizations(hikariConfig, dbType, params.getPostgreSQLSettings());
+        loadDriver(driverClass);
+        HikariDataSource dataSource = createRemotePool(dbType, jdbcUrl, params, params.getConnectionPoolSize(),
+                "VeloAuth-HikariCP", false);
+
+        HikariDataSource replicaDataSource = null;
+        if (params.hasReplica()) {
+            String replicaJdbcUrl = buildJdbcUrl(dbType, params.getReplicaHostname(), params.getReplicaPort(),
+                    params.getDatabase(), params.getConnectionParameters(), params.getPostgreSQLSettings());
+            // Pula repliki tylko do odczytu - przypadkowy zapis kończy się błędem zamiast rozjechania danych
+            replicaDataSource = createRemotePool(dbType, replicaJdbcUrl, params,
+                    params.getReplicaConnectionPoolSize(), "VeloAuth-HikariCP-replica", true);
+            if (params.isDebugEnabled()) {
+                logger.debug("[VeloAuth DEBUG] Replica JDBC URL: {}", replicaJdbcUrl);
+            }
+        }
 
-        hikariConfig.setDriverClassName(driverClass);
+        return new DatabaseConfig(new InternalParams(params.getStorageType(), null, 0, null, null, null, params.getConnectionPoolSize(), dataSource, jdbcUrl, replicaDataSource));
+    }
+
+    private static void loadDriver(String driverClass) {
         try {
             // Safe: Loading trusted JDBC driver from internal configuration constants only (DatabaseType enum)
             // Not user-controllable - driverClass comes from hardcoded DatabaseType enum values
@@ -186,10 +264,18 @@ public final class DatabaseConfig {
         } catch (ClassNotFoundException e) {
             throw new IllegalStateException("Nie znaleziono sterownika JDBC: " + driverClass, e);
         }
+    }
 
-        HikariDataSource dataSource = new HikariDataSource(hikariConfig);
-
-        return new DatabaseConfig(new InternalParams(params.getStorageType(), null, 0, null, null, null, params.getConnectionPoolSize(), dataSource, jdbcUrl));
+    private static HikariDataSource createRemotePool(DatabaseType dbType, String jdbcUrl, HikariConfigParams params,
+                                                     int poolSize, String poolName, boolean readOnly) {
+        HikariConfig hikariConfig = new HikariConfig();
+        configureBasicHikariSettings(hikariConfig, jdbcUrl, params.getUser(), params.getPassword(),
+                                     poolSize, params.getMaxLifetime());
+        configureDatabaseOptimizations(hikariConfig, dbType, params.getPostgreSQLSettings());
+        hikariConfig.setDriverClassName(resolveDriverClass(dbType));
+        hikariConfig.setPoolName(poolName);
+        hikariConfig.setReadOnly(readOnly);
+        return new HikariDataSource(hikariConfig);
     }
 
 
@@ -277,8 +363,8 @@ public final class DatabaseConfig {
         return switch (dbType) {
             case MYSQL -> buildMySqlUrl(hostname, port, database, params);
             case POSTGRESQL -> buildPostgreSqlUrl(hostname, port, database, params, postgreSQLSettings);
-            case H2 -> buildH2Url(database);
-            case SQLITE -> buildSqliteUrl(database);
+            case H2 -> buildH2Url(LOCAL_DATA_DIRECTORY, database);
+            case SQLITE -> buildSqliteUrl(LOCAL_DATA_DIRECTORY, database);
         };
     }
     
@@ -317,12 +403,12 @@ public final class DatabaseConfig {
         return baseUrl + mergedParams;
     }
     
-    private static String buildH2Url(String database) {
-        return String.format("jdbc:h2:file:./data/%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE", database);
+    private static String buildH2Url(String dataDirectory, String database) {
+        return String.format("jdbc:h2:file:%s/%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE", dataDirectory, database);
     }
     
-    private static String buildSqliteUrl(String database) {
-        return String.format("jdbc:sqlite:./data/%s.db", database);
+    private static String buildSqliteUrl(String dataDirectory, String database) {
+        return String.format("jdbc:sqlite:%s/%s.db", dataDirectory, database);
     }
 
     private static String resolveDriverClass(DatabaseType dbType) {
@@ -350,7 +436,7 @@ public final class DatabaseConfig {
             throw new IllegalArgumentException("Nieobsługiwany typ bazy danych: " + storageType);
         }
         String jdbcUrl = buildJdbcUrl(dbType, hostname, port, database, null, null);
-        return new DatabaseConfig(new InternalParams(dbType.getName(), hostname, port, database, user, password, connectionPoolSize, null, jdbcUrl));
+        return new DatabaseConfig(new InternalParams(dbType.getName(), hostname, port, database, user, password, connectionPoolSize, null, jdbcUrl, null));
     }
 
     /**
@@ -526,6 +612,24 @@ public final class DatabaseConfig {
         return dataSource;
     }
 
+    /**
+     * Zwraca pulę HikariCP repliki odczytu.
+     *
+     * @return DataSource repliki lub null jeśli replika nie jest skonfigurowana
+     */
+    public DataSource getReplicaDataSource() {
+        return replicaDataSource;
+    }
+
+    /**
+     * Sprawdza czy skonfigurowano replikę odczytu.
+     *
+     * @return true jeśli ma DataSource repliki
+     */
+    public boolean hasReplica() {
+        return replicaDataSource != null;
+    }
+
     /**
      * Zwraca JDBC URL dla tej konfiguracji.
      *
@@ -610,6 +714,7 @@ public final class DatabaseConfig {
                 ", connectionPoolSize=" + connectionPoolSize +
                 ", jdbcUrl='" + jdbcUrl + '\'' +
                 ", isLocal=" + isLocalDatabase() +
+                ", replica=" + hasReplica() +
                 '}';
     }
 }
@@ -6,39 +6,44 @@ import com.j256.ormlite.jdbc.DataSourceConnectionSource;
 import com.j256.ormlite.jdbc.JdbcConnectionSource;
 import com.j256.ormlite.support.ConnectionSource;
 import com.j256.ormlite.support.DatabaseConnection;
-import com.j256.ormlite.table.TableUtils;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import net.rafalohaki.veloauth.i18n.Messages;
-import net.rafalohaki.veloauth.model.PremiumUuid;
 import net.rafalohaki.veloauth.model.RegisteredPlayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
+import javax.sql.DataSource;
 import java.lang.ref.WeakReference;
+import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * Manager bazy danych z obsługą ORMLite, connection pooling i thread-safety.
  * Obsługuje PostgreSQL, MySQL, H2 i SQLite z automatycznym tworzeniem tabel.
  * <p>
- * Używa Virtual Threads dla wydajnych operacji I/O i ConcurrentHashMap dla cache.
+ * Używa Virtual Threads dla wydajnych operacji I/O i ograniczonego cache graczy z TTL.
  * 
  * <h2>Cache Invalidation Strategy</h2>
  * DatabaseManager coordinates with AuthCache to maintain cache consistency:
  * <ul>
  *   <li><b>DatabaseManager.playerCache</b> - Stores RegisteredPlayer entities by lowercase nickname
- *       for database query reduction. Updated immediately on save/delete operations.</li>
+ *       for database query reduction. Bounded (LRU) with TTL, plus a short-lived negative tier
+ *       for nicknames not present in the database. Updated immediately on save/delete operations;
+ *       a database read never overwrites a newer save/delete that raced with it.</li>
  *   <li><b>AuthCache.authorizedPlayers</b> - Stores active session state by UUID.
  *       Invalidated via {@link #notifyAuthCacheOfUpdate(RegisteredPlayer)} after successful
  *       player data updates to force re-fetch from database on next access.</li>
@@ -64,11 +69,8 @@ public class DatabaseManager {
     private static final String DATABASE_ERROR = "database.error";
 
     // Stałe dla zapytań SQL
-    private static final String ALTER_TABLE = "ALTER TABLE ";
-    private static final String ADD_COLUMN = " ADD COLUMN ";
 
     // Stałe dla nazw tabel i kolumn - używane w innych metodach
-    private static final String AUTH_TABLE = "AUTH";
     private static final String WHERE_CLAUSE = " WHERE ";
 
 
@@ -82,9 +84,82 @@ public class DatabaseManager {
     private static final String DATABASE_NOT_CONNECTED = "Database not connected";
     private static final String DATABASE_NOT_CONNECTED_PREMIUM_CHECK = "Database not connected - cannot check premium status for {}";
     /**
-     * Cache dla często używanych zapytań - ZAWSZE ConcurrentHashMap dla thread-safety.
+     * Domyślny TTL cache graczy w minutach.
      */
-    private final ConcurrentHashMap<String, RegisteredPlayer> playerCache;
+    private static final int DEFAULT_CACHE_TTL_MINUTES = 60;
+    /**
+     * Domyślny limit cache graczy.
+     */
+    private static final int DEFAULT_CACHE_MAX_SIZE = 10_000;
+    /**
+     * TTL negatywnego cache - krótki, żeby rejestracja z innego serwera była szybko widoczna.
+     */
+    private static final long NEGATIVE_CACHE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    /**
+     * Domyślna liczba wierszy pobieranych naraz przy strumieniowaniu tabel.
+     */
+    private static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+    /**
+     * Domyślne maksymalne opóźnienie repliki odczytu, powyżej którego lookupy wracają na primary.
+     */
+    private static final long DEFAULT_REPLICA_MAX_LAG_MILLIS = 2000;
+    /**
+     * Odstęp pomiarów opóźnienia repliki.
+     */
+    private static final long REPLICA_LAG_PROBE_MILLIS = 1000;
+    /**
+     * Domyślne limity linii zapytań; równoległość 0 = wyliczana z rozmiaru puli.
+     */
+    private static final QueryLane.Limits DEFAULT_HOT_LANE = new QueryLane.Limits(0, 1000, 3000);
+    private static final QueryLane.Limits DEFAULT_WRITE_LANE = new QueryLane.Limits(0, 1000, 5000);
+    private static final QueryLane.Limits DEFAULT_ADMIN_LANE = new QueryLane.Limits(0, 16, 30_000);
+    /**
+     * Cache dla często używanych zapytań - ograniczony, z TTL i negatywnym cache.
+     */
+    private final PlayerCache playerCache;
+    /**
+     * Lookupy graczy w toku - równoległe zapytania o ten sam nickname dzielą jeden wynik.
+     */
+    private final SingleFlight<String, DbResult<RegisteredPlayer>> playerLookups = new SingleFlight<>();
+    /**
+     * Opcjonalny mikro-batching lookupów różnych nicków w jedno zapytanie IN (null = wyłączony).
+     */
+    private volatile BatchLoader<String, RegisteredPlayer> playerBatchLoader;
+    /**
+     * Scheduler zamykający okna batchy (tylko gdy batching włączony).
+     */
+    private ScheduledExecutorService batchScheduler;
+    /**
+     * Opcjonalny write-behind danych logowania (null = zapis synchroniczny przez savePlayer).
+     */
+    private volatile LoginWriteBehind loginWriteBehind;
+    /**
+     * Fetch size kursora w {@link #forEachPlayer(Consumer)}.
+     */
+    private volatile int streamFetchSize = DEFAULT_STREAM_FETCH_SIZE;
+    /**
+     * Maksymalne opóźnienie repliki odczytu i okno read-your-own-write po zapisie.
+     */
+    private volatile long replicaMaxLagMillis = DEFAULT_REPLICA_MAX_LAG_MILLIS;
+    /**
+     * Routing lookupów na replikę odczytu (null = brak repliki, wszystko na primary).
+     */
+    private volatile ReplicaRouter replicaRouter;
+    /**
+     * ORMLite ConnectionSource repliki dla lookupów premium (null = brak repliki).
+     */
+    private ConnectionSource replicaConnectionSource;
+    /**
+     * Bulkheady zapytań: lookupy przy logowaniu, zapisy i zapytania administracyjne/utrzymaniowe
+     * mają osobne limity równoległości, kolejki i timeouty na wspólnej puli połączeń.
+     */
+    private volatile QueryLane hotLane;
+    private volatile QueryLane writeLane;
+    private volatile QueryLane adminLane;
+    /**
+     * Histogramy czasów zapytań per statement i log wolnych zapytań.
+     */
+    private final QueryMetrics queryMetrics = new QueryMetrics();
     /**
      * Lock dla synchronizacji operacji krytycznych.
      */
@@ -147,18 +222,33 @@ public class DatabaseManager {
      * @param messages System wiadomości i18n
      */
     public DatabaseManager(DatabaseConfig config, Messages messages) {
+        this(config, messages, DEFAULT_CACHE_TTL_MINUTES, DEFAULT_CACHE_MAX_SIZE);
+    }
+
+    /**
+     * Tworzy nowy DatabaseManager z limitami cache graczy.
+     *
+     * @param config          Konfiguracja bazy danych
+     * @param messages        System wiadomości i18n
+     * @param cacheTtlMinutes TTL wpisów cache graczy (0 = bez wygasania)
+     * @param cacheMaxSize    Maksymalna liczba graczy w cache
+     */
+    public DatabaseManager(DatabaseConfig config, Messages messages, int cacheTtlMinutes, int cacheMaxSize) {
         if (config == null) {
             throw new IllegalArgumentException("Config cannot be null");
         }
 
         this.config = config;
         this.messages = messages;
-        this.playerCache = new ConcurrentHashMap<>();
+        int maxSize = Math.max(1, cacheMaxSize);
+        this.playerCache = new PlayerCache(maxSize, TimeUnit.MINUTES.toMillis(cacheTtlMinutes),
+                Math.max(1, maxSize / 4), NEGATIVE_CACHE_TTL_MILLIS, System::currentTimeMillis);
         this.databaseLock = new ReentrantLock();
         this.connected = false;
         this.dbExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        configureQueryLanes(DEFAULT_HOT_LANE, DEFAULT_WRITE_LANE, DEFAULT_ADMIN_LANE);
         this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor();
-        this.jdbcAuthDao = new JdbcAuthDao(config);
+        this.jdbcAuthDao = new JdbcAuthDao(config, null, queryMetrics);
         this.lastHealthCheckTime = 0;
         this.lastHealthCheckPassed = false;
 
@@ -202,9 +292,13 @@ public class DatabaseManager {
 
         initializeConnection();
         initializeDaos();
-        createTablesIfNotExists();
+        adminLane.call(() -> {
+            createTablesIfNotExists();
+            return null;
+        });
         markAsConnected();
         startHealthChecks();
+        startReplicaLagProbe();
 
         return true;
     }
@@ -256,9 +350,26 @@ public class DatabaseManager {
     }
 
     private void initializeDaos() throws SQLException {
+        DatabaseType dialect = DatabaseType.fromName(config.getStorageType());
         playerDao = DaoManager.createDao(connectionSource, RegisteredPlayer.class);
-        premiumUuidDao = new PremiumUuidDao(connectionSource);
-        jdbcAuthDao = new JdbcAuthDao(config);
+        if (config.hasReplica()) {
+            // Lookupy nicku i premium czytają z repliki; zapisy i odczyty tuż po zapisie zostają na primary
+            ReplicaRouter router = new ReplicaRouter(config.getDataSource(), config.getReplicaDataSource(),
+                    dialect, replicaMaxLagMillis);
+            router.refreshLag();
+            replicaConnectionSource = new DataSourceConnectionSource(config.getReplicaDataSource(), config.getJdbcUrl());
+            replicaRouter = router;
+            premiumUuidDao = new PremiumUuidDao(connectionSource, dialect, replicaConnectionSource, router,
+                    queryMetrics);
+            jdbcAuthDao = new JdbcAuthDao(config, router, queryMetrics);
+            if (logger.isInfoEnabled()) {
+                logger.info(DB_MARKER, "Replika odczytu włączona (maks. opóźnienie {} ms, aktualne {} ms)",
+                        replicaMaxLagMillis, router.getLagMillis());
+            }
+        } else {
+            premiumUuidDao = new PremiumUuidDao(connectionSource, dialect, null, null, queryMetrics);
+            jdbcAuthDao = new JdbcAuthDao(config, null, queryMetrics);
+        }
     }
 
     private void markAsConnected() {
@@ -287,6 +398,25 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Uruchamia okresowy pomiar opóźnienia repliki odczytu (jeśli skonfigurowana).
+     */
+    private void startReplicaLagProbe() {
+        ReplicaRouter router = replicaRouter;
+        if (router == null) {
+            return;
+        }
+        healthCheckExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                router.refreshLag();
+            } catch (RuntimeException e) {
+                if (logger.isErrorEnabled()) {
+                    logger.error(DB_MARKER, "Błąd podczas pomiaru opóźnienia repliki", e);
+                }
+            }
+        }, REPLICA_LAG_PROBE_MILLIS, REPLICA_LAG_PROBE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Wykonuje health check bazy danych.
      */
@@ -352,6 +482,8 @@ public class DatabaseManager {
         try {
             // Zatrzymaj health checks najpierw
             stopHealthChecks();
+            // Zapisz zaległe dane logowania zanim połączenie zostanie zamknięte
+            stopLoginWriteBehind();
 
             databaseLock.lock();
             try {
@@ -364,10 +496,147 @@ public class DatabaseManager {
                 logger.error(DB_MARKER, "Błąd podczas zamykania bazy danych", e);
             }
         } finally {
+            stopLookupBatching();
             dbExecutor.shutdown();
         }
     }
 
+    /**
+     * Włącza mikro-batching lookupów graczy: lookupy różnych nicków zebrane w oknie
+     * {@code windowMicros} (lub do {@code maxBatchSize} kluczy) są wykonywane jednym
+     * zapytaniem {@code WHERE LOWERCASENICKNAME IN (...)}.
+     *
+     * @param windowMicros długość okna w mikrosekundach (&lt;= 0 - wyłączone)
+     * @param maxBatchSize maksymalna liczba nicków w batchu
+     */
+    public void enableLookupBatching(long windowMicros, int maxBatchSize) {
+        if (windowMicros <= 0 || maxBatchSize <= 1 || playerBatchLoader != null) {
+            return;
+        }
+        batchScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "VeloAuth-LookupBatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        playerBatchLoader = new BatchLoader<>(
+                keys -> hotLane.call(() -> jdbcAuthDao.findPlayersByLowercaseNicknames(keys)),
+                dbExecutor, batchScheduler, windowMicros, maxBatchSize);
+        if (logger.isDebugEnabled()) {
+            logger.debug(DB_MARKER, "Lookup batching enabled: window {} us, max {} keys", windowMicros, maxBatchSize);
+        }
+    }
+
+    /**
+     * Włącza write-behind danych logowania: {@link #saveLoginData(RegisteredPlayer)} kolejkuje
+     * LOGINIP/LOGINDATE i zapisuje je batchem co {@code flushIntervalMillis} lub po {@code batchSize} graczach.
+     *
+     * @param flushIntervalMillis odstęp zapisów (&lt;= 0 - wyłączone, zapis synchroniczny)
+     * @param batchSize           liczba graczy w kolejce wymuszająca wcześniejszy zapis
+     */
+    public void enableLoginWriteBehind(long flushIntervalMillis, int batchSize) {
+        if (flushIntervalMillis <= 0 || batchSize <= 0 || loginWriteBehind != null) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "VeloAuth-LoginWriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loginWriteBehind = new LoginWriteBehind(updates -> writeLane.call(() -> {
+            jdbcAuthDao.updateLoginMetadata(updates);
+            return null;
+        }), scheduler, flushIntervalMillis, batchSize);
+        if (logger.isDebugEnabled()) {
+            logger.debug(DB_MARKER, "Login write-behind enabled: flush every {} ms or {} players", flushIntervalMillis, batchSize);
+        }
+    }
+
+    /**
+     * Ustawia liczbę wierszy pobieranych naraz przez {@link #forEachPlayer(Consumer)}.
+     *
+     * @param fetchSize fetch size kursora (&lt;= 0 - wartość domyślna)
+     */
+    public void setStreamFetchSize(int fetchSize) {
+        this.streamFetchSize = fetchSize > 0 ? fetchSize : DEFAULT_STREAM_FETCH_SIZE;
+    }
+
+    /**
+     * Ustawia limity linii zapytań (bulkheadów). Równoległość &lt;= 0 oznacza wartość domyślną
+     * wyliczoną z rozmiaru puli: lookupy - cała pula, zapisy - połowa, zapytania administracyjne - jedna piąta
+     * (min. 1). Lookupy przy logowaniu mają więc zawsze co najmniej ~30% połączeń dla siebie.
+     * Wywoływać przed {@link #initialize()}.
+     *
+     * @param hot   lookupy graczy i premium (PreLogin/login)
+     * @param write zapisy graczy i dane logowania
+     * @param admin statystyki, eksport, konflikty, migracje schematu
+     */
+    public void configureQueryLanes(QueryLane.Limits hot, QueryLane.Limits write, QueryLane.Limits admin) {
+        int poolSize = Math.max(1, config.getConnectionPoolSize());
+        hotLane = new QueryLane("hot", hot, poolSize);
+        writeLane = new QueryLane("write", write, poolSize / 2);
+        adminLane = new QueryLane("admin", admin, poolSize / 5);
+    }
+
+    /**
+     * Zwraca linie zapytań (do metryk nasycenia).
+     *
+     * @return linie hot, write i admin
+     */
+    public List<QueryLane> getQueryLanes() {
+        return List.of(hotLane, writeLane, adminLane);
+    }
+
+    /**
+     * Ustawia maksymalne opóźnienie repliki odczytu. Po zapisie gracza jego odczyty przez ten czas
+     * idą na primary (read-your-own-write). Wywoływać przed {@link #initialize()}.
+     *
+     * @param maxLagMillis limit opóźnienia (&lt;= 0 - wartość domyślna)
+     */
+    public void setReplicaMaxLagMillis(long maxLagMillis) {
+        this.replicaMaxLagMillis = maxLagMillis > 0 ? maxLagMillis : DEFAULT_REPLICA_MAX_LAG_MILLIS;
+    }
+
+    /**
+     * Ustawia próg logowania wolnych zapytań.
+     *
+     * @param thresholdMillis próg w ms (&lt;= 0 - log wyłączony)
+     */
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        queryMetrics.setSlowQueryThresholdMillis(thresholdMillis);
+    }
+
+    /**
+     * @return histogramy czasów zapytań (p50/p95/p99/max per statement)
+     */
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    private void stopLoginWriteBehind() {
+        LoginWriteBehind writeBehind = loginWriteBehind;
+        if (writeBehind == null) {
+            return;
+        }
+        loginWriteBehind = null;
+        try {
+            writeBehind.close();
+        } catch (SQLException e) {
+            if (logger.isErrorEnabled()) {
+                logger.error(DB_MARKER, "Nie udało się zapisać {} zaległych danych logowania przy zamykaniu",
+                        writeBehind.pendingCount(), e);
+            }
+        }
+    }
+
+    private void stopLookupBatching() {
+        BatchLoader<String, RegisteredPlayer> loader = playerBatchLoader;
+        if (loader != null) {
+            playerBatchLoader = null;
+            batchScheduler.shutdownNow();
+            loader.flush();
+        }
+    }
+
     private void stopHealthChecks() {
         if (healthCheckExecutor != null && !healthCheckExecutor.isShutdown()) {
             healthCheckExecutor.shutdown();
@@ -399,6 +668,20 @@ public class DatabaseManager {
                 logger.info(DB_MARKER, messages.get("database.manager.connection_closed"));
             }
         }
+        if (replicaConnectionSource != null) {
+            try {
+                replicaConnectionSource.close();
+            } catch (Exception e) {
+                if (logger.isErrorEnabled()) {
+                    logger.error(DB_MARKER, "Error closing replica connection", e);
+                }
+            }
+            replicaConnectionSource = null;
+        }
+        replicaRouter = null;
+        // Pule (HikariCP) należą do tej konfiguracji - zamknięcie zwalnia plik bazy H2/SQLite
+        closePool(config.getDataSource());
+        closePool(config.getReplicaDataSource());
         connected = false;
         playerCache.clear();
         if (logger.isDebugEnabled()) {
@@ -406,6 +689,18 @@ public class DatabaseManager {
         }
     }
 
+    private static void closePool(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable pool) {
+            try {
+                pool.close();
+            } catch (Exception e) {
+                if (logger.isErrorEnabled()) {
+                    logger.error(DB_MARKER, "Error closing connection pool", e);
+                }
+            }
+        }
+    }
+
     /**
      * Znajduje gracza po lowercase nickname z wykorzystaniem cache + natywnego JDBC.
      * Zwraca DbResult dla rozróżnienia między "nie znaleziono" a "błąd bazy danych".
@@ -446,14 +741,19 @@ public class DatabaseManager {
 
         String normalizedNickname = nickname.toLowerCase();
 
-        return CompletableFuture.supplyAsync(() -> performPlayerLookup(normalizedNickname, nickname, runtimeDetection), dbExecutor);
+        // Jeden login wywołuje kilka równoległych lookupów tego samego nicku - dzielą jedno zapytanie.
+        // Flaga runtimeDetection wpływa tylko na logowanie, więc wynik jest wspólny.
+        return playerLookups.execute(normalizedNickname, () -> CompletableFuture.supplyAsync(
+                () -> performPlayerLookup(normalizedNickname, nickname, runtimeDetection), dbExecutor));
     }
 
     private DbResult<RegisteredPlayer> performPlayerLookup(String normalizedNickname, String originalNickname, boolean runtimeDetection) {
-        DbResult<RegisteredPlayer> cacheResult = checkCacheSafe(normalizedNickname);
+        // Wersja pobrana przed odczytem cache - zapis w trakcie zapytania unieważnia wynik z bazy
+        long cacheVersion = playerCache.version();
+        PlayerCache.Lookup cacheResult = checkCacheSafe(normalizedNickname);
         
         if (isCacheResultUsable(cacheResult, normalizedNickname, runtimeDetection)) {
-            return cacheResult;
+            return DbResult.success(cacheResult.player());
         }
 
         logCacheMiss(normalizedNickname, runtimeDetection);
@@ -463,13 +763,14 @@ public class DatabaseManager {
             return DbResult.databaseError(connectionResult.getErrorMessage());
         }
 
-        return queryAndCachePlayer(normalizedNickname, originalNickname, runtimeDetection);
+        return queryAndCachePlayer(normalizedNickname, originalNickname, runtimeDetection, cacheVersion);
     }
 
-    private boolean isCacheResultUsable(DbResult<RegisteredPlayer> cacheResult, String normalizedNickname, boolean runtimeDetection) {
-        if (cacheResult.isDatabaseError() || cacheResult.getValue() != null) {
-            if (runtimeDetection && cacheResult.getValue() != null && logger.isDebugEnabled()) {
-                logger.debug(CACHE_MARKER, "Runtime detection - cache HIT: {}", normalizedNickname);
+    private boolean isCacheResultUsable(PlayerCache.Lookup cacheResult, String normalizedNickname, boolean runtimeDetection) {
+        if (cacheResult.hit()) {
+            if (runtimeDetection && logger.isDebugEnabled()) {
+                logger.debug(CACHE_MARKER, "Runtime detection - cache HIT{}: {}",
+                        cacheResult.player() == null ? " (not registered)" : "", normalizedNickname);
             }
             return true;
         }
@@ -482,12 +783,13 @@ public class DatabaseManager {
         }
     }
 
-    private DbResult<RegisteredPlayer> queryAndCachePlayer(String normalizedNickname, String originalNickname, boolean runtimeDetection) {
+    private DbResult<RegisteredPlayer> queryAndCachePlayer(String normalizedNickname, String originalNickname,
+                                                           boolean runtimeDetection, long cacheVersion) {
         try {
-            RegisteredPlayer player = jdbcAuthDao.findPlayerByLowercaseNickname(normalizedNickname);
+            RegisteredPlayer player = fetchPlayer(normalizedNickname);
             if (player != null) {
                 if (player.getLowercaseNickname().equals(normalizedNickname)) {
-                    playerCache.put(normalizedNickname, player);
+                    playerCache.putLoaded(normalizedNickname, player, cacheVersion);
                     if (runtimeDetection) {
                         logRuntimeDetection(originalNickname, isPlayerPremiumRuntime(player), player.getHash());
                     } else if (logger.isDebugEnabled()) {
@@ -498,6 +800,7 @@ public class DatabaseManager {
                             normalizedNickname, normalizedNickname, player.getLowercaseNickname());
                 }
             } else {
+                playerCache.putLoaded(normalizedNickname, null, cacheVersion);
                 logPlayerNotFound(normalizedNickname);
             }
             return DbResult.success(player);
@@ -506,12 +809,44 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Pobiera gracza z bazy - przez batch loader jeśli włączony, inaczej pojedynczym SELECT.
+     * Zaległe dane logowania z write-behind są nakładane na wynik.
+     * Wywoływane na wątku dbExecutor (virtual thread), więc oczekiwanie na batch nie blokuje carriera.
+     */
+    private RegisteredPlayer fetchPlayer(String normalizedNickname) throws SQLException {
+        BatchLoader<String, RegisteredPlayer> loader = playerBatchLoader;
+        RegisteredPlayer player;
+        if (loader == null) {
+            player = hotLane.call(() -> jdbcAuthDao.findPlayerByLowercaseNickname(normalizedNickname));
+        } else {
+            player = loadBatched(loader, normalizedNickname);
+        }
+        LoginWriteBehind writeBehind = loginWriteBehind;
+        if (player != null && writeBehind != null) {
+            writeBehind.applyPending(player);
+        }
+        return player;
+    }
+
+    private static RegisteredPlayer loadBatched(BatchLoader<String, RegisteredPlayer> loader, String normalizedNickname)
+            throws SQLException {
+        try {
+            return loader.load(normalizedNickname).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("Batched player lookup failed", e.getCause());
+        }
+    }
+
     private boolean isCacheCorrupted(RegisteredPlayer cached, String normalizedNickname) {
         return !cached.getLowercaseNickname().equals(normalizedNickname);
     }
 
     private void handleCacheCorruption(String normalizedNickname) {
-        playerCache.remove(normalizedNickname);
+        playerCache.invalidate(normalizedNickname);
         if (logger.isWarnEnabled()) {
             logger.warn(CACHE_MARKER, "Cache corruption detected for {} - removing invalid entry", normalizedNickname);
         }
@@ -570,6 +905,33 @@ public class DatabaseManager {
         }, dbExecutor);
     }
 
+    /**
+     * Zapisuje dane logowania (LOGINIP, LOGINDATE) po udanym /login.
+     * <p>
+     * Z włączonym write-behind aktualizacja jest kolejkowana (kolejne logowania gracza są łączone)
+     * i zapisywana batchem - cache graczy jest aktualizowany od razu, więc odczyty widzą nowe dane.
+     * Bez write-behind działa jak {@link #savePlayer(RegisteredPlayer)}.
+     *
+     * @param player gracz z już zaktualizowanymi danymi logowania
+     * @return CompletableFuture z DbResult
+     */
+    public CompletableFuture<DbResult<Boolean>> saveLoginData(RegisteredPlayer player) {
+        LoginWriteBehind writeBehind = loginWriteBehind;
+        if (writeBehind == null || player == null) {
+            return savePlayer(player);
+        }
+
+        DbResult<Void> connectionResult = validateDatabaseConnection();
+        if (connectionResult.isDatabaseError()) {
+            return CompletableFuture.completedFuture(DbResult.databaseError(connectionResult.getErrorMessage()));
+        }
+
+        String lowercaseNickname = player.getLowercaseNickname();
+        writeBehind.enqueue(new JdbcAuthDao.LoginUpdate(lowercaseNickname, player.getLoginIp(), player.getLoginDate()));
+        playerCache.put(lowercaseNickname, player);
+        return CompletableFuture.completedFuture(DbResult.success(true));
+    }
+
     private DbResult<Void> validateDatabaseConnection() {
         if (!connected) {
             if (logger.isWarnEnabled()) {
@@ -581,10 +943,20 @@ public class DatabaseManager {
     }
 
     private DbResult<Boolean> executePlayerSave(RegisteredPlayer player) {
+        LoginWriteBehind writeBehind = loginWriteBehind;
         try {
-            boolean success = jdbcAuthDao.upsertPlayer(player);
+            if (writeBehind != null) {
+                // Pełny zapis zawiera najnowsze dane logowania - zaległa aktualizacja staje się zbędna
+                writeBehind.applyPending(player);
+            }
+            boolean success = writeLane.call(() -> jdbcAuthDao.upsertPlayer(player));
             if (success) {
+                if (writeBehind != null) {
+                    writeBehind.discardCovered(player.getLowercaseNickname(), player.getLoginDate());
+                }
                 playerCache.put(player.getLowercaseNickname(), player);
+                // Lookup rozpoczęty przed zapisem mógł odczytać stary stan - nowe wywołania idą do bazy
+                playerLookups.forget(player.getLowercaseNickname());
                 if (logger.isDebugEnabled()) {
                     logger.debug(DB_MARKER, "Zapisano gracza (upsert): {}", player.getNickname());
                 }
@@ -609,17 +981,37 @@ public class DatabaseManager {
      * @param player RegisteredPlayer that was updated
      */
     private void notifyAuthCacheOfUpdate(RegisteredPlayer player) {
-        if (authCacheRef == null) {
+        net.rafalohaki.veloauth.cache.AuthCache authCache = authCacheOrNull();
+        if (authCache == null) {
             return;
         }
 
+        // Kontekst połączenia dostaje zapisane konto - kolejne eventy nie muszą go czytać z bazy
+        authCache.refreshConnectionContext(player);
+        invalidatePlayerInAuthCache(player, authCache);
+    }
+
+    /**
+     * Notifies AuthCache that an account was deleted - drops its connection context.
+     *
+     * @param lowercaseNickname deleted account nickname
+     */
+    private void notifyAuthCacheOfDelete(String lowercaseNickname) {
+        net.rafalohaki.veloauth.cache.AuthCache authCache = authCacheOrNull();
+        if (authCache != null) {
+            authCache.invalidateConnectionContext(lowercaseNickname);
+        }
+    }
+
+    private net.rafalohaki.veloauth.cache.AuthCache authCacheOrNull() {
+        if (authCacheRef == null) {
+            return null;
+        }
         net.rafalohaki.veloauth.cache.AuthCache authCache = authCacheRef.get();
         if (authCache == null) {
             logAuthCacheGarbageCollected();
-            return;
         }
-
-        invalidatePlayerInAuthCache(player, authCache);
+        return authCache;
     }
 
     private void logAuthCacheGarbageCollected() {
@@ -683,8 +1075,14 @@ public class DatabaseManager {
 
     private DbResult<Boolean> executePlayerDelete(String lowercaseNickname) {
         try {
-            boolean deleted = jdbcAuthDao.deletePlayer(lowercaseNickname);
-            playerCache.remove(lowercaseNickname);
+            boolean deleted = writeLane.call(() -> jdbcAuthDao.deletePlayer(lowercaseNickname));
+            playerCache.invalidate(lowercaseNickname);
+            playerLookups.forget(lowercaseNickname);
+            notifyAuthCacheOfDelete(lowercaseNickname);
+            LoginWriteBehind writeBehind = loginWriteBehind;
+            if (writeBehind != null) {
+                writeBehind.discardCovered(lowercaseNickname, Long.MAX_VALUE);
+            }
 
             if (deleted) {
                 if (logger.isDebugEnabled()) {
@@ -723,11 +1121,16 @@ public class DatabaseManager {
 
             try {
                 // Use PREMIUM_UUIDS table for premium status lookup
-                boolean premium = premiumUuidDao.findByNickname(username).isPresent();
+                boolean premium = hotLane.call(() -> premiumUuidDao.findByNickname(username).isPresent());
                 if (logger.isDebugEnabled()) {
                     logger.debug(DB_MARKER, "Premium status z PREMIUM_UUIDS dla {}: {}", username, premium);
                 }
                 return DbResult.success(premium);
+            } catch (SQLException e) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn(DB_MARKER, "Nie udało się sprawdzić premium status dla gracza {}: {}", username, e.getMessage());
+                }
+                return DbResult.databaseError(messages.get(DATABASE_ERROR) + ": " + e.getMessage());
             } catch (RuntimeException e) {
                 if (logger.isErrorEnabled()) {
                     logger.error(DB_MARKER, "Błąd wykonania podczas sprawdzania premium status dla gracza: {}", username, e);
@@ -739,6 +1142,7 @@ public class DatabaseManager {
 
     /**
      * Pobiera wszystkich graczy (używa ORMLite, bo nie jest to hot-path).
+     * Wczytuje całą tabelę AUTH do pamięci - do przechodzenia po dużych bazach używaj {@link #forEachPlayer(Consumer)}.
      */
     public CompletableFuture<List<RegisteredPlayer>> getAllPlayers() {
         return CompletableFuture.supplyAsync(() -> {
@@ -750,7 +1154,13 @@ public class DatabaseManager {
                     return List.of();
                 }
 
-                List<RegisteredPlayer> players = playerDao.queryForAll();
+                long start = System.nanoTime();
+                List<RegisteredPlayer> players;
+                try {
+                    players = adminLane.call(playerDao::queryForAll);
+                } finally {
+                    queryMetrics.record(QueryMetrics.Statement.FIND_ALL, start);
+                }
                 if (logger.isDebugEnabled()) {
                     logger.debug(DB_MARKER, "Pobrano {} graczy z bazy danych", players.size());
                 }
@@ -766,11 +1176,47 @@ public class DatabaseManager {
         }, dbExecutor);
     }
 
+    /**
+     * Przechodzi po wszystkich graczach kursorem JDBC w stałej pamięci (eksport, operacje administracyjne).
+     * Konsument jest wywoływany na wątku bazy danych, a połączenie pozostaje zajęte do końca przechodzenia.
+     * Gracze nie trafiają do cache, a zaległe dane logowania (write-behind) są na nich nakładane.
+     *
+     * @param action konsument graczy
+     * @return CompletableFuture z DbResult zawierającym liczbę przetworzonych graczy
+     */
+    public CompletableFuture<DbResult<Integer>> forEachPlayer(Consumer<? super RegisteredPlayer> action) {
+        return CompletableFuture.supplyAsync(() -> {
+            DbResult<Void> connectionResult = validateDatabaseConnection();
+            if (connectionResult.isDatabaseError()) {
+                return DbResult.databaseError(connectionResult.getErrorMessage());
+            }
+            try {
+                LoginWriteBehind writeBehind = loginWriteBehind;
+                int processed = adminLane.call(() -> jdbcAuthDao.forEachPlayer(streamFetchSize, player -> {
+                    if (writeBehind != null) {
+                        writeBehind.applyPending(player);
+                    }
+                    action.accept(player);
+                }));
+                if (logger.isDebugEnabled()) {
+                    logger.debug(DB_MARKER, "Przetworzono strumieniowo {} graczy", processed);
+                }
+                return DbResult.success(processed);
+            } catch (SQLException e) {
+                if (logger.isErrorEnabled()) {
+                    logger.error(DB_MARKER, "Błąd podczas strumieniowania graczy", e);
+                }
+                return DbResult.databaseError(messages.get(DATABASE_ERROR) + ": " + e.getMessage());
+            }
+        }, dbExecutor);
+    }
+
     /**
      * Czyści cache graczy.
      */
     public void clearCache() {
         playerCache.clear();
+        playerLookups.forgetAll();
         if (logger.isDebugEnabled()) {
             logger.debug(CACHE_MARKER, "Cache graczy wyczyszczony");
         }
@@ -783,7 +1229,8 @@ public class DatabaseManager {
      */
     public void removeCachedPlayer(String lowercaseNickname) {
         if (lowercaseNickname != null) {
-            playerCache.remove(lowercaseNickname);
+            playerCache.invalidate(lowercaseNickname);
+            playerLookups.forget(lowercaseNickname);
             if (logger.isDebugEnabled()) {
                 logger.debug("Usunięto z cache gracza: {}", lowercaseNickname);
             }
@@ -800,336 +1247,280 @@ public class DatabaseManager {
     }
 
     /**
-     * Sprawdza czy baza danych jest połączona.
+     * Zwraca procent zapytań obsłużonych z cache (łącznie z trafieniami negatywnymi).
      *
-     * @return true jeśli połączona
+     * @return Hit rate w procentach (0-100)
      */
-    public boolean isConnected() {
-        return isHealthy();
+    public double getCacheHitRate() {
+        return playerCache.stats().getHitRate();
     }
 
     /**
-     * Zwraca liczbę kont non-premium (AUTH z HASH NOT NULL).
+     * Zwraca liczbę lookupów graczy obsłużonych przez zapytanie już w toku.
+     *
+     * @return Liczba zaoszczędzonych zapytań
      */
-    public CompletableFuture<Integer> getTotalNonPremiumAccounts() {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!connected) {
-                return 0;
-            }
-            try {
-                boolean postgres = DatabaseType.POSTGRESQL.getName().equalsIgnoreCase(config.getStorageType());
-                String auth = postgres ? "\"AUTH\"" : "AUTH";
-                String hash = postgres ? "\"HASH\"" : "HASH";
-                String sql = "SELECT COUNT(*) FROM " + auth + WHERE_CLAUSE + hash + " IS NOT NULL";
-
-                return executeCountQuery(sql);
-            } catch (SQLException e) {
-                if (logger.isErrorEnabled()) {
-                    logger.error(DB_MARKER, "Error counting non-premium accounts", e);
-                }
-                return 0;
-            }
-        }, dbExecutor);
+    public long getCoalescedLookupCount() {
+        return playerLookups.getCoalescedCount();
     }
 
-    @SuppressWarnings("java:S2077") // Safe: predefined templates only
-    private int executeCountQuery(String sql) throws SQLException {
-        DatabaseConnection dbConnection = connectionSource.getReadWriteConnection(null);
-        try {
-            java.sql.Connection connection = dbConnection.getUnderlyingConnection();
-            // SQL Injection safe: Using constant SQL string, not user input
-            try (java.sql.Statement stmt = connection.createStatement();
-                 java.sql.ResultSet rs = stmt.executeQuery(sql)) { // NOSONAR - SQL from constants only
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
-                return 0;
-            }
-        } finally {
-            connectionSource.releaseConnection(dbConnection);
-        }
+    /**
+     * Zwraca liczbę lookupów graczy faktycznie wykonanych (cache + baza).
+     *
+     * @return Liczba wykonanych lookupów
+     */
+    public long getExecutedLookupCount() {
+        return playerLookups.getExecutedCount();
     }
 
     /**
-     * Zwraca liczbę wszystkich zarejestrowanych kont.
-     * Simple implementation using getAllPlayers() to avoid complex SQL queries.
+     * Zwraca liczbę zapytań zbiorczych (IN) wykonanych przez batching lookupów.
+     *
+     * @return Liczba zapytań zbiorczych (0 gdy batching wyłączony)
      */
-    public CompletableFuture<Integer> getTotalRegisteredAccounts() {
-        return getAllPlayers().thenApply(Collection::size)
-                .exceptionally(e -> {
-                    if (logger.isErrorEnabled()) {
-                        logger.error(DB_MARKER, "Error getting total registered accounts", e);
-                    }
-                    return 0;
-                });
+    public long getBatchedQueryCount() {
+        BatchLoader<String, RegisteredPlayer> loader = playerBatchLoader;
+        return loader != null ? loader.getBatchCount() : 0;
     }
 
     /**
-     * Zwraca liczbę kont premium.
-     * Simple implementation using existing data to avoid complex SQL queries.
+     * Zwraca liczbę nicków pobranych zapytaniami zbiorczymi.
+     *
+     * @return Liczba nicków obsłużonych przez batching (0 gdy wyłączony)
      */
-    public CompletableFuture<Integer> getTotalPremiumAccounts() {
-        return getAllPlayers().thenApply(players ->
-                (int) players.stream()
-                        .filter(player -> player.getPremiumUuid() != null || player.getHash() == null)
-                        .count()
-        ).exceptionally(e -> {
-            if (logger.isErrorEnabled()) {
-                logger.error(DB_MARKER, "Error getting total premium accounts", e);
-            }
-            return 0;
-        });
+    public long getBatchedLookupCount() {
+        BatchLoader<String, RegisteredPlayer> loader = playerBatchLoader;
+        return loader != null ? loader.getBatchedKeyCount() : 0;
     }
 
     /**
-     * Zwraca konfigurację bazy danych.
+     * Zwraca liczbę graczy z zaległym (jeszcze niezapisanym) zapisem danych logowania.
      *
-     * @return DatabaseConfig
+     * @return Liczba zaległych aktualizacji (0 gdy write-behind wyłączony)
      */
-    public DatabaseConfig getConfig() {
-        return config;
+    public long getPendingLoginWriteCount() {
+        LoginWriteBehind writeBehind = loginWriteBehind;
+        return writeBehind != null ? writeBehind.pendingCount() : 0;
     }
 
     /**
-     * Zwraca DAO dla operacji na PremiumUuid.
+     * Zwraca liczbę aktualizacji danych logowania połączonych z zaległą aktualizacją tego samego gracza.
      *
-     * @return PremiumUuidDao
+     * @return Liczba zaoszczędzonych zapisów (0 gdy write-behind wyłączony)
      */
-    public PremiumUuidDao getPremiumUuidDao() {
-        return premiumUuidDao;
+    public long getCoalescedLoginWriteCount() {
+        LoginWriteBehind writeBehind = loginWriteBehind;
+        return writeBehind != null ? writeBehind.getCoalescedCount() : 0;
     }
-    
+
     /**
-     * Sets the AuthCache reference for cache invalidation coordination.
-     * Uses WeakReference to avoid circular dependency.
-     * 
-     * @param authCache AuthCache instance to coordinate with
+     * Sprawdza czy lookupy są kierowane na replikę odczytu.
+     *
+     * @return true jeśli replika jest skonfigurowana i połączona
      */
-    public void setAuthCacheReference(net.rafalohaki.veloauth.cache.AuthCache authCache) {
-        if (authCache != null) {
-            this.authCacheRef = new WeakReference<>(authCache);
-            if (logger.isDebugEnabled()) {
-                logger.debug(DB_MARKER, "AuthCache reference set for cache invalidation coordination");
-            }
-        }
+    public boolean hasReadReplica() {
+        return replicaRouter != null;
     }
 
     /**
-     * Tworzy tabele jeśli nie istnieją i migruje schemat dla kompatybilności z limboauth.
+     * Zwraca ostatnio zmierzone opóźnienie repliki odczytu.
+     *
+     * @return opóźnienie w ms, -1 gdy nieznane, replika niedostępna lub nieskonfigurowana
      */
-    private void createTablesIfNotExists() throws SQLException {
-        if (logger.isDebugEnabled()) {
-            logger.debug(messages.get("database.manager.creating_tables"));
-        }
-
-        // Tworzenie tabeli AUTH
-        TableUtils.createTableIfNotExists(connectionSource, RegisteredPlayer.class);
-
-        // Tworzenie tabeli PREMIUM_UUIDS
-        TableUtils.createTableIfNotExists(connectionSource, PremiumUuid.class);
-
-        // Migrowanie schematu dla kompatybilności z limboauth
-        migrateAuthTableForLimboauth();
-
-        // Tworzenie indeksów dla wydajności
-        createIndexesIfNotExists();
-
-        if (logger.isDebugEnabled()) {
-            logger.debug(messages.get("database.manager.tables_created"));
-        }
+    public long getReplicaLagMillis() {
+        ReplicaRouter router = replicaRouter;
+        return router != null ? router.getLagMillis() : ReplicaRouter.LAG_UNKNOWN;
     }
 
     /**
-     * Migruje tabelę AUTH dla kompatybilności z limboauth.
-     * Dodaje brakujące kolumny: PREMIUMUUID, TOTPTOKEN, ISSUEDTIME.
+     * Zwraca liczbę lookupów wykonanych na replice odczytu.
+     *
+     * @return Liczba odczytów z repliki
      */
-    private void migrateAuthTableForLimboauth() throws SQLException {
-        DatabaseConnection dbConnection = connectionSource.getReadWriteConnection(null);
-        try {
-            performColumnMigration(dbConnection);
-        } finally {
-            connectionSource.releaseConnection(dbConnection);
-        }
+    public long getReplicaReadCount() {
+        ReplicaRouter router = replicaRouter;
+        return router != null ? router.getReplicaReadCount() : 0;
     }
 
-    private void performColumnMigration(DatabaseConnection dbConnection) throws SQLException {
-        java.sql.Connection connection = dbConnection.getUnderlyingConnection();
-        ColumnMigrationResult migrationResult = checkExistingColumns(connection);
-        DatabaseType dbType = DatabaseType.fromName(config.getStorageType());
-        String quote = dbType == DatabaseType.POSTGRESQL ? "\"" : "`";
-
-        addMissingColumns(connection, migrationResult, quote);
-        logMigrationComplete(migrationResult);
+    /**
+     * Zwraca liczbę lookupów wykonanych na primary mimo skonfigurowanej repliki
+     * (świeży zapis, opóźnienie repliki lub jej błąd).
+     *
+     * @return Liczba odczytów z primary
+     */
+    public long getPrimaryReadCount() {
+        ReplicaRouter router = replicaRouter;
+        return router != null ? router.getPrimaryReadCount() : 0;
     }
 
-    private ColumnMigrationResult checkExistingColumns(java.sql.Connection connection) throws SQLException {
-        boolean hasPremiumUuid = columnExists(connection, AUTH_TABLE, "PREMIUMUUID");
-        boolean hasTotpToken = columnExists(connection, AUTH_TABLE, "TOTPTOKEN");
-        boolean hasIssuedTime = columnExists(connection, AUTH_TABLE, "ISSUEDTIME");
-        boolean hasConflictMode = columnExists(connection, AUTH_TABLE, "CONFLICT_MODE");
-        boolean hasConflictTimestamp = columnExists(connection, AUTH_TABLE, "CONFLICT_TIMESTAMP");
-        boolean hasOriginalNickname = columnExists(connection, AUTH_TABLE, "ORIGINAL_NICKNAME");
-        return new ColumnMigrationResult(hasPremiumUuid, hasTotpToken, hasIssuedTime, hasConflictMode, hasConflictTimestamp, hasOriginalNickname);
+    /**
+     * Zwraca liczbę lookupów przeniesionych na primary po błędzie połączenia lub odczytu z repliki.
+     *
+     * @return Liczba fallbacków na primary
+     */
+    public long getReplicaFallbackCount() {
+        ReplicaRouter router = replicaRouter;
+        return router != null ? router.getFallbackCount() : 0;
     }
 
-    private void addMissingColumns(java.sql.Connection connection, ColumnMigrationResult result, String quote) throws SQLException {
-        if (!result.hasPremiumUuid) {
-            addColumn(connection, quote, "PREMIUMUUID", "VARCHAR(36)", "Dodano kolumnę PREMIUMUUID do tabeli AUTH");
-        }
-
-        if (!result.hasTotpToken) {
-            addColumn(connection, quote, "TOTPTOKEN", "VARCHAR(32)", "Dodano kolumnę TOTPTOKEN do tabeli AUTH");
-        }
-
-        if (!result.hasIssuedTime) {
-            addColumn(connection, quote, "ISSUEDTIME", "BIGINT DEFAULT 0", "Dodano kolumnę ISSUEDTIME do tabeli AUTH");
-        }
-
-        // Add conflict resolution columns for USE_OFFLINE strategy
-        if (!result.hasConflictMode) {
-            addColumn(connection, quote, "CONFLICT_MODE", "BOOLEAN DEFAULT FALSE", "Dodano kolumnę CONFLICT_MODE do tabeli AUTH");
-        }
-
-        if (!result.hasConflictTimestamp) {
-            addColumn(connection, quote, "CONFLICT_TIMESTAMP", "BIGINT DEFAULT 0", "Dodano kolumnę CONFLICT_TIMESTAMP do tabeli AUTH");
-        }
-
-        if (!result.hasOriginalNickname) {
-            addColumn(connection, quote, "ORIGINAL_NICKNAME", "VARCHAR(16)", "Dodano kolumnę ORIGINAL_NICKNAME do tabeli AUTH");
-        }
+    /**
+     * Zwraca liczbę lookupów skierowanych na primary, bo opóźnienie repliki było nieznane lub powyżej limitu.
+     *
+     * @return Liczba odczytów pominiętych na replice z powodu opóźnienia
+     */
+    public long getReplicaLaggedReadCount() {
+        ReplicaRouter router = replicaRouter;
+        return router != null ? router.getLaggedReadCount() : 0;
     }
 
-    private void addColumn(java.sql.Connection connection, String quote, String columnName, String columnDefinition, String logMessage) throws SQLException {
-        String sql = ALTER_TABLE + quote + AUTH_TABLE + quote + ADD_COLUMN + quote + columnName + quote + " " + columnDefinition;
-        try {
-            executeAlterTable(connection, sql);
-            if (logger.isInfoEnabled()) {
-                logger.info(DB_MARKER, logMessage);
-            }
-        } catch (SQLException e) {
-            // H2 error code 42121 = DUPLICATE_COLUMN_NAME_1
-            // Inne bazy mogą mieć różne kody, sprawdzamy też komunikat
-            if (e.getErrorCode() == 42121 || e.getMessage().toLowerCase().contains("duplicate column")) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(DB_MARKER, "Kolumna {} już istnieje w tabeli {} - pomijam (expected behavior)", 
-                              columnName, AUTH_TABLE);
-                }
-                // Nie rzucaj wyjątku - kolumna już istnieje, kontynuuj
-            } else {
-                // Inny błąd SQL - przekaż dalej
-                throw e;
+    /**
+     * Zwraca stan pul połączeń HikariCP (primary i replika, jeśli skonfigurowana).
+     *
+     * @return statystyki uruchomionych pul
+     */
+    public List<ConnectionPoolStats> getConnectionPoolStats() {
+        List<ConnectionPoolStats> stats = new ArrayList<>(2);
+        addPoolStats(stats, "primary", config.getDataSource());
+        addPoolStats(stats, "replica", config.getReplicaDataSource());
+        return stats;
+    }
+
+    private static void addPoolStats(List<ConnectionPoolStats> stats, String pool, DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari && !hikari.isClosed()) {
+            HikariPoolMXBean poolBean = hikari.getHikariPoolMXBean();
+            if (poolBean != null) {
+                stats.add(new ConnectionPoolStats(pool, poolBean.getActiveConnections(), poolBean.getIdleConnections(),
+                        poolBean.getThreadsAwaitingConnection()));
             }
         }
     }
 
-    private void logMigrationComplete(ColumnMigrationResult result) {
-        if (logger.isDebugEnabled() && (!result.hasPremiumUuid || !result.hasTotpToken || !result.hasIssuedTime)) {
-            logger.debug(DB_MARKER, "Migracja schematu AUTH dla limboauth zakończona");
-        }
-    }
+    /**
+     * Stan puli połączeń.
+     *
+     * @param pool            nazwa puli (primary/replica)
+     * @param active          połączenia w użyciu
+     * @param idle            wolne połączenia
+     * @param threadsAwaiting wątki czekające na połączenie
+     */
+    public record ConnectionPoolStats(String pool, int active, int idle, int threadsAwaiting) {}
 
     /**
-     * Wykonuje ALTER TABLE statement w bezpieczny sposób.
-     * Używa stałych wartości - nie ma ryzyka SQL injection.
+     * Sprawdza czy baza danych jest połączona.
+     *
+     * @return true jeśli połączona
      */
-    @SuppressWarnings("java:S2077") // SQL Injection safe - internal migration constants only
-    private void executeAlterTable(java.sql.Connection connection, String sql) throws SQLException {
-        // SQL Injection safe: Using constant SQL string, not user input
-        try (java.sql.Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-        }
+    public boolean isConnected() {
+        return isHealthy();
     }
 
     /**
-     * Sprawdza czy kolumna istnieje w tabeli używając DatabaseMetaData.
-     * Obsługuje H2 z DATABASE_TO_LOWER=TRUE poprzez case-insensitive porównywanie.
+     * Zwraca statystyki kont (wszystkie, premium, non-premium) jednym zapytaniem COUNT/SUM.
+     * Nie wczytuje wierszy AUTH do pamięci - koszt po stronie proxy jest stały niezależnie od liczby kont.
      */
-    private boolean columnExists(java.sql.Connection connection, String tableName, String columnName) throws SQLException {
-        java.sql.DatabaseMetaData metaData = connection.getMetaData();
-        
-        // Sprawdź zarówno uppercase jak i lowercase nazwy
-        // H2 z DATABASE_TO_LOWER=TRUE zwraca lowercase, inne bazy mogą zwracać uppercase
-        try (java.sql.ResultSet columns = metaData.getColumns(null, null, tableName, null)) {
-            while (columns.next()) {
-                String existingColumn = columns.getString("COLUMN_NAME");
-                if (existingColumn != null && existingColumn.equalsIgnoreCase(columnName)) {
-                    if (logger.isDebugEnabled()) {
-                        logger.debug(DB_MARKER, "Kolumna {} istnieje w tabeli {} (znaleziona jako: {})", 
-                                   columnName, tableName, existingColumn);
-                    }
-                    return true;
+    public CompletableFuture<JdbcAuthDao.AccountCounts> getAccountCounts() {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!connected) {
+                return new JdbcAuthDao.AccountCounts(0, 0, 0);
+            }
+            try {
+                return adminLane.call(jdbcAuthDao::countAccounts);
+            } catch (SQLException e) {
+                if (logger.isErrorEnabled()) {
+                    logger.error(DB_MARKER, "Error counting accounts", e);
                 }
+                return new JdbcAuthDao.AccountCounts(0, 0, 0);
             }
-        }
-        
-        if (logger.isDebugEnabled()) {
-            logger.debug(DB_MARKER, "Kolumna {} nie istnieje w tabeli {}", columnName, tableName);
-        }
-        return false;
+        }, dbExecutor);
     }
 
     /**
-     * Tworzy indeksy dla wydajności.
+     * Zwraca liczbę kont non-premium (AUTH z HASH NOT NULL).
      */
-    private void createIndexesIfNotExists() {
-        DatabaseType dbType = DatabaseType.fromName(config.getStorageType());
+    public CompletableFuture<Integer> getTotalNonPremiumAccounts() {
+        return getAccountCounts().thenApply(JdbcAuthDao.AccountCounts::nonPremium);
+    }
 
-        // Indeksy różnią się między bazami danych
-        if (dbType == DatabaseType.POSTGRESQL) {
-            createPostgreSqlIndexes();
-        } else if (dbType == DatabaseType.MYSQL) {
-            createMySqlIndexes();
-        }
-        // H2 i SQLite tworzą indeksy automatycznie dla kluczy obcych
+    /**
+     * Zwraca liczbę wszystkich zarejestrowanych kont.
+     */
+    public CompletableFuture<Integer> getTotalRegisteredAccounts() {
+        return getAccountCounts().thenApply(JdbcAuthDao.AccountCounts::total);
     }
 
     /**
-     * Tworzy indeksy dla PostgreSQL.
+     * Zwraca liczbę kont premium (PREMIUMUUID ustawione lub brak hasła).
      */
-    private void createPostgreSqlIndexes() {
-        createIndexSafely("CREATE INDEX IF NOT EXISTS idx_auth_ip ON \"AUTH\" (\"IP\")");
-        createIndexSafely("CREATE INDEX IF NOT EXISTS idx_auth_uuid ON \"AUTH\" (\"UUID\")");
-        createIndexSafely("CREATE INDEX IF NOT EXISTS idx_auth_logindate ON \"AUTH\" (\"LOGINDATE\")");
-        createIndexSafely("CREATE INDEX IF NOT EXISTS idx_auth_regdate ON \"AUTH\" (\"REGDATE\")");
+    public CompletableFuture<Integer> getTotalPremiumAccounts() {
+        return getAccountCounts().thenApply(JdbcAuthDao.AccountCounts::premium);
     }
 
     /**
-     * Tworzy indeksy dla MySQL.
+     * Zwraca konfigurację bazy danych.
+     *
+     * @return DatabaseConfig
      */
-    private void createMySqlIndexes() {
-        createIndexSafely("CREATE INDEX IF NOT EXISTS idx_auth_ip ON `AUTH` (`IP`)");
-        createIndexSafely("CREATE INDEX IF NOT EXISTS idx_auth_uuid ON `AUTH` (`UUID`)");
-        createIndexSafely("CREATE INDEX IF NOT EXISTS idx_auth_logindate ON `AUTH` (`LOGINDATE`)");
-        createIndexSafely("CREATE INDEX IF NOT EXISTS idx_auth_regdate ON `AUTH` (`REGDATE`)");
+    public DatabaseConfig getConfig() {
+        return config;
     }
 
     /**
-     * Bezpiecznie tworzy indeks z obsługą błędów.
+     * Zwraca DAO dla operacji na PremiumUuid.
+     *
+     * @return PremiumUuidDao
      */
-    private void createIndexSafely(String sql) {
-        try {
-            executeUpdate(sql);
-        } catch (SQLException e) {
+    public PremiumUuidDao getPremiumUuidDao() {
+        return premiumUuidDao;
+    }
+    
+    /**
+     * Sets the AuthCache reference for cache invalidation coordination.
+     * Uses WeakReference to avoid circular dependency.
+     * 
+     * @param authCache AuthCache instance to coordinate with
+     */
+    public void setAuthCacheReference(net.rafalohaki.veloauth.cache.AuthCache authCache) {
+        if (authCache != null) {
+            this.authCacheRef = new WeakReference<>(authCache);
             if (logger.isDebugEnabled()) {
-                logger.debug("Index creation failed (may already exist): {}", e.getMessage());
+                logger.debug(DB_MARKER, "AuthCache reference set for cache invalidation coordination");
             }
         }
     }
 
     /**
-     * Wykonuje UPDATE/DDL statement z poprawnym zarządzaniem połączeniami.
+     * Doprowadza schemat do aktualnej wersji (tabele, kolumny LimboAuth, indeksy) przez {@link SchemaMigrator},
+     * po czym odczytuje raz układ tabeli AUTH dla {@link JdbcAuthDao}.
+     * Przy aktualnym schemacie to jedno zapytanie o wersję i jedno o metadane.
      */
-    private void executeUpdate(String sql) throws SQLException {
-        if (connectionSource != null) {
-            DatabaseConnection connection = null;
-            try {
-                connection = connectionSource.getReadWriteConnection(null);
-                connection.executeStatement(sql, 0);
-            } finally {
-                if (connection != null) {
-                    connectionSource.releaseConnection(connection);
-                }
+    private void createTablesIfNotExists() throws SQLException {
+        if (logger.isDebugEnabled()) {
+            logger.debug(messages.get("database.manager.creating_tables"));
+        }
+
+        long start = System.nanoTime();
+        SchemaMigrator.Result result;
+        DatabaseConnection dbConnection = connectionSource.getReadWriteConnection(null);
+        try {
+            Connection connection = dbConnection.getUnderlyingConnection();
+            result = new SchemaMigrator(DatabaseType.fromName(config.getStorageType())).migrate(connection);
+            // Układ tabeli po migracjach - komendy admina nie odpytują już metadanych
+            jdbcAuthDao.useTableLayout(AuthTableLayout.read(connection, JdbcAuthDao.TABLE_AUTH));
+        } finally {
+            connectionSource.releaseConnection(dbConnection);
+        }
+
+        if (result.upToDate()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(DB_MARKER, "Schemat bazy aktualny (wersja {}), sprawdzono w {} ms", result.toVersion(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
             }
+        } else if (logger.isInfoEnabled()) {
+            logger.info(DB_MARKER, "Migracje schematu zakończone w {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(messages.get("database.manager.tables_created"));
         }
     }
 
@@ -1152,26 +1543,27 @@ public class DatabaseManager {
 
 
     /**
-     * Null-safe cache check that ALWAYS returns DbResult.
-     * Never returns null - returns DbResult.success(null) for cache miss.
+     * Null-safe cache check.
+     * Never returns null - returns {@link PlayerCache.Lookup#MISS} for cache miss
+     * and {@link PlayerCache.Lookup#NOT_FOUND} for a cached "not registered" answer.
      */
-    private DbResult<RegisteredPlayer> checkCacheSafe(String normalizedNickname) {
-        RegisteredPlayer cached = playerCache.get(normalizedNickname);
+    private PlayerCache.Lookup checkCacheSafe(String normalizedNickname) {
+        PlayerCache.Lookup cached = playerCache.get(normalizedNickname);
         
-        // Cache miss
-        if (cached == null) {
-            return DbResult.success(null);
+        // Cache miss or negative hit
+        if (!cached.hit() || cached.player() == null) {
+            return cached;
         }
         
         // Cache corruption check
-        if (isCacheCorrupted(cached, normalizedNickname)) {
+        if (isCacheCorrupted(cached.player(), normalizedNickname)) {
             handleCacheCorruption(normalizedNickname);
-            return DbResult.success(null); // Treat corruption as cache miss
+            return PlayerCache.Lookup.MISS; // Treat corruption as cache miss
         }
         
         // Cache hit
         logCacheHit(normalizedNickname);
-        return DbResult.success(cached);
+        return cached;
     }
 
 
@@ -1195,7 +1587,7 @@ public class DatabaseManager {
     public CompletableFuture<List<RegisteredPlayer>> findPlayersInConflictMode() {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return jdbcAuthDao.findAllPlayersInConflictMode();
+                return adminLane.call(jdbcAuthDao::findAllPlayersInConflictMode);
             } catch (SQLException e) {
                 logger.error("Database error while finding players in conflict mode", e);
                 return List.of();
@@ -1203,9 +1595,6 @@ public class DatabaseManager {
         }, dbExecutor);
     }
 
-    private record ColumnMigrationResult(boolean hasPremiumUuid, boolean hasTotpToken, boolean hasIssuedTime, boolean hasConflictMode, boolean hasConflictTimestamp, boolean hasOriginalNickname) {
-    }
-
     /**
      * Result wrapper for database operations that distinguishes between
      * "not found" and "database error" states for fail-secure behavior.
@@ -18,6 +18,9 @@ public class HikariConfigParams {
     private final String connectionParameters;
     private final Settings.PostgreSQLSettings postgreSQLSettings;
     private final boolean debugEnabled;
+    private final String replicaHostname;
+    private final int replicaPort;
+    private final int replicaConnectionPoolSize;
 
     private HikariConfigParams(Builder builder) {
         this.storageType = builder.storageType;
@@ -31,6 +34,9 @@ public class HikariConfigParams {
         this.connectionParameters = builder.connectionParameters;
         this.postgreSQLSettings = builder.postgreSQLSettings;
         this.debugEnabled = builder.debugEnabled;
+        this.replicaHostname = builder.replicaHostname;
+        this.replicaPort = builder.replicaPort;
+        this.replicaConnectionPoolSize = builder.replicaConnectionPoolSize;
     }
 
     public String getStorageType() {
@@ -77,6 +83,31 @@ public class HikariConfigParams {
         return debugEnabled;
     }
 
+    public String getReplicaHostname() {
+        return replicaHostname;
+    }
+
+    /**
+     * @return port repliki odczytu (port primary, jeśli nie ustawiono)
+     */
+    public int getReplicaPort() {
+        return replicaPort > 0 ? replicaPort : port;
+    }
+
+    /**
+     * @return rozmiar puli repliki (rozmiar puli primary, jeśli nie ustawiono)
+     */
+    public int getReplicaConnectionPoolSize() {
+        return replicaConnectionPoolSize > 0 ? replicaConnectionPoolSize : connectionPoolSize;
+    }
+
+    /**
+     * @return true jeśli skonfigurowano replikę odczytu
+     */
+    public boolean hasReplica() {
+        return replicaHostname != null && !replicaHostname.isBlank();
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -93,6 +124,9 @@ public class HikariConfigParams {
         private String connectionParameters;
         private Settings.PostgreSQLSettings postgreSQLSettings;
         private boolean debugEnabled;
+        private String replicaHostname;
+        private int replicaPort;
+        private int replicaConnectionPoolSize;
 
         public Builder storageType(String storageType) {
             this.storageType = storageType;
@@ -149,6 +183,24 @@ public class HikariConfigParams {
             return this;
         }
 
+        /**
+         * Host repliki odczytu - ta sama baza, użytkownik, hasło i ustawienia SSL co primary.
+         */
+        public Builder replicaHostname(String replicaHostname) {
+            this.replicaHostname = replicaHostname;
+            return this;
+        }
+
+        public Builder replicaPort(int replicaPort) {
+            this.replicaPort = replicaPort;
+            return this;
+        }
+
+        public Builder replicaConnectionPoolSize(int replicaConnectionPoolSize) {
+            this.replicaConnectionPoolSize = replicaConnectionPoolSize;
+            return this;
+        }
+
         public HikariConfigParams build() {
             return new HikariConfigParams(this);
         }
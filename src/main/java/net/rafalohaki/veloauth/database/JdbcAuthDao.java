@@ -11,8 +11,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * JDBC DAO obsługujący gorące ścieżki logowania/rejestracji bez narzutu ORMLite.
@@ -28,7 +34,7 @@ public final class JdbcAuthDao {
     private static final Logger logger = LoggerFactory.getLogger(JdbcAuthDao.class);
 
     // Table name constant
-    private static final String TABLE_AUTH = "AUTH";
+    static final String TABLE_AUTH = "AUTH";
 
     // Column name constants - synchronized with RegisteredPlayer ORMLite annotations
     private static final String COL_NICKNAME = "NICKNAME";
@@ -47,20 +53,99 @@ public final class JdbcAuthDao {
     private static final String COL_ORIGINAL_NICKNAME = "ORIGINAL_NICKNAME";
 
     // SQL fragment constants
+    // Pozycje kolumn w SELECT-ach graczy (kolejność z initializeSqlStatements)
+    private static final int IDX_NICKNAME = 1;
+    private static final int IDX_LOWERCASE_NICKNAME = 2;
+    private static final int IDX_HASH = 3;
+    private static final int IDX_IP = 4;
+    private static final int IDX_LOGIN_IP = 5;
+    private static final int IDX_UUID = 6;
+    private static final int IDX_REG_DATE = 7;
+    private static final int IDX_LOGIN_DATE = 8;
+    private static final int IDX_PREMIUM_UUID = 9;
+    private static final int IDX_TOTP_TOKEN = 10;
+    private static final int IDX_ISSUED_TIME = 11;
+
     private static final String WHERE_CLAUSE = " WHERE ";
     private static final String COMMA_SPACE_EQUALS_QUESTION = " = ?, ";
 
+    /**
+     * Maksymalna liczba parametrów w jednym {@code IN (...)} - poniżej limitu SQLite (999).
+     */
+    static final int MAX_IN_PARAMETERS = 500;
+
     private final DatabaseConfig config;
+    private final DatabaseType dialect;
     private final boolean postgres;
+    /**
+     * Cache statementów dla gorących zapytań - tylko dla lokalnej puli (H2/SQLite), null w pozostałych przypadkach.
+     */
+    private final PreparedStatementCache statementCache;
+    /**
+     * Routing odczytów lookupów na replikę - null, gdy replika nie jest skonfigurowana.
+     */
+    private final ReplicaRouter replicaRouter;
+    private final QueryMetrics queryMetrics;
 
+    private String selectPlayerColumnsSql;
     private String selectPlayerSql;
-    private String insertPlayerSql;
-    private String updatePlayerSql;
+    private String selectAllPlayersSql;
+    private String selectPlayersPrefixSql;
+    private UpsertSql upsertPlayer;
     private String deletePlayerSql;
+    private String updateLoginMetadataSql;
+    private String countAccountsSql;
+    /**
+     * Zapytanie o graczy w trybie konfliktu wygenerowane z układu tabeli. DatabaseManager ustawia je
+     * po migracjach schematu ({@link #useTableLayout(AuthTableLayout)}); null tylko dla DAO użytego
+     * bez inicjalizacji DatabaseManager.
+     */
+    private volatile ConflictSelect conflictSelect;
+    private final ReentrantLock conflictSelectLock = new ReentrantLock();
+
+    /**
+     * SELECT graczy w trybie konfliktu i pozycje opcjonalnych kolumn konfliktu (0 - kolumny brak w tabeli).
+     *
+     * @param sql                    zapytanie (null - brak kolumny CONFLICT_MODE, nie ma czego szukać)
+     * @param conflictTimestampIndex pozycja CONFLICT_TIMESTAMP
+     * @param originalNicknameIndex  pozycja ORIGINAL_NICKNAME
+     */
+    private record ConflictSelect(String sql, int conflictTimestampIndex, int originalNicknameIndex) {}
+
+    /**
+     * Zaległa aktualizacja danych logowania (write-behind).
+     *
+     * @param lowercaseNickname klucz gracza
+     * @param loginIp           IP ostatniego logowania
+     * @param loginDate         czas ostatniego logowania (ms)
+     */
+    public record LoginUpdate(String lowercaseNickname, String loginIp, long loginDate) {}
+
+    /**
+     * Statystyki kont z tabeli AUTH.
+     *
+     * @param total      wszystkie konta
+     * @param premium    konta premium (PREMIUMUUID ustawione lub brak hasła)
+     * @param nonPremium konta z hasłem
+     */
+    public record AccountCounts(int total, int premium, int nonPremium) {}
 
     public JdbcAuthDao(DatabaseConfig config) {
+        this(config, null, new QueryMetrics());
+    }
+
+    /**
+     * @param replicaRouter routing lookupów na replikę odczytu (null - wszystkie zapytania na primary)
+     * @param queryMetrics  histogramy czasów zapytań i oczekiwania na połączenie
+     */
+    JdbcAuthDao(DatabaseConfig config, ReplicaRouter replicaRouter, QueryMetrics queryMetrics) {
         this.config = Objects.requireNonNull(config, "config nie może być null");
-        this.postgres = DatabaseType.POSTGRESQL.getName().equalsIgnoreCase(config.getStorageType());
+        this.dialect = Objects.requireNonNull(DatabaseType.fromName(config.getStorageType()),
+                "Nieobsługiwany typ bazy danych");
+        this.postgres = dialect == DatabaseType.POSTGRESQL;
+        this.statementCache = dialect.isLocalDatabase() && config.hasDataSource() ? new PreparedStatementCache(config.getConnectionPoolSize()) : null;
+        this.replicaRouter = replicaRouter;
+        this.queryMetrics = Objects.requireNonNull(queryMetrics, "queryMetrics nie może być null");
         
         initializeSqlStatements();
     }
@@ -79,7 +164,8 @@ public final class JdbcAuthDao {
         String totpTokenColumn = column(COL_TOTP_TOKEN);
         String issuedTimeColumn = column(COL_ISSUED_TIME);
 
-        this.selectPlayerSql = "SELECT " + joinColumns(
+        // Kolejność kolumn musi odpowiadać stałym IDX_* (mapowanie wierszy jest pozycyjne)
+        this.selectPlayerColumnsSql = "SELECT " + joinColumns(
                 nicknameColumn,
                 lowercaseNicknameColumn,
                 hashColumn,
@@ -90,9 +176,13 @@ public final class JdbcAuthDao {
                 loginDateColumn,
                 premiumUuidColumn,
                 totpTokenColumn,
-                issuedTimeColumn) + " FROM " + authTable + WHERE_CLAUSE + lowercaseNicknameColumn + " = ?";
+                issuedTimeColumn);
+        this.selectAllPlayersSql = selectPlayerColumnsSql + " FROM " + authTable;
+        this.selectPlayersPrefixSql = selectAllPlayersSql + WHERE_CLAUSE + lowercaseNicknameColumn;
+        this.selectPlayerSql = selectPlayersPrefixSql + " = ?";
 
-        this.insertPlayerSql = "INSERT INTO " + authTable + " (" + joinColumns(
+        // Kolejność kolumn musi odpowiadać playerValues()
+        this.upsertPlayer = UpsertSql.build(dialect, authTable, List.of(
                 lowercaseNicknameColumn,
                 nicknameColumn,
                 hashColumn,
@@ -103,27 +193,26 @@ public final class JdbcAuthDao {
                 loginDateColumn,
                 premiumUuidColumn,
                 totpTokenColumn,
-                issuedTimeColumn) + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                issuedTimeColumn), Set.of());
+
+        this.deletePlayerSql = "DELETE FROM " + authTable + WHERE_CLAUSE + lowercaseNicknameColumn + " = ?";
 
-        this.updatePlayerSql = "UPDATE " + authTable + " SET " +
-                nicknameColumn + COMMA_SPACE_EQUALS_QUESTION +
-                hashColumn + COMMA_SPACE_EQUALS_QUESTION +
-                ipColumn + COMMA_SPACE_EQUALS_QUESTION +
+        this.updateLoginMetadataSql = "UPDATE " + authTable + " SET " +
                 loginIpColumn + COMMA_SPACE_EQUALS_QUESTION +
-                uuidColumn + COMMA_SPACE_EQUALS_QUESTION +
-                regDateColumn + COMMA_SPACE_EQUALS_QUESTION +
-                loginDateColumn + COMMA_SPACE_EQUALS_QUESTION +
-                premiumUuidColumn + COMMA_SPACE_EQUALS_QUESTION +
-                totpTokenColumn + COMMA_SPACE_EQUALS_QUESTION +
-                issuedTimeColumn + " = ?" + WHERE_CLAUSE + lowercaseNicknameColumn + " = ?";
+                loginDateColumn + " = ?" + WHERE_CLAUSE + lowercaseNicknameColumn + " = ?";
 
-        this.deletePlayerSql = "DELETE FROM " + authTable + WHERE_CLAUSE + lowercaseNicknameColumn + " = ?";
+        // Jeden skan zamiast trzech COUNT-ów; COALESCE bo SUM z pustej tabeli zwraca NULL
+        this.countAccountsSql = "SELECT COUNT(*), " +
+                "COALESCE(SUM(CASE WHEN " + premiumUuidColumn + " IS NOT NULL OR " + hashColumn + " IS NULL THEN 1 ELSE 0 END), 0), " +
+                "COALESCE(SUM(CASE WHEN " + hashColumn + " IS NOT NULL THEN 1 ELSE 0 END), 0) " +
+                "FROM " + authTable;
     }
 
     public RegisteredPlayer findPlayerByLowercaseNickname(String lowercaseNickname) throws SQLException {
-        try (Connection connection = openConnection();
-                PreparedStatement statement = connection.prepareStatement(selectPlayerSql)) {
-
+        long start = System.nanoTime();
+        try (Connection connection = openReadConnection(List.of(lowercaseNickname));
+                PreparedStatementCache.Lease lease = prepareHot(connection, selectPlayerSql)) {
+            PreparedStatement statement = lease.statement();
             statement.setString(1, lowercaseNickname);
 
             try (ResultSet resultSet = statement.executeQuery()) {
@@ -132,37 +221,150 @@ public final class JdbcAuthDao {
                 }
                 return mapPlayer(resultSet);
             }
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.FIND, start);
         }
     }
 
+    /**
+     * Pobiera wielu graczy jednym zapytaniem {@code WHERE LOWERCASENICKNAME IN (...)}.
+     * Listy dłuższe niż {@link #MAX_IN_PARAMETERS} są dzielone na kilka zapytań na tym samym połączeniu.
+     *
+     * @param lowercaseNicknames nicki w lowercase (bez duplikatów)
+     * @return mapa lowercase nickname -> gracz, tylko dla znalezionych graczy
+     */
+    @SuppressWarnings("java:S2077") // Safe: prefix from constants, only "?" placeholders appended
+    public Map<String, RegisteredPlayer> findPlayersByLowercaseNicknames(List<String> lowercaseNicknames) throws SQLException {
+        Map<String, RegisteredPlayer> players = new HashMap<>();
+        if (lowercaseNicknames.isEmpty()) {
+            return players;
+        }
+        long start = System.nanoTime();
+        try (Connection connection = openReadConnection(lowercaseNicknames)) {
+            for (int from = 0; from < lowercaseNicknames.size(); from += MAX_IN_PARAMETERS) {
+                List<String> chunk = lowercaseNicknames.subList(from,
+                        Math.min(from + MAX_IN_PARAMETERS, lowercaseNicknames.size()));
+                String sql = selectPlayersPrefixSql + " IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement statement = connection.prepareStatement(sql)) { // NOSONAR - parameterized
+                    for (int i = 0; i < chunk.size(); i++) {
+                        statement.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            players.put(resultSet.getString(IDX_LOWERCASE_NICKNAME), mapPlayer(resultSet));
+                        }
+                    }
+                }
+            }
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.FIND_BATCH, start);
+        }
+        return players;
+    }
+
+    /**
+     * Przechodzi po wszystkich graczach kursorem forward-only bez wczytywania tabeli do pamięci.
+     * Połączenie jest zajęte do końca przechodzenia - konsument nie powinien wykonywać
+     * długich operacji ani zapytań do bazy.
+     *
+     * @param fetchSize liczba wierszy pobieranych z bazy naraz
+     * @param action    konsument graczy
+     * @return liczba przetworzonych graczy
+     * @see StreamingQuery
+     */
+    public int forEachPlayer(int fetchSize, Consumer<? super RegisteredPlayer> action) throws SQLException {
+        Objects.requireNonNull(action, "action nie może być null");
+        long start = System.nanoTime();
+        try (Connection connection = openConnection()) {
+            return StreamingQuery.forEach(connection, dialect, selectAllPlayersSql, fetchSize, this::mapPlayer, action);
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.STREAM, start);
+        }
+    }
+
+    /**
+     * Zapisuje gracza jednym atomowym UPSERT-em w dialekcie bazy (bez UPDATE + INSERT w transakcji).
+     */
+    @SuppressWarnings("java:S2077") // Safe: SQL built from constants only
     public boolean upsertPlayer(RegisteredPlayer player) throws SQLException {
         Objects.requireNonNull(player, "player nie może być null");
+        markWritten(player.getLowercaseNickname());
+
+        long start = System.nanoTime();
+        try (Connection connection = openConnection();
+                PreparedStatementCache.Lease lease = prepareHot(connection, upsertPlayer.sql())) { // NOSONAR - parameterized
+            upsertPlayer.bind(lease.statement(), playerValues(player));
+            lease.statement().executeUpdate();
+            return true;
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.UPSERT, start);
+        }
+    }
 
+    /**
+     * Zapisuje dane logowania (LOGINIP, LOGINDATE) wielu graczy jednym batchem JDBC w transakcji.
+     * Aktualizuje tylko istniejące wiersze - nie tworzy nowych kont.
+     *
+     * @param updates aktualizacje (najwyżej jedna na gracza)
+     */
+    public void updateLoginMetadata(List<LoginUpdate> updates) throws SQLException {
+        if (updates.isEmpty()) {
+            return;
+        }
+        for (LoginUpdate update : updates) {
+            markWritten(update.lowercaseNickname());
+        }
+        long start = System.nanoTime();
         try (Connection connection = openConnection()) {
             boolean previousAutoCommit = connection.getAutoCommit();
             connection.setAutoCommit(false);
-            try {
-                int updated = executeUpdate(connection, player);
-                if (updated == 0) {
-                    executeInsert(connection, player);
+            try (PreparedStatement statement = connection.prepareStatement(updateLoginMetadataSql)) {
+                for (LoginUpdate update : updates) {
+                    statement.setString(1, update.loginIp());
+                    statement.setLong(2, update.loginDate());
+                    statement.setString(3, update.lowercaseNickname());
+                    statement.addBatch();
                 }
+                statement.executeBatch();
                 connection.commit();
-                return true;
             } catch (SQLException e) {
                 connection.rollback();
                 throw e;
             } finally {
                 connection.setAutoCommit(previousAutoCommit);
             }
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.LOGIN_METADATA, start);
         }
     }
 
-    public boolean deletePlayer(String lowercaseNickname) throws SQLException {
+    /**
+     * Liczy konta jednym zapytaniem agregującym - baza zwraca trzy liczby zamiast wszystkich wierszy.
+     */
+    public AccountCounts countAccounts() throws SQLException {
+        long start = System.nanoTime();
         try (Connection connection = openConnection();
-                PreparedStatement statement = connection.prepareStatement(deletePlayerSql)) {
+                PreparedStatement statement = connection.prepareStatement(countAccountsSql);
+                ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                return new AccountCounts(0, 0, 0);
+            }
+            return new AccountCounts(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3));
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.COUNT, start);
+        }
+    }
 
+    public boolean deletePlayer(String lowercaseNickname) throws SQLException {
+        markWritten(lowercaseNickname);
+        long start = System.nanoTime();
+        try (Connection connection = openConnection();
+                PreparedStatementCache.Lease lease = prepareHot(connection, deletePlayerSql)) {
+            PreparedStatement statement = lease.statement();
             statement.setString(1, lowercaseNickname);
             return statement.executeUpdate() > 0;
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.DELETE, start);
         }
     }
 
@@ -187,50 +389,27 @@ public final class JdbcAuthDao {
         }
     }
 
-    private int executeUpdate(Connection connection, RegisteredPlayer player) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement(updatePlayerSql)) {
-            bindUpdate(statement, player);
-            return statement.executeUpdate();
-        }
-    }
-
-    private void executeInsert(Connection connection, RegisteredPlayer player) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement(insertPlayerSql)) {
-            bindInsert(statement, player);
-            statement.executeUpdate();
-        }
-    }
-
-    private void bindInsert(PreparedStatement statement, RegisteredPlayer player) throws SQLException {
-        statement.setString(1, player.getLowercaseNickname());
-        bindCorePlayerFields(statement, player, 2);
-    }
-
-    private void bindUpdate(PreparedStatement statement, RegisteredPlayer player) throws SQLException {
-        int nextIndex = bindCorePlayerFields(statement, player, 1);
-        statement.setString(nextIndex, player.getLowercaseNickname());
-    }
-
-    private int bindCorePlayerFields(PreparedStatement statement, RegisteredPlayer player, int startIndex) throws SQLException {
-        int idx = startIndex;
-        statement.setString(idx++, player.getNickname());
-        statement.setString(idx++, player.getHash());
-        statement.setString(idx++, player.getIp());
-        statement.setString(idx++, player.getLoginIp());
-        statement.setString(idx++, player.getUuid());
-        statement.setLong(idx++, player.getRegDate());
-        statement.setLong(idx++, player.getLoginDate());
-        statement.setString(idx++, player.getPremiumUuid());
-        statement.setString(idx++, player.getTotpToken());
-        statement.setLong(idx++, player.getIssuedTime());
-        return idx;
+    private static Object[] playerValues(RegisteredPlayer player) {
+        return new Object[]{
+                player.getLowercaseNickname(),
+                player.getNickname(),
+                player.getHash(),
+                player.getIp(),
+                player.getLoginIp(),
+                player.getUuid(),
+                player.getRegDate(),
+                player.getLoginDate(),
+                player.getPremiumUuid(),
+                player.getTotpToken(),
+                player.getIssuedTime()
+        };
     }
 
     private RegisteredPlayer mapPlayer(ResultSet resultSet) throws SQLException {
         RegisteredPlayer player = new RegisteredPlayer();
         String nickname = null;
         try {
-            nickname = resultSet.getString(COL_NICKNAME);
+            nickname = resultSet.getString(IDX_NICKNAME);
             if (nickname != null && !nickname.isEmpty()) {
                 player.setNickname(nickname);
             }
@@ -242,97 +421,130 @@ public final class JdbcAuthDao {
         }
 
         // Hash może być null dla graczy premium (limboauth compatibility)
-        player.setHash(resultSet.getString(COL_HASH));
-        player.setIp(resultSet.getString(COL_IP));
-        player.setLoginIp(resultSet.getString(COL_LOGIN_IP));
-        player.setUuid(resultSet.getString(COL_UUID));
-        player.setRegDate(resultSet.getLong(COL_REG_DATE));
-        player.setLoginDate(resultSet.getLong(COL_LOGIN_DATE));
+        player.setHash(resultSet.getString(IDX_HASH));
+        player.setIp(resultSet.getString(IDX_IP));
+        player.setLoginIp(resultSet.getString(IDX_LOGIN_IP));
+        player.setUuid(resultSet.getString(IDX_UUID));
+        player.setRegDate(resultSet.getLong(IDX_REG_DATE));
+        player.setLoginDate(resultSet.getLong(IDX_LOGIN_DATE));
 
         // Limboauth compatibility columns
-        player.setPremiumUuid(resultSet.getString(COL_PREMIUM_UUID));
-        player.setTotpToken(resultSet.getString(COL_TOTP_TOKEN));
-        player.setIssuedTime(resultSet.getLong(COL_ISSUED_TIME));
+        player.setPremiumUuid(resultSet.getString(IDX_PREMIUM_UUID));
+        player.setTotpToken(resultSet.getString(IDX_TOTP_TOKEN));
+        player.setIssuedTime(resultSet.getLong(IDX_ISSUED_TIME));
 
         return player;
     }
 
+    /**
+     * Ustawia układ tabeli AUTH - zapytanie o konflikty i jego mapowanie są generowane tylko
+     * z kolumn, które faktycznie istnieją. Wywoływane przez DatabaseManager po migracjach schematu.
+     *
+     * @param layout kolumny tabeli AUTH
+     */
+    void useTableLayout(AuthTableLayout layout) {
+        this.conflictSelect = buildConflictSelect(layout);
+    }
+
     /**
      * 🔥 ADMIN COMMAND: Finds all players in conflict mode.
-     * Uses fallback handling for shared LimboAuth databases without conflict
-     * columns.
+     * In shared LimboAuth databases without the CONFLICT_MODE column there is nothing to find,
+     * so no query is executed; missing CONFLICT_TIMESTAMP / ORIGINAL_NICKNAME columns map to defaults.
      * 
-     * @return List of players with CONFLICT_MODE = true, or empty list if columns
-     *         don't exist
+     * @return List of players with CONFLICT_MODE = true, or empty list if the column doesn't exist
      */
-    @SuppressWarnings("java:S2077") // Safe: table() and column() only use hardcoded constants, not user input
     public List<RegisteredPlayer> findAllPlayersInConflictMode() throws SQLException {
-        String conflictQuery = "SELECT " + column(COL_NICKNAME) + ", " + column(COL_HASH) + ", " + 
-                column(COL_IP) + ", " + column(COL_LOGIN_IP) + ", " + column(COL_UUID) + ", " + 
-                column(COL_REG_DATE) + ", " + column(COL_LOGIN_DATE) + ", " +
-                column(COL_PREMIUM_UUID) + ", " + column(COL_TOTP_TOKEN) + ", " + 
-                column(COL_ISSUED_TIME) + ", " + column(COL_LOWERCASE_NICKNAME) + ", " +
-                column(COL_CONFLICT_MODE) + ", " + column(COL_CONFLICT_TIMESTAMP) + ", " + 
-                column(COL_ORIGINAL_NICKNAME) + " " +
-                "FROM " + table(TABLE_AUTH) + WHERE_CLAUSE + column(COL_CONFLICT_MODE) + " = ?"; // NOSONAR - SQL from
-                                                                                           // constants
-
-        try (Connection connection = openConnection();
-                PreparedStatement statement = connection.prepareStatement(conflictQuery)) { // NOSONAR - Uses
-                                                                                            // PreparedStatement with
-                                                                                            // parameters
-
-            statement.setBoolean(1, true);
-
-            try (ResultSet resultSet = statement.executeQuery()) { // NOSONAR - Parameterized query, SQL injection safe
+        long start = System.nanoTime();
+        try (Connection connection = openConnection()) {
+            ConflictSelect select = conflictSelect(connection);
+            if (select.sql() == null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Conflict columns not available in database (shared LimboAuth?)");
+                }
+                return List.of();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(select.sql()); // NOSONAR - SQL from constants
+                    ResultSet resultSet = statement.executeQuery()) {
                 List<RegisteredPlayer> conflicts = new ArrayList<>();
                 while (resultSet.next()) {
-                    RegisteredPlayer player = mapPlayerWithConflict(resultSet);
-                    conflicts.add(player);
+                    conflicts.add(mapPlayerWithConflict(resultSet, select));
                 }
                 return conflicts;
             }
-        } catch (SQLException e) {
-            // Graceful fallback for shared LimboAuth databases without conflict columns
-            if (logger.isDebugEnabled()) {
-                logger.debug("Conflict columns not available in database (shared LimboAuth?): {}", e.getMessage());
-            }
-            return List.of();
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.CONFLICTS, start);
         }
     }
 
     /**
-     * Maps ResultSet to RegisteredPlayer including conflict tracking fields.
+     * Zwraca zapytanie o konflikty ustawione przy starcie. Awaryjnie (DAO bez
+     * {@link #useTableLayout(AuthTableLayout)}) układ tabeli jest odczytywany raz, pod lockiem,
+     * więc równoległe wywołania nie powtarzają zapytania o metadane.
      */
-    private RegisteredPlayer mapPlayerWithConflict(ResultSet resultSet) throws SQLException {
-        RegisteredPlayer player = mapPlayer(resultSet);
-
-        // Conflict tracking fields (may not exist in pure LimboAuth databases)
-        try {
-            player.setConflictMode(resultSet.getBoolean(COL_CONFLICT_MODE));
-        } catch (SQLException e) {
-            player.setConflictMode(false); // Default if column doesn't exist
+    private ConflictSelect conflictSelect(Connection connection) throws SQLException {
+        ConflictSelect select = conflictSelect;
+        if (select != null) {
+            return select;
         }
-
+        conflictSelectLock.lock();
         try {
-            player.setConflictTimestamp(resultSet.getLong(COL_CONFLICT_TIMESTAMP));
-        } catch (SQLException e) {
-            player.setConflictTimestamp(0L); // Default if column doesn't exist
+            select = conflictSelect;
+            if (select == null) {
+                select = buildConflictSelect(AuthTableLayout.read(connection, TABLE_AUTH));
+                conflictSelect = select;
+            }
+            return select;
+        } finally {
+            conflictSelectLock.unlock();
         }
+    }
 
-        try {
-            player.setOriginalNickname(resultSet.getString(COL_ORIGINAL_NICKNAME));
-        } catch (SQLException e) {
-            player.setOriginalNickname(null); // Default if column doesn't exist
+    @SuppressWarnings("java:S2077") // Safe: table() and column() only use hardcoded constants, not user input
+    private ConflictSelect buildConflictSelect(AuthTableLayout layout) {
+        if (!layout.has(COL_CONFLICT_MODE)) {
+            return new ConflictSelect(null, 0, 0);
         }
+        StringBuilder sql = new StringBuilder(selectPlayerColumnsSql);
+        int nextIndex = IDX_ISSUED_TIME + 1;
+        int conflictTimestampIndex = 0;
+        if (layout.has(COL_CONFLICT_TIMESTAMP)) {
+            sql.append(", ").append(column(COL_CONFLICT_TIMESTAMP));
+            conflictTimestampIndex = nextIndex++;
+        }
+        int originalNicknameIndex = 0;
+        if (layout.has(COL_ORIGINAL_NICKNAME)) {
+            sql.append(", ").append(column(COL_ORIGINAL_NICKNAME));
+            originalNicknameIndex = nextIndex;
+        }
+        // Literał zamiast parametru - pozwala użyć indeksu częściowego na CONFLICT_MODE (PostgreSQL)
+        sql.append(" FROM ").append(table(TABLE_AUTH)).append(WHERE_CLAUSE)
+                .append(column(COL_CONFLICT_MODE)).append(" = TRUE");
+        return new ConflictSelect(sql.toString(), conflictTimestampIndex, originalNicknameIndex);
+    }
 
+    /**
+     * Maps ResultSet to RegisteredPlayer including conflict tracking fields.
+     */
+    private RegisteredPlayer mapPlayerWithConflict(ResultSet resultSet, ConflictSelect select) throws SQLException {
+        RegisteredPlayer player = mapPlayer(resultSet);
+        // Zapytanie filtruje po CONFLICT_MODE = TRUE
+        player.setConflictMode(true);
+        player.setConflictTimestamp(select.conflictTimestampIndex() > 0
+                ? resultSet.getLong(select.conflictTimestampIndex()) : 0L);
+        player.setOriginalNickname(select.originalNicknameIndex() > 0
+                ? resultSet.getString(select.originalNicknameIndex()) : null);
         return player;
     }
 
     private Connection openConnection() throws SQLException {
         DataSource dataSource = config.getDataSource();
         if (dataSource != null) {
-            return dataSource.getConnection();
+            long start = System.nanoTime();
+            try {
+                return dataSource.getConnection();
+            } finally {
+                queryMetrics.record(QueryMetrics.Statement.CONNECTION_ACQUIRE, start);
+            }
         }
         String user = config.getUser();
         String password = config.getPassword();
@@ -342,6 +554,40 @@ public final class JdbcAuthDao {
         return DriverManager.getConnection(config.getJdbcUrl());
     }
 
+    /**
+     * Połączenie dla lookupów po nicku - z repliki odczytu, jeśli router na to pozwala.
+     */
+    private Connection openReadConnection(List<String> lowercaseNicknames) throws SQLException {
+        if (replicaRouter == null) {
+            return openConnection();
+        }
+        long start = System.nanoTime();
+        try {
+            return replicaRouter.openReadConnection(lowercaseNicknames);
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.CONNECTION_ACQUIRE, start);
+        }
+    }
+
+    /**
+     * Zapis na primary - kolejne odczyty tego gracza omijają replikę do czasu jej nadrobienia.
+     */
+    private void markWritten(String lowercaseNickname) {
+        if (replicaRouter != null) {
+            replicaRouter.markWritten(lowercaseNickname);
+        }
+    }
+
+    /**
+     * Przygotowuje gorące zapytanie - z cache statementów połączenia, jeśli jest dostępny.
+     */
+    private PreparedStatementCache.Lease prepareHot(Connection connection, String sql) throws SQLException {
+        if (statementCache != null) {
+            return statementCache.prepare(connection, sql);
+        }
+        return PreparedStatementCache.owned(connection.prepareStatement(sql)); // NOSONAR - SQL from constants only
+    }
+
     private String table(String name) {
         return postgres ? quote(name) : name;
     }
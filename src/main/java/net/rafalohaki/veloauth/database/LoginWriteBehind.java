@@ -0,0 +1,186 @@
+package net.rafalohaki.veloauth.database;
+
+import net.rafalohaki.veloauth.database.JdbcAuthDao.LoginUpdate;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind dla danych logowania (LOGINIP, LOGINDATE).
+ * <p>
+ * Udany /login nie wykonuje już pełnego UPDATE wszystkich kolumn - aktualizacja trafia do kolejki,
+ * gdzie kolejne logowania tego samego gracza są łączone (wygrywa najnowsze), a kolejka jest
+ * zapisywana batchem JDBC co {@code flushIntervalMillis} lub po zebraniu {@code batchSize} graczy.
+ * <p>
+ * Dotyczy wyłącznie metadanych logowania - zmiany hasła, rejestracje i usunięcia
+ * pozostają synchroniczne w {@link DatabaseManager}.
+ */
+final class LoginWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginWriteBehind.class);
+
+    /**
+     * Zapis batcha aktualizacji.
+     */
+    @FunctionalInterface
+    interface BatchWriter {
+        void write(List<LoginUpdate> updates) throws SQLException;
+    }
+
+    private final ConcurrentHashMap<String, LoginUpdate> pending = new ConcurrentHashMap<>();
+    private final BatchWriter writer;
+    private final ScheduledExecutorService scheduler;
+    private final int batchSize;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    /**
+     * @param writer              zapis batcha (np. {@link JdbcAuthDao#updateLoginMetadata})
+     * @param scheduler           scheduler okresowego zapisu
+     * @param flushIntervalMillis odstęp między zapisami
+     * @param batchSize           liczba graczy w kolejce wymuszająca wcześniejszy zapis
+     */
+    LoginWriteBehind(BatchWriter writer, ScheduledExecutorService scheduler, long flushIntervalMillis, int batchSize) {
+        this.writer = writer;
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dodaje aktualizację do kolejki, zastępując starszą zaległą aktualizację tego gracza.
+     */
+    void enqueue(LoginUpdate update) {
+        pending.compute(update.lowercaseNickname(), (key, current) -> {
+            if (current == null) {
+                return update;
+            }
+            coalesced.incrementAndGet();
+            return newer(current, update);
+        });
+        if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Nakłada zaległą aktualizację na gracza wczytanego z bazy, żeby odczyty widziały najnowsze dane.
+     */
+    void applyPending(RegisteredPlayer player) {
+        LoginUpdate update = pending.get(player.getLowercaseNickname());
+        if (update != null && update.loginDate() > player.getLoginDate()) {
+            player.setLoginIp(update.loginIp());
+            player.setLoginDate(update.loginDate());
+        }
+    }
+
+    /**
+     * Usuwa zaległą aktualizację, jeśli pełny zapis gracza już ją zawiera (lub gracz został usunięty).
+     *
+     * @param loginDate data logowania zapisana synchronicznie ({@link Long#MAX_VALUE} - usuń zawsze)
+     */
+    void discardCovered(String lowercaseNickname, long loginDate) {
+        pending.computeIfPresent(lowercaseNickname,
+                (key, update) -> update.loginDate() <= loginDate ? null : update);
+    }
+
+    /**
+     * Zapisuje kolejkę. Przy błędzie aktualizacje wracają do kolejki (nowsze mają pierwszeństwo).
+     *
+     * @throws SQLException jeśli zapis się nie powiódł
+     */
+    void flush() throws SQLException {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<LoginUpdate> batch = new ArrayList<>(pending.size());
+            for (LoginUpdate update : pending.values()) {
+                if (pending.remove(update.lowercaseNickname(), update)) {
+                    batch.add(update);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                writer.write(batch);
+                written.addAndGet(batch.size());
+            } catch (SQLException | RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                for (LoginUpdate update : batch) {
+                    pending.merge(update.lowercaseNickname(), update, LoginWriteBehind::newer);
+                }
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Zatrzymuje zapis okresowy i zapisuje resztę kolejki na wątku wywołującym.
+     *
+     * @throws SQLException jeśli końcowy zapis się nie powiódł
+     */
+    void close() throws SQLException {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    long getWrittenCount() {
+        return written.get();
+    }
+
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    long getFailedFlushCount() {
+        return failedFlushes.get();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Login metadata flush failed, {} updates kept for retry: {}", pending.size(), e.getMessage());
+            }
+        }
+    }
+
+    private static LoginUpdate newer(LoginUpdate current, LoginUpdate candidate) {
+        return candidate.loginDate() >= current.loginDate() ? candidate : current;
+    }
+}
@@ -0,0 +1,198 @@
+package net.rafalohaki.veloauth.database;
+
+import net.rafalohaki.veloauth.cache.BoundedLruIndex;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ograniczony cache graczy z TTL i osobnym poziomem negatywnym ("nie ma takiego gracza").
+ * <p>
+ * Poziom pozytywny trzyma RegisteredPlayer po lowercase nickname, poziom negatywny zapamiętuje
+ * nicki nieobecne w bazie na krótki czas - nowe i botowe nicki nie trafiają do bazy przy każdym
+ * PreLogin/PostLogin/ServerPreConnect. Oba poziomy mają twardy limit rozmiaru (LRU).
+ * <p>
+ * Wyniki odczytu z bazy są zapisywane tylko jeśli od rozpoczęcia zapytania nie było zapisu
+ * (save/delete/invalidate) - równoległy zapis nie zostanie nadpisany starszym odczytem.
+ */
+final class PlayerCache {
+
+    private final ConcurrentHashMap<String, Entry> positive = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> negative = new ConcurrentHashMap<>();
+    private final BoundedLruIndex<String> positiveOrder;
+    private final BoundedLruIndex<String> negativeOrder;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LongSupplier clock;
+
+    private final AtomicLong writeVersion = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record Entry(RegisteredPlayer player, long expiresAt) {}
+
+    /**
+     * Wynik odczytu z cache.
+     *
+     * @param hit    true jeśli cache zna odpowiedź (gracz lub "nie istnieje")
+     * @param player gracz lub null dla trafienia negatywnego / braku w cache
+     */
+    record Lookup(boolean hit, RegisteredPlayer player) {
+        static final Lookup MISS = new Lookup(false, null);
+        static final Lookup NOT_FOUND = new Lookup(true, null);
+    }
+
+    /**
+     * Statystyki cache graczy.
+     */
+    record Stats(int size, int negativeSize, long hits, long negativeHits, long misses, long evictions) {
+        double getHitRate() {
+            long total = hits + negativeHits + misses;
+            return total == 0 ? 0.0 : (double) (hits + negativeHits) / total * 100;
+        }
+    }
+
+    /**
+     * @param maxSize           limit wpisów pozytywnych
+     * @param ttlMillis         TTL wpisów pozytywnych (&lt;= 0 - bez wygasania)
+     * @param maxNegative       limit wpisów negatywnych
+     * @param negativeTtlMillis TTL wpisów negatywnych (&lt;= 0 - negatywny cache wyłączony)
+     * @param clock             źródło czasu w ms
+     */
+    PlayerCache(int maxSize, long ttlMillis, int maxNegative, long negativeTtlMillis, LongSupplier clock) {
+        this.positiveOrder = new BoundedLruIndex<>(maxSize);
+        this.negativeOrder = new BoundedLruIndex<>(Math.max(1, maxNegative));
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Sprawdza oba poziomy cache.
+     *
+     * @param key lowercase nickname
+     * @return trafienie pozytywne, negatywne lub {@link Lookup#MISS}
+     */
+    Lookup get(String key) {
+        long now = clock.getAsLong();
+        Entry entry = positive.get(key);
+        if (entry != null) {
+            if (entry.expiresAt() > now) {
+                positiveOrder.touch(key);
+                hits.incrementAndGet();
+                return new Lookup(true, entry.player());
+            }
+            if (positive.remove(key, entry)) {
+                positiveOrder.remove(key);
+            }
+        }
+        Long expiresAt = negative.get(key);
+        if (expiresAt != null) {
+            if (expiresAt > now) {
+                negativeHits.incrementAndGet();
+                return Lookup.NOT_FOUND;
+            }
+            if (negative.remove(key, expiresAt)) {
+                negativeOrder.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return Lookup.MISS;
+    }
+
+    /**
+     * @return wersja zapisów - pobierz przed zapytaniem do bazy i przekaż do {@link #putLoaded}
+     */
+    long version() {
+        return writeVersion.get();
+    }
+
+    /**
+     * Zapisuje wynik odczytu z bazy (gracz lub null = "nie istnieje"),
+     * o ile od {@code version} nie było zapisu.
+     */
+    void putLoaded(String key, RegisteredPlayer player, long version) {
+        if (writeVersion.get() != version) {
+            return;
+        }
+        if (player != null) {
+            Entry entry = putPositive(key, player);
+            // Zapis mógł wejść między sprawdzeniem wersji a put - wycofaj starszy odczyt
+            if (writeVersion.get() != version && positive.remove(key, entry)) {
+                positiveOrder.remove(key);
+            }
+        } else if (negativeTtlMillis > 0) {
+            Long expiresAt = clock.getAsLong() + negativeTtlMillis;
+            negative.put(key, expiresAt);
+            evictNegative(negativeOrder.admit(key));
+            if (writeVersion.get() != version && negative.remove(key, expiresAt)) {
+                negativeOrder.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Zapis po udanym save - zastępuje wpis i usuwa ewentualny wpis negatywny.
+     */
+    void put(String key, RegisteredPlayer player) {
+        writeVersion.incrementAndGet();
+        removeNegative(key);
+        putPositive(key, player);
+    }
+
+    /**
+     * Usuwa klucz z obu poziomów (delete, ręczna invalidacja, wykryta niespójność).
+     */
+    void invalidate(String key) {
+        writeVersion.incrementAndGet();
+        if (positive.remove(key) != null) {
+            positiveOrder.remove(key);
+        }
+        removeNegative(key);
+    }
+
+    void clear() {
+        writeVersion.incrementAndGet();
+        positive.clear();
+        negative.clear();
+        positiveOrder.clear();
+        negativeOrder.clear();
+    }
+
+    int size() {
+        return positive.size();
+    }
+
+    Stats stats() {
+        return new Stats(positive.size(), negative.size(), hits.get(), negativeHits.get(), misses.get(), evictions.get());
+    }
+
+    private Entry putPositive(String key, RegisteredPlayer player) {
+        long expiresAt = ttlMillis > 0 ? clock.getAsLong() + ttlMillis : Long.MAX_VALUE;
+        Entry entry = new Entry(player, expiresAt);
+        positive.put(key, entry);
+        String evicted = positiveOrder.admit(key);
+        if (evicted != null) {
+            positive.remove(evicted);
+            evictions.incrementAndGet();
+        }
+        return entry;
+    }
+
+    private void removeNegative(String key) {
+        if (negative.remove(key) != null) {
+            negativeOrder.remove(key);
+        }
+    }
+
+    private void evictNegative(String evicted) {
+        if (evicted != null) {
+            negative.remove(evicted);
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -2,19 +2,25 @@ package net.rafalohaki.veloauth.database;
 
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.DaoManager;
-import com.j256.ormlite.misc.TransactionManager;
 import com.j256.ormlite.stmt.DeleteBuilder;
 import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
 import net.rafalohaki.veloauth.model.PremiumUuid;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object dla operacji na tabeli PREMIUM_UUIDS.
@@ -25,19 +31,78 @@ public class PremiumUuidDao {
     private static final Marker DB_MARKER = MarkerFactory.getMarker("DATABASE");
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(PremiumUuidDao.class);
 
+    private static final String TABLE_PREMIUM_UUIDS = "PREMIUM_UUIDS";
+    private static final String COL_UUID = "UUID";
+    private static final String COL_NICKNAME = "NICKNAME";
+    private static final String COL_LAST_SEEN = "LAST_SEEN";
+    private static final String COL_VERIFIED_AT = "VERIFIED_AT";
+
     private final Dao<PremiumUuid, String> dao;
     private final ConnectionSource connectionSource;
+    private final DatabaseType dialect;
+    private final UpsertSql upsertSql;
+    private final String deleteNicknameConflictSql;
+    private final String selectAllSql;
+    /**
+     * DAO na replice odczytu i router lookupów - null, gdy replika nie jest skonfigurowana.
+     */
+    private final Dao<PremiumUuid, String> replicaDao;
+    private final ReplicaRouter replicaRouter;
+    private final QueryMetrics queryMetrics;
 
     /**
-     * Tworzy nowy PremiumUuidDao.
+     * Tworzy nowy PremiumUuidDao, wykrywając dialekt z {@link ConnectionSource}.
      *
      * @param connectionSource Źródło połączenia z bazą danych
      * @throws SQLException Jeśli nie można utworzyć DAO
      */
     public PremiumUuidDao(ConnectionSource connectionSource) throws SQLException {
+        this(connectionSource, detectDialect(connectionSource));
+    }
+
+    /**
+     * Tworzy nowy PremiumUuidDao.
+     *
+     * @param connectionSource Źródło połączenia z bazą danych
+     * @param dialect          Typ bazy danych (dialekt UPSERT)
+     * @throws SQLException Jeśli nie można utworzyć DAO
+     */
+    public PremiumUuidDao(ConnectionSource connectionSource, DatabaseType dialect) throws SQLException {
+        this(connectionSource, dialect, null, null, new QueryMetrics());
+    }
+
+    /**
+     * Tworzy PremiumUuidDao z lookupami {@link #findByNickname(String)} i {@link #findByUuid(UUID)}
+     * kierowanymi na replikę odczytu. Zapisy zawsze idą przez {@code connectionSource}.
+     *
+     * @param replicaSource Źródło połączeń repliki (null - bez repliki)
+     * @param replicaRouter Router odczytów (null - bez repliki)
+     * @param queryMetrics  Histogramy czasów lookupów i zapisów
+     */
+    PremiumUuidDao(ConnectionSource connectionSource, DatabaseType dialect, ConnectionSource replicaSource,
+                   ReplicaRouter replicaRouter, QueryMetrics queryMetrics) throws SQLException {
         this.connectionSource = connectionSource;
+        this.dialect = dialect;
         this.dao = DaoManager.createDao(connectionSource, PremiumUuid.class);
-        logger.debug(DB_MARKER, "PremiumUuidDao zainicjalizowany");
+        boolean replicated = replicaSource != null && replicaRouter != null;
+        this.replicaDao = replicated ? DaoManager.createDao(replicaSource, PremiumUuid.class) : null;
+        this.replicaRouter = replicated ? replicaRouter : null;
+        this.queryMetrics = queryMetrics;
+
+        String quote = dialect == DatabaseType.POSTGRESQL ? "\"" : "";
+        String table = quote + TABLE_PREMIUM_UUIDS + quote;
+        String uuidColumn = quote + COL_UUID + quote;
+        String nicknameColumn = quote + COL_NICKNAME + quote;
+        String verifiedAtColumn = quote + COL_VERIFIED_AT + quote;
+        // VERIFIED_AT tylko przy pierwszym zapisie - kolejne logowania aktualizują NICKNAME i LAST_SEEN
+        this.upsertSql = UpsertSql.build(dialect, table,
+                List.of(uuidColumn, nicknameColumn, quote + COL_LAST_SEEN + quote, verifiedAtColumn),
+                Set.of(verifiedAtColumn));
+        this.deleteNicknameConflictSql = "DELETE FROM " + table + " WHERE " + nicknameColumn + " = ? AND "
+                + uuidColumn + " <> ?";
+        this.selectAllSql = "SELECT " + uuidColumn + ", " + nicknameColumn + ", " + quote + COL_LAST_SEEN + quote
+                + ", " + verifiedAtColumn + " FROM " + table;
+        logger.debug(DB_MARKER, "PremiumUuidDao zainicjalizowany ({})", dialect);
     }
 
     /**
@@ -48,10 +113,10 @@ public class PremiumUuidDao {
      */
     public Optional<PremiumUuid> findByNickname(String nickname) {
         try {
-            List<PremiumUuid> results = dao.queryBuilder()
+            List<PremiumUuid> results = read(nickname, source -> source.queryBuilder()
                     .where()
                     .eq("NICKNAME", nickname)
-                    .query();
+                    .query());
 
             if (results.isEmpty()) {
                 logger.debug(DB_MARKER, "Nie znaleziono premium UUID dla nickname: {}", nickname);
@@ -77,7 +142,8 @@ public class PremiumUuidDao {
      */
     public Optional<PremiumUuid> findByUuid(UUID uuid) {
         try {
-            PremiumUuid result = dao.queryForId(uuid.toString());
+            String uuidString = uuid.toString();
+            PremiumUuid result = read(uuidString, source -> source.queryForId(uuidString));
             if (result == null) {
                 logger.debug(DB_MARKER, "Nie znaleziono premium UUID dla UUID: {}", uuid);
                 return Optional.empty();
@@ -97,56 +163,56 @@ public class PremiumUuidDao {
     /**
      * Zapisuje lub aktualizuje wpis premium UUID.
      * Obsługuje zmiany nickname - jeśli UUID istnieje z innym nickname, aktualizuje.
-     * Używa transakcji dla atomowości i zapobiegania race conditions.
+     * Jedna transakcja z dwoma zapytaniami: usunięcie wpisu innego UUID z tym samym nickname
+     * (UUID jest autorytatywne) oraz atomowy UPSERT w dialekcie bazy - bez SELECT-ów.
      *
      * @param uuid     UUID gracza premium
      * @param nickname Aktualny nickname gracza
      * @return true jeśli operacja się powiodła
      */
+    @SuppressWarnings("java:S2077") // Safe: SQL built from constants only
     public boolean saveOrUpdate(UUID uuid, String nickname) {
+        String uuidString = uuid.toString();
+        long now = System.currentTimeMillis();
+        markWritten(nickname);
+        markWritten(uuidString);
+        long start = System.nanoTime();
         try {
-            return TransactionManager.callInTransaction(connectionSource, () -> {
-                // Sprawdź czy UUID już istnieje
-                Optional<PremiumUuid> existing = findByUuid(uuid);
-
-                if (existing.isPresent()) {
-                    // Aktualizuj istniejący wpis (zmiana nickname)
-                    PremiumUuid premiumUuid = existing.get();
-                    if (!premiumUuid.getNickname().equals(nickname)) {
-                        logger.info(DB_MARKER, "Aktualizacja nickname premium: {} -> {} (UUID: {})",
-                                premiumUuid.getNickname(), nickname, uuid);
-
-                        // Premium gracze omijają AUTH table - tylko PREMIUM_UUIDS cache
-                        premiumUuid.updateNickname(nickname);
-                        dao.update(premiumUuid);
-                    } else {
-                        // Tylko aktualizuj timestamp
-                        premiumUuid.updateLastSeen();
-                        dao.update(premiumUuid);
-                        logger.debug(DB_MARKER, "Zaktualizowano last_seen dla {}: {}", nickname, uuid);
-                    }
-                } else {
-                    // Sprawdź czy nickname jest używany przez inne UUID (konflikt)
-                    Optional<PremiumUuid> byNickname = findByNickname(nickname);
-                    if (byNickname.isPresent() && !byNickname.get().getUuid().equals(uuid)) {
-                        logger.warn(DB_MARKER, "Konflikt nickname! {} jest już używany przez {}, próba zapisu z {}",
-                                nickname, byNickname.get().getUuid(), uuid);
-                        // Usuń stary wpis i zapisz nowy (UUID jest autorytatywne)
-                        dao.deleteById(byNickname.get().getUuidString());
+            DatabaseConnection dbConnection = connectionSource.getReadWriteConnection(TABLE_PREMIUM_UUIDS);
+            try {
+                Connection connection = dbConnection.getUnderlyingConnection();
+                boolean previousAutoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (PreparedStatement delete = connection.prepareStatement(deleteNicknameConflictSql); // NOSONAR - parameterized
+                     PreparedStatement upsert = connection.prepareStatement(upsertSql.sql())) { // NOSONAR - parameterized
+                    delete.setString(1, nickname);
+                    delete.setString(2, uuidString);
+                    int conflicts = delete.executeUpdate();
+                    if (conflicts > 0) {
+                        logger.warn(DB_MARKER, "Konflikt nickname! {} był używany przez inne UUID, zastąpiono przez {}",
+                                nickname, uuid);
                     }
 
-                    // Zapisz nowy wpis
-                    PremiumUuid premiumUuid = new PremiumUuid(uuid, nickname);
-                    dao.create(premiumUuid);
-                    logger.info(DB_MARKER, "Zapisano nowy premium UUID: {} -> {}", nickname, uuid);
+                    upsertSql.bind(upsert, uuidString, nickname, now, now);
+                    upsert.executeUpdate();
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(previousAutoCommit);
                 }
+            } finally {
+                connectionSource.releaseConnection(dbConnection);
+            }
+            logger.debug(DB_MARKER, "Zapisano premium UUID: {} -> {}", nickname, uuid);
+            return true;
 
-                return true;
-            });
-
-        } catch (Exception e) {
+        } catch (SQLException e) {
             logger.error(DB_MARKER, "Błąd podczas zapisu/aktualizacji premium UUID: {} -> {}", uuid, nickname, e);
             return false;
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.PREMIUM_SAVE, start);
         }
     }
 
@@ -192,6 +258,7 @@ public class PremiumUuidDao {
 
     /**
      * Zwraca listę wszystkich wpisów (do debugowania).
+     * Dla dużych tabel używaj {@link #forEach(int, Consumer)} - ta metoda wczytuje całą tabelę do pamięci.
      *
      * @return Lista wszystkich PremiumUuid
      */
@@ -203,4 +270,76 @@ public class PremiumUuidDao {
             return new ArrayList<>();
         }
     }
+
+    /**
+     * Przechodzi po wszystkich wpisach kursorem forward-only, w stałej pamięci.
+     *
+     * @param fetchSize liczba wierszy pobieranych z bazy naraz
+     * @param action    konsument wpisów
+     * @return liczba przetworzonych wpisów
+     * @throws SQLException jeśli zapytanie się nie powiodło (część wpisów mogła zostać już przetworzona)
+     */
+    public int forEach(int fetchSize, Consumer<? super PremiumUuid> action) throws SQLException {
+        DatabaseConnection dbConnection = connectionSource.getReadOnlyConnection(TABLE_PREMIUM_UUIDS);
+        try {
+            return StreamingQuery.forEach(dbConnection.getUnderlyingConnection(), dialect, selectAllSql, fetchSize,
+                    PremiumUuidDao::mapPremiumUuid, action);
+        } finally {
+            connectionSource.releaseConnection(dbConnection);
+        }
+    }
+
+    /**
+     * Wykonuje lookup na replice, jeśli router na to pozwala; błąd repliki powtarza lookup na primary.
+     */
+    private <T> T read(String key, DaoQuery<T> query) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (replicaRouter != null && replicaRouter.routeToReplica(List.of(key))) {
+                try {
+                    return query.run(replicaDao);
+                } catch (SQLException e) {
+                    replicaRouter.replicaReadFailed(e);
+                }
+            }
+            return query.run(dao);
+        } finally {
+            queryMetrics.record(QueryMetrics.Statement.PREMIUM_LOOKUP, start);
+        }
+    }
+
+    private void markWritten(String key) {
+        if (replicaRouter != null) {
+            replicaRouter.markWritten(key);
+        }
+    }
+
+    @FunctionalInterface
+    private interface DaoQuery<T> {
+        T run(Dao<PremiumUuid, String> source) throws SQLException;
+    }
+
+    private static PremiumUuid mapPremiumUuid(ResultSet resultSet) throws SQLException {
+        PremiumUuid premiumUuid = new PremiumUuid(resultSet.getString(1), resultSet.getString(2));
+        premiumUuid.setLastSeen(resultSet.getLong(3));
+        premiumUuid.setVerifiedAt(resultSet.getLong(4));
+        return premiumUuid;
+    }
+
+    /**
+     * Mapuje typ bazy ORMLite na {@link DatabaseType}.
+     */
+    private static DatabaseType detectDialect(ConnectionSource connectionSource) throws SQLException {
+        String name = connectionSource.getDatabaseType().getDatabaseName().toLowerCase(Locale.ROOT);
+        if (name.contains("postgres")) {
+            return DatabaseType.POSTGRESQL;
+        } else if (name.contains("mysql") || name.contains("mariadb")) {
+            return DatabaseType.MYSQL;
+        } else if (name.contains("sqlite")) {
+            return DatabaseType.SQLITE;
+        } else if (name.contains("h2")) {
+            return DatabaseType.H2;
+        }
+        throw new SQLException("Nieobsługiwany typ bazy danych dla PREMIUM_UUIDS: " + name);
+    }
 }
@@ -0,0 +1,150 @@
+package net.rafalohaki.veloauth.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache PreparedStatement per fizyczne połączenie z puli (H2/SQLite).
+ * <p>
+ * Sterowniki wbudowanych baz nie mają własnego cache zapytań po stronie JDBC (w przeciwieństwie do
+ * {@code cachePrepStmts} MySQL czy {@code prepareThreshold} PostgreSQL), a HikariCP statementów nie
+ * cache'uje, więc każde {@code prepareStatement} parsuje SQL od nowa. Cache trzyma statementy
+ * przygotowane na fizycznym połączeniu (spod proxy Hikari) i wydaje je jako {@link Lease} -
+ * zamknięcie dzierżawy tylko czyści parametry, więc wywołujący dalej używa try-with-resources,
+ * a zapytania idą prosto do statementu sterownika.
+ * <p>
+ * Pula lokalna ma stały rozmiar bez rotacji połączeń, więc cache trzyma najwyżej tyle połączeń, ile
+ * ma pula. Nowe fizyczne połączenie ponad limit oznacza, że pula wymieniła któreś z poprzednich -
+ * wypada to, które najdawniej wróciło do puli. Cache nie dotyka przy tym cudzych połączeń
+ * (ani {@code isClosed()}, ani zamykania statementów) - statementy wycofanego połączenia zamyka
+ * sterownik razem z nim.
+ * <p>
+ * Thread-safety: statementy danego połączenia używa tylko wątek, który aktualnie trzyma to połączenie
+ * z puli; przekazanie połączenia między wątkami przez pulę zapewnia happens-before.
+ */
+final class PreparedStatementCache {
+
+    private final ConcurrentHashMap<Connection, ConnectionStatements> byConnection = new ConcurrentHashMap<>();
+    private final AtomicLong returnSequence = new AtomicLong();
+    private final int maxConnections;
+
+    /**
+     * @param maxConnections rozmiar puli (min. 1)
+     */
+    PreparedStatementCache(int maxConnections) {
+        this.maxConnections = Math.max(1, maxConnections);
+    }
+
+    /**
+     * Zwraca przygotowany statement dla połączenia z puli - z cache lub nowo przygotowany.
+     *
+     * @param connection połączenie z puli (proxy), trzymane przez bieżący wątek
+     * @param sql        zapytanie ze stałych DAO
+     * @return dzierżawa statementu; {@code close()} czyści parametry, statement zostaje w cache
+     */
+    @SuppressWarnings("java:S2095") // Closed together with the physical connection
+    Lease prepare(Connection connection, String sql) throws SQLException {
+        Connection physical = connection.unwrap(Connection.class);
+        ConnectionStatements entry = byConnection.get(physical);
+        if (entry == null) {
+            entry = byConnection.computeIfAbsent(physical, key -> new ConnectionStatements(returnSequence));
+            evictRetiredConnections(physical);
+        }
+        PreparedStatement statement = entry.statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = physical.prepareStatement(sql); // NOSONAR - SQL from DAO constants only
+            entry.statements.put(sql, statement);
+        }
+        return new Lease(statement, entry);
+    }
+
+    /**
+     * Statement bez cache - {@code close()} zamyka go normalnie.
+     *
+     * @param statement świeżo przygotowany statement
+     * @return dzierżawa zamykająca statement
+     */
+    static Lease owned(PreparedStatement statement) {
+        return new Lease(statement, null);
+    }
+
+    /**
+     * @return liczba połączeń z przygotowanymi statementami
+     */
+    int connectionCount() {
+        return byConnection.size();
+    }
+
+    /**
+     * Ponad rozmiar puli - usuń połączenia, które najdawniej wróciły do puli (wycofane przez pulę).
+     */
+    private void evictRetiredConnections(Connection current) {
+        while (byConnection.size() > maxConnections) {
+            Connection oldest = null;
+            long oldestReturn = Long.MAX_VALUE;
+            for (Map.Entry<Connection, ConnectionStatements> candidate : byConnection.entrySet()) {
+                long returned = candidate.getValue().lastReturn;
+                if (candidate.getKey() != current && returned < oldestReturn) {
+                    oldest = candidate.getKey();
+                    oldestReturn = returned;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            byConnection.remove(oldest);
+        }
+    }
+
+    /**
+     * Statementy jednego fizycznego połączenia.
+     */
+    private static final class ConnectionStatements {
+        final Map<String, PreparedStatement> statements = new HashMap<>();
+        private final AtomicLong sequence;
+        volatile long lastReturn;
+
+        ConnectionStatements(AtomicLong sequence) {
+            this.sequence = sequence;
+            this.lastReturn = sequence.incrementAndGet();
+        }
+
+        void markReturned() {
+            lastReturn = sequence.incrementAndGet();
+        }
+    }
+
+    /**
+     * Dzierżawa statementu na czas jednego zapytania.
+     */
+    static final class Lease implements AutoCloseable {
+        private final PreparedStatement statement;
+        private final ConnectionStatements owner;
+
+        private Lease(PreparedStatement statement, ConnectionStatements owner) {
+            this.statement = statement;
+            this.owner = owner;
+        }
+
+        PreparedStatement statement() {
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (owner == null) {
+                statement.close();
+                return;
+            }
+            owner.markReturned();
+            if (!statement.isClosed()) {
+                statement.clearParameters();
+            }
+        }
+    }
+}
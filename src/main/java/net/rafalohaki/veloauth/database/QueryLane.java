@@ -0,0 +1,159 @@
+package net.rafalohaki.veloauth.database;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulkhead dla jednej klasy zapytań (hot-path lookupów, zapisów lub zapytań administracyjnych).
+ * <p>
+ * Ogranicza liczbę równoległych zapytań danej klasy, a więc i liczbę zajętych przez nią połączeń
+ * ze wspólnej puli - wolne zapytanie administracyjne nie może zająć połączeń potrzebnych lookupom
+ * przy logowaniu. Zapytania ponad limit czekają w kolejce o ograniczonej długości; przy pełnej kolejce
+ * lub po przekroczeniu czasu oczekiwania zapytanie kończy się od razu {@link SQLTransientConnectionException}
+ * (tak jak timeout HikariCP), zamiast rosnąć w nieskończoność na wirtualnych wątkach.
+ * <p>
+ * Thread-safe.
+ */
+public final class QueryLane {
+
+    /**
+     * Limity linii.
+     *
+     * @param maxConcurrent maksymalna liczba równoległych zapytań (&lt;= 0 - wartość domyślna linii)
+     * @param maxQueued     maksymalna liczba zapytań czekających na miejsce
+     * @param timeoutMillis maksymalny czas oczekiwania w kolejce
+     */
+    public record Limits(int maxConcurrent, int maxQueued, long timeoutMillis) {
+        public Limits {
+            if (maxQueued < 0) {
+                throw new IllegalArgumentException("maxQueued nie może być ujemny");
+            }
+            if (timeoutMillis <= 0) {
+                throw new IllegalArgumentException("timeoutMillis musi być > 0");
+            }
+        }
+    }
+
+    /**
+     * Zapytanie wykonywane w linii.
+     */
+    @FunctionalInterface
+    interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    /**
+     * @param name          nazwa linii (w metrykach i błędach)
+     * @param limits        limity linii
+     * @param defaultMaxConcurrent limit równoległości, gdy {@code limits.maxConcurrent() <= 0}
+     */
+    QueryLane(String name, Limits limits, int defaultMaxConcurrent) {
+        this.name = name;
+        this.maxConcurrent = Math.max(1, limits.maxConcurrent() > 0 ? limits.maxConcurrent() : defaultMaxConcurrent);
+        this.maxQueued = limits.maxQueued();
+        this.timeoutMillis = limits.timeoutMillis();
+        // Fair - zapytania dostają miejsce w kolejności przybycia
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Wykonuje zapytanie po zajęciu miejsca w linii.
+     *
+     * @throws SQLTransientConnectionException gdy kolejka jest pełna lub minął czas oczekiwania
+     */
+    <T> T call(SqlCall<T> call) throws SQLException {
+        acquire();
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+            completed.incrementAndGet();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new SQLTransientConnectionException("Query lane '" + name + "' saturated ("
+                    + maxConcurrent + " running, " + maxQueued + " queued)");
+        }
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timedOut.incrementAndGet();
+                throw new SQLTransientConnectionException("Query lane '" + name + "' timed out after "
+                        + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for query lane '" + name + "'", e);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * @return zapytania wykonywane w tej chwili
+     */
+    public int getActiveCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * @return zapytania czekające na miejsce
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * @return zapytania wykonane (także zakończone błędem SQL)
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * @return zapytania odrzucone przy pełnej kolejce
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return zapytania, które nie doczekały się miejsca w czasie {@code timeoutMillis}
+     */
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+}
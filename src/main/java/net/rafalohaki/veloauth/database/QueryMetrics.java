@@ -0,0 +1,130 @@
+package net.rafalohaki.veloauth.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Czasy wykonania zapytań per typ statementu (histogramy p50/p95/p99/max) oraz log wolnych zapytań.
+ * <p>
+ * DAO wywołują {@link #record(Statement, long)} z czasem startu z {@link System#nanoTime()};
+ * zapis jest lock-free. Zapytania trwające co najmniej {@code slowQueryThresholdMillis} są logowane
+ * z nazwą statementu i czasem; oczekiwanie na połączenie z puli ma tylko histogram (to nie zapytanie).
+ * <p>
+ * Thread-safe.
+ */
+public final class QueryMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+    private static final Marker DB_MARKER = MarkerFactory.getMarker("DATABASE");
+
+    /**
+     * Typy mierzonych operacji.
+     */
+    public enum Statement {
+        FIND,
+        FIND_BATCH,
+        FIND_ALL,
+        UPSERT,
+        DELETE,
+        LOGIN_METADATA,
+        COUNT,
+        CONFLICTS,
+        STREAM,
+        PREMIUM_LOOKUP,
+        PREMIUM_SAVE,
+        /**
+         * Oczekiwanie na połączenie z puli (nie zapytanie).
+         */
+        CONNECTION_ACQUIRE(false);
+
+        private final String metricName = name().toLowerCase(Locale.ROOT);
+        private final boolean query;
+
+        Statement() {
+            this(true);
+        }
+
+        Statement(boolean query) {
+            this.query = query;
+        }
+
+        /**
+         * @return nazwa w metrykach i logach (lowercase)
+         */
+        public String metricName() {
+            return metricName;
+        }
+
+        /**
+         * @return czy to zapytanie do bazy (podlega logowi wolnych zapytań)
+         */
+        public boolean isQuery() {
+            return query;
+        }
+    }
+
+    private final Map<Statement, LatencyHistogram> histograms = new EnumMap<>(Statement.class);
+    private final Map<Statement, LongAdder> slowCounts = new EnumMap<>(Statement.class);
+
+    /**
+     * Próg wolnego zapytania w nanosekundach (&lt;= 0 - log wyłączony).
+     */
+    private volatile long slowQueryThresholdNanos;
+
+    public QueryMetrics() {
+        for (Statement statement : Statement.values()) {
+            histograms.put(statement, new LatencyHistogram());
+            slowCounts.put(statement, new LongAdder());
+        }
+    }
+
+    /**
+     * Ustawia próg logowania wolnych zapytań.
+     *
+     * @param thresholdMillis próg w ms (&lt;= 0 - log wyłączony)
+     */
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        this.slowQueryThresholdNanos = thresholdMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(thresholdMillis) : 0;
+    }
+
+    /**
+     * Zapisuje czas operacji rozpoczętej w {@code startNanos}.
+     *
+     * @param statement  typ operacji
+     * @param startNanos {@link System#nanoTime()} z początku operacji
+     */
+    public void record(Statement statement, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        histograms.get(statement).record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        long threshold = slowQueryThresholdNanos;
+        if (threshold > 0 && elapsedNanos >= threshold && statement.isQuery()) {
+            slowCounts.get(statement).increment();
+            if (logger.isWarnEnabled()) {
+                logger.warn(DB_MARKER, "Wolne zapytanie {}: {} ms (próg {} ms)", statement.metricName(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsedNanos), TimeUnit.NANOSECONDS.toMillis(threshold));
+            }
+        }
+    }
+
+    /**
+     * @return percentyle czasów operacji danego typu
+     */
+    public LatencyHistogram.Snapshot snapshot(Statement statement) {
+        return histograms.get(statement).snapshot();
+    }
+
+    /**
+     * @return liczba operacji danego typu powyżej progu wolnego zapytania
+     */
+    public long getSlowCount(Statement statement) {
+        return slowCounts.get(statement).sum();
+    }
+}
@@ -0,0 +1,323 @@
+package net.rafalohaki.veloauth.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Kieruje odczyty gorących ścieżek (lookup nicku, premium) na replikę odczytu, a zapisy zostawia na primary.
+ * <p>
+ * Replika jest używana tylko, gdy ostatni pomiar opóźnienia replikacji mieści się w {@code maxLagMillis}.
+ * Klucze zapisane w ciągu ostatnich {@code maxLagMillis} czytane są z primary (read-your-own-write):
+ * przy opóźnieniu nie większym niż ten próg zapis starszy od okna jest już widoczny na replice.
+ * Błąd połączenia z repliką przełącza odczyty na primary do następnego udanego pomiaru.
+ * <p>
+ * Thread-safe: stan w polach volatile i ConcurrentHashMap.
+ */
+final class ReplicaRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+    private static final Marker DB_MARKER = MarkerFactory.getMarker("DATABASE");
+
+    /**
+     * Opóźnienie nieznane (brak pomiaru lub replika niedostępna) - odczyty idą na primary.
+     */
+    static final long LAG_UNKNOWN = -1;
+
+    /**
+     * Rozmiar mapy ostatnich zapisów, powyżej którego przy kolejnym zapisie usuwane są wygasłe wpisy.
+     */
+    private static final int RECENT_WRITES_PURGE_THRESHOLD = 1024;
+
+    /**
+     * MySQL/MariaDB ER_SPECIFIC_ACCESS_DENIED_ERROR - brak uprawnienia do SHOW REPLICA/SLAVE STATUS.
+     */
+    private static final int MYSQL_SPECIFIC_ACCESS_DENIED = 1227;
+
+    private static final String POSTGRESQL_LAG_SQL = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final DatabaseType dialect;
+    private final long maxLagMillis;
+    private final long readYourWritesNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Klucz -> koniec okna (nanoTime), w którym odczyty klucza muszą iść na primary.
+     */
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    /**
+     * Odczyty przeniesione na primary po błędzie połączenia lub odczytu z repliki (faktyczny failover).
+     */
+    private final AtomicLong fallbacks = new AtomicLong();
+    /**
+     * Odczyty skierowane na primary, bo opóźnienie repliki było nieznane lub powyżej limitu.
+     */
+    private final AtomicLong laggedReads = new AtomicLong();
+
+    private volatile long lagMillis = LAG_UNKNOWN;
+    private final AtomicBoolean lagQueryFailureLogged = new AtomicBoolean();
+
+    ReplicaRouter(DataSource primary, DataSource replica, DatabaseType dialect, long maxLagMillis) {
+        this(primary, replica, dialect, maxLagMillis, System::nanoTime);
+    }
+
+    ReplicaRouter(DataSource primary, DataSource replica, DatabaseType dialect, long maxLagMillis,
+                  LongSupplier nanoClock) {
+        this.primary = Objects.requireNonNull(primary, "primary nie może być null");
+        this.replica = Objects.requireNonNull(replica, "replica nie może być null");
+        this.dialect = Objects.requireNonNull(dialect, "dialect nie może być null");
+        if (maxLagMillis <= 0) {
+            throw new IllegalArgumentException("maxLagMillis musi być > 0");
+        }
+        this.maxLagMillis = maxLagMillis;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Otwiera połączenie do odczytu kluczy: z repliki, jeśli jest aktualna i żaden klucz nie był niedawno
+     * zapisany, w przeciwnym razie z primary.
+     *
+     * @param keys klucze odczytu (np. lowercase nicki)
+     * @return połączenie - wywołujący je zamyka
+     */
+    Connection openReadConnection(Collection<String> keys) throws SQLException {
+        if (useReplica(keys)) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaReads.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                markReplicaUnavailable(e);
+                fallbacks.incrementAndGet();
+            }
+        }
+        primaryReads.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    /**
+     * Sprawdza czy odczyt kluczy może iść na replikę. Wynik liczony jest do statystyk odczytów.
+     */
+    boolean routeToReplica(Collection<String> keys) {
+        boolean replicaRead = useReplica(keys);
+        (replicaRead ? replicaReads : primaryReads).incrementAndGet();
+        return replicaRead;
+    }
+
+    /**
+     * Zgłasza nieudany odczyt z repliki po {@link #routeToReplica(Collection)} - odczyt jest powtarzany
+     * na primary, a kolejne odczyty idą na primary do następnego udanego pomiaru opóźnienia.
+     */
+    void replicaReadFailed(SQLException e) {
+        markReplicaUnavailable(e);
+        replicaReads.decrementAndGet();
+        primaryReads.incrementAndGet();
+        fallbacks.incrementAndGet();
+    }
+
+    /**
+     * Oznacza klucz jako zapisany - przez {@code maxLagMillis} jego odczyty idą na primary.
+     * Wywoływane przed zapisem, aby odczyt tuż po commicie nie trafił na replikę.
+     */
+    void markWritten(String key) {
+        long now = nanoClock.getAsLong();
+        recentWrites.put(key, now + readYourWritesNanos);
+        if (recentWrites.size() > RECENT_WRITES_PURGE_THRESHOLD) {
+            recentWrites.values().removeIf(deadline -> deadline - now <= 0);
+        }
+    }
+
+    /**
+     * Mierzy opóźnienie replikacji zapytaniem na replice. Wywoływane okresowo przez DatabaseManager.
+     */
+    void refreshLag() {
+        try (Connection connection = replica.getConnection()) {
+            long measured;
+            try {
+                measured = queryLagMillis(connection);
+            } catch (SQLException e) {
+                logLagQueryFailure(e);
+                markReplicaUnavailable(e);
+                return;
+            }
+            lagQueryFailureLogged.set(false);
+            updateLag(measured);
+        } catch (SQLException e) {
+            markReplicaUnavailable(e);
+        }
+    }
+
+    /**
+     * Replika odpowiada, ale pomiar opóźnienia się nie udaje - bez ostrzeżenia replika byłaby po cichu
+     * pomijana. Ostrzeżenie raz, do następnego udanego pomiaru.
+     */
+    private void logLagQueryFailure(SQLException e) {
+        if (!lagQueryFailureLogged.compareAndSet(false, true) || !logger.isWarnEnabled()) {
+            return;
+        }
+        if (isMissingReplicationPrivilege(e)) {
+            logger.warn(DB_MARKER, "Replika odczytu nieużywana - użytkownik repliki nie ma uprawnienia REPLICATION CLIENT"
+                    + " potrzebnego do pomiaru opóźnienia (SHOW REPLICA STATUS). Nadaj je: GRANT REPLICATION CLIENT"
+                    + " ON *.* TO '<użytkownik>'@'<host>'; odczyty idą na primary");
+        } else {
+            logger.warn(DB_MARKER, "Replika odczytu nieużywana - nie udało się zmierzyć opóźnienia replikacji,"
+                    + " odczyty idą na primary: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return true jeśli błąd to brak uprawnienia REPLICATION CLIENT (MySQL/MariaDB)
+     */
+    static boolean isMissingReplicationPrivilege(SQLException e) {
+        if (e.getErrorCode() == MYSQL_SPECIFIC_ACCESS_DENIED) {
+            return true;
+        }
+        // SHOW REPLICA STATUS i SHOW SLAVE STATUS - błąd drugiego wariantu jest dołączony jako suppressed
+        for (Throwable suppressed : e.getSuppressed()) {
+            if (suppressed instanceof SQLException sql && sql.getErrorCode() == MYSQL_SPECIFIC_ACCESS_DENIED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ustawia zmierzone opóźnienie replikacji.
+     *
+     * @param lagMillis opóźnienie w ms lub {@link #LAG_UNKNOWN}
+     */
+    void updateLag(long lagMillis) {
+        long previous = this.lagMillis;
+        this.lagMillis = lagMillis;
+        boolean wasUsable = isUsable(previous);
+        boolean usable = isUsable(lagMillis);
+        if (wasUsable != usable && logger.isInfoEnabled()) {
+            if (usable) {
+                logger.info(DB_MARKER, "Replika odczytu aktywna (opóźnienie {} ms)", lagMillis);
+            } else {
+                logger.info(DB_MARKER, "Replika odczytu pominięta - opóźnienie {} ms (limit {} ms), odczyty na primary",
+                        lagMillis, maxLagMillis);
+            }
+        }
+    }
+
+    long getLagMillis() {
+        return lagMillis;
+    }
+
+    long getReplicaReadCount() {
+        return replicaReads.get();
+    }
+
+    long getPrimaryReadCount() {
+        return primaryReads.get();
+    }
+
+    long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    long getLaggedReadCount() {
+        return laggedReads.get();
+    }
+
+    int getRecentWriteCount() {
+        return recentWrites.size();
+    }
+
+    private boolean useReplica(Collection<String> keys) {
+        if (!isUsable(lagMillis)) {
+            laggedReads.incrementAndGet();
+            return false;
+        }
+        if (recentWrites.isEmpty()) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        for (String key : keys) {
+            Long deadline = recentWrites.get(key);
+            if (deadline != null) {
+                if (deadline - now > 0) {
+                    return false;
+                }
+                recentWrites.remove(key, deadline);
+            }
+        }
+        return true;
+    }
+
+    private boolean isUsable(long lag) {
+        return lag != LAG_UNKNOWN && lag <= maxLagMillis;
+    }
+
+    private void markReplicaUnavailable(SQLException e) {
+        if (lagMillis != LAG_UNKNOWN && logger.isWarnEnabled()) {
+            logger.warn(DB_MARKER, "Replika odczytu niedostępna - odczyty na primary: {}", e.getMessage());
+        }
+        lagMillis = LAG_UNKNOWN;
+    }
+
+    private long queryLagMillis(Connection connection) throws SQLException {
+        return switch (dialect) {
+            case POSTGRESQL -> queryPostgreSqlLag(connection);
+            case MYSQL -> queryMySqlLag(connection);
+            case H2, SQLITE -> 0;
+        };
+    }
+
+    private static long queryPostgreSqlLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(POSTGRESQL_LAG_SQL)) {
+            return resultSet.next() ? Math.round(resultSet.getDouble(1)) : 0;
+        }
+    }
+
+    /**
+     * MySQL 8.0.22+ ({@code SHOW REPLICA STATUS}), starsze wersje i MariaDB ({@code SHOW SLAVE STATUS}).
+     * NULL w kolumnie opóźnienia oznacza zatrzymaną replikację.
+     */
+    private static long queryMySqlLag(Connection connection) throws SQLException {
+        SQLException error = null;
+        for (String[] variant : List.of(new String[]{"SHOW REPLICA STATUS", "Seconds_Behind_Source"},
+                new String[]{"SHOW SLAVE STATUS", "Seconds_Behind_Master"})) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(variant[0])) {
+                if (!resultSet.next()) {
+                    return 0; // Serwer nie jest repliką
+                }
+                long seconds = resultSet.getLong(variant[1]);
+                return resultSet.wasNull() ? LAG_UNKNOWN : TimeUnit.SECONDS.toMillis(seconds);
+            } catch (SQLException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        throw error;
+    }
+}
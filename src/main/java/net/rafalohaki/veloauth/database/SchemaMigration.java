@@ -0,0 +1,86 @@
+package net.rafalohaki.veloauth.database;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Wersjonowana migracja schematu - uporządkowana lista instrukcji DDL dla jednego dialektu.
+ * <p>
+ * Suma kontrolna obejmuje opis i wszystkie instrukcje (wraz z warunkami), więc zmiana już wykonanej
+ * migracji jest wykrywana przy starcie zamiast po cichu rozjeżdżać schematy między serwerami.
+ *
+ * @param version     numer wersji (rosnący, od 1)
+ * @param description krótki opis zapisywany w tabeli wersji
+ * @param steps       instrukcje w kolejności wykonania
+ */
+record SchemaMigration(int version, String description, List<Step> steps) {
+
+    /**
+     * Warunek wykonania instrukcji - pozwala przejąć istniejące bazy (np. współdzielone z LimboAuth),
+     * w których część obiektów już istnieje.
+     */
+    enum Condition {
+        ALWAYS,
+        /**
+         * Tylko gdy w tabeli {@link Step#table()} nie ma kolumny {@link Step#object()}.
+         */
+        COLUMN_MISSING,
+        /**
+         * Tylko gdy na tabeli {@link Step#table()} nie ma indeksu {@link Step#object()}.
+         */
+        INDEX_MISSING
+    }
+
+    /**
+     * Pojedyncza instrukcja migracji.
+     *
+     * @param sql       instrukcja DDL
+     * @param condition warunek wykonania
+     * @param table     tabela sprawdzana przez warunek (null dla {@link Condition#ALWAYS})
+     * @param object    kolumna lub indeks sprawdzany przez warunek (null dla {@link Condition#ALWAYS})
+     */
+    record Step(String sql, Condition condition, String table, String object) {
+
+        static Step always(String sql) {
+            return new Step(sql, Condition.ALWAYS, null, null);
+        }
+
+        static Step ifColumnMissing(String table, String column, String sql) {
+            return new Step(sql, Condition.COLUMN_MISSING, table, column);
+        }
+
+        static Step ifIndexMissing(String table, String index, String sql) {
+            return new Step(sql, Condition.INDEX_MISSING, table, index);
+        }
+    }
+
+    SchemaMigration {
+        if (version <= 0) {
+            throw new IllegalArgumentException("version musi być > 0");
+        }
+        Objects.requireNonNull(description, "description nie może być null");
+        steps = List.copyOf(steps);
+    }
+
+    /**
+     * @return suma kontrolna CRC32 (hex) opisu i instrukcji
+     */
+    String checksum() {
+        CRC32 crc = new CRC32();
+        update(crc, description);
+        for (Step step : steps) {
+            update(crc, step.condition().name());
+            update(crc, step.table() != null ? step.table() : "");
+            update(crc, step.object() != null ? step.object() : "");
+            update(crc, step.sql());
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static void update(CRC32 crc, String value) {
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        crc.update(0);
+    }
+}
@@ -0,0 +1,108 @@
+package net.rafalohaki.veloauth.database;
+
+import net.rafalohaki.veloauth.database.SchemaMigration.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migracje schematu VeloAuth per dialekt, w kolejności wersji.
+ * <p>
+ * Wykonanej migracji nie wolno zmieniać (suma kontrolna) - zmiany schematu dodaje się jako kolejną wersję.
+ * Migracje 1-3 odpowiadają wcześniejszemu tworzeniu schematu przy każdym starcie (ORMLite TableUtils,
+ * dodawanie kolumn LimboAuth, indeksy) i przejmują istniejące bazy bez zmian w danych.
+ */
+final class SchemaMigrations {
+
+    private static final String AUTH = "AUTH";
+    private static final String PREMIUM_UUIDS = "PREMIUM_UUIDS";
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * @param dialect typ bazy danych
+     * @return migracje dla dialektu, posortowane rosnąco po wersji
+     */
+    static List<SchemaMigration> forDialect(DatabaseType dialect) {
+        Dialect sql = new Dialect(dialect);
+        return List.of(
+                new SchemaMigration(1, "Create AUTH and PREMIUM_UUIDS tables", List.of(
+                        Step.always("CREATE TABLE IF NOT EXISTS " + sql.id(AUTH) + " ("
+                                + sql.id("NICKNAME") + " VARCHAR(255) NOT NULL, "
+                                + sql.id("LOWERCASENICKNAME") + " VARCHAR(255) NOT NULL, "
+                                + sql.id("HASH") + " VARCHAR(255), "
+                                + sql.id("IP") + " VARCHAR(255), "
+                                + sql.id("REGDATE") + " BIGINT, "
+                                + sql.id("UUID") + " VARCHAR(255), "
+                                + sql.id("LOGINIP") + " VARCHAR(255), "
+                                + sql.id("LOGINDATE") + " BIGINT, "
+                                + sql.id("PREMIUMUUID") + " VARCHAR(255), "
+                                + sql.id("TOTPTOKEN") + " VARCHAR(255), "
+                                + sql.id("ISSUEDTIME") + " BIGINT, "
+                                + sql.id("CONFLICT_MODE") + " BOOLEAN, "
+                                + sql.id("CONFLICT_TIMESTAMP") + " BIGINT, "
+                                + sql.id("ORIGINAL_NICKNAME") + " VARCHAR(255), "
+                                + "PRIMARY KEY (" + sql.id("LOWERCASENICKNAME") + "))"),
+                        Step.always("CREATE TABLE IF NOT EXISTS " + sql.id(PREMIUM_UUIDS) + " ("
+                                + sql.id("UUID") + " VARCHAR(255) NOT NULL, "
+                                + sql.id("NICKNAME") + " VARCHAR(255), "
+                                + sql.id("LAST_SEEN") + " BIGINT, "
+                                + sql.id("VERIFIED_AT") + " BIGINT, "
+                                + "PRIMARY KEY (" + sql.id("UUID") + "))"))),
+                // Tabele AUTH z LimboAuth lub starszych wersji VeloAuth nie mają części kolumn
+                new SchemaMigration(2, "Add LimboAuth and conflict resolution columns to AUTH", List.of(
+                        sql.addAuthColumn("PREMIUMUUID", "VARCHAR(36)"),
+                        sql.addAuthColumn("TOTPTOKEN", "VARCHAR(32)"),
+                        sql.addAuthColumn("ISSUEDTIME", "BIGINT DEFAULT 0"),
+                        sql.addAuthColumn("CONFLICT_MODE", "BOOLEAN DEFAULT FALSE"),
+                        sql.addAuthColumn("CONFLICT_TIMESTAMP", "BIGINT DEFAULT 0"),
+                        sql.addAuthColumn("ORIGINAL_NICKNAME", "VARCHAR(16)"))),
+                new SchemaMigration(3, "Create lookup indexes", indexSteps(dialect, sql)));
+    }
+
+    private static List<Step> indexSteps(DatabaseType dialect, Dialect sql) {
+        List<Step> steps = new ArrayList<>();
+        if (dialect.isRemoteDatabase()) {
+            steps.add(sql.createIndex(AUTH, "idx_auth_ip", "IP"));
+            steps.add(sql.createIndex(AUTH, "idx_auth_uuid", "UUID"));
+            steps.add(sql.createIndex(AUTH, "idx_auth_logindate", "LOGINDATE"));
+            steps.add(sql.createIndex(AUTH, "idx_auth_regdate", "REGDATE"));
+        }
+        // Lookup premium po nicku (PremiumUuidDao.findByNickname i usuwanie konfliktów nicku przy zapisie)
+        steps.add(sql.createIndex(PREMIUM_UUIDS, "idx_premium_uuids_nickname", "NICKNAME"));
+        // W trybie konfliktu jest zwykle kilka kont - PostgreSQL i SQLite indeksują tylko je (indeks częściowy)
+        String conflictIndex = "CREATE INDEX idx_auth_conflict_mode ON " + sql.id(AUTH)
+                + " (" + sql.id("CONFLICT_MODE") + ")";
+        if (dialect == DatabaseType.POSTGRESQL || dialect == DatabaseType.SQLITE) {
+            conflictIndex += " WHERE " + sql.id("CONFLICT_MODE") + " = TRUE";
+        }
+        steps.add(Step.ifIndexMissing(AUTH, "idx_auth_conflict_mode", conflictIndex));
+        return steps;
+    }
+
+    /**
+     * Cytowanie identyfikatorów zgodne z ORMLite i {@link JdbcAuthDao}: PostgreSQL wymaga cudzysłowów
+     * (nazwy wielkimi literami), MySQL backticków, H2 i SQLite przyjmują nazwy bez cytowania.
+     */
+    private record Dialect(DatabaseType type) {
+
+        String id(String identifier) {
+            return switch (type) {
+                case POSTGRESQL -> '"' + identifier + '"';
+                case MYSQL -> '`' + identifier + '`';
+                default -> identifier;
+            };
+        }
+
+        Step addAuthColumn(String column, String definition) {
+            return Step.ifColumnMissing(AUTH, column,
+                    "ALTER TABLE " + id(AUTH) + " ADD COLUMN " + id(column) + " " + definition);
+        }
+
+        Step createIndex(String table, String index, String column) {
+            return Step.ifIndexMissing(table, index,
+                    "CREATE INDEX " + index + " ON " + id(table) + " (" + id(column) + ")");
+        }
+    }
+}
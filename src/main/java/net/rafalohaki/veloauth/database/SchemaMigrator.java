@@ -0,0 +1,257 @@
+package net.rafalohaki.veloauth.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wykonuje wersjonowane migracje schematu zapisane w tabeli {@value #VERSION_TABLE}.
+ * <p>
+ * Gdy schemat jest aktualny, start to jedno zapytanie o wykonane wersje (bez TableUtils, zapytań
+ * o metadane i serii CREATE INDEX). Każda brakująca migracja wykonuje się raz, w transakcji razem
+ * z wpisem do tabeli wersji. MySQL zatwierdza DDL niejawnie - tam przerwana migracja jest bezpieczna
+ * do powtórzenia dzięki warunkom instrukcji ({@link SchemaMigration.Condition}).
+ * <p>
+ * Sumy kontrolne wykonanych migracji są sprawdzane przy każdym starcie; zmieniona migracja przerywa
+ * inicjalizację zamiast zostawić schemat niezgodny z kodem.
+ * <p>
+ * Kilka proxy na jednej pustej bazie (MySQL/PostgreSQL) może startować jednocześnie. Gdy migracja
+ * nie powiedzie się (np. duplikat klucza w tabeli wersji), a tabela wersji zawiera już tę wersję,
+ * migrację wykonał inny serwer - po sprawdzeniu sumy kontrolnej jest traktowana jako wykonana.
+ */
+final class SchemaMigrator {
+
+    static final String VERSION_TABLE = "VELOAUTH_SCHEMA_VERSION";
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+    private static final Marker DB_MARKER = MarkerFactory.getMarker("DATABASE");
+
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS " + VERSION_TABLE + " ("
+            + "VERSION INT NOT NULL, "
+            + "DESCRIPTION VARCHAR(200) NOT NULL, "
+            + "CHECKSUM VARCHAR(16) NOT NULL, "
+            + "APPLIED_AT BIGINT NOT NULL, "
+            + "EXECUTION_MILLIS BIGINT NOT NULL, "
+            + "PRIMARY KEY (VERSION))";
+    private static final String SELECT_APPLIED = "SELECT VERSION, CHECKSUM FROM " + VERSION_TABLE;
+    private static final String SELECT_CHECKSUM = "SELECT CHECKSUM FROM " + VERSION_TABLE + " WHERE VERSION = ?";
+    private static final String INSERT_APPLIED = "INSERT INTO " + VERSION_TABLE
+            + " (VERSION, DESCRIPTION, CHECKSUM, APPLIED_AT, EXECUTION_MILLIS) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Wynik migracji.
+     *
+     * @param fromVersion wersja schematu przed startem (0 - nowa baza lub baza sprzed wersjonowania)
+     * @param toVersion   wersja schematu po migracji
+     * @param applied     liczba wykonanych migracji
+     */
+    record Result(int fromVersion, int toVersion, int applied) {
+        boolean upToDate() {
+            return applied == 0;
+        }
+    }
+
+    private final List<SchemaMigration> migrations;
+
+    SchemaMigrator(DatabaseType dialect) {
+        this(SchemaMigrations.forDialect(dialect));
+    }
+
+    SchemaMigrator(List<SchemaMigration> migrations) {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() <= migrations.get(i - 1).version()) {
+                throw new IllegalArgumentException("Migracje muszą mieć rosnące wersje: "
+                        + migrations.get(i - 1).version() + " -> " + migrations.get(i).version());
+            }
+        }
+        this.migrations = List.copyOf(migrations);
+    }
+
+    /**
+     * Doprowadza schemat do najnowszej wersji.
+     *
+     * @param connection połączenie z bazą (tryb auto-commit jest przywracany po migracjach)
+     * @return wersje przed i po migracji
+     * @throws SQLException gdy migracja się nie powiodła lub suma kontrolna wykonanej migracji się nie zgadza
+     */
+    Result migrate(Connection connection) throws SQLException {
+        Map<Integer, String> applied = readApplied(connection);
+        int fromVersion = verifyApplied(applied);
+
+        int count = 0;
+        int toVersion = fromVersion;
+        for (SchemaMigration migration : migrations) {
+            if (!applied.containsKey(migration.version())) {
+                if (apply(connection, migration)) {
+                    count++;
+                }
+                toVersion = Math.max(toVersion, migration.version());
+            }
+        }
+        if (count > 0 && logger.isInfoEnabled()) {
+            logger.info(DB_MARKER, "Schemat bazy zaktualizowany z wersji {} do {} ({} migracji)",
+                    fromVersion, toVersion, count);
+        }
+        return new Result(fromVersion, toVersion, count);
+    }
+
+    private Map<Integer, String> readApplied(Connection connection) throws SQLException {
+        try {
+            return selectApplied(connection);
+        } catch (SQLException missingTable) {
+            // Pierwszy start z wersjonowaniem - tabela wersji jeszcze nie istnieje
+            if (logger.isDebugEnabled()) {
+                logger.debug(DB_MARKER, "Brak tabeli {} - tworzę ({})", VERSION_TABLE, missingTable.getMessage());
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_VERSION_TABLE);
+            }
+            return selectApplied(connection);
+        }
+    }
+
+    private static Map<Integer, String> selectApplied(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_APPLIED)) {
+            while (resultSet.next()) {
+                applied.put(resultSet.getInt(1), resultSet.getString(2));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * @return najwyższa wykonana wersja
+     */
+    private int verifyApplied(Map<Integer, String> applied) throws SQLException {
+        int current = 0;
+        for (Map.Entry<Integer, String> entry : applied.entrySet()) {
+            current = Math.max(current, entry.getKey());
+        }
+        for (SchemaMigration migration : migrations) {
+            String checksum = applied.get(migration.version());
+            if (checksum != null) {
+                verifyChecksum(migration, checksum);
+            }
+        }
+        int latest = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+        if (current > latest && logger.isWarnEnabled()) {
+            logger.warn(DB_MARKER, "Schemat bazy jest w wersji {}, nowszej niż znana tej wersji pluginu ({})",
+                    current, latest);
+        }
+        return current;
+    }
+
+    private static void verifyChecksum(SchemaMigration migration, String checksum) throws SQLException {
+        if (!checksum.equals(migration.checksum())) {
+            throw new SQLException("Migracja schematu V" + migration.version() + " (" + migration.description()
+                    + ") została zmieniona po wykonaniu: suma kontrolna " + checksum + " != " + migration.checksum());
+        }
+    }
+
+    /**
+     * @return true jeśli migrację wykonał ten serwer; false gdy w międzyczasie wykonał ją inny serwer
+     */
+    private boolean apply(Connection connection, SchemaMigration migration) throws SQLException {
+        long start = System.nanoTime();
+        boolean previousAutoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            int executed = 0;
+            for (SchemaMigration.Step step : migration.steps()) {
+                if (shouldExecute(connection, step)) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(step.sql());
+                    }
+                    executed++;
+                }
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_APPLIED)) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setString(3, migration.checksum());
+                insert.setLong(4, System.currentTimeMillis());
+                insert.setLong(5, elapsedMillis);
+                insert.executeUpdate();
+            }
+            connection.commit();
+            if (logger.isInfoEnabled()) {
+                logger.info(DB_MARKER, "Migracja schematu V{} ({}) wykonana w {} ms ({}/{} instrukcji)",
+                        migration.version(), migration.description(), elapsedMillis, executed,
+                        migration.steps().size());
+            }
+            return true;
+        } catch (SQLException e) {
+            connection.rollback();
+            String concurrentChecksum = appliedChecksum(connection, migration, e);
+            if (concurrentChecksum == null) {
+                throw new SQLException("Migracja schematu V" + migration.version() + " (" + migration.description()
+                        + ") nie powiodła się: " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+            }
+            verifyChecksum(migration, concurrentChecksum);
+            if (logger.isInfoEnabled()) {
+                logger.info(DB_MARKER, "Migracja schematu V{} ({}) została wykonana równolegle przez inny serwer",
+                        migration.version(), migration.description());
+            }
+            return false;
+        } finally {
+            connection.setAutoCommit(previousAutoCommit);
+        }
+    }
+
+    /**
+     * Suma kontrolna wersji zapisanej po nieudanej migracji (wykonanej przez inny serwer) lub null.
+     */
+    private static String appliedChecksum(Connection connection, SchemaMigration migration, SQLException failure) {
+        try (PreparedStatement select = connection.prepareStatement(SELECT_CHECKSUM)) {
+            select.setInt(1, migration.version());
+            try (ResultSet resultSet = select.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException lookupFailure) {
+            failure.addSuppressed(lookupFailure);
+            return null;
+        }
+    }
+
+    private static boolean shouldExecute(Connection connection, SchemaMigration.Step step) throws SQLException {
+        return switch (step.condition()) {
+            case ALWAYS -> true;
+            case COLUMN_MISSING -> !AuthTableLayout.read(connection, step.table()).has(step.object());
+            case INDEX_MISSING -> !indexExists(connection.getMetaData(), step.table(), step.object());
+        };
+    }
+
+    private static boolean indexExists(DatabaseMetaData metaData, String table, String index) throws SQLException {
+        return indexExistsOn(metaData, table, index) || indexExistsOn(metaData, table.toLowerCase(Locale.ROOT), index);
+    }
+
+    private static boolean indexExistsOn(DatabaseMetaData metaData, String table, String index) throws SQLException {
+        try (ResultSet indexes = metaData.getIndexInfo(null, null, table, false, true)) {
+            while (indexes.next()) {
+                String name = indexes.getString("INDEX_NAME");
+                if (name != null && name.equalsIgnoreCase(index)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
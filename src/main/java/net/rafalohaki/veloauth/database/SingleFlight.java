@@ -0,0 +1,99 @@
+package net.rafalohaki.veloauth.database;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Łączenie równoległych zapytań o ten sam klucz (single-flight).
+ * <p>
+ * Pierwsze wywołanie dla klucza uruchamia loader, kolejne - dopóki wynik nie jest gotowy -
+ * dostają ten sam wynik bez własnego zapytania do bazy. Po zakończeniu wpis jest usuwany,
+ * więc następne wywołanie uruchamia loader ponownie (lub trafia w cache wyżej).
+ * <p>
+ * Każdy wywołujący dostaje własną kopię future - {@code orTimeout()} lub {@code complete()}
+ * po stronie jednego wywołującego nie wpływa na pozostałych.
+ *
+ * @param <K> typ klucza
+ * @param <V> typ wyniku
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Zwraca wynik zapytania w toku dla klucza lub uruchamia nowe.
+     *
+     * @param key    klucz zapytania
+     * @param loader uruchamia zapytanie (wywoływany tylko przez pierwszego wywołującego)
+     * @return future z wynikiem (kopia dla każdego wywołującego)
+     */
+    CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.copy();
+        }
+
+        executed.incrementAndGet();
+        CompletableFuture<V> result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            // Usuń przed dokończeniem - wywołania po wyniku nie dostaną już tej odpowiedzi
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight.copy();
+    }
+
+    /**
+     * Odłącza zapytanie w toku dla klucza - kolejne wywołania uruchomią nowy loader.
+     * Wywoływane po zapisie danych: zapytanie rozpoczęte przed zapisem może zwrócić stary stan,
+     * więc nie wolno się do niego dołączać. Wywołujący już czekający dostaną jego wynik.
+     *
+     * @param key klucz zapytania
+     */
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Odłącza wszystkie zapytania w toku.
+     */
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * @return liczba zapytań faktycznie wykonanych
+     */
+    long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * @return liczba wywołań obsłużonych przez zapytanie już w toku (zaoszczędzone zapytania)
+     */
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return liczba kluczy z zapytaniem w toku
+     */
+    int inFlightCount() {
+        return inFlight.size();
+    }
+}
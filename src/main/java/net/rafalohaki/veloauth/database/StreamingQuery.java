@@ -0,0 +1,77 @@
+package net.rafalohaki.veloauth.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Strumieniowe przechodzenie po wynikach zapytania kursorem forward-only.
+ * <p>
+ * Wiersze są mapowane i przekazywane do konsumenta pojedynczo - w pamięci jest najwyżej
+ * {@code fetchSize} wierszy naraz, niezależnie od rozmiaru tabeli. Obsługuje różnice sterowników:
+ * <ul>
+ *   <li><b>PostgreSQL</b> - {@code setFetchSize} działa tylko z wyłączonym autocommit
+ *       (inaczej sterownik wczytuje cały wynik), więc kursor działa w transakcji tylko do odczytu.</li>
+ *   <li><b>MySQL / MariaDB</b> - Connector/J strumieniuje wyłącznie z {@code fetchSize = Integer.MIN_VALUE};
+ *       do zamknięcia ResultSet połączenie nie może wykonywać innych zapytań.</li>
+ *   <li><b>H2 / SQLite</b> - fetch size jest wskazówką, kursor i tak czyta wiersze na żądanie.</li>
+ * </ul>
+ */
+final class StreamingQuery {
+
+    /**
+     * Mapowanie bieżącego wiersza ResultSet.
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet resultSet) throws SQLException;
+    }
+
+    private StreamingQuery() {
+    }
+
+    /**
+     * Wykonuje zapytanie i przekazuje każdy wiersz do konsumenta.
+     * Stan autocommit połączenia jest przywracany (ważne dla połączeń z puli).
+     *
+     * @param connection połączenie (nie jest zamykane)
+     * @param dialect    typ bazy danych
+     * @param sql        zapytanie bez parametrów (ze stałych DAO)
+     * @param fetchSize  liczba wierszy pobieranych naraz (ignorowana dla MySQL)
+     * @param mapper     mapowanie wiersza
+     * @param action     konsument wierszy - wyjątek przerywa przechodzenie
+     * @return liczba przetworzonych wierszy
+     */
+    @SuppressWarnings("java:S2077") // Safe: SQL from DAO constants only
+    static <T> int forEach(Connection connection, DatabaseType dialect, String sql, int fetchSize,
+                           RowMapper<T> mapper, Consumer<? super T> action) throws SQLException {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize musi być > 0");
+        }
+        boolean previousAutoCommit = connection.getAutoCommit();
+        boolean transactional = dialect == DatabaseType.POSTGRESQL && previousAutoCommit;
+        if (transactional) {
+            connection.setAutoCommit(false);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql, // NOSONAR - constant SQL
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(dialect == DatabaseType.MYSQL ? Integer.MIN_VALUE : fetchSize);
+            int rows = 0;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    action.accept(mapper.map(resultSet));
+                    rows++;
+                }
+            }
+            return rows;
+        } finally {
+            if (transactional) {
+                // Tylko odczyt - rollback zamyka kursor bez zatwierdzania czegokolwiek
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package net.rafalohaki.veloauth.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Atomowy UPSERT jednym zapytaniem w dialekcie danej bazy.
+ * <ul>
+ *   <li><b>PostgreSQL / SQLite</b> - {@code INSERT ... ON CONFLICT (key) DO UPDATE SET col = EXCLUDED.col}</li>
+ *   <li><b>MySQL / MariaDB</b> - {@code INSERT ... ON DUPLICATE KEY UPDATE col = VALUES(col)}</li>
+ *   <li><b>H2</b> - {@code MERGE INTO ... USING ... WHEN MATCHED / WHEN NOT MATCHED}</li>
+ * </ul>
+ * Kolejność placeholderów różni się między dialektami (MERGE powtarza kolumny),
+ * dlatego wartości podaje się zawsze w kolejności kolumn, a {@link #bind} rozkłada je na parametry.
+ * <p>
+ * Nazwy tabeli i kolumn pochodzą wyłącznie ze stałych DAO (już w cudzysłowach, jeśli dialekt tego wymaga),
+ * nigdy z danych użytkownika.
+ */
+final class UpsertSql {
+
+    private final String sql;
+    private final int[] parameterColumns;
+
+    private UpsertSql(String sql, int[] parameterColumns) {
+        this.sql = sql;
+        this.parameterColumns = parameterColumns;
+    }
+
+    /**
+     * Buduje UPSERT dla dialektu.
+     *
+     * @param dialect           typ bazy danych
+     * @param table             nazwa tabeli
+     * @param columns           kolumny - pierwsza to klucz główny
+     * @param insertOnlyColumns kolumny ustawiane tylko przy wstawieniu (np. data utworzenia)
+     * @return zapytanie z mapowaniem parametrów
+     */
+    static UpsertSql build(DatabaseType dialect, String table, List<String> columns, Set<String> insertOnlyColumns) {
+        Objects.requireNonNull(dialect, "dialect nie może być null");
+        if (columns.size() < 2) {
+            throw new IllegalArgumentException("UPSERT wymaga klucza i co najmniej jednej kolumny");
+        }
+        String key = columns.get(0);
+        List<Integer> updatable = new ArrayList<>();
+        for (int i = 1; i < columns.size(); i++) {
+            if (!insertOnlyColumns.contains(columns.get(i))) {
+                updatable.add(i);
+            }
+        }
+        if (updatable.isEmpty()) {
+            throw new IllegalArgumentException("UPSERT wymaga co najmniej jednej aktualizowanej kolumny");
+        }
+
+        return switch (dialect) {
+            case POSTGRESQL, SQLITE -> insertThen(table, columns,
+                    " ON CONFLICT (" + key + ") DO UPDATE SET "
+                            + assignments(columns, updatable, column -> "EXCLUDED." + column));
+            case MYSQL -> insertThen(table, columns,
+                    // VALUES(col) zamiast aliasu wiersza - działa w MySQL 5.7/8.x i MariaDB
+                    " ON DUPLICATE KEY UPDATE "
+                            + assignments(columns, updatable, column -> "VALUES(" + column + ")"));
+            case H2 -> merge(table, columns, updatable);
+        };
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    /**
+     * Wiąże wartości (w kolejności kolumn z {@link #build}) z parametrami zapytania.
+     * Obsługiwane typy: {@link String} (także null) i {@link Long}.
+     */
+    void bind(PreparedStatement statement, Object... values) throws SQLException {
+        for (int i = 0; i < parameterColumns.length; i++) {
+            Object value = values[parameterColumns[i]];
+            if (value instanceof Long number) {
+                statement.setLong(i + 1, number);
+            } else if (value == null || value instanceof String) {
+                statement.setString(i + 1, (String) value);
+            } else {
+                throw new IllegalArgumentException("Nieobsługiwany typ parametru: " + value.getClass().getName());
+            }
+        }
+    }
+
+    int parameterCount() {
+        return parameterColumns.length;
+    }
+
+    private static UpsertSql insertThen(String table, List<String> columns, String conflictClause) {
+        int[] order = new int[columns.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        return new UpsertSql("INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + placeholders(columns.size()) + ")" + conflictClause, order);
+    }
+
+    /**
+     * Standardowy MERGE - parametry występują tylko w kontekstach z typem kolumny docelowej,
+     * więc H2 2.x nie wymaga CAST-ów, a kolumny insert-only nie są nadpisywane.
+     */
+    private static UpsertSql merge(String table, List<String> columns, List<Integer> updatable) {
+        int[] order = new int[1 + updatable.size() + columns.size()];
+        int next = 0;
+        order[next++] = 0;
+        for (int column : updatable) {
+            order[next++] = column;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            order[next++] = i;
+        }
+        String sql = "MERGE INTO " + table + " t USING (SELECT 1) s ON t." + columns.get(0) + " = ?"
+                + " WHEN MATCHED THEN UPDATE SET " + assignments(columns, updatable, column -> "?")
+                + " WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") VALUES ("
+                + placeholders(columns.size()) + ")";
+        return new UpsertSql(sql, order);
+    }
+
+    private static String assignments(List<String> columns, List<Integer> updatable,
+                                      UnaryOperator<String> source) {
+        List<String> parts = new ArrayList<>(updatable.size());
+        for (int column : updatable) {
+            String name = columns.get(column);
+            parts.add(name + " = " + source.apply(name));
+        }
+        return String.join(", ", parts);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
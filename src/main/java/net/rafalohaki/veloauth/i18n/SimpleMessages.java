@@ -81,6 +81,10 @@ public final class SimpleMessages {
         return key("auth.login.already_logged_in", NamedTextColor.YELLOW);
     }
 
+    public Component commandInProgress() {
+        return key("auth.command_in_progress", NamedTextColor.YELLOW);
+    }
+
     public Component alreadyRegistered() {
         return key("auth.register.already_registered", NamedTextColor.RED);
     }
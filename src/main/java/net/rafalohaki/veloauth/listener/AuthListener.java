@@ -1,5 +1,6 @@
 package net.rafalohaki.veloauth.listener;
 
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.ResultedEvent.ComponentResult;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
@@ -15,6 +16,7 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.rafalohaki.veloauth.VeloAuth;
 import net.rafalohaki.veloauth.cache.AuthCache;
+import net.rafalohaki.veloauth.cache.ConnectionAuthContext;
 import net.rafalohaki.veloauth.config.Settings;
 import net.rafalohaki.veloauth.connection.ConnectionManager;
 import net.rafalohaki.veloauth.database.DatabaseManager;
@@ -30,6 +32,7 @@ import javax.inject.Inject;
 import java.net.InetAddress;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Listener eventów autoryzacji VeloAuth.
@@ -37,19 +40,24 @@ import java.util.UUID;
  * 
  * <p><b>Flow eventów:</b>
  * <ol>
- *   <li>PreLoginEvent → sprawdź premium i force online mode</li>
+ *   <li>PreLoginEvent → sprawdź premium i force online mode (EventTask - bez blokowania)</li>
  *   <li>LoginEvent → sprawdź brute force</li>
  *   <li>PostLoginEvent → kieruj na PicoLimbo lub backend</li>
  *   <li>ServerPreConnectEvent → blokuj nieautoryzowane połączenia z backend</li>
  *   <li>ServerConnectedEvent → loguj transfery</li>
  * </ol>
  * 
+ * <p>Wynik lookupu konta z PreLogin trafia do {@link ConnectionAuthContext} (AuthCache),
+ * przypisywanego do gracza w PostLogin - kolejne eventy połączenia nie pytają ponownie bazy.
+ * 
  * <p><b>Initialization Safety (v2.0.0):</b>
  * Handlers (PreLoginHandler, PostLoginHandler) are now initialized before AuthListener
  * construction and passed via constructor, preventing NullPointerException during event
  * processing. Defense-in-depth null checks are included in event handlers as additional safety.
  * 
  * <p><b>Thread Safety:</b> All event handlers are thread-safe and can process concurrent events.
+ * Handlers never block the event thread on I/O: database and premium lookups return an
+ * {@link EventTask} that resumes the event once the {@link CompletableFuture} chain completes.
  * 
  * @since 1.0.0
  * @see PreLoginHandler
@@ -75,7 +83,7 @@ public class AuthListener {
     private final UuidVerificationHandler uuidVerificationHandler;
     
     // PreLogin rate limiter to prevent DoS attacks
-    private final net.rafalohaki.veloauth.command.IPRateLimiter preLoginRateLimiter;
+    private final net.rafalohaki.veloauth.command.AddressRateLimiter preLoginRateLimiter;
 
     /**
      * Tworzy nowy AuthListener.
@@ -112,17 +120,42 @@ public class AuthListener {
             "PostLoginHandler cannot be null - initialization failed");
         this.uuidVerificationHandler = new UuidVerificationHandler(databaseManager, authCache, logger);
         
-        // Initialize PreLogin rate limiter
-        this.preLoginRateLimiter = new net.rafalohaki.veloauth.command.IPRateLimiter(
-            settings.getPreLoginRateLimitAttempts(), 
-            settings.getPreLoginRateLimitMinutes()
-        );
+        // Initialize PreLogin rate limiter (fixed-window or GCRA, selected in config)
+        this.preLoginRateLimiter = createPreLoginRateLimiter(settings);
 
         if (logger.isDebugEnabled()) {
             logger.debug(messages.get("connection.listener.registered"));
         }
     }
 
+    private static net.rafalohaki.veloauth.command.AddressRateLimiter createPreLoginRateLimiter(Settings settings) {
+        net.rafalohaki.veloauth.command.AddressRateLimiter exact;
+        if (settings.isPreLoginRateLimitGcra()) {
+            exact = new net.rafalohaki.veloauth.command.GcraRateLimiter(
+                settings.getPreLoginRateLimitAttempts(),
+                settings.getPreLoginRateLimitMinutes(),
+                settings.getPreLoginRateLimitMaxEntries()
+            );
+        } else {
+            exact = new net.rafalohaki.veloauth.command.IPRateLimiter(
+                settings.getPreLoginRateLimitAttempts(),
+                settings.getPreLoginRateLimitMinutes()
+            );
+        }
+        if (!settings.isSubnetLimitEnabled()) {
+            return exact;
+        }
+        // Aggregate per /24 (IPv4) and /64 (IPv6) alongside the exact address
+        return new net.rafalohaki.veloauth.command.SubnetRateLimiter(
+            exact,
+            settings.getSubnetIpv4Prefix(),
+            settings.getSubnetIpv6Prefix(),
+            settings.getPreLoginRateLimitAttempts() * settings.getSubnetLimitMultiplier(),
+            settings.getPreLoginRateLimitMinutes(),
+            settings.getPreLoginRateLimitMaxEntries()
+        );
+    }
+
     /**
      * Resolves the block reason for unauthorized connections.
      *
@@ -151,14 +184,16 @@ public class AuthListener {
      * Zapobiega race conditions gdzie async handlers mogą wykonać się przed sync
      * handlers
      * <p>
-     * UWAGA: PreLoginEvent WYMAGA synchronicznej odpowiedzi.
-     * Premium resolution na cache miss blokuje, ale to ograniczenie API Velocity.
-     * Dwa warstwy cache (AuthCache + PremiumResolverService) minimalizują impact.
+     * Szybkie sprawdzenia (rate limit, walidacja, brute force) wykonują się od razu na wątku eventu.
+     * Premium resolution i lookup w bazie biegną równolegle, a event jest wznawiany przez
+     * {@link EventTask#resumeWhenComplete} - wątek eventu nigdy nie czeka na I/O.
      * <p>
      * FIX: Added PreLogin rate limiting to prevent DoS attacks (Issue #2)
+     *
+     * @return continuation wznawiająca event po detekcji premium lub null, gdy decyzja zapadła od razu
      */
-    @Subscribe(priority = Short.MAX_VALUE)
-    public void onPreLogin(PreLoginEvent event) {
+    @Subscribe(priority = Short.MAX_VALUE, async = false)
+    public EventTask onPreLogin(PreLoginEvent event) {
         String username = event.getUsername();
         if (logger.isDebugEnabled()) {
             logger.debug("\uD83D\uDD0D PreLogin: {}", username);
@@ -177,23 +212,23 @@ public class AuthListener {
             event.setResult(PreLoginEvent.PreLoginComponentResult.denied(
                 Component.text(messages.get("auth.rate_limit_prelogin"), NamedTextColor.RED)
             ));
-            return;
+            return null;
         }
         
         // Increment rate limit counter
         preLoginRateLimiter.incrementAttempts(address);
 
         if (!validatePreLoginConditions(event, username)) {
-            return;
+            return null;
         }
 
         if (!settings.isPremiumCheckEnabled()) {
             logger.debug("Premium check wyłączony w konfiguracji - wymuszam offline mode dla {}", username);
             event.setResult(PreLoginEvent.PreLoginComponentResult.forceOfflineMode());
-            return;
+            return null;
         }
 
-        handlePremiumDetection(event, username);
+        return EventTask.resumeWhenComplete(handlePremiumDetection(event, username));
     }
 
     private boolean validatePreLoginConditions(PreLoginEvent event, String username) {
@@ -252,20 +287,50 @@ public class AuthListener {
         return false;
     }
 
-    private void handlePremiumDetection(PreLoginEvent event, String username) {
-        // Delegate premium resolution to PreLoginHandler
-        PreLoginHandler.PremiumResolutionResult result = preLoginHandler.resolvePremiumStatus(username);
-        boolean premium = result.premium();
+    private CompletableFuture<Void> handlePremiumDetection(PreLoginEvent event, String username) {
+        try {
+            long contextGeneration = authCache.connectionContextGeneration(username);
+            // Delegate premium resolution to PreLoginHandler; 🔥 USE_OFFLINE: nickname conflicts with runtime detection
+            CompletableFuture<PreLoginHandler.PremiumResolutionResult> premiumFuture =
+                    preLoginHandler.resolvePremiumStatusAsync(username);
+            CompletableFuture<DbResult<RegisteredPlayer>> playerFuture =
+                    databaseManager.findPlayerWithRuntimeDetection(username);
+
+            // Both lookups are already running - composing only orders the decision after them
+            return premiumFuture
+                    .thenCompose(result -> playerFuture.thenCompose(dbResult -> {
+                        rememberConnectionContext(username, result, dbResult, contextGeneration);
+                        return applyPremiumDetection(event, username, result, dbResult.getValue());
+                    }))
+                    .exceptionally(e -> denyPreLoginOnError(event, username, e));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(denyPreLoginOnError(event, username, e));
+        }
+    }
 
-        // 🔥 USE_OFFLINE: Check for nickname conflicts with runtime detection
-        RegisteredPlayer existingPlayer = databaseManager.findPlayerWithRuntimeDetection(username).join().getValue();
+    /**
+     * Zapamiętuje wynik lookupu dla kolejnych eventów tego połączenia (PostLogin, ServerPreConnect).
+     * Zapis konfliktu nicku w applyPremiumDetection odświeża konto w kontekście.
+     */
+    private void rememberConnectionContext(String username, PreLoginHandler.PremiumResolutionResult result,
+                                           DbResult<RegisteredPlayer> dbResult, long generation) {
+        if (dbResult.isDatabaseError()) {
+            return;
+        }
+        authCache.putConnectionContext(ConnectionAuthContext.resolved(
+                username, dbResult.getValue(), result.premium(), result.premiumUuid()), generation);
+    }
+
+    private CompletableFuture<Void> applyPremiumDetection(PreLoginEvent event, String username,
+                                                          PreLoginHandler.PremiumResolutionResult result,
+                                                          RegisteredPlayer existingPlayer) {
+        boolean premium = result.premium();
 
         if (existingPlayer != null) {
             boolean existingIsPremium = databaseManager.isPlayerPremiumRuntime(existingPlayer);
 
             if (preLoginHandler.isNicknameConflict(existingPlayer, premium, existingIsPremium)) {
-                preLoginHandler.handleNicknameConflict(event, existingPlayer, premium);
-                return;
+                return preLoginHandler.handleNicknameConflict(event, existingPlayer, premium);
             }
         }
 
@@ -278,24 +343,30 @@ public class AuthListener {
                 event.setResult(PreLoginEvent.PreLoginComponentResult.denied(
                     Component.text(messages.get("auth.offline_premium_conflict"), NamedTextColor.YELLOW)
                 ));
-                return;
+                return CompletableFuture.completedFuture(null);
             }
             event.setResult(PreLoginEvent.PreLoginComponentResult.forceOnlineMode());
         } else {
             event.setResult(PreLoginEvent.PreLoginComponentResult.forceOfflineMode());
         }
+        return CompletableFuture.completedFuture(null);
     }
 
-
+    private Void denyPreLoginOnError(PreLoginEvent event, String username, Throwable error) {
+        logger.error("Error during premium detection for player: {}", username, error);
+        event.setResult(PreLoginEvent.PreLoginComponentResult.denied(
+                Component.text(messages.get("connection.error.generic"), NamedTextColor.RED)));
+        return null;
+    }
 
     /**
      * Obsługuje event logowania gracza.
-     * Sprawdza brute force i premium status SYNCHRONICZNIE.
+     * Sprawdza brute force SYNCHRONICZNIE - tylko cache w pamięci, bez I/O.
      * <p>
      * KRYTYCZNE: Używamy async = false + maksymalny priorytet dla bezpieczeństwa
      * Zapobiega race conditions w procesie autoryzacji
      */
-    @Subscribe(priority = Short.MAX_VALUE)
+    @Subscribe(priority = Short.MAX_VALUE, async = false)
     public void onLogin(LoginEvent event) {
         Player player = event.getPlayer();
         String playerName = player.getUsername();
@@ -360,6 +431,7 @@ public class AuthListener {
             
             // Cleanup retry attempts counter to prevent memory leak
             connectionManager.clearRetryAttempts(player.getUniqueId());
+            authCache.removeConnectionContext(player.getUsername(), player.getUniqueId());
 
             if (logger.isDebugEnabled()) {
                 logger.debug("Gracz {} rozłączył się - sesja pozostaje aktywna", player.getUsername());
@@ -373,9 +445,14 @@ public class AuthListener {
     /**
      * Obsługuje event po zalogowaniu gracza.
      * Kieruje gracza na odpowiedni serwer (PicoLimbo lub backend).
+     * <p>
+     * Gracz premium jest autoryzowany po sprawdzeniu konfliktu nicku w bazie - event wznawia się
+     * po zakończeniu lookupu zamiast blokować wątek eventu.
+     *
+     * @return continuation dla gracza premium lub null, gdy nie ma I/O
      */
-    @Subscribe(priority = 0) // NORMAL priority
-    public void onPostLogin(PostLoginEvent event) {
+    @Subscribe(priority = 0, async = false) // NORMAL priority
+    public EventTask onPostLogin(PostLoginEvent event) {
         Player player = event.getPlayer();
         String playerIp = PlayerAddressUtils.getPlayerIp(player);
 
@@ -388,38 +465,48 @@ public class AuthListener {
                 player.getUsername());
             String msg = messages != null ? messages.get("system.init_error") : "System initialization error.";
             player.disconnect(Component.text(msg, NamedTextColor.RED));
-            return;
+            return null;
         }
 
+        // Kontekst z PreLogin przechodzi na gracza - PostLogin i zmiany serwera korzystają z niego bez bazy
+        authCache.bindConnectionContext(player.getUsername(), player.getUniqueId());
+
         try {
             // 🔥 USE_OFFLINE: Check for conflict resolution messages - delegate to PostLoginHandler
-            // ASYNC: Run in separate task to avoid blocking event loop with DB operations
-            plugin.getServer().getScheduler().buildTask(plugin, () -> {
-                try {
-                    if (postLoginHandler.shouldShowConflictMessage(player)) {
-                        postLoginHandler.showConflictResolutionMessage(player);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error checking conflict message for {}", player.getUsername(), e);
-                }
-            }).schedule();
+            // Independent of the login result, so it does not hold the event
+            postLoginHandler.shouldShowConflictMessageAsync(player)
+                    .thenAccept(showMessage -> {
+                        if (Boolean.TRUE.equals(showMessage)) {
+                            postLoginHandler.showConflictResolutionMessage(player);
+                        }
+                    })
+                    .exceptionally(e -> {
+                        logger.error("Error checking conflict message for {}", player.getUsername(), e);
+                        return null;
+                    });
 
             // Delegate to PostLoginHandler based on player mode
             if (player.isOnlineMode()) {
-                postLoginHandler.handlePremiumPlayer(player, playerIp);
-                return;
+                return EventTask.resumeWhenComplete(postLoginHandler.handlePremiumPlayerAsync(player, playerIp)
+                        .exceptionally(e -> disconnectOnPostLoginError(player, e)));
             }
 
             // Handle offline player - delegate to PostLoginHandler
             postLoginHandler.handleOfflinePlayer(player, playerIp);
 
         } catch (Exception e) {
-            logger.error("Error handling PostLoginEvent for player: {}", event.getPlayer().getUsername(), e);
-
-            event.getPlayer().disconnect(Component.text(
-                    messages.get("connection.error.generic"),
-                    NamedTextColor.RED));
+            disconnectOnPostLoginError(player, e);
         }
+        return null;
+    }
+
+    private Void disconnectOnPostLoginError(Player player, Throwable error) {
+        logger.error("Error handling PostLoginEvent for player: {}", player.getUsername(), error);
+
+        player.disconnect(Component.text(
+                messages.get("connection.error.generic"),
+                NamedTextColor.RED));
+        return null;
     }
 
     /**
@@ -433,9 +520,13 @@ public class AuthListener {
      * - Velocity próbuje połączyć z pierwszym serwerem z listy try (np. 2b2t)
      * - My przechwytujemy i przekierowujemy na PicoLimbo
      * - Po połączeniu z PicoLimbo, onServerConnected uruchomi auto-transfer
+     * <p>
+     * Weryfikacja UUID z bazą dla backendu wznawia event po zakończeniu lookupu (EventTask).
+     *
+     * @return continuation dla połączenia z backendem lub null, gdy decyzja zapadła od razu
      */
-    @Subscribe(priority = Short.MAX_VALUE)
-    public void onServerPreConnect(ServerPreConnectEvent event) {
+    @Subscribe(priority = Short.MAX_VALUE, async = false)
+    public EventTask onServerPreConnect(ServerPreConnectEvent event) {
         try {
             Player player = event.getPlayer();
             // NAPRAWIONE: Używamy getOriginalServer() zamiast getTarget()
@@ -446,23 +537,30 @@ public class AuthListener {
                     player.getUsername(), targetServerName);
 
             if (handleFirstConnection(event, player, targetServerName)) {
-                return;
+                return null;
             }
 
             // ✅ JEŚLI TO PICOLIMBO - SPRAWDŹ DODATKOWO AUTORYZACJĘ
             if (handlePicoLimboConnection(event, player, targetServerName)) {
-                return;
+                return null;
             }
 
             // ✅ JEŚLI TO BACKEND - SPRAWDŹ AUTORYZACJĘ + SESJĘ + CACHE
-            verifyBackendConnection(event, player, targetServerName);
+            return EventTask.resumeWhenComplete(verifyBackendConnection(event, player, targetServerName)
+                    .exceptionally(e -> denyServerPreConnectOnError(event, e)));
 
         } catch (Exception e) {
-            logger.error("Błąd w ServerPreConnect", e);
-            event.setResult(ServerPreConnectEvent.ServerResult.denied());
+            denyServerPreConnectOnError(event, e);
+            return null;
         }
     }
 
+    private Void denyServerPreConnectOnError(ServerPreConnectEvent event, Throwable error) {
+        logger.error("Błąd w ServerPreConnect", error);
+        event.setResult(ServerPreConnectEvent.ServerResult.denied());
+        return null;
+    }
+
     private boolean handleFirstConnection(ServerPreConnectEvent event, Player player, String targetServerName) {
         // ✅ PIERWSZE POŁĄCZENIE: Gracz nie ma jeszcze currentServer
         // Velocity próbuje go wysłać na pierwszy serwer z try (np. 2b2t)
@@ -512,7 +610,8 @@ public class AuthListener {
         return false;
     }
 
-    private void verifyBackendConnection(ServerPreConnectEvent event, Player player, String targetServerName) {
+    private CompletableFuture<Void> verifyBackendConnection(ServerPreConnectEvent event, Player player,
+                                                            String targetServerName) {
         String playerIp = PlayerAddressUtils.getPlayerIp(player);
         boolean isAuthorized = authCache.isPlayerAuthorized(player.getUniqueId(), playerIp);
 
@@ -521,15 +620,16 @@ public class AuthListener {
                 playerIp, settings.getSessionTimeoutMinutes());
 
         // WERYFIKUJ UUID z bazą danych dla maksymalnego bezpieczeństwa - delegate to handler
-        boolean uuidMatches = uuidVerificationHandler.verifyPlayerUuid(player);
-
-        if (!isAuthorized || !hasActiveSession || !uuidMatches) {
-            handleUnauthorizedConnection(event, player, targetServerName, isAuthorized, hasActiveSession, uuidMatches, playerIp);
-        } else {
-            // ✅ WSZYSTKIE WERYFIKACJE PRZESZŁY - POZWÓL
-            logger.debug("\u2705 Autoryzowany gracz {} idzie na {} (sesja: OK, UUID: OK)",
-                    player.getUsername(), targetServerName);
-        }
+        return uuidVerificationHandler.verifyPlayerUuidAsync(player).thenAccept(uuidMatches -> {
+            if (!isAuthorized || !hasActiveSession || !uuidMatches) {
+                handleUnauthorizedConnection(event, player, targetServerName, isAuthorized, hasActiveSession,
+                        uuidMatches, playerIp);
+            } else {
+                // ✅ WSZYSTKIE WERYFIKACJE PRZESZŁY - POZWÓL
+                logger.debug("\u2705 Autoryzowany gracz {} idzie na {} (sesja: OK, UUID: OK)",
+                        player.getUsername(), targetServerName);
+            }
+        });
     }
 
     private void handleUnauthorizedConnection(ServerPreConnectEvent event, Player player, String targetServerName,
@@ -614,6 +714,11 @@ public class AuthListener {
     private void sendAuthInstructions(Player player) {
         player.sendMessage(Component.text(messages.get("auth.header"), NamedTextColor.GOLD));
 
+        ConnectionAuthContext context = authCache.getConnectionContext(player.getUsername(), player.getUniqueId());
+        if (context != null) {
+            sendAuthPrompt(player, DbResult.success(context.account()));
+            return;
+        }
         databaseManager.findPlayerByNickname(player.getUsername())
                 .thenAccept(dbResult -> sendAuthPrompt(player, dbResult))
                 .exceptionally(e -> {
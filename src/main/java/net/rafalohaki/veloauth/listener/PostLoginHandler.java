@@ -5,7 +5,9 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.rafalohaki.veloauth.cache.AuthCache;
 import net.rafalohaki.veloauth.cache.AuthCache.PremiumCacheEntry;
+import net.rafalohaki.veloauth.cache.ConnectionAuthContext;
 import net.rafalohaki.veloauth.database.DatabaseManager;
+import net.rafalohaki.veloauth.database.DatabaseManager.DbResult;
 import net.rafalohaki.veloauth.i18n.Messages;
 import net.rafalohaki.veloauth.model.CachedAuthUser;
 import net.rafalohaki.veloauth.model.RegisteredPlayer;
@@ -13,6 +15,7 @@ import org.slf4j.Logger;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles post-login routing and conflict resolution logic.
@@ -51,16 +54,25 @@ public class PostLoginHandler {
      *
      * @param player   The premium player
      * @param playerIp Player's IP address
+     * @return future completed once the player is authorized or disconnected
      */
-    public void handlePremiumPlayer(Player player, String playerIp) {
+    public CompletableFuture<Void> handlePremiumPlayerAsync(Player player, String playerIp) {
         if (logger.isInfoEnabled()) {
             logger.info(messages.get("player.premium.verified", player.getUsername()));
         }
 
-        UUID playerUuid = player.getUniqueId();
-        
         // FIX: Check if an offline account with this username already exists
-        var dbResult = databaseManager.findPlayerByNickname(player.getUsername()).join();
+        ConnectionAuthContext context = authCache.getConnectionContext(player.getUsername(), player.getUniqueId());
+        if (context != null) {
+            // Konto odczytane już w PreLogin tego połączenia
+            authorizePremiumPlayer(player, playerIp, context.account());
+            return CompletableFuture.completedFuture(null);
+        }
+        return databaseManager.findPlayerByNickname(player.getUsername())
+                .thenAccept(dbResult -> handlePremiumLookup(player, playerIp, dbResult));
+    }
+
+    private void handlePremiumLookup(Player player, String playerIp, DbResult<RegisteredPlayer> dbResult) {
         if (dbResult.isDatabaseError()) {
             logger.error("Database error while checking for existing account for premium player {}: {}", 
                 player.getUsername(), dbResult.getErrorMessage());
@@ -70,8 +82,12 @@ public class PostLoginHandler {
             ));
             return;
         }
-        
-        RegisteredPlayer existingPlayer = dbResult.getValue();
+        authorizePremiumPlayer(player, playerIp, dbResult.getValue());
+    }
+
+    private void authorizePremiumPlayer(Player player, String playerIp, RegisteredPlayer existingPlayer) {
+        UUID playerUuid = player.getUniqueId();
+
         if (existingPlayer != null) {
             // Offline account exists with this username
             UUID existingUuid = java.util.UUID.fromString(existingPlayer.getUuid());
@@ -188,12 +204,18 @@ public class PostLoginHandler {
      * Checks if player should see conflict resolution message.
      *
      * @param player The player to check
-     * @return true if player is in conflict mode and is premium
+     * @return future with true if player is in conflict mode and is premium
      */
-    public boolean shouldShowConflictMessage(Player player) {
-        RegisteredPlayer registeredPlayer = databaseManager.findPlayerWithRuntimeDetection(player.getUsername())
-                .join().getValue();
-        
+    public CompletableFuture<Boolean> shouldShowConflictMessageAsync(Player player) {
+        ConnectionAuthContext context = authCache.getConnectionContext(player.getUsername(), player.getUniqueId());
+        if (context != null) {
+            return CompletableFuture.completedFuture(isPremiumInConflict(player, context.account()));
+        }
+        return databaseManager.findPlayerWithRuntimeDetection(player.getUsername())
+                .thenApply(dbResult -> isPremiumInConflict(player, dbResult.getValue()));
+    }
+
+    private boolean isPremiumInConflict(Player player, RegisteredPlayer registeredPlayer) {
         if (registeredPlayer == null || !registeredPlayer.getConflictMode()) {
             return false;
         }
@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import java.net.InetAddress;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -90,12 +91,15 @@ public class PreLoginHandler {
     }
 
     /**
-     * Resolves premium status with caching, TTL, and background refresh (stale-while-revalidate).
+     * Resolves premium status with caching, TTL, and background refresh (stale-while-revalidate),
+     * without blocking the caller.
+     * Cache hits complete immediately; a cache miss is resolved on a virtual thread with a 3 s timeout
+     * and falls back to offline on timeout or error (the returned future never completes exceptionally).
      *
      * @param username Username to check
-     * @return PremiumResolutionResult with status and UUID
+     * @return future with PremiumResolutionResult
      */
-    public PremiumResolutionResult resolvePremiumStatus(String username) {
+    public CompletableFuture<PremiumResolutionResult> resolvePremiumStatusAsync(String username) {
         PremiumCacheEntry cachedStatus = authCache.getPremiumStatus(username);
         if (cachedStatus != null) {
             logger.debug("Premium cache hit dla {} -> {} (age: {}ms, TTL: {}ms)", 
@@ -106,12 +110,13 @@ public class PreLoginHandler {
                 triggerBackgroundRefresh(username);
             }
             
-            return new PremiumResolutionResult(cachedStatus.isPremium(), cachedStatus.getPremiumUuid());
+            return CompletableFuture.completedFuture(
+                    new PremiumResolutionResult(cachedStatus.isPremium(), cachedStatus.getPremiumUuid()));
         }
 
-        // Cache miss - synchronous resolution
-        PremiumResolution resolution = resolveViaServiceWithTimeout(username);
-        return cacheFromResolution(username, resolution);
+        // Cache miss - resolution off the calling thread
+        return resolveViaServiceWithTimeout(username)
+                .thenApply(resolution -> cacheFromResolution(username, resolution));
     }
 
     /**
@@ -158,45 +163,56 @@ public class PreLoginHandler {
      *
      * @param existingPlayer Existing player to mark
      * @param username Username for logging
+     * @return future completed once the conflict flag is persisted (immediately if already marked)
      */
-    private void markAsConflicted(RegisteredPlayer existingPlayer, String username) {
-        if (!existingPlayer.getConflictMode()) {
-            existingPlayer.setConflictMode(true);
-            existingPlayer.setConflictTimestamp(System.currentTimeMillis());
-            existingPlayer.setOriginalNickname(existingPlayer.getNickname());
-            databaseManager.savePlayer(existingPlayer).join();
-            logger.info("[NICKNAME CONFLICT] Premium player {} detected conflict with offline account", username);
+    private CompletableFuture<Void> markAsConflicted(RegisteredPlayer existingPlayer, String username) {
+        if (existingPlayer.getConflictMode()) {
+            return CompletableFuture.completedFuture(null);
         }
+        existingPlayer.setConflictMode(true);
+        existingPlayer.setConflictTimestamp(System.currentTimeMillis());
+        existingPlayer.setOriginalNickname(existingPlayer.getNickname());
+        return databaseManager.savePlayer(existingPlayer).thenAccept(saveResult -> {
+            if (saveResult.isDatabaseError()) {
+                logger.warn("[NICKNAME CONFLICT] Failed to persist conflict mode for {}: {}",
+                        username, saveResult.getErrorMessage());
+                return;
+            }
+            logger.info("[NICKNAME CONFLICT] Premium player {} detected conflict with offline account", username);
+        });
     }
 
     /**
      * Handles nickname conflict by forcing offline mode and tracking conflict.
+     * The event result is set immediately; the returned future completes once the conflict
+     * flag is persisted, so the event can be resumed without blocking its thread.
      *
      * @param event          PreLoginEvent
      * @param existingPlayer Existing player in database
      * @param isPremium      Whether current player is premium
+     * @return future completed when conflict handling is finished
      */
-    public void handleNicknameConflict(PreLoginEvent event, RegisteredPlayer existingPlayer, boolean isPremium) {
+    public CompletableFuture<Void> handleNicknameConflict(PreLoginEvent event, RegisteredPlayer existingPlayer,
+                                                          boolean isPremium) {
         String username = event.getUsername();
 
         if (isPremium && existingPlayer.getPremiumUuid() == null) {
-            // Premium player trying to use offline nickname
-            markAsConflicted(existingPlayer, username);
-
-            // Force offline mode for premium player
+            // Force offline mode for premium player trying to use offline nickname
             event.setResult(PreLoginEvent.PreLoginComponentResult.forceOfflineMode());
-
-        } else if (!isPremium && existingPlayer.getConflictMode()) {
+            return markAsConflicted(existingPlayer, username);
+        }
+        if (!isPremium && existingPlayer.getConflictMode()) {
             // Offline player accessing conflicted account
             event.setResult(PreLoginEvent.PreLoginComponentResult.forceOfflineMode());
 
             logger.debug("[NICKNAME CONFLICT] Offline player {} accessing conflicted account", username);
         }
+        return CompletableFuture.completedFuture(null);
     }
 
     public void handleNicknameConflictNoEvent(String username, RegisteredPlayer existingPlayer, boolean isPremium) {
         if (isPremium && existingPlayer.getPremiumUuid() == null) {
-            markAsConflicted(existingPlayer, username);
+            markAsConflicted(existingPlayer, username).join();
         } else if (!isPremium && existingPlayer.getConflictMode()) {
             logger.debug("[NICKNAME CONFLICT] Offline player {} accessing conflicted account", username);
         }
@@ -206,17 +222,18 @@ public class PreLoginHandler {
      * Resolves premium status via service with timeout.
      *
      * @param username Username to resolve
-     * @return PremiumResolution result
+     * @return future with PremiumResolution result, falling back to offline on timeout or error
      */
-    private PremiumResolution resolveViaServiceWithTimeout(String username) {
+    private CompletableFuture<PremiumResolution> resolveViaServiceWithTimeout(String username) {
         try {
-            return CompletableFuture.supplyAsync(() -> premiumResolverService.resolve(username))
+            return CompletableFuture.supplyAsync(() -> premiumResolverService.resolve(username),
+                            VirtualThreadExecutorProvider.getVirtualExecutor())
                     .orTimeout(3, TimeUnit.SECONDS)
                     .exceptionally(throwable -> PremiumResolution.offline(username, "VeloAuth-Timeout",
-                            "Timeout - fallback to offline"))
-                    .join();
-        } catch (Exception e) {
-            return PremiumResolution.offline(username, "VeloAuth-Error", "Error - fallback to offline");
+                            "Timeout - fallback to offline"));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(
+                    PremiumResolution.offline(username, "VeloAuth-Error", "Error - fallback to offline"));
         }
     }
 
@@ -2,6 +2,7 @@ package net.rafalohaki.veloauth.listener;
 
 import com.velocitypowered.api.proxy.Player;
 import net.rafalohaki.veloauth.cache.AuthCache;
+import net.rafalohaki.veloauth.cache.ConnectionAuthContext;
 import net.rafalohaki.veloauth.database.DatabaseManager;
 import net.rafalohaki.veloauth.database.DatabaseManager.DbResult;
 import net.rafalohaki.veloauth.model.RegisteredPlayer;
@@ -13,6 +14,8 @@ import org.slf4j.MarkerFactory;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Handles UUID verification logic for player authentication.
@@ -24,6 +27,8 @@ import java.util.UUID;
  *   <li>Offline players - verify against database UUID and PREMIUMUUID</li>
  *   <li>CONFLICT_MODE players - allow UUID mismatch for conflict resolution</li>
  * </ol>
+ * Offline players are verified against the account held in their {@link ConnectionAuthContext};
+ * the database is queried only when the connection has no context yet.
  * 
  * @since 2.1.0
  */
@@ -51,18 +56,19 @@ public class UuidVerificationHandler {
     /**
      * Verifies player UUID against database.
      * Premium players skip verification as they don't need to be registered.
+     * Errors are handled like a failed verification, so the returned future never completes exceptionally.
      *
      * @param player Player to verify
-     * @return true if verification passes
+     * @return future with true if verification passes
      */
-    public boolean verifyPlayerUuid(Player player) {
+    public CompletableFuture<Boolean> verifyPlayerUuidAsync(Player player) {
         try {
             if (player.isOnlineMode()) {
-                return handlePremiumPlayer(player);
+                return CompletableFuture.completedFuture(handlePremiumPlayer(player));
             }
             return verifyCrackedPlayerUuid(player);
         } catch (Exception e) {
-            return handleVerificationError(player, e);
+            return CompletableFuture.completedFuture(handleVerificationError(player, e));
         }
     }
 
@@ -73,18 +79,46 @@ public class UuidVerificationHandler {
         return true;
     }
 
-    private boolean verifyCrackedPlayerUuid(Player player) {
-        try {
-            var dbResult = databaseManager.findPlayerByNickname(player.getUsername()).join();
+    private CompletableFuture<Boolean> verifyCrackedPlayerUuid(Player player) {
+        UUID playerUuid = player.getUniqueId();
+        ConnectionAuthContext context = authCache.getConnectionContext(player.getUsername(), playerUuid);
+        if (context != null) {
+            return CompletableFuture.completedFuture(verifyAgainstContext(player, context));
+        }
 
-            if (dbResult.isDatabaseError()) {
-                return handleDatabaseVerificationError(player, dbResult);
-            }
+        long contextGeneration = authCache.connectionContextGeneration(player.getUsername());
+        return databaseManager.findPlayerByNickname(player.getUsername())
+                .thenApply(dbResult -> {
+                    if (dbResult.isDatabaseError()) {
+                        return handleDatabaseVerificationError(player, dbResult);
+                    }
+                    RegisteredPlayer dbPlayer = dbResult.getValue();
+                    boolean verified = performUuidVerification(player, dbPlayer);
+                    // Brak kontekstu z PreLogin - kolejne zmiany serwera skorzystają z tego lookupu
+                    ConnectionAuthContext resolved = ConnectionAuthContext
+                            .resolved(player.getUsername(), dbPlayer, false, null)
+                            .boundTo(playerUuid);
+                    authCache.putConnectionContext(verified ? resolved.withVerifiedUuid(playerUuid) : resolved,
+                            contextGeneration);
+                    return verified;
+                })
+                .exceptionally(throwable -> handleAsyncVerificationError(player, throwable));
+    }
 
-            return performUuidVerification(player, dbResult.getValue());
-        } catch (Exception e) {
-            return handleAsyncVerificationError(player, e);
+    /**
+     * Weryfikacja względem konta z kontekstu połączenia - bez zapytania do bazy.
+     * Udana weryfikacja jest zapamiętywana do czasu zmiany konta.
+     */
+    private boolean verifyAgainstContext(Player player, ConnectionAuthContext context) {
+        UUID playerUuid = player.getUniqueId();
+        if (context.isVerified(playerUuid)) {
+            return true;
+        }
+        boolean verified = performUuidVerification(player, context.account());
+        if (verified) {
+            authCache.markConnectionVerified(context, playerUuid);
         }
+        return verified;
     }
 
     private boolean handleDatabaseVerificationError(Player player, DbResult<RegisteredPlayer> dbResult) {
@@ -153,7 +187,10 @@ public class UuidVerificationHandler {
                 player, playerUuid, storedUuid, storedPremiumUuid, dbPlayer, authCache, logger);
     }
 
-    private boolean handleAsyncVerificationError(Player player, Exception e) {
+    private boolean handleAsyncVerificationError(Player player, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        Exception e = cause instanceof Exception exception ? exception : new CompletionException(cause);
         return AuthenticationErrorHandler.handleVerificationError(player, e, authCache, logger);
     }
 
@@ -58,6 +58,23 @@ public final class CachedAuthUser {
      */
     public CachedAuthUser(UUID uuid, String nickname, String loginIp,
                           long loginTime, boolean isPremium, UUID premiumUuid) {
+        this(uuid, nickname, loginIp, loginTime, isPremium, premiumUuid, System.currentTimeMillis());
+    }
+
+    /**
+     * Tworzy wpis cache z zachowanym czasem utworzenia (np. przy odtwarzaniu snapshotu),
+     * tak aby TTL liczył się od pierwotnego wstawienia.
+     *
+     * @param uuid        UUID gracza Minecraft
+     * @param nickname    Oryginalny nickname gracza
+     * @param loginIp     IP adres ostatniego logowania
+     * @param loginTime   Timestamp ostatniego logowania
+     * @param isPremium   Czy gracz ma konto premium
+     * @param premiumUuid Premium UUID (może być null)
+     * @param cacheTime   Timestamp utworzenia wpisu w cache
+     */
+    public CachedAuthUser(UUID uuid, String nickname, String loginIp,
+                          long loginTime, boolean isPremium, UUID premiumUuid, long cacheTime) {
         if (uuid == null) {
             throw new IllegalArgumentException("UUID nie może być null");
         }
@@ -71,7 +88,7 @@ public final class CachedAuthUser {
         this.loginTime = loginTime;
         this.isPremium = isPremium;
         this.premiumUuid = premiumUuid;
-        this.cacheTime = System.currentTimeMillis();
+        this.cacheTime = cacheTime;
     }
 
     /**
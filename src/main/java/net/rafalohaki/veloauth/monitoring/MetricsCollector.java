@@ -2,11 +2,18 @@ package net.rafalohaki.veloauth.monitoring;
 
 import net.rafalohaki.veloauth.VeloAuth;
 import net.rafalohaki.veloauth.cache.AuthCache;
+import net.rafalohaki.veloauth.command.InFlightCommandGuard;
+import net.rafalohaki.veloauth.command.PasswordHasher;
 import net.rafalohaki.veloauth.database.DatabaseManager;
+import net.rafalohaki.veloauth.database.LatencyHistogram;
+import net.rafalohaki.veloauth.database.QueryLane;
+import net.rafalohaki.veloauth.database.QueryMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
 
 /**
  * Production metrics collector for VeloAuth.
@@ -168,6 +175,40 @@ public class MetricsCollector {
         metrics.append("# TYPE veloauth_database_cache_size gauge\n");
         metrics.append("veloauth_database_cache_size ").append(databaseManager.getCacheSize()).append("\n\n");
 
+        metrics.append("# HELP veloauth_database_cache_hit_rate Database cache hit rate in percent (including negative hits)\n");
+        metrics.append("# TYPE veloauth_database_cache_hit_rate gauge\n");
+        metrics.append("veloauth_database_cache_hit_rate ").append(databaseManager.getCacheHitRate()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_lookups_total Player lookups executed (cache or database)\n");
+        metrics.append("# TYPE veloauth_database_lookups_total counter\n");
+        metrics.append("veloauth_database_lookups_total ").append(databaseManager.getExecutedLookupCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_lookups_coalesced_total Player lookups served by an in-flight lookup for the same nickname\n");
+        metrics.append("# TYPE veloauth_database_lookups_coalesced_total counter\n");
+        metrics.append("veloauth_database_lookups_coalesced_total ").append(databaseManager.getCoalescedLookupCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_batched_queries_total IN queries executed by lookup batching\n");
+        metrics.append("# TYPE veloauth_database_batched_queries_total counter\n");
+        metrics.append("veloauth_database_batched_queries_total ").append(databaseManager.getBatchedQueryCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_batched_lookups_total Nicknames resolved by lookup batching\n");
+        metrics.append("# TYPE veloauth_database_batched_lookups_total counter\n");
+        metrics.append("veloauth_database_batched_lookups_total ").append(databaseManager.getBatchedLookupCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_login_writes_pending Login metadata updates waiting for the write-behind flush\n");
+        metrics.append("# TYPE veloauth_database_login_writes_pending gauge\n");
+        metrics.append("veloauth_database_login_writes_pending ").append(databaseManager.getPendingLoginWriteCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_login_writes_coalesced_total Login metadata updates merged into a pending update\n");
+        metrics.append("# TYPE veloauth_database_login_writes_coalesced_total counter\n");
+        metrics.append("veloauth_database_login_writes_coalesced_total ").append(databaseManager.getCoalescedLoginWriteCount()).append("\n\n");
+
+        appendConnectionPoolMetrics(metrics);
+        appendQueryLaneMetrics(metrics);
+        appendQueryLatencyMetrics(metrics);
+        appendPasswordHashMetrics(metrics);
+        appendInFlightCommandMetrics(metrics);
+
         // JVM metrics (basic)
         Runtime runtime = Runtime.getRuntime();
         metrics.append("# HELP veloauth_jvm_memory_used_bytes Used JVM memory in bytes\n");
@@ -191,6 +232,209 @@ public class MetricsCollector {
         return metrics.toString();
     }
 
+    /**
+     * Appends per-pool connection gauges and, when a read replica is configured, read routing metrics.
+     */
+    private void appendConnectionPoolMetrics(StringBuilder metrics) {
+        List<DatabaseManager.ConnectionPoolStats> pools = databaseManager.getConnectionPoolStats();
+        metrics.append("# HELP veloauth_database_pool_connections Connections in the database pool by state\n");
+        metrics.append("# TYPE veloauth_database_pool_connections gauge\n");
+        for (DatabaseManager.ConnectionPoolStats pool : pools) {
+            metrics.append("veloauth_database_pool_connections{pool=\"").append(pool.pool()).append("\",state=\"active\"} ")
+                    .append(pool.active()).append("\n");
+            metrics.append("veloauth_database_pool_connections{pool=\"").append(pool.pool()).append("\",state=\"idle\"} ")
+                    .append(pool.idle()).append("\n");
+        }
+        metrics.append("\n");
+
+        metrics.append("# HELP veloauth_database_pool_threads_awaiting Threads waiting for a connection from the database pool\n");
+        metrics.append("# TYPE veloauth_database_pool_threads_awaiting gauge\n");
+        for (DatabaseManager.ConnectionPoolStats pool : pools) {
+            metrics.append("veloauth_database_pool_threads_awaiting{pool=\"").append(pool.pool()).append("\"} ")
+                    .append(pool.threadsAwaiting()).append("\n");
+        }
+        metrics.append("\n");
+
+        if (!databaseManager.hasReadReplica()) {
+            return;
+        }
+
+        metrics.append("# HELP veloauth_database_reads_total Nickname and premium lookups by the pool that served them\n");
+        metrics.append("# TYPE veloauth_database_reads_total counter\n");
+        metrics.append("veloauth_database_reads_total{pool=\"primary\"} ").append(databaseManager.getPrimaryReadCount()).append("\n");
+        metrics.append("veloauth_database_reads_total{pool=\"replica\"} ").append(databaseManager.getReplicaReadCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_replica_fallbacks_total Lookups moved to the primary after a replica connection or read failure\n");
+        metrics.append("# TYPE veloauth_database_replica_fallbacks_total counter\n");
+        metrics.append("veloauth_database_replica_fallbacks_total ").append(databaseManager.getReplicaFallbackCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_replica_lagged_reads_total Lookups sent to the primary because the replica lag was unknown or above the limit\n");
+        metrics.append("# TYPE veloauth_database_replica_lagged_reads_total counter\n");
+        metrics.append("veloauth_database_replica_lagged_reads_total ").append(databaseManager.getReplicaLaggedReadCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_database_replica_lag_millis Last measured replication lag (-1 = unknown or unavailable)\n");
+        metrics.append("# TYPE veloauth_database_replica_lag_millis gauge\n");
+        metrics.append("veloauth_database_replica_lag_millis ").append(databaseManager.getReplicaLagMillis()).append("\n\n");
+    }
+
+    /**
+     * Appends saturation metrics of the database query lanes (hot, write, admin bulkheads).
+     */
+    private void appendQueryLaneMetrics(StringBuilder metrics) {
+        List<QueryLane> lanes = databaseManager.getQueryLanes();
+        appendLaneMetric(metrics, lanes, "veloauth_database_lane_active", "gauge",
+                "Queries currently running in the query lane", QueryLane::getActiveCount);
+        appendLaneMetric(metrics, lanes, "veloauth_database_lane_max_concurrent", "gauge",
+                "Maximum concurrent queries of the query lane", QueryLane::getMaxConcurrent);
+        appendLaneMetric(metrics, lanes, "veloauth_database_lane_queued", "gauge",
+                "Queries waiting for a slot in the query lane", QueryLane::getQueuedCount);
+        appendLaneMetric(metrics, lanes, "veloauth_database_lane_completed_total", "counter",
+                "Queries executed in the query lane", QueryLane::getCompletedCount);
+        appendLaneMetric(metrics, lanes, "veloauth_database_lane_rejected_total", "counter",
+                "Queries rejected because the query lane queue was full", QueryLane::getRejectedCount);
+        appendLaneMetric(metrics, lanes, "veloauth_database_lane_timeouts_total", "counter",
+                "Queries that timed out waiting for a slot in the query lane", QueryLane::getTimedOutCount);
+    }
+
+    private static void appendLaneMetric(StringBuilder metrics, List<QueryLane> lanes, String name, String type,
+                                         String help, ToLongFunction<QueryLane> value) {
+        metrics.append("# HELP ").append(name).append(' ').append(help).append("\n");
+        metrics.append("# TYPE ").append(name).append(' ').append(type).append("\n");
+        for (QueryLane lane : lanes) {
+            metrics.append(name).append("{lane=\"").append(lane.getName()).append("\"} ")
+                    .append(value.applyAsLong(lane)).append("\n");
+        }
+        metrics.append("\n");
+    }
+
+    /**
+     * Appends per-statement query latency summaries, slow query counters and pool acquire wait.
+     * Quantiles and max cover the last minute; _sum and _count are cumulative.
+     */
+    private void appendQueryLatencyMetrics(StringBuilder metrics) {
+        QueryMetrics queryMetrics = databaseManager.getQueryMetrics();
+        QueryMetrics.Statement[] statements = QueryMetrics.Statement.values();
+
+        metrics.append("# HELP veloauth_database_query_duration_seconds Database query duration by statement (quantiles over the last minute)\n");
+        metrics.append("# TYPE veloauth_database_query_duration_seconds summary\n");
+        for (QueryMetrics.Statement statement : statements) {
+            if (statement.isQuery()) {
+                appendLatencySummary(metrics, "veloauth_database_query_duration_seconds",
+                        "statement=\"" + statement.metricName() + "\"", queryMetrics.snapshot(statement));
+            }
+        }
+        metrics.append("\n");
+
+        metrics.append("# HELP veloauth_database_query_duration_max_seconds Slowest database query in the last minute by statement\n");
+        metrics.append("# TYPE veloauth_database_query_duration_max_seconds gauge\n");
+        for (QueryMetrics.Statement statement : statements) {
+            if (statement.isQuery()) {
+                metrics.append("veloauth_database_query_duration_max_seconds{statement=\"").append(statement.metricName())
+                        .append("\"} ").append(toSeconds(queryMetrics.snapshot(statement).maxMicros())).append("\n");
+            }
+        }
+        metrics.append("\n");
+
+        metrics.append("# HELP veloauth_database_slow_queries_total Queries slower than the slow query threshold by statement\n");
+        metrics.append("# TYPE veloauth_database_slow_queries_total counter\n");
+        for (QueryMetrics.Statement statement : statements) {
+            if (statement.isQuery()) {
+                metrics.append("veloauth_database_slow_queries_total{statement=\"").append(statement.metricName())
+                        .append("\"} ").append(queryMetrics.getSlowCount(statement)).append("\n");
+            }
+        }
+        metrics.append("\n");
+
+        LatencyHistogram.Snapshot acquire = queryMetrics.snapshot(QueryMetrics.Statement.CONNECTION_ACQUIRE);
+        metrics.append("# HELP veloauth_database_pool_acquire_seconds Time spent waiting for a connection from the database pool\n");
+        metrics.append("# TYPE veloauth_database_pool_acquire_seconds summary\n");
+        appendLatencySummary(metrics, "veloauth_database_pool_acquire_seconds", null, acquire);
+        metrics.append("\n");
+    }
+
+    /**
+     * Appends BCrypt worker pool saturation (queue depth, rejections) and hashing latency.
+     */
+    private void appendPasswordHashMetrics(StringBuilder metrics) {
+        PasswordHasher hasher = plugin.getPasswordHasher();
+        if (hasher == null) {
+            return;
+        }
+        metrics.append("# HELP veloauth_password_hash_queue_depth BCrypt jobs waiting for a worker thread\n");
+        metrics.append("# TYPE veloauth_password_hash_queue_depth gauge\n");
+        metrics.append("veloauth_password_hash_queue_depth ").append(hasher.getQueueDepth()).append("\n\n");
+
+        metrics.append("# HELP veloauth_password_hash_queue_capacity Maximum BCrypt jobs waiting before rejection\n");
+        metrics.append("# TYPE veloauth_password_hash_queue_capacity gauge\n");
+        metrics.append("veloauth_password_hash_queue_capacity ").append(hasher.getQueueCapacity()).append("\n\n");
+
+        metrics.append("# HELP veloauth_password_hash_workers_active BCrypt worker threads currently hashing\n");
+        metrics.append("# TYPE veloauth_password_hash_workers_active gauge\n");
+        metrics.append("veloauth_password_hash_workers_active ").append(hasher.getActiveCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_password_hash_workers_max BCrypt worker threads in the pool\n");
+        metrics.append("# TYPE veloauth_password_hash_workers_max gauge\n");
+        metrics.append("veloauth_password_hash_workers_max ").append(hasher.getThreads()).append("\n\n");
+
+        metrics.append("# HELP veloauth_password_hash_rejected_total BCrypt jobs rejected because the queue was full\n");
+        metrics.append("# TYPE veloauth_password_hash_rejected_total counter\n");
+        metrics.append("veloauth_password_hash_rejected_total ").append(hasher.getRejectedCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_password_hash_duration_seconds BCrypt computation time by operation\n");
+        metrics.append("# TYPE veloauth_password_hash_duration_seconds summary\n");
+        for (PasswordHasher.Operation operation : PasswordHasher.Operation.values()) {
+            appendLatencySummary(metrics, "veloauth_password_hash_duration_seconds",
+                    "operation=\"" + operation.metricName() + "\"", hasher.durationSnapshot(operation));
+        }
+        metrics.append("\n");
+
+        metrics.append("# HELP veloauth_password_hash_queue_wait_seconds Time BCrypt jobs waited for a worker thread\n");
+        metrics.append("# TYPE veloauth_password_hash_queue_wait_seconds summary\n");
+        appendLatencySummary(metrics, "veloauth_password_hash_queue_wait_seconds", null, hasher.queueWaitSnapshot());
+        metrics.append("\n");
+    }
+
+    /**
+     * Appends per-player auth command deduplication metrics (in-flight commands, dropped duplicates).
+     */
+    private void appendInFlightCommandMetrics(StringBuilder metrics) {
+        InFlightCommandGuard guard = plugin.getInFlightCommandGuard();
+        if (guard == null) {
+            return;
+        }
+        metrics.append("# HELP veloauth_auth_commands_in_flight Players with an auth command currently running\n");
+        metrics.append("# TYPE veloauth_auth_commands_in_flight gauge\n");
+        metrics.append("veloauth_auth_commands_in_flight ").append(guard.getInFlightCount()).append("\n\n");
+
+        metrics.append("# HELP veloauth_auth_command_duplicates_dropped_total Auth commands dropped because the player already had one running\n");
+        metrics.append("# TYPE veloauth_auth_command_duplicates_dropped_total counter\n");
+        guard.getDroppedCounts().forEach((command, count) ->
+                metrics.append("veloauth_auth_command_duplicates_dropped_total{command=\"").append(command)
+                        .append("\"} ").append(count).append("\n"));
+        metrics.append("\n");
+    }
+
+    private static void appendLatencySummary(StringBuilder metrics, String name, String labels,
+                                             LatencyHistogram.Snapshot snapshot) {
+        String prefix = labels != null ? labels + "," : "";
+        appendQuantile(metrics, name, prefix, "0.5", snapshot.p50Micros());
+        appendQuantile(metrics, name, prefix, "0.95", snapshot.p95Micros());
+        appendQuantile(metrics, name, prefix, "0.99", snapshot.p99Micros());
+        String suffix = labels != null ? "{" + labels + "} " : " ";
+        metrics.append(name).append("_sum").append(suffix).append(toSeconds(snapshot.sumMicros())).append("\n");
+        metrics.append(name).append("_count").append(suffix).append(snapshot.count()).append("\n");
+    }
+
+    private static void appendQuantile(StringBuilder metrics, String name, String labelPrefix, String quantile,
+                                       long micros) {
+        metrics.append(name).append('{').append(labelPrefix).append("quantile=\"").append(quantile).append("\"} ")
+                .append(toSeconds(micros)).append("\n");
+    }
+
+    private static double toSeconds(long micros) {
+        return micros / 1_000_000.0;
+    }
+
     /**
      * Returns current active sessions count.
      */
@@ -1,5 +1,6 @@
 package net.rafalohaki.veloauth.premium;
 
+import net.rafalohaki.veloauth.cache.CacheSnapshot;
 import net.rafalohaki.veloauth.config.Settings;
 import net.rafalohaki.veloauth.config.Settings.PremiumResolverSettings;
 import net.rafalohaki.veloauth.database.PremiumUuidDao;
@@ -340,6 +341,49 @@ public class PremiumResolverService {
         }
     }
 
+    /**
+     * Eksportuje memory cache resolvera do snapshotu (warm restart).
+     *
+     * @param snapshot docelowy snapshot
+     */
+    public void exportSnapshot(CacheSnapshot snapshot) {
+        cache.forEach((key, entry) -> {
+            PremiumResolution r = entry.resolution();
+            snapshot.addResolver(new CacheSnapshot.ResolverEntry(key, r.status().name(), r.uuid(),
+                    r.canonicalUsername(), r.source(), r.message(), entry.timestamp()));
+        });
+    }
+
+    /**
+     * Odtwarza memory cache resolvera ze snapshotu, pomijając wpisy z minionym TTL.
+     *
+     * @param snapshot wczytany snapshot
+     * @return liczba odtworzonych wpisów
+     */
+    public int restoreSnapshot(CacheSnapshot snapshot) {
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        for (CacheSnapshot.ResolverEntry e : snapshot.getResolver()) {
+            if (cache.size() >= maxCacheSize) {
+                break;
+            }
+            PremiumResolution.PremiumStatus status;
+            try {
+                status = PremiumResolution.PremiumStatus.valueOf(e.status());
+            } catch (IllegalArgumentException ex) {
+                continue;
+            }
+            CachedEntry entry = new CachedEntry(
+                    new PremiumResolution(status, e.uuid(), e.canonicalUsername(), e.source(), e.message()),
+                    e.timestamp());
+            if (e.timestamp() <= now && !entry.isExpired(premiumTtlMillis, missTtlMillis)) {
+                cache.put(e.key(), entry);
+                restored++;
+            }
+        }
+        return restored;
+    }
+
     private record CachedEntry(PremiumResolution resolution, long timestamp) {
         boolean isExpired(long premiumTtlMillis, long missTtlMillis) {
             long ttl = resolution.isPremium() ? premiumTtlMillis : missTtlMillis;
@@ -0,0 +1,233 @@
+package net.rafalohaki.veloauth.cache;
+
+import net.rafalohaki.veloauth.config.Settings;
+import net.rafalohaki.veloauth.i18n.Messages;
+import net.rafalohaki.veloauth.model.CachedAuthUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for bounded LRU eviction in AuthCache.
+ * Verifies eviction order (least recently used first) and hit/miss accounting.
+ */
+@SuppressWarnings("java:S100")
+class AuthCacheEvictionTest {
+
+    private static final String IP = "127.0.0.1";
+
+    @TempDir
+    Path tempDir;
+
+    private AuthCache authCache;
+
+    @BeforeEach
+    void setUp() {
+        Messages messages = new Messages();
+        messages.setLanguage("en");
+        Settings settings = new Settings(tempDir);
+        // maxSize=3, maxSessions=3, maxPremiumCache=3, cleanup disabled
+        authCache = new AuthCache(new AuthCache.AuthCacheConfig(60, 3, 3, 3, 5, 5, 0, 10), settings, messages);
+    }
+
+    @AfterEach
+    void tearDown() {
+        authCache.shutdown();
+    }
+
+    @Test
+    void testBoundedLruIndex_EvictsLeastRecentlyUsed() {
+        BoundedLruIndex<String> index = new BoundedLruIndex<>(2);
+
+        assertNull(index.admit("a"));
+        assertNull(index.admit("b"));
+        index.touch("a");
+
+        assertEquals("b", index.admit("c"));
+        assertEquals("a", index.peekEldest());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testBoundedLruIndex_ReadmitExistingKey_NoEviction() {
+        BoundedLruIndex<String> index = new BoundedLruIndex<>(2);
+        index.admit("a");
+        index.admit("b");
+
+        assertNull(index.admit("a"));
+        assertEquals("b", index.peekEldest());
+    }
+
+    @Test
+    void testAddAuthorizedPlayer_OverCapacity_EvictsInsertionOrderWithoutAccess() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        UUID fourth = UUID.randomUUID();
+
+        authCache.addAuthorizedPlayer(first, user(first, "p1"));
+        authCache.addAuthorizedPlayer(second, user(second, "p2"));
+        authCache.addAuthorizedPlayer(third, user(third, "p3"));
+        authCache.addAuthorizedPlayer(fourth, user(fourth, "p4"));
+
+        assertNull(authCache.getAuthorizedPlayer(first));
+        assertNotNull(authCache.getAuthorizedPlayer(second));
+        assertNotNull(authCache.getAuthorizedPlayer(third));
+        assertNotNull(authCache.getAuthorizedPlayer(fourth));
+        assertEquals(3, authCache.getStats().authorizedPlayersCount());
+    }
+
+    @Test
+    void testAddAuthorizedPlayer_AccessedEntry_SurvivesEviction() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        UUID fourth = UUID.randomUUID();
+
+        authCache.addAuthorizedPlayer(first, user(first, "p1"));
+        authCache.addAuthorizedPlayer(second, user(second, "p2"));
+        authCache.addAuthorizedPlayer(third, user(third, "p3"));
+        assertNotNull(authCache.getAuthorizedPlayer(first)); // first becomes most recently used
+
+        authCache.addAuthorizedPlayer(fourth, user(fourth, "p4"));
+
+        assertNotNull(authCache.getAuthorizedPlayer(first));
+        assertNull(authCache.getAuthorizedPlayer(second));
+    }
+
+    @Test
+    void testRemoveAuthorizedPlayer_FreesSlot_NoEviction() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        UUID fourth = UUID.randomUUID();
+
+        authCache.addAuthorizedPlayer(first, user(first, "p1"));
+        authCache.addAuthorizedPlayer(second, user(second, "p2"));
+        authCache.addAuthorizedPlayer(third, user(third, "p3"));
+        authCache.removeAuthorizedPlayer(second);
+        authCache.addAuthorizedPlayer(fourth, user(fourth, "p4"));
+
+        assertNotNull(authCache.getAuthorizedPlayer(first));
+        assertNotNull(authCache.getAuthorizedPlayer(third));
+        assertNotNull(authCache.getAuthorizedPlayer(fourth));
+    }
+
+    @Test
+    void testGetAuthorizedPlayer_HitAndMiss_CountedInStats() {
+        UUID uuid = UUID.randomUUID();
+        authCache.addAuthorizedPlayer(uuid, user(uuid, "p1"));
+
+        authCache.getAuthorizedPlayer(uuid);
+        authCache.getAuthorizedPlayer(UUID.randomUUID());
+
+        AuthCache.CacheStats stats = authCache.getStats();
+        assertEquals(1, stats.cacheHits());
+        assertEquals(1, stats.cacheMisses());
+        assertEquals(50.0, stats.getHitRate(), 0.001);
+    }
+
+    @Test
+    void testAddPremiumPlayer_OverCapacity_EvictsLeastRecentlyUsed() {
+        authCache.addPremiumPlayer("alpha", UUID.randomUUID());
+        authCache.addPremiumPlayer("beta", null);
+        authCache.addPremiumPlayer("gamma", UUID.randomUUID());
+        assertNotNull(authCache.getPremiumStatus("Alpha")); // case-insensitive touch
+
+        authCache.addPremiumPlayer("delta", null);
+
+        assertNotNull(authCache.getPremiumStatus("alpha"));
+        assertNull(authCache.getPremiumStatus("beta"));
+        assertNotNull(authCache.getPremiumStatus("gamma"));
+        assertNotNull(authCache.getPremiumStatus("delta"));
+    }
+
+    @Test
+    void testStartSession_OverCapacity_EvictsLeastRecentlyActiveSession() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        UUID fourth = UUID.randomUUID();
+
+        assertTrue(authCache.startSession(first, "s1", IP));
+        assertTrue(authCache.startSession(second, "s2", IP));
+        assertTrue(authCache.startSession(third, "s3", IP));
+        assertTrue(authCache.hasActiveSession(first, "s1", IP, 60)); // refresh first
+
+        assertTrue(authCache.startSession(fourth, "s4", IP));
+
+        assertTrue(authCache.hasActiveSession(first, "s1", IP, 60));
+        assertFalse(authCache.hasActiveSession(second, "s2", IP, 60));
+        assertTrue(authCache.hasActiveSession(third, "s3", IP, 60));
+        assertTrue(authCache.hasActiveSession(fourth, "s4", IP, 60));
+    }
+
+    @Test
+    void testStartSession_EvictedSession_ReleasesConcurrentSlot() {
+        UUID first = UUID.randomUUID();
+        assertTrue(authCache.startSession(first, "shared", IP));
+        assertTrue(authCache.startSession(UUID.randomUUID(), "s2", IP));
+        assertTrue(authCache.startSession(UUID.randomUUID(), "s3", IP));
+        assertTrue(authCache.startSession(UUID.randomUUID(), "s4", IP)); // evicts "shared"
+
+        assertTrue(authCache.endAllSessionsForUsername("shared").isEmpty());
+    }
+
+    @Test
+    void testClearAll_ResetsEvictionOrder() {
+        UUID first = UUID.randomUUID();
+        authCache.addAuthorizedPlayer(first, user(first, "p1"));
+        authCache.clearAll();
+
+        for (int i = 0; i < 3; i++) {
+            UUID uuid = UUID.randomUUID();
+            authCache.addAuthorizedPlayer(uuid, user(uuid, "n" + i));
+        }
+
+        assertEquals(3, authCache.getStats().authorizedPlayersCount());
+    }
+
+    @Test
+    void testEviction_ManyMoreInsertsThanCapacity_PendingExpiriesStayBounded() {
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            authCache.addAuthorizedPlayer(uuid, user(uuid, "p" + i));
+            authCache.addPremiumPlayer("premium" + i, i % 2 == 0 ? UUID.randomUUID() : null);
+            authCache.startSession(uuid, "s" + i, IP);
+        }
+
+        // 3 authorized + 3 premium + 3 sessions - evicted entries must not leave tasks behind
+        assertTrue(authCache.getExpiryStats().pendingTimeouts() <= 9,
+                "pending: " + authCache.getExpiryStats().pendingTimeouts());
+    }
+
+    @Test
+    void testReplaceEntry_SameKey_PreviousExpiryCancelled() {
+        UUID uuid = UUID.randomUUID();
+        for (int i = 0; i < 1000; i++) {
+            authCache.addAuthorizedPlayer(uuid, user(uuid, "p1"));
+            authCache.addPremiumPlayer("alpha", null);
+        }
+
+        assertEquals(2, authCache.getExpiryStats().pendingTimeouts());
+
+        authCache.removeAuthorizedPlayer(uuid);
+        authCache.removePremiumPlayer("alpha");
+
+        assertEquals(0, authCache.getExpiryStats().pendingTimeouts());
+    }
+
+    private static CachedAuthUser user(UUID uuid, String nickname) {
+        return new CachedAuthUser(uuid, nickname, IP, System.currentTimeMillis(), false, null);
+    }
+}
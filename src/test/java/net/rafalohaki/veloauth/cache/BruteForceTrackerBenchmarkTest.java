@@ -0,0 +1,138 @@
+package net.rafalohaki.veloauth.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput benchmark for the lock-free brute-force tracker against the previous
+ * single-lock implementation (reproduced here as {@link LockedTracker}).
+ * Tagged {@code benchmark} - excluded from the default test run.
+ */
+@Tag("benchmark")
+@SuppressWarnings("java:S100")
+class BruteForceTrackerBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 20_000;
+    private static final int ADDRESSES = 64;
+    private static final int ROUNDS = 3;
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private InetAddress[] addresses;
+
+    @BeforeEach
+    void setUp() throws UnknownHostException {
+        addresses = new InetAddress[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            addresses[i] = InetAddress.getByName("10.0.0." + (i + 1));
+        }
+    }
+
+    @Test
+    void testThroughput_LockFreeVersusLocked_NotSlower() throws InterruptedException {
+        // Warm-up both paths (JIT)
+        runLocked(new LockedTracker());
+        runLockFree(new ConcurrentHashMap<>());
+
+        long lockedNanos = Long.MAX_VALUE;
+        long lockFreeNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            LockedTracker locked = new LockedTracker();
+            ConcurrentHashMap<InetAddress, AuthCache.BruteForceEntry> lockFree = new ConcurrentHashMap<>();
+
+            lockedNanos = Math.min(lockedNanos, runLocked(locked));
+            lockFreeNanos = Math.min(lockFreeNanos, runLockFree(lockFree));
+
+            for (InetAddress address : addresses) {
+                assertEquals(locked.getAttempts(address), lockFree.get(address).getAttempts());
+            }
+        }
+
+        assertTrue(lockFreeNanos <= lockedNanos,
+                "Lock-free tracker took " + lockFreeNanos / 1_000_000 + " ms, locked baseline "
+                        + lockedNanos / 1_000_000 + " ms");
+    }
+
+    private long runLocked(LockedTracker locked) throws InterruptedException {
+        return runConcurrently(i -> locked.registerFailedLogin(addresses[i % ADDRESSES]));
+    }
+
+    private long runLockFree(ConcurrentHashMap<InetAddress, AuthCache.BruteForceEntry> entries)
+            throws InterruptedException {
+        return runConcurrently(i -> entries
+                .computeIfAbsent(addresses[i % ADDRESSES], k -> new AuthCache.BruteForceEntry(System.currentTimeMillis()))
+                .recordFailure(System.currentTimeMillis(), TIMEOUT_MILLIS));
+    }
+
+    private long runConcurrently(IntTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    task.run(i + offset);
+                }
+                return null;
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        return System.nanoTime() - started;
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int i);
+    }
+
+    /**
+     * Previous implementation: one global lock around a mutable per-IP entry.
+     */
+    private static final class LockedTracker {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<InetAddress, long[]> entries = new HashMap<>();
+
+        void registerFailedLogin(InetAddress address) {
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                long[] entry = entries.computeIfAbsent(address, k -> new long[]{0, now});
+                if (now - entry[1] > TIMEOUT_MILLIS) {
+                    entry[0] = 0;
+                    entry[1] = now;
+                }
+                entry[0]++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getAttempts(InetAddress address) {
+            lock.lock();
+            try {
+                return (int) entries.get(address)[0];
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
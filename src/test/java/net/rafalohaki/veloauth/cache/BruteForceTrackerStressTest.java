@@ -0,0 +1,166 @@
+package net.rafalohaki.veloauth.cache;
+
+import net.rafalohaki.veloauth.config.Settings;
+import net.rafalohaki.veloauth.i18n.Messages;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrency stress tests for the lock-free brute-force tracker: exact attempt accounting
+ * under contention and blocking exactly at the configured limit.
+ */
+@SuppressWarnings("java:S100")
+class BruteForceTrackerStressTest {
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 20_000;
+    private static final int ADDRESSES = 64;
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @TempDir
+    Path tempDir;
+
+    private AuthCache authCache;
+    private InetAddress[] addresses;
+
+    @BeforeEach
+    void setUp() throws UnknownHostException {
+        addresses = new InetAddress[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            addresses[i] = InetAddress.getByName("10.0.0." + (i + 1));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (authCache != null) {
+            authCache.shutdown();
+        }
+    }
+
+    @Test
+    void testRecordFailure_ConcurrentSameEntry_CountsExactly() throws InterruptedException {
+        AuthCache.BruteForceEntry entry = new AuthCache.BruteForceEntry(System.currentTimeMillis());
+
+        runConcurrently(i -> entry.recordFailure(System.currentTimeMillis(), TIMEOUT_MILLIS));
+
+        assertEquals(THREADS * OPS_PER_THREAD, entry.getAttempts());
+    }
+
+    @Test
+    void testRecordFailure_WindowExpired_StartsNewWindow() {
+        AuthCache.BruteForceEntry entry = new AuthCache.BruteForceEntry(1_000L);
+        assertEquals(1, entry.recordFailure(1_000L, 100L));
+        assertEquals(2, entry.recordFailure(1_100L, 100L)); // exactly at boundary - still same window
+
+        assertEquals(1, entry.recordFailure(1_101L, 100L));
+        assertEquals(1_101L, entry.getFirstAttemptTime());
+    }
+
+    @Test
+    void testRegisterFailedLogin_ConcurrentBurst_BlocksExactlyAtLimit() throws InterruptedException {
+        int maxAttempts = THREADS * 10;
+        authCache = newCache(maxAttempts);
+        InetAddress target = addresses[0];
+
+        // One attempt short of the limit, spread across threads
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int perThread = t == 0 ? 9 : 10;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    authCache.registerFailedLogin(target);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertFalse(authCache.isBlocked(target));
+        assertTrue(authCache.registerFailedLogin(target));
+        assertTrue(authCache.isBlocked(target));
+    }
+
+    @Test
+    void testRegisterFailedLogin_ResetLoginAttempts_ClearsBlock() {
+        authCache = newCache(3);
+        InetAddress target = addresses[1];
+
+        authCache.registerFailedLogin(target);
+        authCache.registerFailedLogin(target);
+        assertTrue(authCache.registerFailedLogin(target));
+
+        authCache.resetLoginAttempts(target);
+
+        assertFalse(authCache.isBlocked(target));
+        assertFalse(authCache.registerFailedLogin(target));
+    }
+
+    @Test
+    void testRecordFailure_ConcurrentManyAddresses_CountsExactly() throws InterruptedException {
+        ConcurrentHashMap<InetAddress, AuthCache.BruteForceEntry> entries = new ConcurrentHashMap<>();
+
+        runConcurrently(i -> entries
+                .computeIfAbsent(addresses[i % ADDRESSES], k -> new AuthCache.BruteForceEntry(System.currentTimeMillis()))
+                .recordFailure(System.currentTimeMillis(), TIMEOUT_MILLIS));
+
+        int[] expected = new int[ADDRESSES];
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                expected[(i + t) % ADDRESSES]++;
+            }
+        }
+        for (int a = 0; a < ADDRESSES; a++) {
+            assertEquals(expected[a], entries.get(addresses[a]).getAttempts());
+        }
+    }
+
+    private AuthCache newCache(int maxAttempts) {
+        Messages messages = new Messages();
+        messages.setLanguage("en");
+        return new AuthCache(new AuthCache.AuthCacheConfig(60, 100, 100, 100, maxAttempts, 5, 0, 2),
+                new Settings(tempDir), messages);
+    }
+
+    private void runConcurrently(IntTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    task.run(i + offset);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int i);
+    }
+}
@@ -0,0 +1,158 @@
+package net.rafalohaki.veloauth.cache;
+
+import net.rafalohaki.veloauth.config.Settings;
+import net.rafalohaki.veloauth.i18n.Messages;
+import net.rafalohaki.veloauth.model.CachedAuthUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for the warm-restart cache snapshot: binary round trip,
+ * corruption detection and TTL-aware restore into AuthCache.
+ */
+@SuppressWarnings("java:S100")
+class CacheSnapshotTest {
+
+    private static final String IP = "192.168.1.10";
+
+    @TempDir
+    Path tempDir;
+
+    private AuthCache source;
+    private AuthCache target;
+
+    @AfterEach
+    void tearDown() {
+        if (source != null) {
+            source.shutdown();
+        }
+        if (target != null) {
+            target.shutdown();
+        }
+    }
+
+    @Test
+    void testWriteRead_AllSections_RoundTrip() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        CacheSnapshot snapshot = new CacheSnapshot();
+        snapshot.addAuthorized(new CacheSnapshot.AuthorizedEntry(uuid, "Player", IP, 1L, 2L, true, uuid));
+        snapshot.addPremium(new CacheSnapshot.PremiumEntry("player", false, null, 3L, 4L));
+        snapshot.addSession(new CacheSnapshot.SessionEntry(uuid, "Player", "2001:db8::1", 5L, 6L));
+        snapshot.addResolver(new CacheSnapshot.ResolverEntry("żółw", "OFFLINE", null, "Żółw", "mojang", null, 7L));
+        Path file = tempDir.resolve(CacheSnapshot.FILE_NAME);
+
+        snapshot.write(file);
+        CacheSnapshot read = CacheSnapshot.read(file);
+
+        assertEquals(snapshot.getCreatedAt(), read.getCreatedAt());
+        assertEquals(snapshot.getAuthorized(), read.getAuthorized());
+        assertEquals(snapshot.getPremium(), read.getPremium());
+        assertEquals(snapshot.getSessions(), read.getSessions());
+        assertEquals(snapshot.getResolver(), read.getResolver());
+    }
+
+    @Test
+    void testWrite_PosixFileSystem_OwnerOnlyPermissions() throws IOException {
+        assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path file = tempDir.resolve(CacheSnapshot.FILE_NAME);
+        Files.writeString(file.resolveSibling(CacheSnapshot.FILE_NAME + ".tmp"), "leftover");
+
+        new CacheSnapshot().write(file);
+
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+        assertFalse(Files.exists(file.resolveSibling(CacheSnapshot.FILE_NAME + ".tmp")));
+        assertNotNull(CacheSnapshot.read(file));
+    }
+
+    @Test
+    void testRead_CorruptedPayload_Rejected() throws IOException {
+        CacheSnapshot snapshot = new CacheSnapshot();
+        snapshot.addPremium(new CacheSnapshot.PremiumEntry("player", true, UUID.randomUUID(), 3L, 4L));
+        Path file = tempDir.resolve(CacheSnapshot.FILE_NAME);
+        snapshot.write(file);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> CacheSnapshot.read(file));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void testRead_UnknownVersion_Rejected() throws IOException {
+        Path file = tempDir.resolve(CacheSnapshot.FILE_NAME);
+        new CacheSnapshot().write(file);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[7] = 99; // version field (big-endian int at offset 4)
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> CacheSnapshot.read(file));
+    }
+
+    @Test
+    void testRestoreSnapshot_ExportedCache_RestoredWithOriginalTimestamps() throws IOException {
+        source = newCache();
+        UUID authorized = UUID.randomUUID();
+        UUID session = UUID.randomUUID();
+        source.addAuthorizedPlayer(authorized, new CachedAuthUser(authorized, "Auth", IP, 1L, false, null));
+        source.addPremiumPlayer("PremiumGuy", UUID.randomUUID());
+        assertTrue(source.startSession(session, "Online", IP));
+
+        CacheSnapshot snapshot = new CacheSnapshot();
+        source.exportSnapshot(snapshot);
+        Path file = tempDir.resolve(CacheSnapshot.FILE_NAME);
+        snapshot.write(file);
+
+        target = newCache();
+        int restored = target.restoreSnapshot(CacheSnapshot.read(file));
+
+        assertEquals(3, restored);
+        CachedAuthUser user = target.getAuthorizedPlayer(authorized);
+        assertNotNull(user);
+        assertEquals(source.getAuthorizedPlayer(authorized).getCacheTime(), user.getCacheTime());
+        assertNotNull(target.getPremiumStatus("premiumguy"));
+        assertTrue(target.hasActiveSession(session, "Online", IP, 60));
+    }
+
+    @Test
+    void testRestoreSnapshot_ExpiredEntries_Skipped() {
+        long now = System.currentTimeMillis();
+        long twoHoursAgo = now - TimeUnit.HOURS.toMillis(2);
+        UUID uuid = UUID.randomUUID();
+        CacheSnapshot snapshot = new CacheSnapshot();
+        snapshot.addAuthorized(new CacheSnapshot.AuthorizedEntry(uuid, "Old", IP, twoHoursAgo, twoHoursAgo, false, null));
+        snapshot.addPremium(new CacheSnapshot.PremiumEntry("old", true, UUID.randomUUID(), twoHoursAgo, 1_000L));
+        snapshot.addSession(new CacheSnapshot.SessionEntry(uuid, "Old", IP, twoHoursAgo, twoHoursAgo));
+
+        target = newCache();
+
+        assertEquals(0, target.restoreSnapshot(snapshot));
+        assertNull(target.getAuthorizedPlayer(uuid));
+        assertFalse(target.hasActiveSession(uuid, "Old", IP, 60));
+    }
+
+    private AuthCache newCache() {
+        Messages messages = new Messages();
+        messages.setLanguage("en");
+        return new AuthCache(new AuthCache.AuthCacheConfig(60, 100, 100, 100, 5, 5, 0, 2),
+                new Settings(tempDir), messages);
+    }
+}
@@ -0,0 +1,165 @@
+package net.rafalohaki.veloauth.cache;
+
+import net.rafalohaki.veloauth.config.Settings;
+import net.rafalohaki.veloauth.i18n.Messages;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the per-connection auth context lifecycle in AuthCache:
+ * PreLogin store, PostLogin binding, account refresh and invalidation.
+ */
+@SuppressWarnings("java:S100")
+class ConnectionAuthContextTest {
+
+    private static final String IP = "127.0.0.1";
+
+    @TempDir
+    Path tempDir;
+
+    private AuthCache authCache;
+
+    @BeforeEach
+    void setUp() {
+        Messages messages = new Messages();
+        messages.setLanguage("en");
+        Settings settings = new Settings(tempDir);
+        // maxSize=3, maxSessions=3, maxPremiumCache=3, cleanup disabled
+        authCache = new AuthCache(new AuthCache.AuthCacheConfig(60, 3, 3, 3, 5, 5, 0, 10), settings, messages);
+    }
+
+    @AfterEach
+    void tearDown() {
+        authCache.shutdown();
+    }
+
+    @Test
+    void testBindConnectionContext_AfterPreLogin_VisibleOnlyToBoundPlayer() {
+        UUID uuid = UUID.randomUUID();
+        RegisteredPlayer account = account("Steve", uuid);
+        storeContext("Steve", account);
+
+        assertNull(authCache.getConnectionContext("Steve", uuid), "Unbound context must not be visible");
+
+        ConnectionAuthContext bound = authCache.bindConnectionContext("steve", uuid);
+
+        assertNotNull(bound);
+        assertSame(account, authCache.getConnectionContext("STEVE", uuid).account());
+        assertNull(authCache.getConnectionContext("Steve", UUID.randomUUID()));
+        assertNull(authCache.bindConnectionContext("Steve", UUID.randomUUID()),
+                "Context already bound to another connection");
+    }
+
+    @Test
+    void testPutConnectionContext_AccountChangedDuringLookup_Rejected() {
+        long generation = authCache.connectionContextGeneration("Steve");
+        authCache.refreshConnectionContext(account("Steve", UUID.randomUUID()));
+
+        assertFalse(authCache.putConnectionContext(
+                ConnectionAuthContext.resolved("Steve", null, false, null), generation));
+        assertNull(authCache.bindConnectionContext("Steve", UUID.randomUUID()));
+    }
+
+    @Test
+    void testRefreshConnectionContext_AfterSave_ReplacesAccountAndClearsVerification() {
+        UUID uuid = UUID.randomUUID();
+        storeContext("Steve", null);
+        ConnectionAuthContext bound = authCache.bindConnectionContext("Steve", uuid);
+        authCache.markConnectionVerified(bound, uuid);
+        assertTrue(authCache.getConnectionContext("Steve", uuid).isVerified(uuid));
+
+        RegisteredPlayer registered = account("Steve", uuid);
+        authCache.refreshConnectionContext(registered);
+
+        ConnectionAuthContext refreshed = authCache.getConnectionContext("Steve", uuid);
+        assertSame(registered, refreshed.account());
+        assertFalse(refreshed.isVerified(uuid));
+    }
+
+    @Test
+    void testMarkConnectionVerified_StaleContext_Ignored() {
+        UUID uuid = UUID.randomUUID();
+        storeContext("Steve", account("Steve", uuid));
+        ConnectionAuthContext stale = authCache.bindConnectionContext("Steve", uuid);
+        authCache.refreshConnectionContext(account("Steve", uuid));
+
+        authCache.markConnectionVerified(stale, uuid);
+
+        assertFalse(authCache.getConnectionContext("Steve", uuid).isVerified(uuid));
+    }
+
+    @Test
+    void testEndAllSessionsForUsername_PasswordChange_InvalidatesContext() {
+        UUID uuid = UUID.randomUUID();
+        storeContext("Steve", account("Steve", uuid));
+        authCache.bindConnectionContext("Steve", uuid);
+        authCache.startSession(uuid, "Steve", IP);
+
+        authCache.endAllSessionsForUsername("Steve");
+
+        assertNull(authCache.getConnectionContext("Steve", uuid));
+    }
+
+    @Test
+    void testPutConnectionContext_NicknameOnline_BoundContextKept() {
+        UUID online = UUID.randomUUID();
+        RegisteredPlayer account = account("Steve", online);
+        storeContext("Steve", account);
+        authCache.bindConnectionContext("Steve", online);
+
+        long generation = authCache.connectionContextGeneration("Steve");
+        assertFalse(authCache.putConnectionContext(
+                ConnectionAuthContext.resolved("Steve", null, false, null), generation),
+                "PreLogin of a second connection must not replace the online player's context");
+
+        assertSame(account, authCache.getConnectionContext("Steve", online).account());
+        assertNull(authCache.bindConnectionContext("Steve", UUID.randomUUID()),
+                "Second connection falls back to database lookups");
+    }
+
+    @Test
+    void testRemoveConnectionContext_OtherConnectionDisconnects_KeepsBoundContext() {
+        UUID online = UUID.randomUUID();
+        storeContext("Steve", account("Steve", online));
+        authCache.bindConnectionContext("Steve", online);
+
+        authCache.removeConnectionContext("Steve", UUID.randomUUID());
+        assertNotNull(authCache.getConnectionContext("Steve", online));
+
+        authCache.removeConnectionContext("Steve", online);
+        assertNull(authCache.getConnectionContext("Steve", online));
+    }
+
+    @Test
+    void testInvalidateConnectionContext_AccountDeleted_RemovesContext() {
+        UUID uuid = UUID.randomUUID();
+        storeContext("Steve", account("Steve", uuid));
+        authCache.bindConnectionContext("Steve", uuid);
+
+        authCache.invalidateConnectionContext("steve");
+
+        assertNull(authCache.getConnectionContext("Steve", uuid));
+    }
+
+    private void storeContext(String username, RegisteredPlayer account) {
+        long generation = authCache.connectionContextGeneration(username);
+        assertTrue(authCache.putConnectionContext(
+                ConnectionAuthContext.resolved(username, account, false, null), generation));
+    }
+
+    private static RegisteredPlayer account(String nickname, UUID uuid) {
+        return new RegisteredPlayer(nickname, "hash", IP, uuid.toString());
+    }
+}
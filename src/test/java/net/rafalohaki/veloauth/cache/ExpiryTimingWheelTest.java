@@ -0,0 +1,161 @@
+package net.rafalohaki.veloauth.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ExpiryTimingWheel.
+ * Uses a synthetic clock so ticks are deterministic.
+ */
+@SuppressWarnings("java:S100")
+class ExpiryTimingWheelTest {
+
+    @Test
+    void testAdvance_DeadlineReached_TaskFiresOnce() {
+        ExpiryTimingWheel wheel = new ExpiryTimingWheel(1000, 8, 0);
+        AtomicInteger fired = new AtomicInteger();
+        wheel.schedule(2500, now -> {
+            fired.incrementAndGet();
+            return -1;
+        });
+
+        wheel.advance(2000);
+        assertEquals(0, fired.get());
+
+        wheel.advance(3000);
+        wheel.advance(4000);
+        assertEquals(1, fired.get());
+        assertEquals(0, wheel.stats(4000).pendingTimeouts());
+    }
+
+    @Test
+    void testAdvance_DeadlineBeyondOneRotation_FiresInLaterRound() {
+        ExpiryTimingWheel wheel = new ExpiryTimingWheel(1000, 8, 0);
+        List<Long> firedAt = new ArrayList<>();
+        wheel.schedule(20_500, now -> {
+            firedAt.add(now);
+            return -1;
+        });
+
+        for (long t = 0; t <= 30_000; t += 1000) {
+            wheel.advance(t);
+        }
+
+        assertEquals(List.of(21_000L), firedAt);
+    }
+
+    @Test
+    void testAdvance_TaskReturnsNewDeadline_Rescheduled() {
+        ExpiryTimingWheel wheel = new ExpiryTimingWheel(1000, 8, 0);
+        List<Long> firedAt = new ArrayList<>();
+        wheel.schedule(1000, now -> {
+            firedAt.add(now);
+            return firedAt.size() == 1 ? now + 3000 : -1;
+        });
+
+        for (long t = 0; t <= 10_000; t += 1000) {
+            wheel.advance(t);
+        }
+
+        assertEquals(List.of(1000L, 4000L), firedAt);
+        AuthCache.ExpiryStats stats = wheel.stats(10_000);
+        assertEquals(2, stats.firedTimeouts());
+        assertEquals(1, stats.rescheduledTimeouts());
+    }
+
+    @Test
+    void testAdvance_LongPause_CatchesUpAllOverdueTimeouts() {
+        ExpiryTimingWheel wheel = new ExpiryTimingWheel(1000, 8, 0);
+        AtomicInteger fired = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(i * 250L, now -> {
+                fired.incrementAndGet();
+                return -1;
+            });
+        }
+
+        assertEquals(100, wheel.stats(0).pendingTimeouts());
+        assertTrue(wheel.stats(1_000_000).backlogTicks() > 0);
+
+        wheel.advance(1_000_000);
+
+        assertEquals(100, fired.get());
+        assertEquals(0, wheel.stats(1_000_000).backlogTicks());
+    }
+
+    @Test
+    void testCancel_TaskNeverFires_PendingReleased() {
+        ExpiryTimingWheel wheel = new ExpiryTimingWheel(1000, 8, 0);
+        AtomicInteger fired = new AtomicInteger();
+        ExpiryTimingWheel.Timeout timeout = wheel.schedule(20_500, now -> {
+            fired.incrementAndGet();
+            return -1;
+        });
+
+        wheel.cancel(timeout);
+        wheel.cancel(timeout); // second cancel is a no-op
+
+        assertEquals(0, wheel.stats(0).pendingTimeouts());
+        for (long t = 0; t <= 30_000; t += 1000) {
+            wheel.advance(t);
+        }
+        assertEquals(0, fired.get());
+        assertEquals(0, wheel.stats(30_000).pendingTimeouts());
+    }
+
+    @Test
+    void testCancel_AfterReschedule_StopsFurtherRuns() {
+        ExpiryTimingWheel wheel = new ExpiryTimingWheel(1000, 8, 0);
+        AtomicInteger fired = new AtomicInteger();
+        ExpiryTimingWheel.Timeout timeout = wheel.schedule(1000, now -> {
+            fired.incrementAndGet();
+            return now + 2000;
+        });
+
+        wheel.advance(1000);
+        assertEquals(1, fired.get());
+        assertEquals(1, wheel.stats(1000).pendingTimeouts());
+
+        wheel.cancel(timeout);
+        for (long t = 2000; t <= 10_000; t += 1000) {
+            wheel.advance(t);
+        }
+
+        assertEquals(1, fired.get());
+        assertEquals(0, wheel.stats(10_000).pendingTimeouts());
+    }
+
+    @Test
+    void testCancel_AfterFinalRun_DoesNotDoubleCount() {
+        ExpiryTimingWheel wheel = new ExpiryTimingWheel(1000, 8, 0);
+        ExpiryTimingWheel.Timeout first = wheel.schedule(1000, now -> -1);
+        wheel.schedule(5000, now -> -1);
+
+        wheel.advance(1000);
+        wheel.cancel(first);
+
+        assertEquals(1, wheel.stats(1000).pendingTimeouts());
+    }
+
+    @Test
+    void testClear_DropsPendingTimeouts() {
+        ExpiryTimingWheel wheel = new ExpiryTimingWheel(1000, 8, 0);
+        AtomicInteger fired = new AtomicInteger();
+        wheel.schedule(500, now -> {
+            fired.incrementAndGet();
+            return -1;
+        });
+
+        wheel.clear();
+        wheel.advance(5000);
+
+        assertEquals(0, fired.get());
+        assertEquals(0, wheel.stats(5000).pendingTimeouts());
+    }
+}
@@ -0,0 +1,238 @@
+package net.rafalohaki.veloauth.cache;
+
+import net.rafalohaki.veloauth.config.Settings;
+import net.rafalohaki.veloauth.i18n.Messages;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the primitive-array session store, plus a deterministic footprint bound
+ * compared against the ConcurrentHashMap-based store.
+ */
+@SuppressWarnings("java:S100")
+class PackedSessionStoreTest {
+
+    private static final long TIMEOUT = 60_000L;
+
+    /**
+     * Worst case for the packed store: 7 longs and one reference per slot, at least half of the slots in use.
+     */
+    private static final long PACKED_MAX_BYTES_PER_SESSION =
+            2L * (PackedSessionStore.SLOT_LONGS * Long.BYTES + PackedSessionStore.REFERENCE_BYTES);
+
+    /**
+     * Lower bound for MapSessionStore with compressed oops, counting only what each session allocates
+     * (UUID and nickname are shared with the Velocity player): ConcurrentHashMap.Node (32),
+     * ActiveSession (48), IP String (24) with its byte[] (24 for "10.x.y.z") and a table slot (4).
+     */
+    private static final long MAP_MIN_BYTES_PER_SESSION = 32 + 48 + 24 + 24 + 4;
+
+    @TempDir
+    Path tempDir;
+
+    private final PackedSessionStore store = new PackedSessionStore(16);
+
+    @Test
+    void testCheck_SameNicknameIgnoringCaseAndIp_Active() {
+        UUID uuid = UUID.randomUUID();
+        store.start(uuid, "Player", "192.168.1.10", 1_000L);
+
+        assertEquals(SessionStore.Check.ACTIVE, store.check(uuid, "player", "192.168.1.10", 2_000L, TIMEOUT));
+        // Activity was refreshed at 2000 - still active just before the new deadline
+        assertEquals(SessionStore.Check.ACTIVE, store.check(uuid, "Player", "192.168.1.10", 2_000L + TIMEOUT - 1, TIMEOUT));
+    }
+
+    @Test
+    void testCheck_Mismatches_Detected() {
+        UUID uuid = UUID.randomUUID();
+        store.start(uuid, "Player", "10.0.0.1", 1_000L);
+
+        assertEquals(SessionStore.Check.NICKNAME_MISMATCH, store.check(uuid, "Other", "10.0.0.1", 1_000L, TIMEOUT));
+        assertEquals(SessionStore.Check.IP_MISMATCH, store.check(uuid, "Player", "10.0.0.2", 1_000L, TIMEOUT));
+        assertEquals(SessionStore.Check.EXPIRED, store.check(uuid, "Player", "10.0.0.1", 1_000L + TIMEOUT, TIMEOUT));
+        assertEquals(SessionStore.Check.MISSING, store.check(UUID.randomUUID(), "Player", "10.0.0.1", 1_000L, TIMEOUT));
+    }
+
+    @Test
+    void testCheck_Ipv6DifferentNotation_SameAddress() {
+        UUID uuid = UUID.randomUUID();
+        store.start(uuid, "Player", "2001:db8::1", 1_000L);
+
+        assertEquals(SessionStore.Check.ACTIVE, store.check(uuid, "Player", "2001:db8:0:0:0:0:0:1", 1_000L, TIMEOUT));
+        assertEquals(SessionStore.Check.IP_MISMATCH, store.check(uuid, "Player", "2001:db8::2", 1_000L, TIMEOUT));
+        assertEquals("2001:db8:0:0:0:0:0:1", store.getIp(uuid));
+    }
+
+    @Test
+    void testPackIp_Ipv4RoundTrip() {
+        long[] packed = PackedSessionStore.packIp("255.0.10.200");
+
+        assertEquals("255.0.10.200", PackedSessionStore.formatIp(packed[0], packed[1]));
+        assertEquals(0L, packed[0]);
+        assertEquals(0xFFFF_FF00_0AC8L, packed[1]);
+        assertEquals(packed[1], PackedSessionStore.packIp("::ffff:255.0.10.200")[1]);
+    }
+
+    @Test
+    void testStart_NonLiteralIp_ComparedAsString() {
+        UUID uuid = UUID.randomUUID();
+        store.start(uuid, "Player", "unresolved-host", 1_000L);
+
+        assertEquals("unresolved-host", store.getIp(uuid));
+        assertEquals(SessionStore.Check.ACTIVE, store.check(uuid, "Player", "unresolved-host", 1_000L, TIMEOUT));
+        assertEquals(SessionStore.Check.IP_MISMATCH, store.check(uuid, "Player", "10.0.0.1", 1_000L, TIMEOUT));
+    }
+
+    @Test
+    void testEndIfCurrent_RestartedSession_NotRemoved() {
+        UUID uuid = UUID.randomUUID();
+        long first = store.start(uuid, "Player", "10.0.0.1", 1_000L);
+        long second = store.start(uuid, "Player", "10.0.0.1", 2_000L);
+
+        assertNull(store.endIfCurrent(uuid, first));
+        assertEquals(SessionStore.NO_SESSION, store.lastActivity(uuid, first));
+        assertEquals(2_000L, store.lastActivity(uuid, second));
+        assertEquals("Player", store.endIfCurrent(uuid, second));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testRandomOperations_MatchHashMapModel() {
+        Random random = new Random(42);
+        List<UUID> pool = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            pool.add(UUID.randomUUID());
+        }
+        Map<UUID, String> model = new HashMap<>();
+
+        for (int op = 0; op < 200_000; op++) {
+            UUID uuid = pool.get(random.nextInt(pool.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(model.remove(uuid), store.end(uuid));
+            } else {
+                String nickname = "p" + random.nextInt(1_000);
+                store.start(uuid, nickname, "10.0." + random.nextInt(256) + ".1", op);
+                model.put(uuid, nickname);
+            }
+        }
+
+        assertEquals(model.size(), store.size());
+        for (UUID uuid : pool) {
+            assertEquals(model.get(uuid), store.getNickname(uuid));
+        }
+    }
+
+    @Test
+    void testFootprint_GrowingStore_BoundedBytesPerSessionBelowMapStore() {
+        Random random = new Random(7);
+        PackedSessionStore grown = new PackedSessionStore(16);
+        int sessions = 0;
+        for (int target = 2_000; target <= 40_000; target += 1_900) {
+            while (sessions < target) {
+                grown.start(new UUID(random.nextLong(), random.nextLong()), "p" + sessions, ipFor(sessions), sessions);
+                sessions++;
+            }
+
+            long perSession = grown.footprintBytes() / sessions;
+            assertTrue(perSession <= PACKED_MAX_BYTES_PER_SESSION, sessions + " sessions: " + perSession + " B/session");
+            assertTrue(perSession < MAP_MIN_BYTES_PER_SESSION, sessions + " sessions: " + perSession + " B/session");
+        }
+    }
+
+    @Test
+    void testFootprint_PreallocatedForExpectedSessions_BelowMapStore() {
+        Random random = new Random(11);
+        int expected = 30_000;
+        PackedSessionStore preallocated = new PackedSessionStore(expected);
+        for (int i = 0; i < expected; i++) {
+            preallocated.start(new UUID(random.nextLong(), random.nextLong()), "p" + i, ipFor(i), i);
+        }
+
+        long perSession = preallocated.footprintBytes() / expected;
+        assertTrue(perSession <= PACKED_MAX_BYTES_PER_SESSION, perSession + " B/session");
+        assertTrue(perSession < MAP_MIN_BYTES_PER_SESSION, perSession + " B/session");
+    }
+
+    @Test
+    void testFootprint_NonLiteralIp_RawIpColumnAllocatedOnDemand() {
+        long before = store.footprintBytes();
+        store.start(UUID.randomUUID(), "Player", "10.0.0.1", 1_000L);
+        assertEquals(before, store.footprintBytes());
+
+        UUID uuid = UUID.randomUUID();
+        store.start(uuid, "Other", "proxy-host", 1_000L);
+        assertTrue(store.footprintBytes() > before);
+        assertEquals("proxy-host", store.getIp(uuid));
+    }
+
+    @Test
+    void testRemoveIdle_RemovesOnlyIdleSessions() {
+        List<UUID> idle = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            UUID uuid = UUID.randomUUID();
+            boolean isIdle = i % 2 == 0;
+            store.start(uuid, "p" + i, "10.0.0.1", isIdle ? 0L : TIMEOUT);
+            if (isIdle) {
+                idle.add(uuid);
+            }
+        }
+
+        List<UUID> removed = new ArrayList<>();
+        int count = store.removeIdle(TIMEOUT, TIMEOUT, (uuid, nickname) -> removed.add(uuid));
+
+        assertEquals(idle.size(), count);
+        assertEquals(250, store.size());
+        assertTrue(removed.containsAll(idle));
+        for (UUID uuid : idle) {
+            assertNull(store.getNickname(uuid));
+        }
+    }
+
+    @Test
+    void testAuthCache_PackedStoreConfigured_SessionLifecycle() throws IOException {
+        Files.writeString(tempDir.resolve("config.yml"), """
+                cache:
+                  session-store: packed
+                """);
+        Settings settings = new Settings(tempDir);
+        assertTrue(settings.load());
+        assertTrue(settings.isPackedSessionStore());
+
+        Messages messages = new Messages();
+        messages.setLanguage("en");
+        AuthCache authCache = new AuthCache(new AuthCache.AuthCacheConfig(60, 100, 100, 100, 5, 5, 0, 2),
+                settings, messages);
+        try {
+            UUID uuid = UUID.randomUUID();
+            assertTrue(authCache.startSession(uuid, "Player", "10.0.0.1"));
+            assertTrue(authCache.hasActiveSession(uuid, "Player", "10.0.0.1", 60));
+            assertFalse(authCache.hasActiveSession(uuid, "Player", "10.0.0.2", 60));
+            assertFalse(authCache.hasActiveSession(uuid, "Player", "10.0.0.1", 60)); // ended on IP mismatch
+
+            assertTrue(authCache.startSession(uuid, "Player", "10.0.0.1"));
+            authCache.endSession(uuid);
+            assertFalse(authCache.hasActiveSession(uuid, "Player", "10.0.0.1", 60));
+        } finally {
+            authCache.shutdown();
+        }
+    }
+
+    private static String ipFor(int i) {
+        return "10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF);
+    }
+}
@@ -0,0 +1,72 @@
+package net.rafalohaki.veloauth.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for BCrypt cost calibration against a simulated host (each cost step doubles the time).
+ */
+@SuppressWarnings("java:S100")
+class BcryptCalibratorTest {
+
+    private final List<Integer> measuredCosts = new ArrayList<>();
+
+    @Test
+    void testCalibrate_FastHost_PicksHighestCostWithinBudget() {
+        // cost 10 = 16 ms, 11 = 32 ms, 12 = 64 ms, 13 = 128 ms, 14 = 256 ms
+        BcryptCalibrator.Result result = BcryptCalibrator.calibrate(host(16), 250, 10, 16);
+
+        assertEquals(13, result.cost());
+        assertEquals(128, result.millisPerHash());
+        assertTrue(result.withinBudget());
+        assertFalse(measuredCosts.contains(14), "Cost predicted above budget must not be measured");
+    }
+
+    @Test
+    void testCalibrate_BudgetAllowsMore_CappedAtMaxCost() {
+        BcryptCalibrator.Result result = BcryptCalibrator.calibrate(host(1), 10_000, 10, 12);
+
+        assertEquals(12, result.cost());
+        assertFalse(measuredCosts.contains(13));
+    }
+
+    @Test
+    void testCalibrate_SlowHost_KeepsMinCostOutsideBudget() {
+        BcryptCalibrator.Result result = BcryptCalibrator.calibrate(host(400), 250, 10, 16);
+
+        assertEquals(10, result.cost());
+        assertFalse(result.withinBudget());
+        assertFalse(measuredCosts.contains(11));
+    }
+
+    @Test
+    void testCalibrate_NextCostSlowerThanPredicted_StaysOnLastWithinBudget() {
+        BcryptCalibrator.HashTimer noisy = cost -> {
+            measuredCosts.add(cost);
+            return TimeUnit.MILLISECONDS.toNanos(cost == 11 ? 300 : 100);
+        };
+
+        BcryptCalibrator.Result result = BcryptCalibrator.calibrate(noisy, 250, 10, 16);
+
+        assertEquals(10, result.cost());
+        assertTrue(result.withinBudget());
+    }
+
+    /**
+     * @param millisAtCost10 simulated hashing time at cost 10
+     */
+    private BcryptCalibrator.HashTimer host(long millisAtCost10) {
+        return cost -> {
+            measuredCosts.add(cost);
+            double millis = millisAtCost10 * Math.pow(2, cost - 10.0);
+            return (long) (millis * 1_000_000);
+        };
+    }
+}
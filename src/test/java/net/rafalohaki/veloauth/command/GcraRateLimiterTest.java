@@ -0,0 +1,117 @@
+package net.rafalohaki.veloauth.command;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for GcraRateLimiter.
+ * Uses a manual clock to verify burst, smooth refill and the memory cap.
+ */
+@SuppressWarnings("java:S100")
+class GcraRateLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private GcraRateLimiter rateLimiter;
+    private InetAddress address;
+
+    @BeforeEach
+    void setUp() throws UnknownHostException {
+        rateLimiter = new GcraRateLimiter(5, WINDOW, 1024, clock::get);
+        address = InetAddress.getByName("192.168.1.1");
+    }
+
+    @Test
+    void testIsRateLimited_BurstUpToMaxAttempts_ThenLimited() {
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, rateLimiter.incrementAttempts(address));
+            assertFalse(rateLimiter.isRateLimited(address));
+        }
+
+        rateLimiter.incrementAttempts(address);
+
+        assertTrue(rateLimiter.isRateLimited(address));
+        assertEquals(5, rateLimiter.getAttempts(address));
+    }
+
+    @Test
+    void testIsRateLimited_AfterOneEmissionInterval_OneAttemptRefilled() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.incrementAttempts(address);
+        }
+
+        clock.addAndGet(WINDOW / 5);
+
+        assertFalse(rateLimiter.isRateLimited(address));
+        assertEquals(4, rateLimiter.getAttempts(address));
+        rateLimiter.incrementAttempts(address);
+        assertTrue(rateLimiter.isRateLimited(address));
+    }
+
+    @Test
+    void testIncrementAttempts_WhileLimited_DoesNotExtendPenaltyBeyondWindow() {
+        for (int i = 0; i < 50; i++) {
+            rateLimiter.incrementAttempts(address);
+        }
+
+        assertEquals(5, rateLimiter.getAttempts(address));
+        clock.addAndGet(WINDOW);
+        assertEquals(0, rateLimiter.getAttempts(address));
+        assertFalse(rateLimiter.isRateLimited(address));
+    }
+
+    @Test
+    void testReset_RemovesEntry() {
+        rateLimiter.incrementAttempts(address);
+        assertEquals(1, rateLimiter.size());
+
+        rateLimiter.reset(address);
+
+        assertEquals(0, rateLimiter.size());
+        assertEquals(0, rateLimiter.getAttempts(address));
+    }
+
+    @Test
+    void testIncrementAttempts_ManyAddresses_MemoryCapped() throws UnknownHostException {
+        GcraRateLimiter small = new GcraRateLimiter(5, WINDOW, 64, clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            small.incrementAttempts(InetAddress.getByAddress(new byte[]{10, (byte) (i >> 16), (byte) (i >> 8), (byte) i}));
+        }
+
+        assertEquals(64, small.capacity());
+        assertTrue(small.size() <= small.capacity());
+        assertTrue(small.getEvictions() > 0);
+    }
+
+    @Test
+    void testKeyOf_Ipv4AndIpv6_DistinctNonZeroKeys() throws UnknownHostException {
+        long v4 = GcraRateLimiter.keyOf(InetAddress.getByName("10.0.0.1"));
+        long v6 = GcraRateLimiter.keyOf(InetAddress.getByName("2001:db8::1"));
+        long v6Other = GcraRateLimiter.keyOf(InetAddress.getByName("2001:db8::2"));
+
+        assertNotEquals(0L, v4);
+        assertNotEquals(0L, v6);
+        assertNotEquals(v4, v6);
+        assertNotEquals(v6, v6Other);
+    }
+
+    @Test
+    void testConstructor_InvalidParameters_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new GcraRateLimiter(0, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GcraRateLimiter(5, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GcraRateLimiter(5, 1, 0));
+    }
+}
@@ -0,0 +1,56 @@
+package net.rafalohaki.veloauth.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for per-player auth command deduplication.
+ */
+@SuppressWarnings("java:S100")
+class InFlightCommandGuardTest {
+
+    private final InFlightCommandGuard guard = new InFlightCommandGuard();
+
+    @Test
+    void testTryAcquire_CommandRunning_DuplicateDroppedAndCounted() {
+        UUID player = UUID.randomUUID();
+
+        assertTrue(guard.tryAcquire(player, "login"));
+        assertFalse(guard.tryAcquire(player, "login"));
+        assertFalse(guard.tryAcquire(player, "changepassword"));
+
+        assertEquals(1, guard.getInFlightCount());
+        assertEquals(1, guard.getDroppedCount("login"));
+        assertEquals(Map.of("changepassword", 1L, "login", 1L), guard.getDroppedCounts());
+    }
+
+    @Test
+    void testTryAcquire_DifferentPlayers_Independent() {
+        assertTrue(guard.tryAcquire(UUID.randomUUID(), "login"));
+        assertTrue(guard.tryAcquire(UUID.randomUUID(), "login"));
+
+        assertEquals(2, guard.getInFlightCount());
+        assertEquals(0, guard.getDroppedCount("login"));
+    }
+
+    @Test
+    void testReleasingAfter_TaskThrows_SlotReleased() {
+        UUID player = UUID.randomUUID();
+        assertTrue(guard.tryAcquire(player, "register"));
+        Runnable task = guard.releasingAfter(player, () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        assertThrows(IllegalStateException.class, task::run);
+
+        assertEquals(0, guard.getInFlightCount());
+        assertTrue(guard.tryAcquire(player, "register"));
+    }
+}
@@ -0,0 +1,135 @@
+package net.rafalohaki.veloauth.command;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the bounded BCrypt worker pool: sizing, fast rejection and latency metrics.
+ */
+@SuppressWarnings("java:S100")
+class PasswordHasherTest {
+
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void testThreadsFor_CpuFraction_RoundedAtLeastOne() {
+        assertEquals(4, PasswordHasher.threadsFor(0.5, 8));
+        assertEquals(1, PasswordHasher.threadsFor(0.1, 2));
+        assertEquals(3, PasswordHasher.threadsFor(1.0, 3));
+    }
+
+    @Test
+    void testNeedsRehash_LowerCostOrOtherVersion_True() {
+        String salt = "$abcdefghijklmnopqrstuv";
+        assertFalse(PasswordHasher.needsRehash("$2y$12" + salt, 12));
+        assertTrue(PasswordHasher.needsRehash("$2y$10" + salt, 12));
+        assertTrue(PasswordHasher.needsRehash("$2a$12" + salt, 12));
+        assertTrue(PasswordHasher.needsRehash("$2a$14" + salt, 12), "Version upgrade applies at any cost");
+        assertFalse(PasswordHasher.needsRehash("SHA256$abc$def", 12), "Unknown formats are not rehashed");
+        assertFalse(PasswordHasher.needsRehash(null, 12));
+    }
+
+    @Test
+    void testNeedsRehash_HigherStoredCost_KeptAsIs() {
+        String salt = "$abcdefghijklmnopqrstuv";
+        assertFalse(PasswordHasher.needsRehash("$2y$14" + salt, 12),
+                "A lower target cost must not weaken stored hashes");
+        assertFalse(PasswordHasher.needsRehash("$2y$31" + salt, 10));
+    }
+
+    @Test
+    void testStoredCost_BcryptAndUnknownFormats() {
+        assertEquals(14, PasswordHasher.storedCost("$2a$14$abcdefghijklmnopqrstuv"));
+        assertEquals(-1, PasswordHasher.storedCost("SHA256$abc$def"));
+    }
+
+    @Test
+    void testHashAndVerify_RoundTrip_RecordsDurations() {
+        hasher = new PasswordHasher(1, 4);
+
+        String hash = hasher.hash("secret", 4);
+
+        assertTrue(hasher.verify("secret", hash));
+        assertFalse(hasher.verify("wrong", hash));
+        assertEquals(1, hasher.durationSnapshot(PasswordHasher.Operation.HASH).count());
+        assertEquals(2, hasher.durationSnapshot(PasswordHasher.Operation.VERIFY).count());
+        assertEquals(3, hasher.queueWaitSnapshot().count());
+    }
+
+    @Test
+    void testCall_WorkerBusyAndQueueFull_RejectedImmediately() throws Exception {
+        hasher = new PasswordHasher(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        Future<String> blocker = callers.submit(() -> hasher.call(PasswordHasher.Operation.HASH, () -> {
+            running.countDown();
+            release.await();
+            return "done";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<String> queued = callers.submit(() -> hasher.call(PasswordHasher.Operation.VERIFY, () -> "queued"));
+        awaitQueueDepth(1);
+
+        long start = System.nanoTime();
+        assertThrows(RejectedExecutionException.class,
+                () -> hasher.call(PasswordHasher.Operation.VERIFY, () -> "rejected"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "Rejection must not wait for a worker");
+        assertEquals(1, hasher.getRejectedCount());
+
+        release.countDown();
+        assertEquals("done", blocker.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0, hasher.getQueueDepth());
+    }
+
+    @Test
+    void testShutdown_QueuedCaller_Rejected() throws Exception {
+        hasher = new PasswordHasher(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> hasher.call(PasswordHasher.Operation.HASH, () -> {
+            running.countDown();
+            release.await();
+            return "done";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<String> queued = callers.submit(() -> hasher.call(PasswordHasher.Operation.VERIFY, () -> "queued"));
+        awaitQueueDepth(1);
+
+        hasher.shutdown();
+
+        Exception failure = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof RejectedExecutionException);
+        assertThrows(RejectedExecutionException.class,
+                () -> hasher.call(PasswordHasher.Operation.VERIFY, () -> "late"));
+    }
+
+    private void awaitQueueDepth(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hasher.getQueueDepth() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, hasher.getQueueDepth());
+    }
+}
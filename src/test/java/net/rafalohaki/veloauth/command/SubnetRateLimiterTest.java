@@ -0,0 +1,101 @@
+package net.rafalohaki.veloauth.command;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for SubnetRateLimiter.
+ * Verifies that rotating addresses inside one prefix share a limit.
+ */
+@SuppressWarnings("java:S100")
+class SubnetRateLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private SubnetRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // Exact limit 5/IP, subnet limit 10 per /24 or /64
+        limiter = new SubnetRateLimiter(new IPRateLimiter(5, 1), 24, 64, 10, WINDOW, 1024, clock::get);
+    }
+
+    @Test
+    void testIsRateLimited_RotatingIpv4InSameSlash24_LimitedBySubnet() throws UnknownHostException {
+        for (int i = 1; i <= 10; i++) {
+            InetAddress address = InetAddress.getByName("203.0.113." + i);
+            assertFalse(limiter.isRateLimited(address));
+            limiter.incrementAttempts(address);
+        }
+
+        assertTrue(limiter.isRateLimited(InetAddress.getByName("203.0.113.200")));
+        assertFalse(limiter.isRateLimited(InetAddress.getByName("203.0.114.1")));
+    }
+
+    @Test
+    void testIsRateLimited_RotatingIpv6InSameSlash64_LimitedBySubnet() throws UnknownHostException {
+        for (int i = 1; i <= 10; i++) {
+            limiter.incrementAttempts(InetAddress.getByName("2001:db8:0:1::" + Integer.toHexString(i)));
+        }
+
+        assertTrue(limiter.isRateLimited(InetAddress.getByName("2001:db8:0:1:ffff::1")));
+        assertFalse(limiter.isRateLimited(InetAddress.getByName("2001:db8:0:2::1")));
+    }
+
+    @Test
+    void testIsRateLimited_ExactLimitStillApplies() throws UnknownHostException {
+        InetAddress address = InetAddress.getByName("198.51.100.7");
+        for (int i = 0; i < 5; i++) {
+            limiter.incrementAttempts(address);
+        }
+
+        assertTrue(limiter.isRateLimited(address));
+        assertFalse(limiter.isSubnetLimited(address));
+        assertEquals(5, limiter.getAttempts(address));
+        assertEquals(5, limiter.getSubnetAttempts(address));
+    }
+
+    @Test
+    void testReset_OnlyExactEntryCleared() throws UnknownHostException {
+        InetAddress address = InetAddress.getByName("198.51.100.7");
+        for (int i = 0; i < 10; i++) {
+            limiter.incrementAttempts(address);
+        }
+
+        limiter.reset(address);
+
+        assertEquals(0, limiter.getAttempts(address));
+        assertTrue(limiter.isSubnetLimited(address));
+    }
+
+    @Test
+    void testPrefixKey_SamePrefixSameKey_DifferentPrefixDifferentKey() throws UnknownHostException {
+        long a = limiter.prefixKey(InetAddress.getByName("10.1.2.3"));
+        long b = limiter.prefixKey(InetAddress.getByName("10.1.2.250"));
+        long c = limiter.prefixKey(InetAddress.getByName("10.1.3.3"));
+        long v6 = limiter.prefixKey(InetAddress.getByName("2001:db8::1"));
+
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+        assertNotEquals(0L, v6);
+        assertNotEquals(a, v6);
+    }
+
+    @Test
+    void testConstructor_InvalidPrefix_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new SubnetRateLimiter(null, 0, 64, 10, 1, 16));
+        assertThrows(IllegalArgumentException.class, () -> new SubnetRateLimiter(null, 24, 129, 10, 1, 16));
+    }
+}
@@ -0,0 +1,53 @@
+package net.rafalohaki.veloauth.database;
+
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.table.TableUtils;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration tests for aggregate account statistics against the embedded databases (H2, SQLite).
+ */
+@SuppressWarnings("java:S100")
+class AccountCountsIntegrationTest {
+
+    @RegisterExtension
+    final LocalDatabaseExtension localDatabase = new LocalDatabaseExtension();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testCountAccounts_EmptyTable_AllZero(String storageType) throws Exception {
+        JdbcAuthDao dao = new JdbcAuthDao(createSchema(storageType));
+
+        assertEquals(new JdbcAuthDao.AccountCounts(0, 0, 0), dao.countAccounts());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testCountAccounts_MixedAccounts_SplitsPremiumAndNonPremium(String storageType) throws Exception {
+        JdbcAuthDao dao = new JdbcAuthDao(createSchema(storageType));
+
+        dao.upsertPlayer(new RegisteredPlayer("Steve", "hash", "10.0.0.1", UUID.randomUUID().toString()));
+        dao.upsertPlayer(new RegisteredPlayer("Alex", "hash", "10.0.0.2", UUID.randomUUID().toString()));
+        RegisteredPlayer premium = new RegisteredPlayer("Notch", "hash", "10.0.0.3", UUID.randomUUID().toString());
+        premium.setPremiumUuid(UUID.randomUUID().toString());
+        dao.upsertPlayer(premium);
+
+        // Notch has both a password and a premium UUID - counted in both groups, like the previous stream filters
+        assertEquals(new JdbcAuthDao.AccountCounts(3, 1, 3), dao.countAccounts());
+    }
+
+    private DatabaseConfig createSchema(String storageType) throws Exception {
+        DatabaseConfig config = localDatabase.open(storageType);
+        try (JdbcConnectionSource connectionSource = new JdbcConnectionSource(config.getJdbcUrl())) {
+            TableUtils.createTableIfNotExists(connectionSource, RegisteredPlayer.class);
+        }
+        return config;
+    }
+}
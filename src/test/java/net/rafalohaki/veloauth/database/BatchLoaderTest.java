@@ -0,0 +1,117 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for DataLoader-style micro-batching of player lookups.
+ */
+@SuppressWarnings("java:S100")
+class BatchLoaderTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<String>> queries = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testLoad_KeysWithinWindow_SingleQuery() {
+        BatchLoader<String, String> loader = new BatchLoader<>(this::upperCaseKnown, executor, scheduler,
+                TimeUnit.MILLISECONDS.toMicros(50), 100);
+
+        CompletableFuture<String> steve = loader.load("steve");
+        CompletableFuture<String> alex = loader.load("alex");
+        CompletableFuture<String> ghost = loader.load("ghost");
+
+        assertEquals("STEVE", steve.join());
+        assertEquals("ALEX", alex.join());
+        assertNull(ghost.join());
+        assertEquals(List.of(List.of("steve", "alex", "ghost")), queries);
+        assertEquals(1, loader.getBatchCount());
+        assertEquals(3, loader.getBatchedKeyCount());
+    }
+
+    @Test
+    void testLoad_MaxBatchSizeReached_FlushesWithoutWaitingForWindow() {
+        BatchLoader<String, String> loader = new BatchLoader<>(this::upperCaseKnown, executor, scheduler,
+                TimeUnit.MINUTES.toMicros(1), 2);
+
+        CompletableFuture<String> steve = loader.load("steve");
+        CompletableFuture<String> alex = loader.load("alex");
+
+        assertEquals("STEVE", steve.orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals("ALEX", alex.join());
+        assertEquals(1, loader.getBatchCount());
+    }
+
+    @Test
+    void testLoad_DuplicateKeys_QueriedOnce() {
+        BatchLoader<String, String> loader = new BatchLoader<>(this::upperCaseKnown, executor, scheduler,
+                TimeUnit.MILLISECONDS.toMicros(50), 100);
+
+        CompletableFuture<String> first = loader.load("steve");
+        CompletableFuture<String> second = loader.load("steve");
+
+        assertEquals("STEVE", first.join());
+        assertEquals("STEVE", second.join());
+        assertEquals(List.of(List.of("steve")), queries);
+    }
+
+    @Test
+    void testLoad_QueryFails_AllFuturesFail() {
+        BatchLoader<String, String> loader = new BatchLoader<>(keys -> {
+            throw new SQLException("db down");
+        }, executor, scheduler, 100, 100);
+
+        CompletableFuture<String> steve = loader.load("steve");
+        CompletableFuture<String> alex = loader.load("alex");
+
+        CompletionException e = assertThrows(CompletionException.class, steve::join);
+        assertInstanceOf(SQLException.class, e.getCause());
+        assertThrows(CompletionException.class, alex::join);
+    }
+
+    @Test
+    void testFlush_PendingKeys_ExecutedImmediately() {
+        BatchLoader<String, String> loader = new BatchLoader<>(this::upperCaseKnown, executor, scheduler,
+                TimeUnit.MINUTES.toMicros(1), 100);
+
+        CompletableFuture<String> steve = loader.load("steve");
+        loader.flush();
+
+        assertEquals("STEVE", steve.orTimeout(5, TimeUnit.SECONDS).join());
+    }
+
+    private Map<String, String> upperCaseKnown(List<String> keys) {
+        queries.add(List.copyOf(keys));
+        Map<String, String> result = new HashMap<>();
+        for (String key : keys) {
+            if (!key.equals("ghost")) {
+                result.put(key, key.toUpperCase());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package net.rafalohaki.veloauth.database;
+
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.table.TableUtils;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the conflict-mode query generated from the resolved AUTH table layout (H2, SQLite).
+ */
+@SuppressWarnings("java:S100")
+class ConflictModeQueryIntegrationTest {
+
+    @RegisterExtension
+    final LocalDatabaseExtension localDatabase = new LocalDatabaseExtension();
+
+    private DatabaseConfig config;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testFindAllPlayersInConflictMode_FullSchema_MapsConflictColumns(String storageType) throws Exception {
+        config = localConfig(storageType);
+        try (JdbcConnectionSource connectionSource = new JdbcConnectionSource(config.getJdbcUrl())) {
+            TableUtils.createTableIfNotExists(connectionSource, RegisteredPlayer.class);
+        }
+        JdbcAuthDao dao = new JdbcAuthDao(config);
+        dao.upsertPlayer(new RegisteredPlayer("Steve", "hash", "10.0.0.1", UUID.randomUUID().toString()));
+        dao.upsertPlayer(new RegisteredPlayer("Notch", "hash", "10.0.0.2", UUID.randomUUID().toString()));
+        execute("UPDATE AUTH SET CONFLICT_MODE = TRUE, CONFLICT_TIMESTAMP = 1234, ORIGINAL_NICKNAME = 'Notch' "
+                + "WHERE LOWERCASENICKNAME = 'notch'");
+
+        List<RegisteredPlayer> conflicts = dao.findAllPlayersInConflictMode();
+
+        assertEquals(1, conflicts.size());
+        RegisteredPlayer player = conflicts.get(0);
+        assertEquals("Notch", player.getNickname());
+        assertTrue(player.getConflictMode());
+        assertEquals(1234L, player.getConflictTimestamp());
+        assertEquals("Notch", player.getOriginalNickname());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testFindAllPlayersInConflictMode_SharedLimboAuthSchema_EmptyWithoutQuerying(String storageType)
+            throws Exception {
+        config = localConfig(storageType);
+        execute("CREATE TABLE AUTH (LOWERCASENICKNAME VARCHAR(16) PRIMARY KEY, NICKNAME VARCHAR(16), "
+                + "HASH VARCHAR(255), IP VARCHAR(255), LOGINIP VARCHAR(255), UUID VARCHAR(36), REGDATE BIGINT, "
+                + "LOGINDATE BIGINT, PREMIUMUUID VARCHAR(36), TOTPTOKEN VARCHAR(32), ISSUEDTIME BIGINT)");
+        JdbcAuthDao dao = new JdbcAuthDao(config);
+        dao.upsertPlayer(new RegisteredPlayer("Steve", "hash", "10.0.0.1", UUID.randomUUID().toString()));
+
+        assertTrue(dao.findAllPlayersInConflictMode().isEmpty());
+        assertEquals("Steve", dao.findPlayerByLowercaseNickname("steve").getNickname());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testUseTableLayout_WithoutOptionalConflictColumns_MapsDefaults(String storageType) throws Exception {
+        config = localConfig(storageType);
+        try (JdbcConnectionSource connectionSource = new JdbcConnectionSource(config.getJdbcUrl())) {
+            TableUtils.createTableIfNotExists(connectionSource, RegisteredPlayer.class);
+        }
+        JdbcAuthDao dao = new JdbcAuthDao(config);
+        dao.upsertPlayer(new RegisteredPlayer("Notch", "hash", "10.0.0.2", UUID.randomUUID().toString()));
+        execute("UPDATE AUTH SET CONFLICT_MODE = TRUE, CONFLICT_TIMESTAMP = 1234, ORIGINAL_NICKNAME = 'Notch'");
+        dao.useTableLayout(AuthTableLayout.of("NICKNAME", "LOWERCASENICKNAME", "HASH", "IP", "LOGINIP", "UUID",
+                "REGDATE", "LOGINDATE", "PREMIUMUUID", "TOTPTOKEN", "ISSUEDTIME", "CONFLICT_MODE"));
+
+        List<RegisteredPlayer> conflicts = dao.findAllPlayersInConflictMode();
+
+        assertEquals(1, conflicts.size());
+        assertEquals(0L, conflicts.get(0).getConflictTimestamp());
+        assertNull(conflicts.get(0).getOriginalNickname());
+    }
+
+    private DatabaseConfig localConfig(String storageType) {
+        return localDatabase.open(storageType);
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = config.getDataSource().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the lock-free latency histogram: bucket bounds, percentiles, the rotating window and concurrent recording.
+ */
+@SuppressWarnings("java:S100")
+class LatencyHistogramTest {
+
+    private static final long SLICE_NANOS = 1_000_000_000L;
+
+    @Test
+    void testBucketIndex_EveryValue_FallsWithinBucketUpperBound() {
+        for (long micros = 0; micros < 100_000; micros++) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(micros <= LatencyHistogram.bucketUpperBound(index), "Value above bucket bound: " + micros);
+            if (index > 0) {
+                assertTrue(micros > LatencyHistogram.bucketUpperBound(index - 1), "Value below bucket: " + micros);
+            }
+        }
+    }
+
+    @Test
+    void testSnapshot_Empty_AllZero() {
+        assertEquals(new LatencyHistogram.Snapshot(0, 0, 0, 0, 0, 0), new LatencyHistogram().snapshot());
+    }
+
+    @Test
+    void testSnapshot_UniformValues_PercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_500, snapshot.sumMicros());
+        assertEquals(1000, snapshot.maxMicros());
+        assertWithinBucketError(500, snapshot.p50Micros());
+        assertWithinBucketError(950, snapshot.p95Micros());
+        assertWithinBucketError(990, snapshot.p99Micros());
+    }
+
+    @Test
+    void testSnapshot_SingleOutlier_OnlyMaxAndTailReflectIt() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(200);
+        }
+        histogram.record(5_000_000);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertWithinBucketError(200, snapshot.p50Micros());
+        assertWithinBucketError(200, snapshot.p99Micros());
+        assertEquals(5_000_000, snapshot.maxMicros());
+    }
+
+    @Test
+    void testSnapshot_SpikeOlderThanWindow_DroppedFromPercentilesAndMax() {
+        AtomicLong clock = new AtomicLong();
+        LatencyHistogram histogram = new LatencyHistogram(SLICE_NANOS, clock::get);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(5_000_000);
+        }
+
+        clock.addAndGet(6 * SLICE_NANOS);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(200);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertWithinBucketError(200, snapshot.p99Micros());
+        assertEquals(200, snapshot.maxMicros());
+        assertEquals(200, snapshot.count());
+        assertEquals(100L * 5_000_000 + 100L * 200, snapshot.sumMicros());
+    }
+
+    @Test
+    void testSnapshot_SpikeWithinWindow_StillReported() {
+        AtomicLong clock = new AtomicLong();
+        LatencyHistogram histogram = new LatencyHistogram(SLICE_NANOS, clock::get);
+        histogram.record(5_000_000);
+
+        clock.addAndGet(5 * SLICE_NANOS);
+        histogram.record(200);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(5_000_000, snapshot.maxMicros());
+        assertWithinBucketError(5_000_000, snapshot.p99Micros());
+    }
+
+    @Test
+    void testSnapshot_NoRecordsInWindow_PercentilesZeroCountKept() {
+        AtomicLong clock = new AtomicLong();
+        LatencyHistogram histogram = new LatencyHistogram(SLICE_NANOS, clock::get);
+        histogram.record(1000);
+
+        clock.addAndGet(60 * SLICE_NANOS);
+
+        assertEquals(new LatencyHistogram.Snapshot(1, 1000, 0, 0, 0, 0), histogram.snapshot());
+    }
+
+    @Test
+    void testRecord_ConcurrentWriters_NoLostUpdates() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= 10_000; i++) {
+                        histogram.record(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(80_000, snapshot.count());
+        assertEquals(8L * 50_005_000, snapshot.sumMicros());
+        assertEquals(10_000, snapshot.maxMicros());
+    }
+
+    private static void assertWithinBucketError(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 8,
+                "Expected ~" + expected + " but was " + actual);
+    }
+}
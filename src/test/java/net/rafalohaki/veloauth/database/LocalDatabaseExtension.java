@@ -0,0 +1,71 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Shared fixture for tests against real local databases (H2, SQLite).
+ * <p>
+ * Each test gets its own temporary data directory instead of the working directory's {@code data/};
+ * pools opened through {@link #open(String)} are closed and the directory is deleted after the test.
+ * Register with {@code @RegisterExtension}.
+ */
+final class LocalDatabaseExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private final List<DatabaseConfig> opened = new ArrayList<>();
+    private Path dataDirectory;
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws IOException {
+        dataDirectory = Files.createTempDirectory("veloauth-db-");
+    }
+
+    /**
+     * Opens a pooled local database in this test's data directory.
+     *
+     * @param storageType H2 or SQLITE
+     * @return configuration with its own pool (closed after the test)
+     */
+    DatabaseConfig open(String storageType) {
+        DatabaseConfig config = DatabaseConfig.forLocalDatabase(storageType, "veloauth_" + opened.size(), dataDirectory);
+        opened.add(config);
+        return config;
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws Exception {
+        for (DatabaseConfig config : opened) {
+            if (config.getDataSource() instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+        opened.clear();
+        deleteRecursively(dataDirectory);
+    }
+
+    private static void deleteRecursively(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {
+                    // Best-effort cleanup
+                }
+            });
+        } catch (IOException ignored) {
+            // Best-effort cleanup
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package net.rafalohaki.veloauth.database;
+
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lookups-per-second benchmark for embedded backends (H2, SQLite): a fresh DriverManager connection and
+ * statement parse per lookup (previous behaviour) versus the shared local pool with cached statements.
+ * Tagged {@code benchmark} - excluded from the default test run.
+ */
+@Tag("benchmark")
+@SuppressWarnings("java:S100")
+class LocalPoolBenchmarkTest {
+
+    private static final int PLAYERS = 200;
+    private static final int LOOKUPS = 5_000;
+
+    @RegisterExtension
+    final LocalDatabaseExtension localDatabase = new LocalDatabaseExtension();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testLookups_PooledWithCachedStatements_FasterThanUnpooled(String storageType) throws Exception {
+        DatabaseConfig config = localDatabase.open(storageType);
+        assertTrue(config.hasDataSource(), "Local backends should be pooled");
+        JdbcAuthDao dao = new JdbcAuthDao(config);
+        createTable(config);
+        for (int i = 0; i < PLAYERS; i++) {
+            dao.upsertPlayer(new RegisteredPlayer("Player" + i, "hash", "10.0.0.1", UUID.randomUUID().toString()));
+        }
+        String selectSql = "SELECT NICKNAME, HASH FROM AUTH WHERE LOWERCASENICKNAME = ?";
+
+        // Warm-up both paths (JIT, file cache)
+        unpooledLookup(config.getJdbcUrl(), selectSql, "player0");
+        assertNotNull(dao.findPlayerByLowercaseNickname("player0"));
+
+        long unpooledStart = System.nanoTime();
+        int unpooledFound = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (unpooledLookup(config.getJdbcUrl(), selectSql, "player" + (i % PLAYERS))) {
+                unpooledFound++;
+            }
+        }
+        double unpooledPerSecond = LOOKUPS / ((System.nanoTime() - unpooledStart) / 1_000_000_000.0);
+
+        long pooledStart = System.nanoTime();
+        int pooledFound = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (dao.findPlayerByLowercaseNickname("player" + (i % PLAYERS)) != null) {
+                pooledFound++;
+            }
+        }
+        double pooledPerSecond = LOOKUPS / ((System.nanoTime() - pooledStart) / 1_000_000_000.0);
+
+        assertEquals(LOOKUPS, unpooledFound);
+        assertEquals(LOOKUPS, pooledFound);
+        assertTrue(pooledPerSecond > unpooledPerSecond,
+                "Pooled lookups should outpace a new connection per query");
+    }
+
+    /**
+     * Previous JdbcAuthDao behaviour for local storage: new connection and statement for every lookup.
+     */
+    private static boolean unpooledLookup(String jdbcUrl, String sql, String nickname) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, nickname);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private static void createTable(DatabaseConfig config) throws SQLException {
+        try (Connection connection = config.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE AUTH (NICKNAME VARCHAR(16), LOWERCASENICKNAME VARCHAR(16) PRIMARY KEY,"
+                    + " HASH VARCHAR(60), IP VARCHAR(45), LOGINIP VARCHAR(45), UUID VARCHAR(36), REGDATE BIGINT,"
+                    + " LOGINDATE BIGINT, PREMIUMUUID VARCHAR(36), TOTPTOKEN VARCHAR(32), ISSUEDTIME BIGINT)");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package net.rafalohaki.veloauth.database;
+
+import net.rafalohaki.veloauth.database.JdbcAuthDao.LoginUpdate;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for write-behind persistence of login metadata.
+ */
+@SuppressWarnings("java:S100")
+class LoginWriteBehindTest {
+
+    private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<LoginUpdate>> batches = new CopyOnWriteArrayList<>();
+    private volatile boolean failWrites;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testFlush_RepeatedLogins_CoalescedToLatest() throws SQLException {
+        LoginWriteBehind writeBehind = newWriteBehind(100);
+
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.1", 1_000L));
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.2", 2_000L));
+        writeBehind.enqueue(new LoginUpdate("alex", "10.0.0.3", 1_500L));
+        writeBehind.flush();
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertTrue(batches.get(0).contains(new LoginUpdate("steve", "10.0.0.2", 2_000L)));
+        assertEquals(1, writeBehind.getCoalescedCount());
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    @Test
+    void testEnqueue_OutOfOrderUpdate_OlderDoesNotWin() throws SQLException {
+        LoginWriteBehind writeBehind = newWriteBehind(100);
+
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.2", 2_000L));
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.1", 1_000L));
+        writeBehind.flush();
+
+        assertEquals(List.of(new LoginUpdate("steve", "10.0.0.2", 2_000L)), batches.get(0));
+    }
+
+    @Test
+    void testEnqueue_BatchSizeReached_FlushesWithoutTimer() throws InterruptedException {
+        LoginWriteBehind writeBehind = newWriteBehind(2);
+
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.1", 1_000L));
+        writeBehind.enqueue(new LoginUpdate("alex", "10.0.0.2", 1_000L));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (batches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+    }
+
+    @Test
+    void testFlush_WriteFails_UpdatesKeptForRetry() throws SQLException {
+        LoginWriteBehind writeBehind = newWriteBehind(100);
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.1", 1_000L));
+
+        failWrites = true;
+        assertThrows(SQLException.class, writeBehind::flush);
+        assertEquals(1, writeBehind.pendingCount());
+
+        failWrites = false;
+        writeBehind.flush();
+        assertEquals(List.of(new LoginUpdate("steve", "10.0.0.1", 1_000L)), batches.get(0));
+    }
+
+    @Test
+    void testApplyPending_StalePlayerFromDatabase_SeesPendingLogin() {
+        LoginWriteBehind writeBehind = newWriteBehind(100);
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.9", 5_000L));
+        RegisteredPlayer fromDatabase = new RegisteredPlayer("Steve", "hash", "10.0.0.1", UUID.randomUUID().toString());
+        fromDatabase.setLoginIp("10.0.0.1");
+        fromDatabase.setLoginDate(1_000L);
+
+        writeBehind.applyPending(fromDatabase);
+
+        assertEquals("10.0.0.9", fromDatabase.getLoginIp());
+        assertEquals(5_000L, fromDatabase.getLoginDate());
+    }
+
+    @Test
+    void testDiscardCovered_FullSaveWithSameLogin_PendingDropped() {
+        LoginWriteBehind writeBehind = newWriteBehind(100);
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.1", 1_000L));
+        writeBehind.enqueue(new LoginUpdate("alex", "10.0.0.2", 3_000L));
+
+        writeBehind.discardCovered("steve", 1_000L);
+        writeBehind.discardCovered("alex", 2_000L);
+
+        assertEquals(1, writeBehind.pendingCount());
+    }
+
+    @Test
+    void testClose_PendingUpdates_FlushedOnCallingThread() throws SQLException {
+        LoginWriteBehind writeBehind = newWriteBehind(100);
+        writeBehind.enqueue(new LoginUpdate("steve", "10.0.0.1", 1_000L));
+
+        writeBehind.close();
+
+        assertEquals(1, batches.size());
+        assertEquals(0, writeBehind.pendingCount());
+        assertTrue(scheduler.isShutdown());
+    }
+
+    private LoginWriteBehind newWriteBehind(int batchSize) {
+        return new LoginWriteBehind(updates -> {
+            if (failWrites) {
+                throw new SQLException("db down");
+            }
+            batches.add(List.copyOf(updates));
+        }, scheduler, NEVER, batchSize);
+    }
+}
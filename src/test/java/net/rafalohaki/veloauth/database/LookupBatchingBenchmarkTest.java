@@ -0,0 +1,199 @@
+package net.rafalohaki.veloauth.database;
+
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Join-storm benchmark for lookup batching against real local databases (H2, SQLite).
+ * <p>
+ * 1,000 concurrent lookups are resolved once with one SELECT per nickname and once through
+ * {@link BatchLoader} with IN queries. Batching must find the same players with fewer queries,
+ * hold fewer connections at the same time (pool pressure) and keep p99 latency within a bound
+ * of the single-query path. Tagged {@code benchmark} - excluded from the default test run.
+ */
+@Tag("benchmark")
+@SuppressWarnings("java:S100")
+class LookupBatchingBenchmarkTest {
+
+    private static final int JOINS = 1_000;
+    private static final int REGISTERED = 800;
+    private static final long BATCH_WINDOW_MICROS = TimeUnit.MILLISECONDS.toMicros(2);
+
+    /**
+     * Batched p99 may exceed the single-query p99 by this factor plus one batch window.
+     */
+    private static final double P99_SLACK = 1.5;
+
+    @RegisterExtension
+    final LocalDatabaseExtension localDatabase = new LocalDatabaseExtension();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testJoinStorm_BatchedLookups_FewerQueriesAndConnections(String storageType) throws Exception {
+        DatabaseConfig config = localDatabase.open(storageType);
+        populate(config);
+        JdbcAuthDao dao = new JdbcAuthDao(config);
+
+        Lookup singleLookup = nickname -> CompletableFuture.completedFuture(dao.findPlayerByLowercaseNickname(nickname));
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            // Warm-up both paths (JIT, page cache) so the first measured storm is not penalised
+            runStorm(singleLookup);
+            runBatchedStorm(dao, executor, scheduler);
+
+            Result single = runStorm(singleLookup);
+            Result batched = runBatchedStorm(dao, executor, scheduler);
+
+            String summary = String.format("single p99 %.2f ms, %d queries, peak %d connections"
+                            + " | batched p99 %.2f ms, %d queries, peak %d connections",
+                    single.p99Millis(), single.queries(), single.peakConnections(),
+                    batched.p99Millis(), batched.queries(), batched.peakConnections());
+            assertEquals(REGISTERED, single.found());
+            assertEquals(REGISTERED, batched.found());
+            assertTrue(batched.queries() < single.queries(), summary);
+            assertTrue(batched.peakConnections() < single.peakConnections(), summary);
+            assertTrue(batched.p99Millis() <= single.p99Millis() * P99_SLACK + BATCH_WINDOW_MICROS / 1_000.0,
+                    summary);
+        } finally {
+            scheduler.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        CompletableFuture<RegisteredPlayer> find(String nickname) throws SQLException;
+    }
+
+    private record Result(double p99Millis, int queries, int peakConnections, int found) {}
+
+    private Result runStorm(Lookup lookup) throws InterruptedException {
+        ConnectionGauge gauge = new ConnectionGauge();
+        return runStorm(nickname -> {
+            gauge.enter();
+            try {
+                return lookup.find(nickname);
+            } finally {
+                gauge.exit();
+            }
+        }, gauge);
+    }
+
+    private Result runBatchedStorm(JdbcAuthDao dao, ExecutorService executor, ScheduledExecutorService scheduler)
+            throws InterruptedException {
+        ConnectionGauge gauge = new ConnectionGauge();
+        BatchLoader<String, RegisteredPlayer> loader = new BatchLoader<>(keys -> {
+            gauge.enter();
+            try {
+                return dao.findPlayersByLowercaseNicknames(keys);
+            } finally {
+                gauge.exit();
+            }
+        }, executor, scheduler, BATCH_WINDOW_MICROS, 100);
+        return runStorm(loader::load, gauge);
+    }
+
+    private Result runStorm(Lookup lookup, ConnectionGauge gauge) throws InterruptedException {
+        long[] latencies = new long[JOINS];
+        AtomicInteger found = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(JOINS);
+        try (ExecutorService joins = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < JOINS; i++) {
+                int index = i;
+                joins.execute(() -> {
+                    try {
+                        start.await();
+                        long begin = System.nanoTime();
+                        RegisteredPlayer player = lookup.find(nickname(index)).join();
+                        latencies[index] = System.nanoTime() - begin;
+                        if (player != null) {
+                            found.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            start.countDown();
+            assertTrue(done.await(2, TimeUnit.MINUTES), "Join storm did not finish");
+        }
+        Arrays.sort(latencies);
+        double p99 = latencies[(int) (JOINS * 0.99) - 1] / 1_000_000.0;
+        return new Result(p99, gauge.total.get(), gauge.peak.get(), found.get());
+    }
+
+    private static void populate(DatabaseConfig config) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(config.getJdbcUrl())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE AUTH (NICKNAME VARCHAR(16), LOWERCASENICKNAME VARCHAR(16) PRIMARY KEY,"
+                        + " HASH VARCHAR(60), IP VARCHAR(45), LOGINIP VARCHAR(45), UUID VARCHAR(36), REGDATE BIGINT,"
+                        + " LOGINDATE BIGINT, PREMIUMUUID VARCHAR(36), TOTPTOKEN VARCHAR(32), ISSUEDTIME BIGINT)");
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO AUTH (NICKNAME, LOWERCASENICKNAME, HASH, IP, UUID, REGDATE, LOGINDATE, ISSUEDTIME)"
+                            + " VALUES (?, ?, ?, ?, ?, 0, 0, 0)")) {
+                for (int i = 0; i < REGISTERED; i++) {
+                    insert.setString(1, "Player" + i);
+                    insert.setString(2, nickname(i));
+                    insert.setString(3, "hash");
+                    insert.setString(4, "127.0.0.1");
+                    insert.setString(5, UUID.randomUUID().toString());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private static String nickname(int index) {
+        return "player" + index;
+    }
+
+    /**
+     * Counts queries and the peak number of connections held concurrently.
+     */
+    private static final class ConnectionGauge {
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+        private final AtomicInteger total = new AtomicInteger();
+
+        void enter() {
+            total.incrementAndGet();
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+        }
+
+        void exit() {
+            active.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.rafalohaki.veloauth.database;
+
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.table.TableUtils;
+import net.rafalohaki.veloauth.model.PremiumUuid;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for native per-dialect UPSERTs against the embedded databases (H2, SQLite).
+ */
+@SuppressWarnings("java:S100")
+class NativeUpsertIntegrationTest {
+
+    @RegisterExtension
+    final LocalDatabaseExtension localDatabase = new LocalDatabaseExtension();
+
+    private JdbcConnectionSource connectionSource;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (connectionSource != null) {
+            connectionSource.close();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testUpsertPlayer_NewThenExisting_InsertsThenUpdates(String storageType) throws Exception {
+        JdbcAuthDao dao = new JdbcAuthDao(createSchema(storageType));
+
+        RegisteredPlayer player = new RegisteredPlayer("Steve", "hash1", "10.0.0.1", UUID.randomUUID().toString());
+        assertTrue(dao.upsertPlayer(player));
+
+        player.setHash("hash2");
+        player.setLoginIp("10.0.0.2");
+        player.setLoginDate(5_000L);
+        assertTrue(dao.upsertPlayer(player));
+
+        RegisteredPlayer stored = dao.findPlayerByLowercaseNickname("steve");
+        assertNotNull(stored);
+        assertEquals("hash2", stored.getHash());
+        assertEquals("10.0.0.2", stored.getLoginIp());
+        assertEquals(5_000L, stored.getLoginDate());
+        assertEquals(player.getUuid(), stored.getUuid());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testSaveOrUpdate_RepeatedLogin_KeepsVerifiedAtAndRenames(String storageType) throws Exception {
+        createSchema(storageType);
+        PremiumUuidDao dao = new PremiumUuidDao(connectionSource, DatabaseType.fromName(storageType));
+        UUID uuid = UUID.randomUUID();
+
+        assertTrue(dao.saveOrUpdate(uuid, "Notch"));
+        long verifiedAt = dao.findByUuid(uuid).orElseThrow().getVerifiedAt();
+        Thread.sleep(5);
+        assertTrue(dao.saveOrUpdate(uuid, "Notch2"));
+
+        PremiumUuid stored = dao.findByUuid(uuid).orElseThrow();
+        assertEquals("Notch2", stored.getNickname());
+        assertEquals(verifiedAt, stored.getVerifiedAt());
+        assertTrue(stored.getLastSeen() > verifiedAt);
+        assertEquals(1, dao.getTotalCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testSaveOrUpdate_NicknameTakenByOtherUuid_OldEntryReplaced(String storageType) throws Exception {
+        createSchema(storageType);
+        PremiumUuidDao dao = new PremiumUuidDao(connectionSource, DatabaseType.fromName(storageType));
+        UUID previousOwner = UUID.randomUUID();
+        UUID newOwner = UUID.randomUUID();
+
+        assertTrue(dao.saveOrUpdate(previousOwner, "Jeb_"));
+        assertTrue(dao.saveOrUpdate(newOwner, "Jeb_"));
+
+        assertFalse(dao.findByUuid(previousOwner).isPresent());
+        assertEquals(newOwner.toString(), dao.findByNickname("Jeb_").orElseThrow().getUuidString());
+        assertEquals(1, dao.getTotalCount());
+    }
+
+    private DatabaseConfig createSchema(String storageType) throws Exception {
+        DatabaseConfig config = localDatabase.open(storageType);
+        connectionSource = new JdbcConnectionSource(config.getJdbcUrl());
+        TableUtils.createTableIfNotExists(connectionSource, RegisteredPlayer.class);
+        TableUtils.createTableIfNotExists(connectionSource, PremiumUuid.class);
+        return config;
+    }
+}
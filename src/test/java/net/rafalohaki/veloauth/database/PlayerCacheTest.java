@@ -0,0 +1,118 @@
+package net.rafalohaki.veloauth.database;
+
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the bounded DatabaseManager player cache: TTL, negative caching,
+ * LRU bound and protection against stale database reads.
+ */
+@SuppressWarnings("java:S100")
+class PlayerCacheTest {
+
+    private static final long TTL = 60_000L;
+    private static final long NEGATIVE_TTL = 5_000L;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private PlayerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PlayerCache(3, TTL, 2, NEGATIVE_TTL, clock::get);
+    }
+
+    @Test
+    void testGet_LoadedPlayer_HitUntilTtlExpires() {
+        RegisteredPlayer player = player("Steve");
+        cache.putLoaded("steve", player, cache.version());
+
+        PlayerCache.Lookup lookup = cache.get("steve");
+        assertTrue(lookup.hit());
+        assertSame(player, lookup.player());
+
+        clock.addAndGet(TTL);
+        assertFalse(cache.get("steve").hit());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGet_LoadedNotFound_NegativeHitUntilShortTtlExpires() {
+        cache.putLoaded("ghost", null, cache.version());
+
+        PlayerCache.Lookup lookup = cache.get("ghost");
+        assertTrue(lookup.hit());
+        assertNull(lookup.player());
+
+        clock.addAndGet(NEGATIVE_TTL);
+        assertFalse(cache.get("ghost").hit());
+    }
+
+    @Test
+    void testPut_AfterNegativeEntry_ReplacesNotFound() {
+        cache.putLoaded("newbie", null, cache.version());
+        RegisteredPlayer registered = player("Newbie");
+
+        cache.put("newbie", registered);
+
+        assertSame(registered, cache.get("newbie").player());
+    }
+
+    @Test
+    void testPutLoaded_WriteDuringQuery_StaleResultDropped() {
+        long version = cache.version();
+        cache.put("alex", player("Alex"));
+        cache.invalidate("alex");
+
+        cache.putLoaded("alex", player("Alex"), version);
+        cache.putLoaded("bob", null, version);
+
+        assertFalse(cache.get("alex").hit());
+        assertFalse(cache.get("bob").hit());
+    }
+
+    @Test
+    void testPut_OverCapacity_EvictsLeastRecentlyUsed() {
+        cache.put("a", player("A"));
+        cache.put("b", player("B"));
+        cache.put("c", player("C"));
+        cache.get("a");
+
+        cache.put("d", player("D"));
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.get("a").hit());
+        assertFalse(cache.get("b").hit());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void testStats_MixedLookups_HitRateIncludesNegativeHits() {
+        cache.put("steve", player("Steve"));
+        cache.putLoaded("ghost", null, cache.version());
+
+        cache.get("steve");
+        cache.get("ghost");
+        cache.get("unknown");
+        cache.get("unknown2");
+
+        PlayerCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.negativeHits());
+        assertEquals(2, stats.misses());
+        assertEquals(50.0, stats.getHitRate(), 0.001);
+    }
+
+    private static RegisteredPlayer player(String nickname) {
+        return new RegisteredPlayer(nickname, "hash", "127.0.0.1", UUID.randomUUID().toString());
+    }
+}
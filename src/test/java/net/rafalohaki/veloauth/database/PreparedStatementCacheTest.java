@@ -0,0 +1,110 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests for per-connection prepared statement reuse on embedded pools.
+ */
+@SuppressWarnings("java:S100")
+class PreparedStatementCacheTest {
+
+    private final AtomicInteger prepared = new AtomicInteger();
+    private final AtomicInteger clearedParameters = new AtomicInteger();
+    private final AtomicInteger closedStatements = new AtomicInteger();
+
+    @Test
+    void testPrepare_SameConnectionAndSql_PreparedOnce() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(2);
+        Connection connection = fakeConnection();
+
+        for (int i = 0; i < 3; i++) {
+            try (PreparedStatementCache.Lease lease = cache.prepare(connection, "SELECT 1")) {
+                assertFalse(lease.statement().isClosed());
+            }
+        }
+
+        assertEquals(1, prepared.get());
+        assertEquals(3, clearedParameters.get());
+        assertEquals(0, closedStatements.get());
+    }
+
+    @Test
+    void testPrepare_DifferentConnections_SeparateStatements() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(2);
+
+        cache.prepare(fakeConnection(), "SELECT 1").close();
+        cache.prepare(fakeConnection(), "SELECT 1").close();
+
+        assertEquals(2, prepared.get());
+        assertEquals(2, cache.connectionCount());
+    }
+
+    @Test
+    void testPrepare_MoreConnectionsThanPool_LeastRecentlyReturnedEvictedWithoutProbing() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(2);
+        Connection retired = fakeConnection();
+        Connection live = fakeConnection();
+        cache.prepare(retired, "SELECT 1").close();
+        cache.prepare(live, "SELECT 1").close();
+        cache.prepare(live, "SELECT 1").close();
+
+        // fakeConnection() throws on isClosed() - eviction must not probe connections owned by other threads
+        Connection replacement = fakeConnection();
+        cache.prepare(replacement, "SELECT 1").close();
+        cache.prepare(live, "SELECT 1").close();
+
+        assertEquals(2, cache.connectionCount());
+        assertEquals(3, prepared.get(), "Live connection keeps its cached statement");
+        assertEquals(0, closedStatements.get());
+    }
+
+    @Test
+    void testOwned_Close_ClosesStatement() throws SQLException {
+        PreparedStatementCache.owned(fakeStatement()).close();
+
+        assertEquals(1, closedStatements.get());
+        assertEquals(0, clearedParameters.get());
+    }
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "unwrap" -> proxy;
+                    case "prepareStatement" -> {
+                        prepared.incrementAndGet();
+                        yield fakeStatement();
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private PreparedStatement fakeStatement() {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "isClosed" -> closed.get();
+                    case "clearParameters" -> {
+                        clearedParameters.incrementAndGet();
+                        yield null;
+                    }
+                    case "close" -> {
+                        closed.set(true);
+                        closedStatements.incrementAndGet();
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,110 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for query lane bulkheads: concurrency limit, bounded queue and wait timeout.
+ */
+@SuppressWarnings("java:S100")
+class QueryLaneTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConstructor_NoExplicitConcurrency_UsesDefaultAtLeastOne() {
+        assertEquals(4, new QueryLane("admin", new QueryLane.Limits(0, 1, 100), 4).getMaxConcurrent());
+        assertEquals(1, new QueryLane("admin", new QueryLane.Limits(0, 1, 100), 0).getMaxConcurrent());
+        assertEquals(7, new QueryLane("admin", new QueryLane.Limits(7, 1, 100), 4).getMaxConcurrent());
+    }
+
+    @Test
+    void testCall_LaneFullAndQueueFull_RejectedImmediately() throws Exception {
+        QueryLane lane = new QueryLane("admin", new QueryLane.Limits(1, 1, 10_000), 1);
+        CountDownLatch running = new CountDownLatch(1);
+        Future<String> blocker = executor.submit(() -> lane.call(() -> {
+            running.countDown();
+            awaitRelease();
+            return "done";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<String> queued = executor.submit(() -> lane.call(() -> "queued"));
+        awaitQueued(lane, 1);
+
+        long start = System.nanoTime();
+        assertThrows(SQLTransientConnectionException.class, () -> lane.call(() -> "rejected"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "Rejection must not wait for the timeout");
+        assertEquals(1, lane.getRejectedCount());
+        assertEquals(1, lane.getActiveCount());
+
+        release.countDown();
+        assertEquals("done", blocker.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0, lane.getActiveCount());
+        assertEquals(2, lane.getCompletedCount());
+    }
+
+    @Test
+    void testCall_SlotNotFreedInTime_TimesOut() throws Exception {
+        QueryLane lane = new QueryLane("write", new QueryLane.Limits(1, 10, 50), 1);
+        CountDownLatch running = new CountDownLatch(1);
+        executor.submit(() -> lane.call(() -> {
+            running.countDown();
+            awaitRelease();
+            return null;
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        assertThrows(SQLTransientConnectionException.class, () -> lane.call(() -> "late"));
+        assertEquals(1, lane.getTimedOutCount());
+        assertEquals(0, lane.getQueuedCount());
+    }
+
+    @Test
+    void testCall_QueryThrows_SlotReleased() throws SQLException {
+        QueryLane lane = new QueryLane("hot", new QueryLane.Limits(1, 0, 50), 1);
+
+        assertThrows(SQLException.class, () -> lane.call(() -> {
+            throw new SQLException("syntax error");
+        }));
+
+        assertEquals("ok", lane.call(() -> "ok"));
+        assertEquals(0, lane.getActiveCount());
+    }
+
+    private void awaitRelease() throws SQLException {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        }
+    }
+
+    private static void awaitQueued(QueryLane lane, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (lane.getQueuedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, lane.getQueuedCount());
+    }
+}
@@ -0,0 +1,49 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for per-statement query metrics and the slow query counter.
+ */
+@SuppressWarnings("java:S100")
+class QueryMetricsTest {
+
+    private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void testRecord_SlowQuery_CountedAsSlow() {
+        QueryMetrics metrics = new QueryMetrics();
+        metrics.setSlowQueryThresholdMillis(100);
+
+        metrics.record(QueryMetrics.Statement.FIND, System.nanoTime() - SLOW_NANOS);
+        metrics.record(QueryMetrics.Statement.FIND, System.nanoTime());
+
+        assertEquals(1, metrics.getSlowCount(QueryMetrics.Statement.FIND));
+        assertEquals(2, metrics.snapshot(QueryMetrics.Statement.FIND).count());
+    }
+
+    @Test
+    void testRecord_SlowConnectionAcquire_NotCountedAsSlowQuery() {
+        QueryMetrics metrics = new QueryMetrics();
+        metrics.setSlowQueryThresholdMillis(100);
+
+        metrics.record(QueryMetrics.Statement.CONNECTION_ACQUIRE, System.nanoTime() - SLOW_NANOS);
+
+        assertEquals(0, metrics.getSlowCount(QueryMetrics.Statement.CONNECTION_ACQUIRE));
+        assertEquals(1, metrics.snapshot(QueryMetrics.Statement.CONNECTION_ACQUIRE).count());
+    }
+
+    @Test
+    void testRecord_ThresholdDisabled_NothingCountedAsSlow() {
+        QueryMetrics metrics = new QueryMetrics();
+        metrics.setSlowQueryThresholdMillis(0);
+
+        metrics.record(QueryMetrics.Statement.UPSERT, System.nanoTime() - SLOW_NANOS);
+
+        assertEquals(0, metrics.getSlowCount(QueryMetrics.Statement.UPSERT));
+    }
+}
@@ -0,0 +1,170 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for read-replica routing: lag threshold, read-your-own-write window and fallback to the primary.
+ */
+@SuppressWarnings("java:S100")
+class ReplicaRouterTest {
+
+    private static final long MAX_LAG_MILLIS = 2000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final AtomicBoolean replicaDown = new AtomicBoolean();
+    private final Connection primaryConnection = fakeConnection();
+    private final Connection replicaConnection = fakeConnection();
+    private final ReplicaRouter router = new ReplicaRouter(fakeDataSource(primaryConnection, new AtomicBoolean()),
+            fakeDataSource(replicaConnection, replicaDown), DatabaseType.POSTGRESQL, MAX_LAG_MILLIS, clock::get);
+
+    @Test
+    void testOpenReadConnection_LagNotMeasured_UsesPrimary() throws SQLException {
+        assertSame(primaryConnection, router.openReadConnection(List.of("steve")));
+        assertEquals(1, router.getLaggedReadCount());
+        assertEquals(0, router.getFallbackCount());
+        assertEquals(1, router.getPrimaryReadCount());
+    }
+
+    @Test
+    void testOpenReadConnection_LagWithinLimit_UsesReplica() throws SQLException {
+        router.updateLag(150);
+
+        assertSame(replicaConnection, router.openReadConnection(List.of("steve")));
+        assertEquals(1, router.getReplicaReadCount());
+        assertEquals(0, router.getLaggedReadCount());
+        assertEquals(0, router.getFallbackCount());
+    }
+
+    @Test
+    void testOpenReadConnection_LagAboveLimit_FallsBackToPrimary() throws SQLException {
+        router.updateLag(MAX_LAG_MILLIS + 1);
+
+        assertSame(primaryConnection, router.openReadConnection(List.of("steve")));
+        assertEquals(1, router.getLaggedReadCount());
+        assertEquals(0, router.getFallbackCount());
+    }
+
+    @Test
+    void testOpenReadConnection_RecentlyWrittenKey_PinnedToPrimaryUntilWindowEnds() throws SQLException {
+        router.updateLag(0);
+        router.markWritten("steve");
+
+        assertSame(primaryConnection, router.openReadConnection(List.of("steve")));
+        assertSame(replicaConnection, router.openReadConnection(List.of("alex")));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(MAX_LAG_MILLIS));
+        assertSame(replicaConnection, router.openReadConnection(List.of("steve")));
+        assertEquals(0, router.getRecentWriteCount());
+        assertEquals(0, router.getLaggedReadCount());
+        assertEquals(0, router.getFallbackCount());
+    }
+
+    @Test
+    void testOpenReadConnection_BatchContainsRecentWrite_WholeBatchOnPrimary() throws SQLException {
+        router.updateLag(0);
+        router.markWritten("notch");
+
+        assertSame(primaryConnection, router.openReadConnection(List.of("steve", "notch", "alex")));
+    }
+
+    @Test
+    void testOpenReadConnection_ReplicaUnreachable_PrimaryUntilNextMeasurement() throws SQLException {
+        router.updateLag(0);
+        replicaDown.set(true);
+
+        assertSame(primaryConnection, router.openReadConnection(List.of("steve")));
+        assertEquals(ReplicaRouter.LAG_UNKNOWN, router.getLagMillis());
+
+        replicaDown.set(false);
+        assertSame(primaryConnection, router.openReadConnection(List.of("steve")));
+        router.updateLag(10);
+        assertSame(replicaConnection, router.openReadConnection(List.of("steve")));
+        assertEquals(1, router.getFallbackCount()); // connection failure
+        assertEquals(1, router.getLaggedReadCount()); // lag unknown until the next measurement
+    }
+
+    @Test
+    void testReplicaReadFailed_AfterRouting_CountedAsPrimaryRead() {
+        router.updateLag(0);
+        assertTrue(router.routeToReplica(List.of("Notch")));
+
+        router.replicaReadFailed(new SQLException("connection reset"));
+
+        assertFalse(router.routeToReplica(List.of("Notch")));
+        assertEquals(0, router.getReplicaReadCount());
+        assertEquals(2, router.getPrimaryReadCount());
+        assertEquals(1, router.getFallbackCount());
+        assertEquals(1, router.getLaggedReadCount());
+    }
+
+    @Test
+    void testRefreshLag_MySqlUserWithoutReplicationClient_ReplicaNotUsed() throws SQLException {
+        ReplicaRouter mysqlRouter = new ReplicaRouter(fakeDataSource(primaryConnection, new AtomicBoolean()),
+                fakeDataSource(deniedStatusConnection(), new AtomicBoolean()), DatabaseType.MYSQL,
+                MAX_LAG_MILLIS, clock::get);
+
+        mysqlRouter.refreshLag();
+
+        assertEquals(ReplicaRouter.LAG_UNKNOWN, mysqlRouter.getLagMillis());
+        assertSame(primaryConnection, mysqlRouter.openReadConnection(List.of("steve")));
+    }
+
+    @Test
+    void testIsMissingReplicationPrivilege_AccessDeniedOnEitherStatusVariant() {
+        SQLException replicaStatus = new SQLException("syntax error", "42000", 1064);
+        replicaStatus.addSuppressed(new SQLException("Access denied", "42000", 1227));
+
+        assertTrue(ReplicaRouter.isMissingReplicationPrivilege(replicaStatus));
+        assertTrue(ReplicaRouter.isMissingReplicationPrivilege(new SQLException("Access denied", "42000", 1227)));
+        assertFalse(ReplicaRouter.isMissingReplicationPrivilege(new SQLException("Connection reset", "08S01", 0)));
+    }
+
+    private Connection deniedStatusConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "createStatement" -> throw new SQLException(
+                            "Access denied; you need (at least one of) the SUPER, REPLICATION CLIENT privilege(s)",
+                            "42000", 1227);
+                    case "close" -> null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private DataSource fakeDataSource(Connection connection, AtomicBoolean down) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (!"getConnection".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    if (down.get()) {
+                        throw new SQLException("Connection refused");
+                    }
+                    return connection;
+                });
+    }
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
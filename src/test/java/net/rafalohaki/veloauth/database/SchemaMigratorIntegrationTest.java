@@ -0,0 +1,168 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for versioned schema migrations against the embedded databases (H2, SQLite).
+ */
+@SuppressWarnings("java:S100")
+class SchemaMigratorIntegrationTest {
+
+    @RegisterExtension
+    final LocalDatabaseExtension localDatabase = new LocalDatabaseExtension();
+
+    private DatabaseConfig config;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testMigrate_EmptyDatabase_AppliesAllThenNoOp(String storageType) throws Exception {
+        config = localConfig(storageType);
+        SchemaMigrator migrator = new SchemaMigrator(DatabaseType.fromName(storageType));
+        int latest = SchemaMigrations.forDialect(DatabaseType.fromName(storageType)).size();
+
+        try (Connection connection = config.getDataSource().getConnection()) {
+            assertEquals(new SchemaMigrator.Result(0, latest, latest), migrator.migrate(connection));
+            assertEquals(new SchemaMigrator.Result(latest, latest, 0), migrator.migrate(connection));
+        }
+
+        JdbcAuthDao dao = new JdbcAuthDao(config);
+        assertEquals(new JdbcAuthDao.AccountCounts(0, 0, 0), dao.countAccounts());
+        assertTrue(dao.findAllPlayersInConflictMode().isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testMigrate_LegacyLimboAuthTable_AddsMissingColumnsKeepingRows(String storageType) throws Exception {
+        config = localConfig(storageType);
+        execute("CREATE TABLE AUTH (LOWERCASENICKNAME VARCHAR(16) PRIMARY KEY, NICKNAME VARCHAR(16), "
+                + "HASH VARCHAR(255), IP VARCHAR(255), LOGINIP VARCHAR(255), UUID VARCHAR(36), REGDATE BIGINT, "
+                + "LOGINDATE BIGINT)");
+        execute("INSERT INTO AUTH (LOWERCASENICKNAME, NICKNAME, HASH) VALUES ('steve', 'Steve', 'hash')");
+
+        try (Connection connection = config.getDataSource().getConnection()) {
+            new SchemaMigrator(DatabaseType.fromName(storageType)).migrate(connection);
+            AuthTableLayout layout = AuthTableLayout.read(connection, "AUTH");
+            assertTrue(layout.has("PREMIUMUUID"));
+            assertTrue(layout.has("CONFLICT_MODE"));
+            assertTrue(layout.has("ORIGINAL_NICKNAME"));
+        }
+
+        assertEquals("Steve", new JdbcAuthDao(config).findPlayerByLowercaseNickname("steve").getNickname());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testMigrate_AppliedMigrationChanged_FailsOnChecksum(String storageType) throws Exception {
+        config = localConfig(storageType);
+        SchemaMigration original = new SchemaMigration(1, "Create test table",
+                List.of(SchemaMigration.Step.always("CREATE TABLE MIGRATION_TEST (ID INT PRIMARY KEY)")));
+        SchemaMigration edited = new SchemaMigration(1, "Create test table",
+                List.of(SchemaMigration.Step.always("CREATE TABLE MIGRATION_TEST (ID BIGINT PRIMARY KEY)")));
+
+        try (Connection connection = config.getDataSource().getConnection()) {
+            new SchemaMigrator(List.of(original)).migrate(connection);
+
+            assertThrows(SQLException.class, () -> new SchemaMigrator(List.of(edited)).migrate(connection));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testMigrate_StatementFails_RolledBackAndNotRecorded(String storageType) throws Exception {
+        config = localConfig(storageType);
+        SchemaMigration broken = new SchemaMigration(1, "Broken migration", List.of(
+                SchemaMigration.Step.always("CREATE TABLE MIGRATION_TEST (ID INT PRIMARY KEY)"),
+                SchemaMigration.Step.always("CREATE TABLE MIGRATION_TEST (ID INT PRIMARY KEY)")));
+
+        try (Connection connection = config.getDataSource().getConnection()) {
+            assertThrows(SQLException.class, () -> new SchemaMigrator(List.of(broken)).migrate(connection));
+            assertTrue(connection.getAutoCommit());
+        }
+        assertEquals(0, countRows("SELECT COUNT(*) FROM " + SchemaMigrator.VERSION_TABLE));
+    }
+
+    // H2 only: SQLite serializes writers, so a second node cannot commit while this one holds the write lock
+    @Test
+    void testMigrate_OtherNodeRecordedVersionFirst_TreatedAsApplied() throws Exception {
+        config = localConfig("H2");
+        SchemaMigration migration = new SchemaMigration(1, "Create test table",
+                List.of(SchemaMigration.Step.always("CREATE TABLE IF NOT EXISTS MIGRATION_TEST (ID INT PRIMARY KEY)")));
+
+        try (Connection connection = config.getDataSource().getConnection()) {
+            Connection racing = otherNodeRecordsFirst(connection, migration.checksum());
+            assertEquals(new SchemaMigrator.Result(0, 1, 0), new SchemaMigrator(List.of(migration)).migrate(racing));
+            assertTrue(connection.getAutoCommit());
+
+            assertEquals(new SchemaMigrator.Result(1, 1, 0), new SchemaMigrator(List.of(migration)).migrate(connection));
+        }
+        assertEquals(1, countRows("SELECT COUNT(*) FROM " + SchemaMigrator.VERSION_TABLE));
+    }
+
+    @Test
+    void testMigrate_OtherNodeRecordedDifferentChecksum_Fails() throws Exception {
+        config = localConfig("H2");
+        SchemaMigration migration = new SchemaMigration(1, "Create test table",
+                List.of(SchemaMigration.Step.always("CREATE TABLE IF NOT EXISTS MIGRATION_TEST (ID INT PRIMARY KEY)")));
+
+        try (Connection connection = config.getDataSource().getConnection()) {
+            Connection racing = otherNodeRecordsFirst(connection, "0000000000000000");
+            assertThrows(SQLException.class, () -> new SchemaMigrator(List.of(migration)).migrate(racing));
+        }
+    }
+
+    /**
+     * Another proxy commits the version row right before this connection records it.
+     */
+    private Connection otherNodeRecordsFirst(Connection connection, String checksum) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("prepareStatement".equals(method.getName())
+                            && ((String) args[0]).startsWith("INSERT INTO " + SchemaMigrator.VERSION_TABLE)) {
+                        execute("INSERT INTO " + SchemaMigrator.VERSION_TABLE
+                                + " (VERSION, DESCRIPTION, CHECKSUM, APPLIED_AT, EXECUTION_MILLIS)"
+                                + " VALUES (1, 'Create test table', '" + checksum + "', 0, 0)");
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private DatabaseConfig localConfig(String storageType) {
+        return localDatabase.open(storageType);
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = config.getDataSource().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private int countRows(String sql) throws SQLException {
+        try (Connection connection = config.getDataSource().getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for single-flight coalescing of concurrent player lookups.
+ */
+@SuppressWarnings("java:S100")
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testExecute_ConcurrentSameKey_SingleLoad() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.execute("steve", () -> load(pending));
+        CompletableFuture<String> second = flight.execute("steve", () -> load(pending));
+        CompletableFuture<String> third = flight.execute("steve", () -> load(pending));
+        pending.complete("result");
+
+        assertEquals("result", first.join());
+        assertEquals("result", second.join());
+        assertEquals("result", third.join());
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getExecutedCount());
+        assertEquals(2, flight.getCoalescedCount());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void testExecute_DifferentKeys_SeparateLoads() {
+        flight.execute("a", () -> load(new CompletableFuture<>()));
+        flight.execute("b", () -> load(new CompletableFuture<>()));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    @Test
+    void testExecute_AfterCompletion_LoadsAgain() {
+        flight.execute("steve", () -> load(CompletableFuture.completedFuture("old"))).join();
+
+        String result = flight.execute("steve", () -> load(CompletableFuture.completedFuture("new"))).join();
+
+        assertEquals("new", result);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testExecute_LoaderFails_AllWaitersFailAndKeyReleased() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("steve", () -> load(pending));
+        CompletableFuture<String> second = flight.execute("steve", () -> load(pending));
+
+        pending.completeExceptionally(new IllegalStateException("db down"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void testExecute_CallerTimesOut_OtherWaitersUnaffected() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> impatient = flight.execute("steve", () -> load(pending))
+                .orTimeout(1, TimeUnit.MILLISECONDS);
+        CompletableFuture<String> patient = flight.execute("steve", () -> load(pending));
+
+        assertThrows(CompletionException.class, impatient::join);
+        assertFalse(patient.isDone());
+
+        pending.complete("late");
+        assertTrue(patient.isDone());
+        assertEquals("late", patient.join());
+    }
+
+    @Test
+    void testForget_SaveDuringSlowLookup_LaterCallerLoadsFresh() {
+        CompletableFuture<String> slowLookup = new CompletableFuture<>();
+        CompletableFuture<String> beforeSave = flight.execute("steve", () -> load(slowLookup));
+
+        // Zapis (np. /register) w trakcie lookupu - stan sprzed zapisu nie może trafić do nowych wywołań
+        flight.forget("steve");
+        CompletableFuture<String> afterSave = flight.execute("steve",
+                () -> load(CompletableFuture.completedFuture("registered")));
+        slowLookup.complete("not registered");
+
+        assertEquals("not registered", beforeSave.join());
+        assertEquals("registered", afterSave.join());
+        assertEquals(2, loads.get());
+        assertEquals(0, flight.getCoalescedCount());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void testForget_StaleFlightCompletes_NewFlightKept() {
+        CompletableFuture<String> slowLookup = new CompletableFuture<>();
+        CompletableFuture<String> freshLookup = new CompletableFuture<>();
+        flight.execute("steve", () -> load(slowLookup));
+        flight.forget("steve");
+        CompletableFuture<String> fresh = flight.execute("steve", () -> load(freshLookup));
+
+        slowLookup.complete("stale");
+        CompletableFuture<String> joined = flight.execute("steve", () -> load(CompletableFuture.completedFuture("extra")));
+        freshLookup.complete("fresh");
+
+        assertEquals("fresh", fresh.join());
+        assertEquals("fresh", joined.join());
+        assertEquals(2, loads.get());
+    }
+
+    private CompletableFuture<String> load(CompletableFuture<String> result) {
+        loads.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package net.rafalohaki.veloauth.database;
+
+import com.j256.ormlite.jdbc.JdbcConnectionSource;
+import com.j256.ormlite.table.TableUtils;
+import net.rafalohaki.veloauth.model.PremiumUuid;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for forward-only cursor iteration against the embedded databases (H2, SQLite).
+ */
+@SuppressWarnings("java:S100")
+class StreamingQueryIntegrationTest {
+
+    private static final int PLAYERS = 1_250;
+
+    @RegisterExtension
+    final LocalDatabaseExtension localDatabase = new LocalDatabaseExtension();
+
+    private JdbcConnectionSource connectionSource;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (connectionSource != null) {
+            connectionSource.close();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testForEachPlayer_SmallFetchSize_VisitsEveryRowOnce(String storageType) throws Exception {
+        JdbcAuthDao dao = new JdbcAuthDao(createSchema(storageType));
+        for (int i = 0; i < PLAYERS; i++) {
+            dao.upsertPlayer(new RegisteredPlayer("Player" + i, "hash", "10.0.0.1", UUID.randomUUID().toString()));
+        }
+
+        Set<String> seen = new HashSet<>();
+        int processed = dao.forEachPlayer(100, player -> seen.add(player.getLowercaseNickname()));
+
+        assertEquals(PLAYERS, processed);
+        assertEquals(PLAYERS, seen.size());
+        assertTrue(seen.contains("player1249"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testForEachPlayer_ConsumerThrows_StopsAndConnectionStaysUsable(String storageType) throws Exception {
+        JdbcAuthDao dao = new JdbcAuthDao(createSchema(storageType));
+        dao.upsertPlayer(new RegisteredPlayer("Steve", "hash", "10.0.0.1", UUID.randomUUID().toString()));
+        dao.upsertPlayer(new RegisteredPlayer("Alex", "hash", "10.0.0.2", UUID.randomUUID().toString()));
+
+        AtomicInteger visited = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> dao.forEachPlayer(10, player -> {
+            visited.incrementAndGet();
+            throw new IllegalStateException("export aborted");
+        }));
+
+        assertEquals(1, visited.get());
+        assertEquals(2, dao.forEachPlayer(10, player -> { }));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"H2", "SQLITE"})
+    void testPremiumForEach_StoredEntries_MappedWithTimestamps(String storageType) throws Exception {
+        createSchema(storageType);
+        PremiumUuidDao dao = new PremiumUuidDao(connectionSource, DatabaseType.fromName(storageType));
+        UUID notch = UUID.randomUUID();
+        dao.saveOrUpdate(notch, "Notch");
+        dao.saveOrUpdate(UUID.randomUUID(), "Jeb_");
+
+        Set<String> nicknames = new HashSet<>();
+        int processed = dao.forEach(1, entry -> {
+            nicknames.add(entry.getNickname());
+            assertTrue(entry.getVerifiedAt() > 0);
+        });
+
+        assertEquals(2, processed);
+        assertEquals(Set.of("Notch", "Jeb_"), nicknames);
+    }
+
+    private DatabaseConfig createSchema(String storageType) throws Exception {
+        DatabaseConfig config = localDatabase.open(storageType);
+        connectionSource = new JdbcConnectionSource(config.getJdbcUrl());
+        TableUtils.createTableIfNotExists(connectionSource, RegisteredPlayer.class);
+        TableUtils.createTableIfNotExists(connectionSource, PremiumUuid.class);
+        return config;
+    }
+}
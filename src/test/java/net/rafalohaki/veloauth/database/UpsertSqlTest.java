@@ -0,0 +1,62 @@
+package net.rafalohaki.veloauth.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for dialect-specific single-statement UPSERT generation.
+ */
+@SuppressWarnings("java:S100")
+class UpsertSqlTest {
+
+    private static final List<String> COLUMNS = List.of("UUID", "NICKNAME", "LAST_SEEN", "VERIFIED_AT");
+    private static final Set<String> INSERT_ONLY = Set.of("VERIFIED_AT");
+
+    @Test
+    void testBuild_Postgres_OnConflictDoUpdate() {
+        UpsertSql upsert = UpsertSql.build(DatabaseType.POSTGRESQL, "PREMIUM_UUIDS", COLUMNS, INSERT_ONLY);
+
+        assertEquals("INSERT INTO PREMIUM_UUIDS (UUID, NICKNAME, LAST_SEEN, VERIFIED_AT) VALUES (?, ?, ?, ?)"
+                + " ON CONFLICT (UUID) DO UPDATE SET NICKNAME = EXCLUDED.NICKNAME, LAST_SEEN = EXCLUDED.LAST_SEEN",
+                upsert.sql());
+        assertEquals(4, upsert.parameterCount());
+    }
+
+    @Test
+    void testBuild_Sqlite_SameSyntaxAsPostgres() {
+        assertEquals(UpsertSql.build(DatabaseType.POSTGRESQL, "AUTH", COLUMNS, INSERT_ONLY).sql(),
+                UpsertSql.build(DatabaseType.SQLITE, "AUTH", COLUMNS, INSERT_ONLY).sql());
+    }
+
+    @Test
+    void testBuild_MySql_OnDuplicateKeyUpdate() {
+        UpsertSql upsert = UpsertSql.build(DatabaseType.MYSQL, "PREMIUM_UUIDS", COLUMNS, INSERT_ONLY);
+
+        assertTrue(upsert.sql().endsWith(
+                " ON DUPLICATE KEY UPDATE NICKNAME = VALUES(NICKNAME), LAST_SEEN = VALUES(LAST_SEEN)"));
+        assertFalse(upsert.sql().contains("VERIFIED_AT = "));
+    }
+
+    @Test
+    void testBuild_H2_MergeWithParametersInColumnOrder() {
+        UpsertSql upsert = UpsertSql.build(DatabaseType.H2, "PREMIUM_UUIDS", COLUMNS, INSERT_ONLY);
+
+        assertTrue(upsert.sql().startsWith("MERGE INTO PREMIUM_UUIDS t USING (SELECT 1) s ON t.UUID = ?"));
+        assertTrue(upsert.sql().contains(" WHEN MATCHED THEN UPDATE SET NICKNAME = ?, LAST_SEEN = ?"));
+        // key + 2 updated columns + 4 inserted columns
+        assertEquals(7, upsert.parameterCount());
+    }
+
+    @Test
+    void testBuild_OnlyKeyAndInsertOnlyColumns_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> UpsertSql.build(DatabaseType.H2, "T",
+                List.of("ID", "CREATED"), Set.of("CREATED")));
+    }
+}
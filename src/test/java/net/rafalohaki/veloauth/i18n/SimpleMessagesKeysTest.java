@@ -45,6 +45,7 @@ class SimpleMessagesKeysTest {
             "auth.changepassword.success",
             "auth.changepassword.incorrect_old_password",
             "auth.register.passwords_no_match",
+            "auth.command_in_progress",
             // Admin unregister
             "admin.unregister.usage",
             // Error messages
@@ -134,6 +135,9 @@ class SimpleMessagesKeysTest {
             "admin.stats.database_cache",
             "admin.stats.cache_size",
             "admin.stats.database_status",
+            "admin.stats.bcrypt_cost",
+            "admin.stats.bcrypt_calibrated",
+            "admin.stats.bcrypt_rehashed",
             // Player messages
             "player.not_found",
             "player.unauthorized.redirect",
@@ -140,7 +140,7 @@ class AuthenticationFlowIntegrationTest {
                 "Premium player username should be valid");
         
         PreLoginHandler.PremiumResolutionResult result = 
-                preLoginHandler.resolvePremiumStatus(username);
+                preLoginHandler.resolvePremiumStatusAsync(username).join();
         assertTrue(result.premium(), "Player should be detected as premium");
         assertNotNull(result.premiumUuid(), "Premium UUID should be present");
         
@@ -151,7 +151,7 @@ class AuthenticationFlowIntegrationTest {
         when(player.isOnlineMode()).thenReturn(true);
         
         // Test post-login handling
-        assertDoesNotThrow(() -> postLoginHandler.handlePremiumPlayer(player, playerIp),
+        assertDoesNotThrow(() -> postLoginHandler.handlePremiumPlayerAsync(player, playerIp).join(),
                 "Premium player handling should not throw exceptions");
         
         // Verify authorization
@@ -180,7 +180,7 @@ class AuthenticationFlowIntegrationTest {
                 "Offline player username should be valid");
         
         PreLoginHandler.PremiumResolutionResult result = 
-                preLoginHandler.resolvePremiumStatus(username);
+                preLoginHandler.resolvePremiumStatusAsync(username).join();
         assertFalse(result.premium(), "Player should be detected as offline");
         
         // Mock player
@@ -449,7 +449,7 @@ class AuthenticationFlowIntegrationTest {
         when(player.getUniqueId()).thenReturn(playerUuid);
         
         // Test: Should show conflict message
-        boolean shouldShow = postLoginHandler.shouldShowConflictMessage(player);
+        boolean shouldShow = postLoginHandler.shouldShowConflictMessageAsync(player).join();
         assertTrue(shouldShow, "Should show conflict message for premium player in conflict mode");
         
         // Test: Message display should not throw
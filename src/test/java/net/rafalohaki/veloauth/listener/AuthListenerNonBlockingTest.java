@@ -0,0 +1,337 @@
+package net.rafalohaki.veloauth.listener;
+
+import com.velocitypowered.api.event.Continuation;
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
+import com.velocitypowered.api.event.player.ServerPreConnectEvent;
+import com.velocitypowered.api.proxy.InboundConnection;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ServerConnection;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import com.velocitypowered.api.proxy.server.ServerInfo;
+import net.rafalohaki.veloauth.VeloAuth;
+import net.rafalohaki.veloauth.cache.AuthCache;
+import net.rafalohaki.veloauth.config.Settings;
+import net.rafalohaki.veloauth.connection.ConnectionManager;
+import net.rafalohaki.veloauth.database.DatabaseManager;
+import net.rafalohaki.veloauth.database.DatabaseManager.DbResult;
+import net.rafalohaki.veloauth.i18n.Messages;
+import net.rafalohaki.veloauth.model.RegisteredPlayer;
+import net.rafalohaki.veloauth.premium.PremiumResolution;
+import net.rafalohaki.veloauth.premium.PremiumResolverService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.slf4j.Logger;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Harness checking that AuthListener never parks a Velocity event thread on I/O.
+ * <p>
+ * Handlers run on a dedicated "event dispatch" thread while every database future is still pending.
+ * The futures handed out by the mocked DatabaseManager fail on {@code join()}/{@code get()} from that
+ * thread (including stages derived from them), and each handler must return its {@link EventTask}
+ * before the I/O completes. The continuation is then resumed from the completing thread.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@SuppressWarnings("java:S100")
+class AuthListenerNonBlockingTest {
+
+    private static final String EVENT_THREAD_NAME = "velocity-event-dispatch-test";
+    private static final String USERNAME = "Notch";
+    private static final long HANDLER_TIMEOUT_MILLIS = 1000;
+
+    private final List<String> blockingCalls = new CopyOnWriteArrayList<>();
+    private final ExecutorService eventThread = Executors.newSingleThreadExecutor(
+            task -> new Thread(task, EVENT_THREAD_NAME));
+
+    @Mock
+    private VeloAuth plugin;
+    @Mock
+    private AuthCache authCache;
+    @Mock
+    private Settings settings;
+    @Mock
+    private DatabaseManager databaseManager;
+    @Mock
+    private PremiumResolverService premiumResolverService;
+    @Mock
+    private ConnectionManager connectionManager;
+    @Mock
+    private Logger logger;
+
+    private AuthListener listener;
+
+    @BeforeEach
+    void setUp() {
+        Messages messages = new Messages();
+        messages.setLanguage("en");
+
+        when(plugin.getLogger()).thenReturn(logger);
+        when(plugin.isInitialized()).thenReturn(true);
+        when(settings.getPreLoginRateLimitAttempts()).thenReturn(100);
+        when(settings.getPreLoginRateLimitMinutes()).thenReturn(1);
+        when(settings.isPremiumCheckEnabled()).thenReturn(true);
+        when(settings.getPicoLimboServerName()).thenReturn("limbo");
+        when(settings.getSessionTimeoutMinutes()).thenReturn(60);
+
+        PreLoginHandler preLoginHandler = new PreLoginHandler(
+                authCache, premiumResolverService, databaseManager, messages, logger);
+        PostLoginHandler postLoginHandler = new PostLoginHandler(authCache, databaseManager, messages, logger);
+        listener = new AuthListener(plugin, authCache, settings, preLoginHandler, postLoginHandler,
+                connectionManager, databaseManager, messages);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventThread.shutdownNow();
+        assertEquals(List.of(), blockingCalls, "Blocking calls on the event dispatch thread");
+    }
+
+    @Test
+    void testOnPreLogin_PremiumServiceAndDatabasePending_ReturnsThenForcesOnlineMode() throws Exception {
+        UUID premiumUuid = UUID.randomUUID();
+        CountDownLatch resolverRelease = new CountDownLatch(1);
+        when(premiumResolverService.resolve(USERNAME)).thenAnswer(invocation -> {
+            resolverRelease.await(5, TimeUnit.SECONDS);
+            return PremiumResolution.premium(premiumUuid, USERNAME, "test");
+        });
+        GuardedFuture<DbResult<RegisteredPlayer>> lookup = new GuardedFuture<>();
+        when(databaseManager.findPlayerWithRuntimeDetection(USERNAME)).thenReturn(lookup);
+        PreLoginEvent event = preLoginEvent(premiumUuid);
+
+        EventTask task = dispatch(() -> listener.onPreLogin(event));
+
+        assertNotNull(task, "Premium detection must resume asynchronously");
+        verify(event, never()).setResult(any());
+        ResumeProbe resumed = ResumeProbe.start(task);
+        assertFalse(resumed.isDone(), "Event resumed before premium detection completed");
+
+        resolverRelease.countDown();
+        lookup.complete(DbResult.success(null));
+
+        resumed.await();
+        PreLoginEvent.PreLoginComponentResult result = capturePreLoginResult(event);
+        assertTrue(result.isOnlineModeAllowed());
+    }
+
+    @Test
+    void testOnPreLogin_DatabaseLookupFails_DeniesLogin() throws Exception {
+        when(authCache.getPremiumStatus(USERNAME))
+                .thenReturn(new AuthCache.PremiumCacheEntry(false, null, System.currentTimeMillis(), 600000L));
+        GuardedFuture<DbResult<RegisteredPlayer>> lookup = new GuardedFuture<>();
+        when(databaseManager.findPlayerWithRuntimeDetection(USERNAME)).thenReturn(lookup);
+        PreLoginEvent event = preLoginEvent(null);
+
+        EventTask task = dispatch(() -> listener.onPreLogin(event));
+        ResumeProbe resumed = ResumeProbe.start(task);
+        lookup.completeExceptionally(new IllegalStateException("connection reset"));
+
+        resumed.await();
+        assertFalse(capturePreLoginResult(event).isAllowed(), "Lookup failure must deny the login");
+    }
+
+    @Test
+    void testOnPostLogin_PremiumLookupPending_ReturnsThenStartsSession() throws Exception {
+        Player player = player(true);
+        UUID playerUuid = player.getUniqueId();
+        PostLoginEvent event = mock(PostLoginEvent.class);
+        when(event.getPlayer()).thenReturn(player);
+        GuardedFuture<DbResult<RegisteredPlayer>> lookup = new GuardedFuture<>();
+        when(databaseManager.findPlayerByNickname(USERNAME)).thenReturn(lookup);
+        when(databaseManager.findPlayerWithRuntimeDetection(USERNAME)).thenReturn(new GuardedFuture<>());
+        when(authCache.startSession(any(), anyString(), anyString())).thenReturn(true);
+
+        EventTask task = dispatch(() -> listener.onPostLogin(event));
+
+        assertNotNull(task, "Premium authorization must resume asynchronously");
+        ResumeProbe resumed = ResumeProbe.start(task);
+        verify(authCache, never()).startSession(any(), anyString(), anyString());
+
+        lookup.complete(DbResult.success(null));
+
+        resumed.await();
+        verify(authCache).startSession(playerUuid, USERNAME, "127.0.0.1");
+    }
+
+    @Test
+    void testOnServerPreConnect_UuidLookupPending_ReturnsThenDeniesOnDatabaseError() throws Exception {
+        Player player = player(false);
+        when(player.getCurrentServer()).thenReturn(Optional.of(mock(ServerConnection.class)));
+        RegisteredServer backend = mock(RegisteredServer.class);
+        when(backend.getServerInfo()).thenReturn(new ServerInfo("lobby", new InetSocketAddress("127.0.0.1", 25566)));
+        ServerPreConnectEvent event = mock(ServerPreConnectEvent.class);
+        when(event.getPlayer()).thenReturn(player);
+        when(event.getOriginalServer()).thenReturn(backend);
+        when(authCache.isPlayerAuthorized(any(), anyString())).thenReturn(true);
+        when(authCache.hasActiveSession(any(), anyString(), anyString(), anyInt())).thenReturn(true);
+        GuardedFuture<DbResult<RegisteredPlayer>> lookup = new GuardedFuture<>();
+        when(databaseManager.findPlayerByNickname(USERNAME)).thenReturn(lookup);
+
+        EventTask task = dispatch(() -> listener.onServerPreConnect(event));
+
+        assertNotNull(task, "Backend UUID verification must resume asynchronously");
+        ResumeProbe resumed = ResumeProbe.start(task);
+        verify(event, never()).setResult(any());
+
+        lookup.complete(DbResult.databaseError("connection reset"));
+
+        resumed.await();
+        ArgumentCaptor<ServerPreConnectEvent.ServerResult> result =
+                ArgumentCaptor.forClass(ServerPreConnectEvent.ServerResult.class);
+        verify(event).setResult(result.capture());
+        assertFalse(result.getValue().isAllowed(), "Failed UUID verification must deny the backend");
+    }
+
+    /**
+     * Runs the handler on the event dispatch thread; a handler parked on I/O times out here.
+     */
+    private EventTask dispatch(HandlerCall call) throws Exception {
+        try {
+            return eventThread.submit(call::invoke).get(HANDLER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            fail("Handler blocked the event dispatch thread for over " + HANDLER_TIMEOUT_MILLIS + " ms");
+            return null;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private PreLoginEvent preLoginEvent(UUID uniqueId) {
+        InboundConnection connection = mock(InboundConnection.class);
+        when(connection.getRemoteAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 25565));
+        PreLoginEvent event = mock(PreLoginEvent.class);
+        when(event.getUsername()).thenReturn(USERNAME);
+        when(event.getUniqueId()).thenReturn(uniqueId);
+        when(event.getConnection()).thenReturn(connection);
+        return event;
+    }
+
+    private static PreLoginEvent.PreLoginComponentResult capturePreLoginResult(PreLoginEvent event) {
+        ArgumentCaptor<PreLoginEvent.PreLoginComponentResult> result =
+                ArgumentCaptor.forClass(PreLoginEvent.PreLoginComponentResult.class);
+        verify(event).setResult(result.capture());
+        return result.getValue();
+    }
+
+    private static Player player(boolean onlineMode) {
+        Player player = mock(Player.class);
+        when(player.getUsername()).thenReturn(USERNAME);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.isOnlineMode()).thenReturn(onlineMode);
+        when(player.getRemoteAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 25565));
+        return player;
+    }
+
+    @FunctionalInterface
+    private interface HandlerCall {
+        EventTask invoke();
+    }
+
+    /**
+     * Continuation recording when Velocity would resume the event.
+     */
+    private static final class ResumeProbe implements Continuation {
+
+        private final CountDownLatch resumed = new CountDownLatch(1);
+        private volatile Throwable failure;
+
+        static ResumeProbe start(EventTask task) {
+            ResumeProbe probe = new ResumeProbe();
+            task.execute(probe);
+            return probe;
+        }
+
+        @Override
+        public void resume() {
+            resumed.countDown();
+        }
+
+        @Override
+        public void resumeWithException(Throwable exception) {
+            failure = exception;
+            resumed.countDown();
+        }
+
+        boolean isDone() {
+            return resumed.getCount() == 0;
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(resumed.await(5, TimeUnit.SECONDS), "Event was never resumed");
+            if (failure != null) {
+                fail("Event resumed with exception", failure);
+            }
+        }
+    }
+
+    /**
+     * Future that records any blocking wait performed on the event dispatch thread.
+     * Dependent stages inherit the guard through {@link #newIncompleteFuture()}.
+     */
+    private final class GuardedFuture<T> extends CompletableFuture<T> {
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new GuardedFuture<>();
+        }
+
+        @Override
+        public T join() {
+            checkNotOnEventThread("join()");
+            return super.join();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            checkNotOnEventThread("get()");
+            return super.get();
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            checkNotOnEventThread("get(timeout)");
+            return super.get(timeout, unit);
+        }
+
+        private void checkNotOnEventThread(String method) {
+            if (EVENT_THREAD_NAME.equals(Thread.currentThread().getName())) {
+                blockingCalls.add(method + " on " + EVENT_THREAD_NAME);
+                throw new AssertionError("Blocking " + method + " on the event dispatch thread");
+            }
+        }
+    }
+}
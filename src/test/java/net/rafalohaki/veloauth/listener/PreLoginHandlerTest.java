@@ -178,7 +178,7 @@ class PreLoginHandlerTest {
         when(authCache.getPremiumStatus(username)).thenReturn(cachedEntry);
 
         // When: Resolving premium status
-        PreLoginHandler.PremiumResolutionResult result = handler.resolvePremiumStatus(username);
+        PreLoginHandler.PremiumResolutionResult result = handler.resolvePremiumStatusAsync(username).join();
 
         // Then: Should return cached status without API call (uses record accessor methods)
         assertNotNull(result, "Result should not be null");
@@ -261,7 +261,7 @@ class PreLoginHandlerTest {
         when(authCache.getPremiumStatus(username)).thenReturn(staleEntry);
 
         // When: Resolving premium status
-        PreLoginHandler.PremiumResolutionResult result = handler.resolvePremiumStatus(username);
+        PreLoginHandler.PremiumResolutionResult result = handler.resolvePremiumStatusAsync(username).join();
 
         // Then: Should return stale data but trigger refresh (uses record accessors)
         assertNotNull(result, "Result should not be null");